@@ -75,9 +75,11 @@ public class DirectorySpooler {
     private boolean waitForPathAppearance;
     private boolean useLastModifiedTimestamp;
     private boolean processSubdirectories;
+    private boolean postProcessOnPool;
 
     private Builder() {
       postProcessing = FilePostProcessing.NONE;
+      postProcessOnPool = true;
     }
 
     public Builder setContext(Source.Context context) {
@@ -146,6 +148,15 @@ public class DirectorySpooler {
       return this;
     }
 
+    /**
+     * If false, the file returned by {@link #poolForFile(long, TimeUnit)} is not post processed on the next call,
+     * the caller must do it via {@link #postProcessFile(File)} once the file has been fully consumed.
+     */
+    public Builder postProcessOnPool(boolean postProcessOnPool) {
+      this.postProcessOnPool = postProcessOnPool;
+      return this;
+    }
+
     public DirectorySpooler build() {
       Preconditions.checkArgument(context != null, "context not specified");
       Preconditions.checkArgument(spoolDir != null, "spool dir not specified");
@@ -154,9 +165,9 @@ public class DirectorySpooler {
       if (postProcessing == FilePostProcessing.ARCHIVE) {
         Preconditions.checkArgument(archiveDir != null, "archive dir not specified");
       }
-      return new DirectorySpooler(context, spoolDir, maxSpoolFiles, pattern, postProcessing, archiveDir,
-          archiveRetentionMillis, errorArchiveDir, waitForPathAppearance, useLastModifiedTimestamp,
-          processSubdirectories
+      return new DirectorySpooler(context, spoolDir, maxSpoolFiles, pattern, postProcessing,
+          archiveDir, archiveRetentionMillis, errorArchiveDir, waitForPathAppearance, useLastModifiedTimestamp,
+          processSubdirectories, postProcessOnPool
       );
     }
   }
@@ -172,6 +183,7 @@ public class DirectorySpooler {
   private final boolean useLastModified;
   private final Comparator<Path> pathComparator;
   private final boolean processSubdirectories;
+  private final boolean postProcessOnPool;
 
   private static final String PENDING_FILES = "pending.files";
 
@@ -197,6 +209,27 @@ public class DirectorySpooler {
       FilePostProcessing postProcessing, String archiveDir, long archiveRetentionMillis,
       String errorArchiveDir, boolean waitForPathAppearance, final boolean useLastModified,
       boolean processSubdirectories
+  ) {
+    this(
+        context,
+        spoolDir,
+        maxSpoolFiles,
+        pattern,
+        postProcessing,
+        archiveDir,
+        archiveRetentionMillis,
+        errorArchiveDir,
+        waitForPathAppearance,
+        useLastModified,
+        processSubdirectories,
+        true
+    );
+  }
+
+  public DirectorySpooler(Source.Context context, String spoolDir, int maxSpoolFiles, String pattern,
+      FilePostProcessing postProcessing, String archiveDir, long archiveRetentionMillis,
+      String errorArchiveDir, boolean waitForPathAppearance, final boolean useLastModified,
+      boolean processSubdirectories, boolean postProcessOnPool
   ) {
     this.context = context;
     this.spoolDir = spoolDir;
@@ -209,6 +242,7 @@ public class DirectorySpooler {
     this.waitForPathAppearance = waitForPathAppearance;
     this.useLastModified = useLastModified;
     this.processSubdirectories = processSubdirectories;
+    this.postProcessOnPool = postProcessOnPool;
 
     pathComparator = new Comparator<Path>() {
       @Override
@@ -440,41 +474,7 @@ public class DirectorySpooler {
     Preconditions.checkState(running, "Spool directory watcher not running");
     synchronized (this) {
       if (previousFile != null && !context.isPreview()) {
-        switch (postProcessing) {
-          case NONE:
-            LOG.debug("Previous file '{}' remains in spool directory", previousFile);
-            break;
-          case DELETE:
-            try {
-              if (Files.exists(previousFile)) {
-                LOG.debug("Deleting previous file '{}'", previousFile);
-                Files.delete(previousFile);
-              } else {
-                LOG.error("failed to delete previous file '{}'", previousFile);
-              }
-            } catch (IOException ex) {
-              throw new RuntimeException(Utils.format("Could not delete file '{}', {}", previousFile, ex.toString(),
-                  ex
-              ));
-            }
-            break;
-          case ARCHIVE:
-            try {
-              if (Files.exists(previousFile)) {
-                LOG.debug("Archiving previous file '{}'", previousFile);
-                moveIt(previousFile, archiveDirPath);
-              } else {
-                LOG.error("failed to Archive previous file '{}'", previousFile);
-              }
-            } catch (IOException ex) {
-              throw new RuntimeException(Utils.format("Could not move file '{}' to archive dir {}, {}", previousFile,
-                  archiveDirPath, ex.toString(), ex
-              ));
-            }
-            break;
-          default:
-            LOG.error("poolForFile(): switch failed. postProcesing " + postProcessing.name() + " " + postProcessing.toString());
-        }
+        postProcess(previousFile);
         previousFile = null;
       }
     }
@@ -488,13 +488,61 @@ public class DirectorySpooler {
       LOG.debug("Polling for file returned '{}'", next);
       if (next != null) {
         currentFile = next;
-        previousFile = next;
+        if (postProcessOnPool) {
+          previousFile = next;
+        }
       }
     }
     pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
     return (next != null) ? next.toFile() : null;
   }
 
+  /**
+   * Post processes (deletes or archives) a file returned by {@link #poolForFile(long, TimeUnit)}, to be used when the
+   * spooler has been built with <code>postProcessOnPool(false)</code>.
+   */
+  public synchronized void postProcessFile(File file) {
+    if (!context.isPreview()) {
+      postProcess(file.toPath());
+    }
+  }
+
+  private void postProcess(Path file) {
+    switch (postProcessing) {
+      case NONE:
+        LOG.debug("File '{}' remains in spool directory", file);
+        break;
+      case DELETE:
+        try {
+          if (Files.exists(file)) {
+            LOG.debug("Deleting file '{}'", file);
+            Files.delete(file);
+          } else {
+            LOG.error("failed to delete file '{}'", file);
+          }
+        } catch (IOException ex) {
+          throw new RuntimeException(Utils.format("Could not delete file '{}', {}", file, ex.toString(), ex));
+        }
+        break;
+      case ARCHIVE:
+        try {
+          if (Files.exists(file)) {
+            LOG.debug("Archiving file '{}'", file);
+            moveIt(file, archiveDirPath);
+          } else {
+            LOG.error("failed to Archive file '{}'", file);
+          }
+        } catch (IOException ex) {
+          throw new RuntimeException(Utils.format("Could not move file '{}' to archive dir {}, {}", file,
+              archiveDirPath, ex.toString(), ex
+          ));
+        }
+        break;
+      default:
+        LOG.error("postProcess(): switch failed. postProcesing " + postProcessing.name() + " " + postProcessing.toString());
+    }
+  }
+
   public void handleCurrentFileAsError() throws IOException {
     if (errorArchiveDirPath != null && !context.isPreview()) {
       Path current = spoolDirPath.resolve(previousFile);
@@ -507,6 +555,16 @@ public class DirectorySpooler {
     }
   }
 
+  public void handleFileAsError(File file) throws IOException {
+    Path path = file.toPath();
+    if (errorArchiveDirPath != null && !context.isPreview()) {
+      LOG.error("Archiving file in error '{}' in error archive directory '{}'", path, errorArchiveDirPath);
+      moveIt(path, errorArchiveDirPath);
+    } else {
+      LOG.error("Leaving file in error '{}' in spool directory", path);
+    }
+  }
+
   // This method is a simple wrapper that lets us find the NoSuchFileException if that was the cause.
   private int compare(Path path1, Path path2) throws NoSuchFileException {
     // why not just check if the file exists? Well, there is a possibility file gets moved/archived/deleted right after
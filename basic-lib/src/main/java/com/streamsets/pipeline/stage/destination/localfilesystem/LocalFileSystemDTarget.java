@@ -29,7 +29,7 @@ import com.streamsets.pipeline.configurablestage.DTarget;
 import com.streamsets.pipeline.stage.destination.hdfs.HdfsTarget;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "Local FS",
     description = "Writes to the local file system",
     icon = "localfilesystem.png",
@@ -35,6 +35,12 @@ public class LocalFileSystemTargetUpgrader implements StageUpgrader {
     switch (fromVersion) {
       case 2:
         upgradeV2toV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall through
+      case 3:
+        upgradeV3toV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -45,4 +51,8 @@ public class LocalFileSystemTargetUpgrader implements StageUpgrader {
   private static void upgradeV2toV3(List<Config> configs) {
     DataFormatUpgradeHelper.upgradeAvroGeneratorWithSchemaRegistrySupport(configs);
   }
+
+  private static void upgradeV3toV4(List<Config> configs) {
+    configs.add(new Config("configs.fileOperationThreads", 1));
+  }
 }
@@ -140,6 +140,20 @@ public class SpoolDirConfigBean {
   )
   public long poolingTimeoutSecs;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of files read and parsed concurrently. With more than one thread records from different " +
+          "files are interleaved and files are post processed once all their records have been committed.",
+      displayPosition = 49,
+      group = "FILES",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numberOfThreads = 1;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
@@ -19,6 +19,8 @@
  */
 package com.streamsets.pipeline.stage.origin.spooldir;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.FileRef;
 import com.streamsets.pipeline.api.Record;
@@ -52,9 +54,14 @@ import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class SpoolDirSource extends BaseSource {
@@ -64,6 +71,10 @@ public class SpoolDirSource extends BaseSource {
   private static final String ZERO = "0";
   private static final String NULL_FILE = "NULL_FILE_ID-48496481-5dc5-46ce-9c31-3ab3e034730c";
   static final String PERMISSIONS = "permissions";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String LAST_FILE = "lastFile";
+  private static final String FILES = "files";
+  private static final int READER_POOL_SECS = 1;
 
   private static final String BASE_DIR = "baseDir";
 
@@ -80,6 +91,17 @@ public class SpoolDirSource extends BaseSource {
   private DataParserFactory parserFactory;
   private DataParser parser;
 
+  // used when reading several files concurrently, see produceParallel()
+  private final Object poolLock = new Object();
+  private final Map<String, String> inFlightFiles = new LinkedHashMap<>();
+  private final Map<String, String> restoredOffsets = new HashMap<>();
+  private final List<File> finishedFiles = new ArrayList<>();
+  private String lastFile;
+  private String restoredLastFile;
+  private BlockingQueue<ReadEvent> readEvents;
+  private ExecutorService readerExecutor;
+  private volatile boolean readersRunning;
+
   public SpoolDirSource(SpoolDirConfigBean conf) {
     this.conf = conf;
   }
@@ -134,6 +156,16 @@ public class SpoolDirSource extends BaseSource {
       );
     }
 
+    if (conf.numberOfThreads < 1) {
+      issues.add(
+          getContext().createConfigIssue(
+              Groups.FILES.name(),
+              SPOOLDIR_CONFIG_BEAN_PREFIX + "numberOfThreads",
+              Errors.SPOOLDIR_33
+          )
+      );
+    }
+
     validateFilePattern(issues);
 
     if (conf.maxSpoolFiles < 1) {
@@ -206,7 +238,8 @@ public class SpoolDirSource extends BaseSource {
               .setMaxSpoolFiles(conf.maxSpoolFiles)
               .setPostProcessing(DirectorySpooler.FilePostProcessing.valueOf(conf.postProcessing.name()))
               .waitForPathAppearance(waitForPathToBePresent)
-              .processSubdirectories(conf.processSubdirectories);
+              .processSubdirectories(conf.processSubdirectories)
+              .postProcessOnPool(conf.numberOfThreads == 1);
 
       if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
         builder.setArchiveDir(conf.archiveDir);
@@ -311,6 +344,7 @@ public class SpoolDirSource extends BaseSource {
 
   @Override
   public void destroy() {
+    stopReaders();
     IOUtils.closeQuietly(parser);
     if (spooler != null) {
       spooler.destroy();
@@ -404,6 +438,12 @@ public class SpoolDirSource extends BaseSource {
   @Override
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     int batchSize = Math.min(conf.batchSize, maxBatchSize);
+    if (conf.numberOfThreads > 1) {
+      return produceParallel(lastSourceOffset, batchSize, batchMaker);
+    }
+    if (lastSourceOffset != null && lastSourceOffset.startsWith("{")) {
+      lastSourceOffset = convertParallelOffset(lastSourceOffset);
+    }
     // if lastSourceOffset is NULL (beginning of source) it returns NULL
     String file = getFileFromSourceOffset(lastSourceOffset);
     String fullPath = (file != null) ? getSpooler().getSpoolDir() + "/" + file : null;
@@ -501,22 +541,7 @@ public class SpoolDirSource extends BaseSource {
     String sourceFile = file.getName();
     try {
       if (parser == null) {
-        switch (conf.dataFormat) {
-          case AVRO:
-            parser = parserFactory.getParser(file, offset);
-            break;
-          case WHOLE_FILE:
-            FileRef localFileRef = new LocalFileRef.Builder()
-                .filePath(file.getAbsolutePath())
-                .bufferSize(conf.dataFormatConfig.wholeFileMaxObjectLen)
-                .createMetrics(true)
-                .totalSizeInBytes(Files.size(file.toPath()))
-                .build();
-            parser = parserFactory.getParser(file.getName(), getFileMetadata(file), localFileRef);
-            break;
-          default:
-            parser = parserFactory.getParser(file.getName(), new FileInputStream(file), offset);
-        }
+        parser = createParser(file, offset);
       }
       int i = 0;
       while(i < maxBatchSize) {
@@ -600,6 +625,408 @@ public class SpoolDirSource extends BaseSource {
     return offset;
   }
 
+  private DataParser createParser(File file, String offset) throws IOException, DataParserException {
+    DataParser parser;
+    switch (conf.dataFormat) {
+      case AVRO:
+        parser = parserFactory.getParser(file, offset);
+        break;
+      case WHOLE_FILE:
+        FileRef localFileRef = new LocalFileRef.Builder()
+            .filePath(file.getAbsolutePath())
+            .bufferSize(conf.dataFormatConfig.wholeFileMaxObjectLen)
+            .createMetrics(true)
+            .totalSizeInBytes(Files.size(file.toPath()))
+            .build();
+        parser = parserFactory.getParser(file.getName(), getFileMetadata(file), localFileRef);
+        break;
+      default:
+        parser = parserFactory.getParser(file.getName(), new FileInputStream(file), offset);
+    }
+    return parser;
+  }
+
+  /*
+   When more than one thread is configured, each thread takes a file from the spooler and parses it with its own
+   parser, the parsed records are handed to produce() via the readEvents queue.
+
+   The offset is a JSON map with the last file taken from the spooler and the offsets of the files being read,
+   a file offset is updated only when its records are added to a batch. A fully read file keeps a '-1' offset until
+   the next produce() call, which means the batch with its last records has been committed, at that point the file is
+   post processed and dropped from the offset. On restart, files taken from the spooler that are not newer than the
+   last file and are not in the offset map have already been read and they are skipped.
+   */
+  private String produceParallel(String lastSourceOffset, int batchSize, BatchMaker batchMaker)
+      throws StageException {
+    if (readerExecutor == null) {
+      restoreParallelOffset(lastSourceOffset);
+      startReaders();
+    }
+    // records of the files finished in the previous batch have been committed
+    for (File file : finishedFiles) {
+      getSpooler().postProcessFile(file);
+      synchronized (inFlightFiles) {
+        inFlightFiles.remove(getRelativeName(file));
+      }
+    }
+    finishedFiles.clear();
+
+    int recordCount = 0;
+    try {
+      ReadEvent event = readEvents.poll(conf.poolingTimeoutSecs, TimeUnit.SECONDS);
+      if (event == null) {
+        LOG.debug("No new records available in spool directory after '{}' secs, producing empty batch",
+            conf.poolingTimeoutSecs);
+      }
+      while (event != null) {
+        if (handleReadEvent(event, batchMaker)) {
+          recordCount++;
+        }
+        event = (recordCount < batchSize) ? readEvents.poll() : null;
+      }
+    } catch (InterruptedException ex) {
+      LOG.warn("Pooling interrupted");
+    }
+    return createParallelSourceOffset();
+  }
+
+  /**
+   * Returns true if the event added a record to the batch.
+   */
+  private boolean handleReadEvent(ReadEvent event, BatchMaker batchMaker) throws StageException {
+    boolean recordAdded = false;
+    switch (event.type) {
+      case NEW_FILE:
+        SpoolDirEvents.NEW_FILE.create(getContext())
+            .with("filepath", event.file.getAbsolutePath())
+            .createAndSend();
+        break;
+      case RECORD:
+        batchMaker.addRecord(event.record);
+        setInFlightOffset(event.file, event.offset);
+        recordAdded = true;
+        break;
+      case RECORD_ERROR:
+        RecoverableDataParserException recoverableEx = (RecoverableDataParserException) event.exception;
+        errorRecordHandler.onError(
+            new OnRecordErrorException(event.record, recoverableEx.getErrorCode(), recoverableEx.getParams())
+        );
+        break;
+      case OBJECT_TOO_LONG:
+        errorRecordHandler.onError(Errors.SPOOLDIR_02, event.file.getName(), event.offset, event.exception);
+        break;
+      case FILE_ERROR:
+        switch (getContext().getOnErrorRecord()) {
+          case DISCARD:
+            finishFile(event.file);
+            break;
+          case TO_ERROR:
+            LOG.error(Errors.SPOOLDIR_01.getMessage(), event.file, event.offset, event.exception.toString(),
+                event.exception);
+            getContext().reportError(Errors.SPOOLDIR_01, event.file, event.offset, event.exception.toString(),
+                event.exception);
+            try {
+              spooler.handleFileAsError(event.file);
+            } catch (IOException ex) {
+              throw new StageException(Errors.SPOOLDIR_00, event.file, ex.toString(), ex);
+            }
+            synchronized (inFlightFiles) {
+              inFlightFiles.remove(getRelativeName(event.file));
+            }
+            break;
+          case STOP_PIPELINE:
+            getContext().reportError(Errors.SPOOLDIR_04, event.file.getName(), event.offset,
+                event.exception.toString(), event.exception);
+            throw new StageException(Errors.SPOOLDIR_04, event.file.getName(), event.offset,
+                event.exception.toString());
+          default:
+            throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+                getContext().getOnErrorRecord(), event.exception));
+        }
+        break;
+      case FINISHED_FILE:
+        finishFile(event.file);
+        break;
+      case FAILURE:
+        throw new StageException(Errors.SPOOLDIR_34, event.exception.toString(), event.exception);
+      default:
+        throw new IllegalStateException(Utils.format("Unknown read event type '{}'", event.type));
+    }
+    return recordAdded;
+  }
+
+  private void finishFile(File file) {
+    setInFlightOffset(file, MINUS_ONE);
+    finishedFiles.add(file);
+    SpoolDirEvents.FINISHED_FILE.create(getContext())
+        .with("filepath", file.getAbsolutePath())
+        .createAndSend();
+  }
+
+  private void setInFlightOffset(File file, String offset) {
+    synchronized (inFlightFiles) {
+      inFlightFiles.put(getRelativeName(file), offset);
+    }
+  }
+
+  private String getRelativeName(File file) {
+    return file.toString().replaceFirst(spooler.getSpoolDir() + "/", "");
+  }
+
+  /**
+   * True if the file comes after the given file (relative to the spool directory) in the read order.
+   */
+  private boolean isAfter(File file, String otherFile) {
+    if (otherFile == null) {
+      return true;
+    }
+    if (useLastModified) {
+      return compareFiles(file, new File(spooler.getSpoolDir(), otherFile));
+    }
+    return getRelativeName(file).compareTo(otherFile) > 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void restoreParallelOffset(String lastSourceOffset) throws StageException {
+    Map<String, String> fileOffsets = new HashMap<>();
+    if (lastSourceOffset != null && lastSourceOffset.startsWith("{")) {
+      try {
+        Map<String, Object> offset = OBJECT_MAPPER.readValue(lastSourceOffset, Map.class);
+        lastFile = (String) offset.get(LAST_FILE);
+        if (offset.get(FILES) != null) {
+          fileOffsets.putAll((Map<String, String>) offset.get(FILES));
+        }
+      } catch (IOException | ClassCastException ex) {
+        throw new StageException(Errors.SPOOLDIR_35, lastSourceOffset, ex.toString(), ex);
+      }
+    } else if (lastSourceOffset != null) {
+      // offset written while reading one file at a time
+      lastFile = getFileFromSourceOffset(lastSourceOffset);
+      if (lastFile != null) {
+        fileOffsets.put(lastFile, getOffsetFromSourceOffset(lastSourceOffset));
+      }
+    }
+    restoredLastFile = lastFile;
+    for (Map.Entry<String, String> entry : fileOffsets.entrySet()) {
+      File file = new File(spooler.getSpoolDir(), entry.getKey());
+      if (!file.exists()) {
+        LOG.warn("File '{}' in the offset is not in the spool directory anymore", file);
+      } else if (MINUS_ONE.equals(entry.getValue())) {
+        // fully read and committed, it only has to be post processed
+        finishedFiles.add(file);
+      } else {
+        restoredOffsets.put(entry.getKey(), entry.getValue());
+      }
+    }
+    inFlightFiles.putAll(restoredOffsets);
+  }
+
+  /**
+   * Converts an offset written while reading with several threads to the single thread offset, used when the number
+   * of threads goes back to 1. Reading resumes from the first file, in read order, that was not fully read, the files
+   * after it that were being read are read again from their beginning.
+   */
+  @SuppressWarnings("unchecked")
+  private String convertParallelOffset(String lastSourceOffset) throws StageException {
+    String file;
+    String offset = MINUS_ONE;
+    try {
+      Map<String, Object> parallelOffset = OBJECT_MAPPER.readValue(lastSourceOffset, Map.class);
+      file = (String) parallelOffset.get(LAST_FILE);
+      Map<String, String> fileOffsets = (Map<String, String>) parallelOffset.get(FILES);
+      if (fileOffsets != null) {
+        String firstFile = null;
+        for (Map.Entry<String, String> entry : fileOffsets.entrySet()) {
+          if (!MINUS_ONE.equals(entry.getValue()) &&
+              (firstFile == null || isAfter(new File(spooler.getSpoolDir(), firstFile), entry.getKey()))) {
+            firstFile = entry.getKey();
+            offset = entry.getValue();
+          }
+        }
+        if (firstFile != null) {
+          file = firstFile;
+        }
+      }
+    } catch (IOException | ClassCastException ex) {
+      throw new StageException(Errors.SPOOLDIR_35, lastSourceOffset, ex.toString(), ex);
+    }
+    LOG.info("Converted offset '{}' written with several threads to file '{}' offset '{}'", lastSourceOffset, file,
+        offset);
+    return (file == null) ? null : createSourceOffset(file, offset);
+  }
+
+  private String createParallelSourceOffset() throws StageException {
+    Map<String, Object> offset = new HashMap<>();
+    synchronized (inFlightFiles) {
+      offset.put(LAST_FILE, lastFile);
+      offset.put(FILES, new LinkedHashMap<>(inFlightFiles));
+    }
+    try {
+      return OBJECT_MAPPER.writeValueAsString(offset);
+    } catch (IOException ex) {
+      throw new StageException(Errors.SPOOLDIR_36, ex.toString(), ex);
+    }
+  }
+
+  private void startReaders() {
+    readEvents = new ArrayBlockingQueue<>(conf.batchSize);
+    readersRunning = true;
+    readerExecutor = Executors.newFixedThreadPool(
+        conf.numberOfThreads,
+        new ThreadFactoryBuilder().setNameFormat("SpoolDirSource-reader-%d").setDaemon(true).build()
+    );
+    for (int i = 0; i < conf.numberOfThreads; i++) {
+      readerExecutor.submit(new SpoolFileReader());
+    }
+  }
+
+  private void stopReaders() {
+    readersRunning = false;
+    if (readerExecutor != null) {
+      readerExecutor.shutdownNow();
+      try {
+        if (!readerExecutor.awaitTermination(READER_POOL_SECS * 10, TimeUnit.SECONDS)) {
+          LOG.warn("File reader threads did not finish in time");
+        }
+      } catch (InterruptedException ex) {
+        LOG.warn("Interrupted while waiting for file reader threads to finish");
+        Thread.currentThread().interrupt();
+      }
+      readerExecutor = null;
+    }
+  }
+
+  /**
+   * Takes the next file from the spooler and registers it as in flight, returns the offset to start reading the file
+   * from or NULL if the file was already read before the last restart.
+   */
+  private String startFile(File file) {
+    String name = getRelativeName(file);
+    String offset = restoredOffsets.remove(name);
+    if (offset == null) {
+      if (!isAfter(file, restoredLastFile)) {
+        return null;
+      }
+      offset = ZERO;
+    }
+    synchronized (inFlightFiles) {
+      inFlightFiles.put(name, offset);
+      if (isAfter(file, lastFile)) {
+        lastFile = name;
+      }
+    }
+    return offset;
+  }
+
+  private enum ReadEventType { NEW_FILE, RECORD, RECORD_ERROR, OBJECT_TOO_LONG, FILE_ERROR, FINISHED_FILE, FAILURE }
+
+  private static class ReadEvent {
+    private final ReadEventType type;
+    private final File file;
+    private final Record record;
+    private final String offset;
+    private final Exception exception;
+
+    ReadEvent(ReadEventType type, File file, Record record, String offset, Exception exception) {
+      this.type = type;
+      this.file = file;
+      this.record = record;
+      this.offset = offset;
+      this.exception = exception;
+    }
+  }
+
+  private class SpoolFileReader implements Runnable {
+
+    @Override
+    public void run() {
+      try {
+        while (readersRunning) {
+          File file;
+          String offset;
+          synchronized (poolLock) {
+            file = getSpooler().poolForFile(READER_POOL_SECS, TimeUnit.SECONDS);
+            offset = (file != null) ? startFile(file) : null;
+          }
+          if (file != null && offset == null) {
+            LOG.warn("Ignoring file '{}' in spool directory as it was already read", file);
+          } else if (file != null) {
+            readFile(file, offset);
+          }
+        }
+      } catch (InterruptedException ex) {
+        LOG.debug("File reader interrupted");
+      } catch (RuntimeException ex) {
+        LOG.error("File reader failed: {}", ex.toString(), ex);
+        try {
+          enqueue(new ReadEvent(ReadEventType.FAILURE, null, null, null, ex));
+        } catch (InterruptedException ex1) {
+          LOG.debug("File reader interrupted");
+        }
+      }
+    }
+
+    private void readFile(File file, String offset) throws InterruptedException {
+      enqueue(new ReadEvent(ReadEventType.NEW_FILE, file, null, offset, null));
+      ReadEvent errorEvent = null;
+      DataParser parser = null;
+      try {
+        parser = createParser(file, offset);
+        while (readersRunning) {
+          Record record;
+          try {
+            record = parser.parse();
+          } catch (RecoverableDataParserException ex) {
+            record = ex.getUnparsedRecord();
+            setHeaders(record, file, offset);
+            enqueue(new ReadEvent(ReadEventType.RECORD_ERROR, file, record, offset, ex));
+            continue;
+          } catch (ObjectLengthException ex) {
+            enqueue(new ReadEvent(ReadEventType.OBJECT_TOO_LONG, file, null, offset, ex));
+            continue;
+          }
+          if (record == null) {
+            enqueue(new ReadEvent(ReadEventType.FINISHED_FILE, file, null, MINUS_ONE, null));
+            break;
+          }
+          setHeaders(record, file, offset);
+          offset = parser.getOffset();
+          enqueue(new ReadEvent(ReadEventType.RECORD, file, record, offset, null));
+        }
+      } catch (IOException | DataParserException ex) {
+        if (ex instanceof ClosedByInterruptException || ex.getCause() instanceof ClosedByInterruptException) {
+          // the pipeline is being stopped
+          LOG.debug("Reading file '{}' interrupted", file);
+        } else {
+          String exOffset;
+          if (ex instanceof OverrunException) {
+            exOffset = String.valueOf(((OverrunException) ex).getStreamOffset());
+          } else {
+            try {
+              exOffset = (parser != null) ? parser.getOffset() : MINUS_ONE;
+            } catch (IOException ex1) {
+              LOG.warn("Could not get the file offset to report with error, reason: {}", ex1.toString(), ex);
+              exOffset = MINUS_ONE;
+            }
+          }
+          errorEvent = new ReadEvent(ReadEventType.FILE_ERROR, file, null, exOffset, ex);
+        }
+      } finally {
+        IOUtils.closeQuietly(parser);
+      }
+      if (errorEvent != null) {
+        // the parser is closed before the file is handed over for error handling
+        enqueue(errorEvent);
+      }
+    }
+
+    private void enqueue(ReadEvent event) throws InterruptedException {
+      while (readersRunning && !readEvents.offer(event, READER_POOL_SECS, TimeUnit.SECONDS)) {
+        LOG.trace("Waiting for records to be consumed");
+      }
+    }
+  }
+
   private void setHeaders(Record record, File file, String offset) {
     record.getHeader().setAttribute(HeaderAttributeConstants.FILE, file.getPath());
     record.getHeader().setAttribute(HeaderAttributeConstants.FILE_NAME, file.getName());
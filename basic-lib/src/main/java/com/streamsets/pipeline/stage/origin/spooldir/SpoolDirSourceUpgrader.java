@@ -36,6 +36,7 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
   private static final String DATA_FORMAT_CONFIG= "dataFormatConfig";
   private static final String FILE_COMPRESSION = "fileCompression";
   private static final String ALLOW_LATE_DIRECTORY = "allowLateDirectory";
+  private static final String NUMBER_OF_THREADS = "numberOfThreads";
   private static final Joiner joiner = Joiner.on(".");
 
   private final List<Config> configsToRemove = new ArrayList<>();
@@ -83,6 +84,12 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
         // fall through
       case 7:
         upgradeV7ToV8(configs);
+        if (toVersion == 8) {
+          break;
+        }
+        // fall through
+      case 8:
+        upgradeV8ToV9(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -90,6 +97,10 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private void upgradeV8ToV9(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, NUMBER_OF_THREADS), 1));
+  }
+
   private void upgradeV7ToV8(List<Config> configs) {
     DataFormatUpgradeHelper.upgradeAvroParserWithSchemaRegistrySupport(configs);
   }
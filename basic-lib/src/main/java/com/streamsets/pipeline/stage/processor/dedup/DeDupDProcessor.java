@@ -33,13 +33,14 @@ import com.streamsets.pipeline.configurablestage.DProcessor;
 import java.util.List;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Record Deduplicator",
     description = "Separates unique and duplicate records based on field comparison",
     icon="dedup.png",
     outputStreams = OutputStreams.class,
     execution = ExecutionMode.STANDALONE,
-    onlineHelpRefUrl = "index.html#Processors/RDeduplicator.html#task_ikr_c2f_zq"
+    onlineHelpRefUrl = "index.html#Processors/RDeduplicator.html#task_ikr_c2f_zq",
+    upgrader = DeDupProcessorUpgrader.class
 )
 @ConfigGroups(Groups.class)
 @HideConfigs(onErrorRecord = true)
@@ -94,9 +95,35 @@ public class DeDupDProcessor extends DProcessor {
   @FieldSelectorModel
   public List<String> fieldsToCompare;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Persist Across Restarts",
+      description = "Keeps the record hashes in an off-heap file so they do not use heap memory and are not lost " +
+          "when the pipeline restarts. Hashes are added once their batch has been processed by the whole pipeline, " +
+          "the runner threads of the pipeline share the file",
+      displayPosition = 50,
+      group = "DE_DUP"
+  )
+  public boolean persistIndex;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Index Directory",
+      description = "Existing directory, used only by this pipeline, for the file with the record hashes",
+      displayPosition = 60,
+      group = "DE_DUP",
+      dependsOn = "persistIndex",
+      triggeredByValue = "true"
+  )
+  public String indexDirectory;
+
   @Override
   protected Processor createProcessor() {
-    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare);
+    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, persistIndex,
+        indexDirectory);
   }
 
 }
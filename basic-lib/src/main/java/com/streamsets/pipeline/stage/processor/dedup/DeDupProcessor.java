@@ -24,31 +24,48 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.RecordProcessor;
 import com.streamsets.pipeline.lib.hashing.HashingUtil;
 import com.streamsets.pipeline.lib.queue.XEvictingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class DeDupProcessor extends RecordProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(DeDupProcessor.class);
   private static final long MEMORY_USAGE_PER_HASH = 85;
 
   private final  int recordCountWindow;
   private final  int timeWindowSecs;
   private final  SelectFields compareFields;
   private final  List<String> fieldsToCompare;
+  private final  boolean persistIndex;
+  private final  String indexDirectory;
 
   public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
       SelectFields compareFields, List<String> fieldsToCompare) {
+    this(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, false, null);
+  }
+
+  public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
+      SelectFields compareFields, List<String> fieldsToCompare, boolean persistIndex, String indexDirectory) {
     this.recordCountWindow = recordCountWindow;
     this.timeWindowSecs = timeWindowSecs;
     this.compareFields = compareFields;
     this.fieldsToCompare = fieldsToCompare;
+    this.persistIndex = persistIndex;
+    this.indexDirectory = indexDirectory;
   }
 
   private static final Object VOID = new Object();
@@ -57,6 +74,11 @@ public class DeDupProcessor extends RecordProcessor {
   private HashingUtil.RecordFunnel funnel;
   private Cache<HashCode, Object> hashCache;
   private XEvictingQueue<HashCode> hashBuffer;
+  private MappedHashIndex hashIndex;
+  // hashes of the unique records of the current batch with the time they were seen, they are added to the persisted
+  // index once the batch has gone through the whole pipeline, so a failed batch replayed later is not deduplicated
+  // against itself
+  private Map<HashCode, Long> batchHashes;
   private String uniqueLane;
   private String duplicateLane;
 
@@ -78,28 +100,52 @@ public class DeDupProcessor extends RecordProcessor {
       issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "compareFields", Errors.DEDUP_02));
     }
 
-    long estimatedMemory = MEMORY_USAGE_PER_HASH * recordCountWindow;
-    long maxPipelineMemoryBytes = getContext().getPipelineMaxMemory() * 1000 * 1000;
-    if (estimatedMemory > maxPipelineMemoryBytes) {
-      issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "recordCountWindow", Errors.DEDUP_03,
-        recordCountWindow, estimatedMemory / (1000 * 1000), getContext().getPipelineMaxMemory()));
-        //MiB to bytes conversion, use  1000 * 1000 instead of 1024 * 1024
+    if (persistIndex) {
+      File dir = (indexDirectory == null) ? null : new File(indexDirectory);
+      if (dir == null || !dir.isDirectory() || !dir.canWrite()) {
+        issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "indexDirectory", Errors.DEDUP_04,
+          indexDirectory));
+      }
+    } else {
+      // the persisted index is off-heap, only the in heap one is bound by the pipeline max memory
+      long estimatedMemory = MEMORY_USAGE_PER_HASH * recordCountWindow;
+      long maxPipelineMemoryBytes = getContext().getPipelineMaxMemory() * 1000 * 1000;
+      if (estimatedMemory > maxPipelineMemoryBytes) {
+        issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "recordCountWindow", Errors.DEDUP_03,
+          recordCountWindow, estimatedMemory / (1000 * 1000), getContext().getPipelineMaxMemory()));
+          //MiB to bytes conversion, use  1000 * 1000 instead of 1024 * 1024
+      }
     }
     if (issues.isEmpty()) {
       hasher = HashingUtil.getHasher(HashingUtil.HashType.MURMUR3_128);
       funnel = (compareFields == SelectFields.ALL_FIELDS) ? HashingUtil.getRecordFunnel(Collections.EMPTY_LIST) :
           HashingUtil.getRecordFunnel(fieldsToCompare);
-      CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
-      if (timeWindowSecs > 0) {
-        cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
-      }
-      hashCache = cacheBuilder.build(new CacheLoader<HashCode, Object>() {
-        @Override
-        public Object load(HashCode key) throws Exception {
-          return VOID;
+      if (persistIndex) {
+        File indexFile = new File(indexDirectory, getInfo().getInstanceName() + ".dedup");
+        try {
+          // the instances of this stage on the runner threads of the pipeline share the pipeline info list, they
+          // share the index as well
+          hashIndex = MappedHashIndex.acquire(indexFile, recordCountWindow, timeWindowSecs,
+              getContext().getPipelineInfo());
+          batchHashes = new LinkedHashMap<>();
+          LOG.debug("Using {}", hashIndex);
+        } catch (IOException ex) {
+          issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "indexDirectory", Errors.DEDUP_05,
+            indexFile, ex.toString(), ex));
+        }
+      } else {
+        CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
+        if (timeWindowSecs > 0) {
+          cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
         }
-      });
-      hashBuffer = XEvictingQueue.create(recordCountWindow);
+        hashCache = cacheBuilder.build(new CacheLoader<HashCode, Object>() {
+          @Override
+          public Object load(HashCode key) throws Exception {
+            return VOID;
+          }
+        });
+        hashBuffer = XEvictingQueue.create(recordCountWindow);
+      }
       hashAttrName = getInfo() + ".hash";
       uniqueLane = getContext().getOutputLanes().get(OutputStreams.UNIQUE.ordinal());
       duplicateLane = getContext().getOutputLanes().get(OutputStreams.DUPLICATE.ordinal());
@@ -111,7 +157,13 @@ public class DeDupProcessor extends RecordProcessor {
     boolean dup = true;
     HashCode hash = hasher.hashObject(record, funnel);
     record.getHeader().setAttribute(hashAttrName, hash.toString());
-    if (hashCache.getIfPresent(hash) == null) {
+    if (hashIndex != null) {
+      long now = System.currentTimeMillis();
+      dup = batchHashes.containsKey(hash) || hashIndex.contains(hash, now);
+      if (!dup) {
+        batchHashes.put(hash, now);
+      }
+    } else if (hashCache.getIfPresent(hash) == null) {
       hashCache.put(hash, VOID);
       HashCode evicted = hashBuffer.addAndGetEvicted(hash);
       if (evicted != null) {
@@ -122,6 +174,22 @@ public class DeDupProcessor extends RecordProcessor {
     return dup;
   }
 
+  @Override
+  public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+    // a new batch only reaches this stage after the previous one went through all the stages without errors
+    commitBatchHashes();
+    super.process(batch, batchMaker);
+  }
+
+  private void commitBatchHashes() {
+    if (hashIndex != null) {
+      for (Map.Entry<HashCode, Long> entry : batchHashes.entrySet()) {
+        hashIndex.addIfAbsent(entry.getKey(), entry.getValue());
+      }
+      batchHashes.clear();
+    }
+  }
+
   @Override
   protected void process(Record record, BatchMaker batchMaker) throws StageException {
     if (duplicateCheck(record)) {
@@ -131,4 +199,21 @@ public class DeDupProcessor extends RecordProcessor {
     }
   }
 
+  @Override
+  public void destroy() {
+    if (hashIndex != null) {
+      // on a requested stop the last batch completes, if the pipeline failed the batch will be read again
+      if (getContext().isStopped()) {
+        commitBatchHashes();
+      }
+      try {
+        hashIndex.release();
+      } catch (IOException ex) {
+        LOG.warn("Could not close {}: {}", hashIndex, ex.toString(), ex);
+      }
+      hashIndex = null;
+    }
+    super.destroy();
+  }
+
 }
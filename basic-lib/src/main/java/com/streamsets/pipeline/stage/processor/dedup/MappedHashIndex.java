@@ -0,0 +1,351 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the record hashes seen within a record count window and an optional time window. The index lives in a
+ * memory-mapped file, it does not use heap memory and it survives pipeline restarts.
+ * <p/>
+ * The file has a header, a ring with the hashes and their timestamps in insertion order and an open addressing hash
+ * table pointing to the ring entries. Hashes are always evicted from the oldest one, because the ring is full or
+ * because the hash is older than the time window, so the ring enforces both windows.
+ * <p/>
+ * Changes are written to the mapped file as hashes are added, the operating system writes them to disk. They are
+ * forced to disk on {@link #close()}.
+ * <p/>
+ * The instances of a stage running on several runner threads of the same pipeline share the index through
+ * {@link #acquire(File, int, int, Object)}, the index methods are thread safe.
+ */
+public class MappedHashIndex implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(MappedHashIndex.class);
+
+  private static final int MAGIC = 0x44444958;
+  private static final int VERSION = 1;
+
+  private static final int MAGIC_POS = 0;
+  private static final int VERSION_POS = 4;
+  private static final int COUNT_WINDOW_POS = 8;
+  private static final int TIME_WINDOW_POS = 12;
+  private static final int HEAD_POS = 16;
+  private static final int TAIL_POS = 24;
+  private static final int HEADER_SIZE = 64;
+
+  // 16 bytes Murmur3-128 hash plus 8 bytes timestamp
+  private static final int ENTRY_SIZE = 24;
+  private static final int SLOT_SIZE = 4;
+
+  // mapped buffers are limited to 2GB, entries and slots are aligned so they never span two segments
+  private static final int SEGMENT_BITS = 30;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+  // indexes opened with acquire(), by canonical file
+  private static final Map<File, MappedHashIndex> SHARED = new HashMap<>();
+
+  private final File file;
+  private final int countWindow;
+  private final long timeWindowMillis;
+  private final long tableOffset;
+  private final long tableMask;
+  private final RandomAccessFile raf;
+  private final FileLock lock;
+  private final MappedByteBuffer[] segments;
+  // sequence of the next hash to add and of the oldest hash in the index
+  private long head;
+  private long tail;
+  private boolean closed;
+  // set for indexes opened with acquire()
+  private File sharedKey;
+  private Object owner;
+  private int references;
+
+  public MappedHashIndex(File file, int countWindow, int timeWindowSecs) throws IOException {
+    Preconditions.checkArgument(countWindow > 0, Utils.formatL("Invalid count window '{}'", countWindow));
+    this.file = file;
+    this.countWindow = countWindow;
+    this.timeWindowMillis = timeWindowSecs * 1000L;
+    // at least twice as many slots as entries to keep probe sequences short
+    long tableSize = Long.highestOneBit(2L * countWindow - 1) << 1;
+    tableMask = tableSize - 1;
+    tableOffset = HEADER_SIZE + (long) countWindow * ENTRY_SIZE;
+    long fileSize = tableOffset + tableSize * SLOT_SIZE;
+
+    raf = new RandomAccessFile(file, "rw");
+    try {
+      lock = tryLock(raf.getChannel());
+      if (lock == null) {
+        throw new IOException(Utils.format("Index file '{}' is in use", file));
+      }
+      boolean reuse = isCompatible(fileSize);
+      if (!reuse) {
+        if (raf.length() > 0) {
+          LOG.info("Index file '{}' was created with different windows, discarding it", file);
+        }
+        // truncating first zeroes the whole file, an empty table
+        raf.setLength(0);
+        raf.setLength(fileSize);
+      }
+      segments = map(raf.getChannel(), fileSize);
+      if (reuse) {
+        head = getLong(HEAD_POS);
+        tail = getLong(TAIL_POS);
+        LOG.debug("Reusing index file '{}' with '{}' hashes", file, head - tail);
+      } else {
+        putInt(MAGIC_POS, MAGIC);
+        putInt(VERSION_POS, VERSION);
+        putInt(COUNT_WINDOW_POS, countWindow);
+        putInt(TIME_WINDOW_POS, timeWindowSecs);
+        putLong(HEAD_POS, 0);
+        putLong(TAIL_POS, 0);
+      }
+    } catch (IOException | RuntimeException ex) {
+      raf.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the shared index for the given file, opening it if it is not open yet. Callers passing the same owner,
+   * i.e. the instances of a stage running on several runner threads, get the same index. While it is open, callers
+   * with a different owner get an IOException, as with an index file locked by another process.
+   * <p/>
+   * Every index returned by this method must be released with {@link #release()}.
+   */
+  public static MappedHashIndex acquire(File file, int countWindow, int timeWindowSecs, Object owner)
+      throws IOException {
+    File key = file.getCanonicalFile();
+    synchronized (SHARED) {
+      MappedHashIndex index = SHARED.get(key);
+      if (index == null) {
+        index = new MappedHashIndex(file, countWindow, timeWindowSecs);
+        index.sharedKey = key;
+        index.owner = owner;
+        SHARED.put(key, index);
+      } else if (index.owner != owner) {
+        throw new IOException(Utils.format("Index file '{}' is in use", file));
+      }
+      index.references++;
+      return index;
+    }
+  }
+
+  /**
+   * Releases an index returned by {@link #acquire(File, int, int, Object)}, the last release closes it.
+   */
+  public void release() throws IOException {
+    Utils.checkState(sharedKey != null, "Index was not acquired");
+    synchronized (SHARED) {
+      if (--references == 0) {
+        SHARED.remove(sharedKey);
+        close();
+      }
+    }
+  }
+
+  private static FileLock tryLock(FileChannel channel) throws IOException {
+    try {
+      return channel.tryLock();
+    } catch (OverlappingFileLockException ex) {
+      // locked by this JVM, another pipeline using the same directory
+      return null;
+    }
+  }
+
+  private boolean isCompatible(long fileSize) throws IOException {
+    if (raf.length() != fileSize) {
+      return false;
+    }
+    raf.seek(0);
+    return raf.readInt() == MAGIC && raf.readInt() == VERSION && raf.readInt() == countWindow &&
+        raf.readInt() * 1000L == timeWindowMillis;
+  }
+
+  private static MappedByteBuffer[] map(FileChannel channel, long size) throws IOException {
+    int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+    MappedByteBuffer[] segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      long position = (long) i << SEGMENT_BITS;
+      segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(SEGMENT_MASK + 1, size - position));
+    }
+    return segments;
+  }
+
+  /**
+   * Returns the number of hashes in the index.
+   */
+  public synchronized long size() {
+    return head - tail;
+  }
+
+  /**
+   * Adds the hash to the index if it is not there, returns false if the hash was already in the index.
+   * <p/>
+   * Hashes older than the time window, relative to the given time, are evicted first.
+   */
+  public synchronized boolean addIfAbsent(HashCode hash, long now) {
+    Utils.checkState(!closed, "Index has been closed");
+    if (timeWindowMillis > 0) {
+      long expiration = now - timeWindowMillis;
+      while (head > tail && getLong(entryPosition(tail) + 16) <= expiration) {
+        evictOldest();
+      }
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+    long h1 = bytes.getLong(0);
+    long h2 = bytes.getLong(8);
+    if (findSlot(h1, h2) >= 0) {
+      return false;
+    }
+    if (head - tail == countWindow) {
+      evictOldest();
+    }
+    long slot = h1 & tableMask;
+    while (getInt(slotPosition(slot)) != 0) {
+      slot = (slot + 1) & tableMask;
+    }
+    long entry = entryPosition(head);
+    putLong(entry, h1);
+    putLong(entry + 8, h2);
+    putLong(entry + 16, now);
+    putInt(slotPosition(slot), (int) (head % countWindow) + 1);
+    head++;
+    putLong(HEAD_POS, head);
+    return true;
+  }
+
+  /**
+   * Returns true if the hash is in the index and, with a time window, it is not older than the window relative to the
+   * given time. It does not modify the index.
+   */
+  public synchronized boolean contains(HashCode hash, long now) {
+    Utils.checkState(!closed, "Index has been closed");
+    ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+    long slot = findSlot(bytes.getLong(0), bytes.getLong(8));
+    if (slot < 0) {
+      return false;
+    }
+    if (timeWindowMillis > 0) {
+      long entry = HEADER_SIZE + (long) (getInt(slotPosition(slot)) - 1) * ENTRY_SIZE;
+      return getLong(entry + 16) > now - timeWindowMillis;
+    }
+    return true;
+  }
+
+  // returns the table slot of the hash, -1 if not found
+  private long findSlot(long h1, long h2) {
+    long slot = h1 & tableMask;
+    int ref;
+    while ((ref = getInt(slotPosition(slot))) != 0) {
+      long entry = HEADER_SIZE + (long) (ref - 1) * ENTRY_SIZE;
+      if (getLong(entry) == h1 && getLong(entry + 8) == h2) {
+        return slot;
+      }
+      slot = (slot + 1) & tableMask;
+    }
+    return -1;
+  }
+
+  private void evictOldest() {
+    long entry = entryPosition(tail);
+    long slot = findSlot(getLong(entry), getLong(entry + 8));
+    if (slot >= 0) {
+      removeSlot(slot);
+    }
+    tail++;
+    putLong(TAIL_POS, tail);
+  }
+
+  // backward shift deletion, keeps the probe sequences of the following slots unbroken without tombstones
+  private void removeSlot(long hole) {
+    long next = (hole + 1) & tableMask;
+    int ref;
+    while ((ref = getInt(slotPosition(next))) != 0) {
+      long home = getLong(HEADER_SIZE + (long) (ref - 1) * ENTRY_SIZE) & tableMask;
+      if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+        putInt(slotPosition(hole), ref);
+        hole = next;
+      }
+      next = (next + 1) & tableMask;
+    }
+    putInt(slotPosition(hole), 0);
+  }
+
+  private long entryPosition(long sequence) {
+    return HEADER_SIZE + (sequence % countWindow) * ENTRY_SIZE;
+  }
+
+  private long slotPosition(long slot) {
+    return tableOffset + slot * SLOT_SIZE;
+  }
+
+  private long getLong(long position) {
+    return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT_MASK));
+  }
+
+  private void putLong(long position, long value) {
+    segments[(int) (position >>> SEGMENT_BITS)].putLong((int) (position & SEGMENT_MASK), value);
+  }
+
+  private int getInt(long position) {
+    return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+  }
+
+  private void putInt(long position, int value) {
+    segments[(int) (position >>> SEGMENT_BITS)].putInt((int) (position & SEGMENT_MASK), value);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      try {
+        for (MappedByteBuffer segment : segments) {
+          segment.force();
+        }
+      } finally {
+        lock.release();
+        raf.close();
+      }
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return Utils.format("MappedHashIndex[file='{}' hashes='{}']", file, size());
+  }
+
+}
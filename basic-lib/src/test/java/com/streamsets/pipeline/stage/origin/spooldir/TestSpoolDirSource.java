@@ -20,6 +20,7 @@
 package com.streamsets.pipeline.stage.origin.spooldir;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
@@ -41,7 +42,10 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public class TestSpoolDirSource {
@@ -571,4 +575,125 @@ public class TestSpoolDirSource {
     }
   }
 
+  private SpoolDirConfigBean createParallelConf(int files, int linesPerFile) throws Exception {
+    SpoolDirConfigBean conf = new SpoolDirConfigBean();
+    conf.dataFormat = DataFormat.TEXT;
+    conf.spoolDir = createTestDir();
+    conf.numberOfThreads = 3;
+    conf.batchSize = 10;
+    conf.overrunLimit = 100;
+    conf.poolingTimeoutSecs = 1;
+    conf.filePattern = "file-[0-9].log";
+    conf.maxSpoolFiles = 10;
+    conf.dataFormatConfig.compression = Compression.NONE;
+    conf.dataFormatConfig.filePatternInArchive = "*";
+    conf.errorArchiveDir = null;
+    conf.postProcessing = PostProcessingOptions.NONE;
+    conf.retentionTimeMins = 10;
+    conf.dataFormatConfig.textMaxLineLen = 20;
+    conf.dataFormatConfig.onParseError = OnParseError.ERROR;
+    conf.dataFormatConfig.maxStackTraceLines = 0;
+
+    long timestamp = System.currentTimeMillis() - 100000;
+    for (int i = 0; i < files; i++) {
+      File file = new File(conf.spoolDir, Utils.format("file-{}.log", i));
+      List<String> lines = new ArrayList<>();
+      for (int j = 0; j < linesPerFile; j++) {
+        lines.add(Utils.format("line-{}-{}", i, j));
+      }
+      try (FileOutputStream outputStream = new FileOutputStream(file)) {
+        IOUtils.writeLines(lines, "\n", outputStream);
+      }
+      Assert.assertTrue(file.setLastModified(timestamp));
+    }
+    return conf;
+  }
+
+  @Test
+  public void testParallelReading() throws Exception {
+    SpoolDirConfigBean conf = createParallelConf(4, 5);
+    conf.postProcessing = PostProcessingOptions.ARCHIVE;
+    conf.archiveDir = createTestDir();
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    SourceRunner runner = new SourceRunner.Builder(SpoolDirSource.class, source).addOutputLane("lane").build();
+    runner.runInit();
+    try {
+      Set<String> lines = new HashSet<>();
+      String lastOffset = null;
+      for (int i = 0; i < 20 && lines.size() < 20; i++) {
+        StageRunner.Output output = runner.runProduce(lastOffset, 10);
+        lastOffset = output.getNewOffset();
+        List<Record> records = output.getRecords().get("lane");
+        Assert.assertTrue(records.size() <= 10);
+        for (Record record : records) {
+          Assert.assertTrue(lines.add(record.get("/text").getValueAsString()));
+        }
+      }
+      Assert.assertEquals(20, lines.size());
+      for (int i = 0; i < 4; i++) {
+        for (int j = 0; j < 5; j++) {
+          Assert.assertTrue(lines.contains(Utils.format("line-{}-{}", i, j)));
+        }
+      }
+
+      // files are post processed once the batch with their last records has been committed
+      StageRunner.Output output = runner.runProduce(lastOffset, 10);
+      Assert.assertTrue(output.getRecords().get("lane").isEmpty());
+      Assert.assertEquals(0, new File(conf.spoolDir).list().length);
+      Assert.assertEquals(4, new File(conf.archiveDir).list().length);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testParallelReadingFromSingleThreadOffset() throws Exception {
+    SpoolDirConfigBean conf = createParallelConf(3, 2);
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    SourceRunner runner = new SourceRunner.Builder(SpoolDirSource.class, source).addOutputLane("lane").build();
+    runner.runInit();
+    try {
+      // file-0.log was fully read, file-1.log was read up to its first line
+      String lastOffset = source.createSourceOffset("file-1.log", "9");
+      Set<String> lines = new HashSet<>();
+      for (int i = 0; i < 10 && lines.size() < 3; i++) {
+        StageRunner.Output output = runner.runProduce(lastOffset, 10);
+        lastOffset = output.getNewOffset();
+        for (Record record : output.getRecords().get("lane")) {
+          Assert.assertTrue(lines.add(record.get("/text").getValueAsString()));
+        }
+      }
+      Assert.assertEquals(ImmutableSet.of("line-1-1", "line-2-0", "line-2-1"), lines);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testSingleThreadReadingFromParallelOffset() throws Exception {
+    SpoolDirConfigBean conf = createParallelConf(3, 2);
+    conf.numberOfThreads = 1;
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    SourceRunner runner = new SourceRunner.Builder(SpoolDirSource.class, source).addOutputLane("lane").build();
+    runner.runInit();
+    try {
+      // file-0.log was fully read, file-1.log was read up to its first line, file-2.log was just taken
+      String lastOffset = "{\"lastFile\":\"file-2.log\",\"files\":{\"file-2.log\":\"0\",\"file-1.log\":\"9\"}}";
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 10 && lines.size() < 3; i++) {
+        StageRunner.Output output = runner.runProduce(lastOffset, 10);
+        lastOffset = output.getNewOffset();
+        for (Record record : output.getRecords().get("lane")) {
+          lines.add(record.get("/text").getValueAsString());
+        }
+      }
+      Assert.assertEquals(ImmutableList.of("line-1-1", "line-2-0", "line-2-1"), lines);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
 }
@@ -55,4 +55,14 @@ public class TestSpoolDirSourceUpgrader {
     Assert.assertEquals(FileOrdering.LEXICOGRAPHICAL.name(), upgrade.get(8).getValue());
   }
 
+  @Test
+  public void testSpoolDirSourceUpgraderV8ToV9() throws StageException {
+    SpoolDirSourceUpgrader spoolDirSourceUpgrader = new SpoolDirSourceUpgrader();
+
+    List<Config> upgrade = spoolDirSourceUpgrader.upgrade("x", "y", "z", 8, 9, new ArrayList<Config>());
+    Assert.assertEquals(1, upgrade.size());
+    Assert.assertEquals("conf.numberOfThreads", upgrade.get(0).getName());
+    Assert.assertEquals(1, upgrade.get(0).getValue());
+  }
+
 }
@@ -30,12 +30,14 @@ import com.streamsets.pipeline.sdk.StageRunner;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class TestDeDupProcessor {
 
@@ -468,6 +470,90 @@ public class TestDeDupProcessor {
     return record;
   }
 
+  @Test
+  public void testPersistedIndexAcrossRestarts() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true,
+        dir.getAbsolutePath());
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+    try {
+      List<Record> input = ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("b"),
+          createRecordWithValue("a"));
+      StageRunner.Output output = runner.runProcess(input);
+      Assert.assertEquals(2, output.getRecords().get("unique").size());
+      Assert.assertEquals(1, output.getRecords().get("duplicate").size());
+      // the first batch is added to the index when the next one arrives
+      output = runner.runProcess(ImmutableList.of(createRecordWithValue("c")));
+      Assert.assertEquals(1, output.getRecords().get("unique").size());
+    } finally {
+      // not stopped, as after a failure: the last batch is not added to the index, it will be read again
+      runner.runDestroy();
+    }
+
+    processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true,
+        dir.getAbsolutePath());
+    runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+    try {
+      List<Record> input = ImmutableList.of(createRecordWithValue("a"), createRecordWithValue("c"));
+      StageRunner.Output output = runner.runProcess(input);
+      Assert.assertEquals(1, output.getRecords().get("unique").size());
+      Assert.assertEquals(1, output.getRecords().get("duplicate").size());
+      Assert.assertEquals("a", output.getRecords().get("duplicate").get(0).get("/value").getValueAsString());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testPersistedIndexInUseByAnotherPipeline() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+
+    ProcessorRunner runner1 = new ProcessorRunner.Builder(DeDupDProcessor.class,
+        new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true, dir.getAbsolutePath()))
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    ProcessorRunner runner2 = new ProcessorRunner.Builder(DeDupDProcessor.class,
+        new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true, dir.getAbsolutePath()))
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner1.runInit();
+    try {
+      // a different pipeline cannot use the index while it is open
+      try {
+        runner2.runInit();
+        Assert.fail();
+      } catch (StageException ex) {
+        // expected
+      }
+    } finally {
+      runner1.runDestroy();
+    }
+  }
+
+  @Test(expected = StageException.class)
+  public void testPersistedIndexInvalidDirectory() throws Exception {
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST, true,
+        new File("target", UUID.randomUUID().toString()).getAbsolutePath());
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+  }
+
   private long getDefaultMemoryLimitMiB() {
     long maxMemoryMiB = Runtime.getRuntime().maxMemory() / 1000 / 1000;
     return (long)(maxMemoryMiB * 0.65);
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class TestMappedHashIndex {
+  private static final HashFunction HASHER = Hashing.murmur3_128();
+
+  private File file;
+
+  @Before
+  public void setUp() {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    file = new File(dir, "index.dedup");
+  }
+
+  private static HashCode hash(int value) {
+    return HASHER.hashInt(value);
+  }
+
+  @Test
+  public void testAddIfAbsent() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 0)) {
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(2), 0));
+      Assert.assertFalse(index.addIfAbsent(hash(1), 0));
+      Assert.assertEquals(2, index.size());
+    }
+  }
+
+  @Test
+  public void testCountWindow() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 2, 0)) {
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(2), 0));
+      // evicts 1
+      Assert.assertTrue(index.addIfAbsent(hash(3), 0));
+      Assert.assertEquals(2, index.size());
+      Assert.assertFalse(index.addIfAbsent(hash(2), 0));
+      Assert.assertFalse(index.addIfAbsent(hash(3), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+    }
+  }
+
+  @Test
+  public void testTimeWindow() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 1)) {
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(2), 500));
+      Assert.assertFalse(index.addIfAbsent(hash(1), 999));
+      // 1 expires
+      Assert.assertTrue(index.addIfAbsent(hash(1), 1000));
+      Assert.assertEquals(2, index.size());
+      Assert.assertFalse(index.addIfAbsent(hash(2), 1499));
+      Assert.assertTrue(index.addIfAbsent(hash(2), 1500));
+    }
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 0)) {
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(2), 0));
+    }
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 0)) {
+      Assert.assertEquals(2, index.size());
+      Assert.assertFalse(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(3), 0));
+    }
+    // different windows discard the index
+    try (MappedHashIndex index = new MappedHashIndex(file, 20, 0)) {
+      Assert.assertEquals(0, index.size());
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+    }
+  }
+
+  @Test(expected = java.io.IOException.class)
+  public void testIndexInUse() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 0)) {
+      new MappedHashIndex(file, 10, 0);
+    }
+  }
+
+  @Test
+  public void testContains() throws Exception {
+    try (MappedHashIndex index = new MappedHashIndex(file, 10, 1)) {
+      Assert.assertFalse(index.contains(hash(1), 0));
+      Assert.assertTrue(index.addIfAbsent(hash(1), 0));
+      Assert.assertTrue(index.contains(hash(1), 999));
+      // older than the time window
+      Assert.assertFalse(index.contains(hash(1), 1000));
+      Assert.assertEquals(1, index.size());
+    }
+  }
+
+  @Test
+  public void testAcquire() throws Exception {
+    Object owner = new Object();
+    MappedHashIndex index = MappedHashIndex.acquire(file, 10, 0, owner);
+    Assert.assertSame(index, MappedHashIndex.acquire(file, 10, 0, owner));
+    try {
+      MappedHashIndex.acquire(file, 10, 0, new Object());
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+    index.addIfAbsent(hash(1), 0);
+    index.release();
+    Assert.assertTrue(index.contains(hash(1), 0));
+    index.release();
+
+    index = MappedHashIndex.acquire(file, 10, 0, new Object());
+    try {
+      Assert.assertTrue(index.contains(hash(1), 0));
+    } finally {
+      index.release();
+    }
+  }
+
+  @Test
+  public void testMatchesEvictingQueue() throws Exception {
+    int window = 1000;
+    Random random = new Random(0);
+    Deque<Integer> queue = new ArrayDeque<>();
+    Set<Integer> set = new HashSet<>();
+    try (MappedHashIndex index = new MappedHashIndex(file, window, 0)) {
+      for (int i = 0; i < 100000; i++) {
+        int value = random.nextInt(3000);
+        boolean expected = !set.contains(value);
+        if (expected) {
+          set.add(value);
+          queue.addLast(value);
+          if (queue.size() > window) {
+            set.remove(queue.removeFirst());
+          }
+        }
+        Assert.assertEquals(expected, index.addIfAbsent(hash(value), 0));
+      }
+      Assert.assertEquals(window, index.size());
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generate throughput per data format, each invocation writes the records of the sample data of the format
+ * (1000 records) to memory. LOG has no data generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DataGeneratorBenchmark {
+
+  @Param({"JSON", "DELIMITED", "AVRO", "PROTOBUF"})
+  public SampleFormat format;
+
+  private File resourcesDir;
+  private DataGeneratorFactory factory;
+  private List<Record> records;
+
+  @Setup
+  public void setUp() throws Exception {
+    resourcesDir = SampleFormat.createResourcesDir();
+    Stage.Context context = SampleFormat.createContext(resourcesDir);
+    factory = format.createGeneratorFactory(context);
+    records = format.readSampleRecords(context);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(resourcesDir);
+  }
+
+  @Benchmark
+  public byte[] generate() throws Exception {
+    return SampleFormat.generate(factory, records);
+  }
+
+}
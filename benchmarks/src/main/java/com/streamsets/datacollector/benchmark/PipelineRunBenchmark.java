@@ -0,0 +1,249 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.io.Files;
+import com.streamsets.datacollector.config.DeliveryGuarantee;
+import com.streamsets.datacollector.config.MemoryLimitConfiguration;
+import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.execution.StateListener;
+import com.streamsets.datacollector.execution.runner.common.ProductionPipeline;
+import com.streamsets.datacollector.execution.runner.common.ProductionPipelineBuilder;
+import com.streamsets.datacollector.execution.runner.common.ProductionPipelineRunner;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.main.StandaloneRuntimeInfo;
+import com.streamsets.datacollector.runner.MockStages;
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BaseTarget;
+import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end production run of an origin, processor, discarding destination pipeline.
+ * <p/>
+ * The pipeline uses the container mock stages, the origin generates <code>batches</code> batches of
+ * <code>batchSize</code> records, the processor adds, reads and removes fields as the usual field processors do
+ * and the destination drops the records. Each invocation builds, runs to completion and destroys the pipeline, the
+ * build is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PipelineRunBenchmark {
+  private static final String NAME = "benchmark";
+  private static final String REV = "0";
+
+  @Param({"100"})
+  public int batches;
+
+  @Param({"1000"})
+  public int batchSize;
+
+  @Param({"1", "4"})
+  public int runnerThreads;
+
+  private File baseDir;
+  private RuntimeInfo runtimeInfo;
+  private StageLibraryTask stageLibrary;
+  private ProductionPipeline pipeline;
+  private StatusRecorder statusRecorder;
+
+  @Setup
+  public void setUp() {
+    baseDir = Files.createTempDir();
+    runtimeInfo = new StandaloneRuntimeInfo(RuntimeModule.SDC_PROPERTY_PREFIX, new MetricRegistry(),
+        Arrays.asList(getClass().getClassLoader()), baseDir);
+    runtimeInfo.init();
+    stageLibrary = MockStages.createStageLibrary(getClass().getClassLoader());
+    MockStages.setSourceCapture(new GeneratorSource(batches, batchSize));
+    MockStages.setProcessorCapture(new FieldProcessor());
+    MockStages.setTargetCapture(new DiscardTarget());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    MockStages.resetStageCaptures();
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  @Setup(Level.Invocation)
+  public void buildPipeline() throws Exception {
+    Configuration configuration = new Configuration();
+    ProductionPipelineRunner runner = new ProductionPipelineRunner(NAME, REV, configuration, runtimeInfo,
+        new MetricRegistry(), null, null);
+    runner.setMemoryLimitConfiguration(new MemoryLimitConfiguration());
+    runner.setDeliveryGuarantee(DeliveryGuarantee.AT_LEAST_ONCE);
+
+    PipelineConfiguration pipelineConf = MockStages.createPipelineConfigurationSourceProcessorTarget();
+    pipelineConf.addConfiguration(new Config("runnerThreads", runnerThreads));
+
+    pipeline = new ProductionPipelineBuilder(NAME, REV, configuration, runtimeInfo, stageLibrary, runner, null)
+        .build(pipelineConf);
+    statusRecorder = new StatusRecorder();
+    pipeline.registerStatusListener(statusRecorder);
+    runner.setOffsetTracker(new MemoryOffsetTracker());
+  }
+
+  @Benchmark
+  public void run() throws Exception {
+    pipeline.run();
+    Utils.checkState(statusRecorder.status == PipelineStatus.FINISHED,
+        Utils.formatL("Pipeline did not finish, status '{}'", statusRecorder.status));
+  }
+
+  private static class StatusRecorder implements StateListener {
+    private PipelineStatus status;
+
+    @Override
+    public void stateChanged(PipelineStatus pipelineStatus, String message, Map<String, Object> attributes)
+        throws PipelineRuntimeException {
+      status = pipelineStatus;
+    }
+  }
+
+  private static class MemoryOffsetTracker implements SourceOffsetTracker {
+    private String offset;
+    private String newOffset;
+    private boolean finished;
+    private long lastBatchTime;
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public String getOffset() {
+      return offset;
+    }
+
+    @Override
+    public void setOffset(String newOffset) {
+      this.newOffset = newOffset;
+    }
+
+    @Override
+    public void commitOffset() {
+      offset = newOffset;
+      finished = (offset == null);
+      lastBatchTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public long getLastBatchTime() {
+      return lastBatchTime;
+    }
+  }
+
+  /**
+   * Generates records similar to the ones produced by the data format parsers, it finishes after the configured
+   * number of batches.
+   */
+  private static class GeneratorSource extends BaseSource {
+    private static final String[] CITIES = {"San Francisco", "New York", "Chicago", "Austin", "Seattle"};
+
+    private final int batches;
+    private final int batchSize;
+
+    GeneratorSource(int batches, int batchSize) {
+      this.batches = batches;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      int batch = (lastSourceOffset == null) ? 0 : Integer.parseInt(lastSourceOffset);
+      for (int i = 0; i < batchSize; i++) {
+        long id = (long) batch * batchSize + i;
+        Record record = getContext().createRecord("generator::" + id);
+        Map<String, Field> map = new LinkedHashMap<>();
+        map.put("id", Field.create(id));
+        map.put("name", Field.create("name" + id));
+        map.put("city", Field.create(CITIES[(int) (id % CITIES.length)]));
+        map.put("amount", Field.create(id * 0.25d));
+        List<Field> tags = new ArrayList<>();
+        tags.add(Field.create("a"));
+        tags.add(Field.create("b"));
+        map.put("tags", Field.create(tags));
+        record.set(Field.create(map));
+        batchMaker.addRecord(record);
+      }
+      batch++;
+      return (batch < batches) ? String.valueOf(batch) : null;
+    }
+  }
+
+  private static class FieldProcessor extends SingleLaneRecordProcessor {
+    @Override
+    protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+      String name = record.get("/name").getValueAsString();
+      record.set("/upperName", Field.create(name.toUpperCase()));
+      record.set("/total", Field.create(record.get("/amount").getValueAsDouble() * 1.1d));
+      record.delete("/tags");
+      batchMaker.addRecord(record);
+    }
+  }
+
+  private static class DiscardTarget extends BaseTarget {
+    @Override
+    public void write(Batch batch) throws StageException {
+      // drops the records, as the Trash destination does
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record model benchmarks, creation, deep and shared copies and field access by path.
+ * <p/>
+ * The records have a map root field with <code>fields</code> map fields, each one with a string, a long and a list
+ * field, the shape the data format parsers produce for typical JSON data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+
+  @Param({"10", "100"})
+  public int fields;
+
+  private RecordImpl record;
+  private String[] namePaths;
+  private String[] tagPaths;
+  private Field value;
+
+  @Setup
+  public void setUp() {
+    record = createRecord(fields);
+    namePaths = new String[fields];
+    tagPaths = new String[fields];
+    for (int i = 0; i < fields; i++) {
+      namePaths[i] = "/field" + i + "/name";
+      tagPaths[i] = "/field" + i + "/tags[1]";
+    }
+    value = Field.create("updated");
+  }
+
+  static RecordImpl createRecord(int fields) {
+    RecordImpl record = new RecordImpl("benchmark", "benchmark::1", null, null);
+    record.getHeader().setAttribute("file", "/data/records.json");
+    record.getHeader().setAttribute("offset", "0");
+    Map<String, Field> root = new LinkedHashMap<>();
+    for (int i = 0; i < fields; i++) {
+      Map<String, Field> map = new LinkedHashMap<>();
+      map.put("name", Field.create("name" + i));
+      map.put("value", Field.create((long) i));
+      List<Field> tags = new ArrayList<>();
+      tags.add(Field.create("a"));
+      tags.add(Field.create("b"));
+      tags.add(Field.create("c"));
+      map.put("tags", Field.create(tags));
+      root.put("field" + i, Field.create(map));
+    }
+    record.set(Field.create(root));
+    return record;
+  }
+
+  @Benchmark
+  public RecordImpl create() {
+    return createRecord(fields);
+  }
+
+  @Benchmark
+  public RecordImpl cloneDeep() {
+    return record.clone();
+  }
+
+  // the copy is modified, as a stage would do with its lane copy, so it pays for the copy of the field tree
+  @Benchmark
+  public RecordImpl cloneSharedThenSet() {
+    RecordImpl copy = record.cloneShared();
+    copy.set(namePaths[0], value);
+    return copy;
+  }
+
+  @Benchmark
+  public void get(Blackhole blackhole) {
+    for (int i = 0; i < namePaths.length; i++) {
+      blackhole.consume(record.get(namePaths[i]));
+      blackhole.consume(record.get(tagPaths[i]));
+    }
+  }
+
+  @Benchmark
+  public void set(Blackhole blackhole) {
+    for (String path : namePaths) {
+      blackhole.consume(record.set(path, value));
+    }
+  }
+
+  @Benchmark
+  public Set<String> getEscapedFieldPaths() {
+    return record.getEscapedFieldPaths();
+  }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.LogMode;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
+import com.streamsets.pipeline.lib.util.ProtobufConstants;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data formats covered by the parser and generator benchmarks, with the checked-in sample data they run on.
+ * <p/>
+ * The text formats parse their sample file as is. The binary formats (Avro and protobuf) have no checked-in data
+ * file, their input is generated at setup time from the JSON sample records so the benchmarks stay runnable offline
+ * and all the formats carry the same records.
+ */
+public enum SampleFormat {
+  JSON(SampleFormat.JSON_RECORDS, false) {
+    @Override
+    public DataParserFactory createParserFactory(Stage.Context context) throws IOException {
+      return parserBuilder(context, DataParserFormat.JSON).setMode(JsonMode.MULTIPLE_OBJECTS).build();
+    }
+
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(Stage.Context context) throws IOException {
+      return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.JSON)
+          .setMode(JsonMode.MULTIPLE_OBJECTS)
+          .build();
+    }
+  },
+  DELIMITED(SampleFormat.CSV_RECORDS, false) {
+    @Override
+    public DataParserFactory createParserFactory(Stage.Context context) throws IOException {
+      return parserBuilder(context, DataParserFormat.DELIMITED)
+          .setMode(CsvMode.CSV)
+          .setMode(CsvHeader.WITH_HEADER)
+          .setMode(CsvRecordType.LIST_MAP)
+          .build();
+    }
+
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(Stage.Context context) throws IOException {
+      return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.DELIMITED)
+          .setMode(CsvMode.CSV)
+          .setMode(CsvHeader.WITH_HEADER)
+          .build();
+    }
+  },
+  LOG(SampleFormat.ACCESS_LOG, false) {
+    @Override
+    public DataParserFactory createParserFactory(Stage.Context context) throws IOException {
+      return parserBuilder(context, DataParserFormat.LOG).setMode(LogMode.COMBINED_LOG_FORMAT).build();
+    }
+
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(Stage.Context context) {
+      throw new UnsupportedOperationException("There is no data generator for the LOG data format");
+    }
+  },
+  AVRO(SampleFormat.JSON_RECORDS, true) {
+    @Override
+    public DataParserFactory createParserFactory(Stage.Context context) throws IOException {
+      return parserBuilder(context, DataParserFormat.AVRO)
+          .setConfig(AvroSchemaHelper.SCHEMA_KEY, loadString(AVRO_SCHEMA))
+          .build();
+    }
+
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(Stage.Context context) throws IOException {
+      return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.AVRO)
+          .setConfig(AvroSchemaHelper.SCHEMA_KEY, loadString(AVRO_SCHEMA))
+          .build();
+    }
+  },
+  PROTOBUF(SampleFormat.JSON_RECORDS, true) {
+    @Override
+    public DataParserFactory createParserFactory(Stage.Context context) throws IOException {
+      return parserBuilder(context, DataParserFormat.PROTOBUF)
+          .setConfig(ProtobufConstants.PROTO_DESCRIPTOR_FILE_KEY, PROTO_DESCRIPTOR)
+          .setConfig(ProtobufConstants.MESSAGE_TYPE_KEY, PROTO_MESSAGE_TYPE)
+          .build();
+    }
+
+    @Override
+    public DataGeneratorFactory createGeneratorFactory(Stage.Context context) throws IOException {
+      return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.PROTOBUF)
+          .setConfig(ProtobufConstants.PROTO_DESCRIPTOR_FILE_KEY, PROTO_DESCRIPTOR)
+          .setConfig(ProtobufConstants.MESSAGE_TYPE_KEY, PROTO_MESSAGE_TYPE)
+          .build();
+    }
+  },
+  ;
+
+  private static final String DATA_DIR = "data/";
+  private static final String JSON_RECORDS = "records.json";
+  private static final String CSV_RECORDS = "records.csv";
+  private static final String ACCESS_LOG = "access.log";
+  private static final String AVRO_SCHEMA = "records.avsc";
+  private static final String PROTO_DESCRIPTOR = "TestRecordProtobuf3.desc";
+  private static final String PROTO_MESSAGE_TYPE = "TestRecord";
+
+  // large enough for any single record of the sample data
+  private static final int MAX_DATA_LEN = 64 * 1024;
+
+  private final String sampleFile;
+  private final boolean generated;
+
+  SampleFormat(String sampleFile, boolean generated) {
+    this.sampleFile = sampleFile;
+    this.generated = generated;
+  }
+
+  public abstract DataParserFactory createParserFactory(Stage.Context context) throws IOException;
+
+  public abstract DataGeneratorFactory createGeneratorFactory(Stage.Context context) throws IOException;
+
+  /**
+   * Returns the records of the sample data of this format, the records are written by the generator benchmarks.
+   */
+  public List<Record> readSampleRecords(Stage.Context context) throws IOException, StageException {
+    SampleFormat sampleFormat = (generated) ? JSON : this;
+    return parse(sampleFormat.createParserFactory(context), load(sampleFile));
+  }
+
+  /**
+   * Returns the serialized sample data of this format, the data is read by the parser benchmarks.
+   */
+  public byte[] createSampleInput(Stage.Context context) throws IOException, StageException {
+    return (generated) ? generate(createGeneratorFactory(context), readSampleRecords(context)) : load(sampleFile);
+  }
+
+  /**
+   * Creates a stage context whose resources directory holds the sample data files, the protobuf descriptor file is
+   * looked up there.
+   */
+  public static Stage.Context createContext(File resourcesDir) {
+    return ContextInfoCreator.createSourceContext(
+        "benchmark",
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.<String>emptyList(),
+        resourcesDir.getAbsolutePath()
+    );
+  }
+
+  /**
+   * Copies the sample data files required at runtime (the protobuf descriptor) to a new temporary directory.
+   */
+  public static File createResourcesDir() throws IOException {
+    File dir = Files.createTempDir();
+    Files.write(load(PROTO_DESCRIPTOR), new File(dir, PROTO_DESCRIPTOR));
+    return dir;
+  }
+
+  public static List<Record> parse(DataParserFactory factory, byte[] data) throws IOException, StageException {
+    List<Record> records = new ArrayList<>();
+    try (DataParser parser = factory.getParser("benchmark", new ByteArrayInputStream(data), "0")) {
+      Record record = parser.parse();
+      while (record != null) {
+        records.add(record);
+        record = parser.parse();
+      }
+    }
+    return records;
+  }
+
+  public static byte[] generate(DataGeneratorFactory factory, List<Record> records)
+      throws IOException, StageException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (DataGenerator generator = factory.getGenerator(os)) {
+      for (Record record : records) {
+        generator.write(record);
+      }
+    }
+    return os.toByteArray();
+  }
+
+  private static DataParserFactoryBuilder parserBuilder(Stage.Context context, DataParserFormat format) {
+    return new DataParserFactoryBuilder(context, format).setMaxDataLen(MAX_DATA_LEN);
+  }
+
+  private static byte[] load(String file) throws IOException {
+    return Resources.toByteArray(Resources.getResource(DATA_DIR + file));
+  }
+
+  private static String loadString(String file) throws IOException {
+    return new String(load(file), StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,417 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.io.CountingReader;
+import com.streamsets.pipeline.lib.io.ObjectLengthException;
+import com.streamsets.pipeline.lib.util.ExceptionUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Delimited data reader that scans the input into a reused <code>char[]</code> buffer.
+ * <p/>
+ * Unlike {@link CsvParser}, which builds a <code>String</code> for every cell of every record, the scanner only
+ * records the offsets of the cells of the current record and a <code>String</code> is created only when a cell is
+ * requested via {@link #getCell(int)}. Parsing follows the commons-csv <code>CSVFormat</code> rules (delimiter,
+ * quote, escape, empty lines and surrounding spaces) and the reader positions are the same as the ones reported
+ * by {@link CsvParser}, so offsets can be used interchangeably. Comment markers are not supported.
+ */
+public class CsvScanner implements Closeable, AutoCloseable {
+  private static final int EOF = -1;
+  private static final int CR = '\r';
+  private static final int LF = '\n';
+  private static final int CHUNK_SIZE = 8192;
+
+  private static final byte PLAIN = 0;
+  private static final byte QUOTED = 1;
+  private static final byte ESCAPED = 2;
+
+  private final CountingReader reader;
+  private final int maxObjectLen;
+  private final int delimiter;
+  private final int quote;
+  private final int escape;
+  private final boolean ignoreSurroundingSpaces;
+  private final boolean ignoreEmptyLines;
+  private final String nullString;
+  private final String[] headers;
+
+  private char[] buffer;
+  private int bufferLen;
+  private boolean readerEof;
+  // buffer index where the next record starts
+  private int recordStart;
+  // buffer index where the current record starts, cell offsets are relative to it
+  private int currentRecord;
+  private long currentPos;
+
+  private int cellCount;
+  private int[] cellStart;
+  private int[] cellEnd;
+  private byte[] cellType;
+  private boolean closed;
+
+  public static boolean isSupported(CSVFormat format) {
+    return format.getCommentMarker() == null;
+  }
+
+  public CsvScanner(
+      CountingReader reader,
+      CSVFormat format,
+      int maxObjectLen,
+      long initialPosition,
+      int skipStartLines
+  ) throws IOException {
+    Utils.checkNotNull(reader, "reader");
+    Utils.checkArgument(reader.getPos() == 0,
+                        "reader must be in position zero, the CsvScanner will fast-forward to the initialPosition");
+    Utils.checkNotNull(format, "format");
+    Utils.checkArgument(isSupported(format), "comment markers are not supported");
+    Utils.checkArgument(initialPosition >= 0, "initialPosition must be greater or equal than zero");
+    Utils.checkArgument(skipStartLines >= 0, "skipStartLines must be greater or equal than zero");
+    this.reader = reader;
+    this.maxObjectLen = maxObjectLen;
+    delimiter = format.getDelimiter();
+    quote = (format.getQuoteCharacter() != null) ? format.getQuoteCharacter() : Integer.MIN_VALUE;
+    escape = (format.getEscapeCharacter() != null) ? format.getEscapeCharacter() : Integer.MIN_VALUE;
+    ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+    ignoreEmptyLines = format.getIgnoreEmptyLines();
+    nullString = format.getNullString();
+    buffer = new char[2 * CHUNK_SIZE];
+    cellStart = new int[16];
+    cellEnd = new int[16];
+    cellType = new byte[16];
+
+    if (initialPosition == 0) {
+      if (skipStartLines > 0) {
+        skipLines(skipStartLines);
+      }
+      headers = (format.getSkipHeaderRecord()) ? readHeaders() : null;
+    } else {
+      if (format.getSkipHeaderRecord()) {
+        headers = readHeaders();
+        while (currentPos < initialPosition && next()) {
+        }
+        if (currentPos != initialPosition) {
+          throw new IOException(Utils.format("Could not position reader at position '{}', got '{}' instead",
+                                             initialPosition, currentPos));
+        }
+      } else {
+        IOUtils.skipFully(reader, initialPosition);
+        currentPos = initialPosition;
+        headers = null;
+      }
+    }
+  }
+
+  private void skipLines(int lines) throws IOException {
+    int skipped = 0;
+    while (skipped < lines) {
+      int c = charAt(0);
+      if (c == EOF) {
+        throw new IOException(Utils.format("Could not skip '{}' lines, reached EOF", lines));
+      }
+      // this is enough to handle \n and \r\n EOL files
+      if (c == LF) {
+        skipped++;
+      }
+      recordStart++;
+      currentPos++;
+    }
+  }
+
+  private String[] readHeaders() throws IOException {
+    return (next()) ? getCells() : null;
+  }
+
+  protected CountingReader getReader() {
+    return reader;
+  }
+
+  /**
+   * Called before scanning each record.
+   */
+  protected void beforeRecord() {
+  }
+
+  public String[] getHeaders() {
+    return headers;
+  }
+
+  public long getReaderPosition() {
+    return currentPos;
+  }
+
+  /**
+   * Scans the next record, returns false if there are no more records.
+   */
+  public boolean next() throws IOException {
+    if (closed) {
+      throw new IOException("Scanner has been closed");
+    }
+    beforeRecord();
+    cellCount = 0;
+    int i = 0;
+    int c = charAt(i);
+    if (ignoreEmptyLines) {
+      while (c == CR || c == LF) {
+        i += (c == CR && charAt(i + 1) == LF) ? 2 : 1;
+        c = charAt(i);
+      }
+    }
+    if (c == EOF) {
+      recordStart += i;
+      currentPos += i;
+      return false;
+    }
+    boolean endOfRecord = false;
+    while (!endOfRecord) {
+      if (ignoreSurroundingSpaces) {
+        while (c != delimiter && c != CR && c != LF && c != EOF && Character.isWhitespace((char) c)) {
+          c = charAt(++i);
+        }
+      }
+      int start;
+      int end;
+      byte type = PLAIN;
+      if (c == quote) {
+        start = ++i;
+        while (true) {
+          c = charAt(i);
+          if (c == EOF) {
+            throw new IOException(Utils.format("EOF reached before encapsulated token finished at position '{}'",
+                                               currentPos + start));
+          } else if (c == escape) {
+            checkEscapedChar(i + 1);
+            type = QUOTED;
+            i += 2;
+          } else if (c == quote) {
+            if (charAt(i + 1) == quote) {
+              type = QUOTED;
+              i += 2;
+            } else {
+              break;
+            }
+          } else {
+            i++;
+          }
+        }
+        end = i++;
+        c = charAt(i);
+        while (c != delimiter && c != CR && c != LF && c != EOF) {
+          if (!Character.isWhitespace((char) c)) {
+            throw new IOException(Utils.format("Invalid char between encapsulated token and delimiter at position '{}'",
+                                               currentPos + i));
+          }
+          c = charAt(++i);
+        }
+      } else {
+        start = i;
+        while (c != delimiter && c != CR && c != LF && c != EOF) {
+          if (c == escape) {
+            checkEscapedChar(i + 1);
+            type = ESCAPED;
+            i += 2;
+          } else {
+            i++;
+          }
+          c = charAt(i);
+        }
+        end = i;
+        if (ignoreSurroundingSpaces && type == PLAIN) {
+          while (end > start && Character.isWhitespace(buffer[recordStart + end - 1])) {
+            end--;
+          }
+        }
+      }
+      addCell(start, end, type);
+      if (c == delimiter) {
+        c = charAt(++i);
+      } else {
+        if (c == CR) {
+          i += (charAt(i + 1) == LF) ? 2 : 1;
+        } else if (c == LF) {
+          i++;
+        }
+        endOfRecord = true;
+      }
+    }
+    currentRecord = recordStart;
+    recordStart += i;
+    long prevPos = currentPos;
+    currentPos += i;
+    if (maxObjectLen > -1 && currentPos - prevPos > maxObjectLen) {
+      ExceptionUtils.throwUndeclared(new ObjectLengthException(Utils.format(
+          "CSV Object at offset '{}' exceeds max length '{}'", prevPos, maxObjectLen), prevPos));
+    }
+    return true;
+  }
+
+  private void checkEscapedChar(int i) throws IOException {
+    if (charAt(i) == EOF) {
+      throw new IOException("EOF whilst processing escape sequence");
+    }
+  }
+
+  // returns the char at the given index relative to the start of the record being scanned, reading more data if needed
+  private int charAt(int i) throws IOException {
+    while (recordStart + i >= bufferLen) {
+      if (!fill()) {
+        return EOF;
+      }
+    }
+    return buffer[recordStart + i];
+  }
+
+  private boolean fill() throws IOException {
+    if (readerEof) {
+      return false;
+    }
+    if (bufferLen == buffer.length) {
+      if (recordStart > 0) {
+        System.arraycopy(buffer, recordStart, buffer, 0, bufferLen - recordStart);
+        bufferLen -= recordStart;
+        recordStart = 0;
+      } else {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+    // reading in chunks, the read limit of an OverrunReader applies to the data read for the current record
+    int read = reader.read(buffer, bufferLen, Math.min(CHUNK_SIZE, buffer.length - bufferLen));
+    if (read == EOF) {
+      readerEof = true;
+      return false;
+    }
+    bufferLen += read;
+    return true;
+  }
+
+  private void addCell(int start, int end, byte type) {
+    if (cellCount == cellStart.length) {
+      cellStart = Arrays.copyOf(cellStart, cellCount * 2);
+      cellEnd = Arrays.copyOf(cellEnd, cellCount * 2);
+      cellType = Arrays.copyOf(cellType, cellCount * 2);
+    }
+    cellStart[cellCount] = start;
+    cellEnd[cellCount] = end;
+    cellType[cellCount] = type;
+    cellCount++;
+  }
+
+  /**
+   * Returns the number of cells of the current record.
+   */
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Returns the value of a cell of the current record, the value is valid until the next call to {@link #next()}.
+   */
+  public String getCell(int idx) {
+    Utils.checkArgument(idx >= 0 && idx < cellCount, Utils.formatL("Invalid cell index '{}'", idx));
+    int start = currentRecord + cellStart[idx];
+    int end = currentRecord + cellEnd[idx];
+    String value = (cellType[idx] == PLAIN) ? new String(buffer, start, end - start) : unescape(idx, start, end);
+    return (nullString != null && nullString.equals(value)) ? null : value;
+  }
+
+  /**
+   * Returns all the cells of the current record.
+   */
+  public String[] getCells() {
+    String[] cells = new String[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      cells[i] = getCell(i);
+    }
+    return cells;
+  }
+
+  private String unescape(int idx, int start, int end) {
+    StringBuilder sb = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      char c = buffer[i++];
+      if (c == escape) {
+        char next = buffer[i++];
+        int unescaped = unescape(next);
+        if (unescaped == EOF) {
+          sb.append(c);
+        }
+        sb.append((unescaped == EOF) ? next : (char) unescaped);
+      } else if (c == quote && cellType[idx] == QUOTED) {
+        // doubled quote within a quoted cell
+        sb.append(c);
+        i++;
+      } else {
+        sb.append(c);
+      }
+    }
+    if (ignoreSurroundingSpaces && cellType[idx] == ESCAPED) {
+      int len = sb.length();
+      while (len > 0 && Character.isWhitespace(sb.charAt(len - 1))) {
+        len--;
+      }
+      sb.setLength(len);
+    }
+    return sb.toString();
+  }
+
+  // same escape sequences as commons-csv, EOF means the escape char is not followed by a char to unescape
+  private int unescape(char c) {
+    switch (c) {
+      case 'r':
+        return '\r';
+      case 'n':
+        return '\n';
+      case 't':
+        return '\t';
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case '\r':
+      case '\n':
+      case '\t':
+      case '\b':
+      case '\f':
+        return c;
+      default:
+        return (c == delimiter || c == escape || c == quote) ? c : EOF;
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      closed = true;
+      reader.close();
+    } catch (IOException ex) {
+      //NOP
+    }
+  }
+
+}
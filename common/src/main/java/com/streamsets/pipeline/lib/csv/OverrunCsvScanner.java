@@ -0,0 +1,60 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import com.streamsets.pipeline.lib.io.OverrunException;
+import com.streamsets.pipeline.lib.io.OverrunReader;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+
+public class OverrunCsvScanner extends CsvScanner {
+  private boolean overrun;
+
+  public OverrunCsvScanner(
+      OverrunReader reader,
+      CSVFormat format,
+      long initialPosition,
+      int skipStartLines,
+      int maxObjectLen
+  ) throws IOException {
+    super(reader, format, maxObjectLen, initialPosition, skipStartLines);
+    ((OverrunReader) getReader()).setEnabled(true);
+  }
+
+  @Override
+  protected void beforeRecord() {
+    ((OverrunReader) getReader()).resetCount();
+  }
+
+  @Override
+  public boolean next() throws IOException {
+    if (overrun) {
+      throw new IOException("The scanner is unusable, the underlying reader had an overrun");
+    }
+    try {
+      return super.next();
+    } catch (OverrunException ex) {
+      overrun = true;
+      throw ex;
+    }
+  }
+
+}
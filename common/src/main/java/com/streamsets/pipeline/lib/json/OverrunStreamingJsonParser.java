@@ -217,7 +217,8 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
   protected Object readObjectFromStream() throws IOException {
     Utils.checkState(!overrun, "The underlying input stream had an overrun, the parser is not usable anymore");
     countingReader.resetCount();
-    limitOffset = getJsonParser().getCurrentLocation().getCharOffset() + maxObjectLen;
+    startOffset = getJsonParser().getCurrentLocation().getCharOffset();
+    limitOffset = startOffset + maxObjectLen;
     try {
       TL.set(this);
       return super.readObjectFromStream();
@@ -240,13 +241,21 @@ public class OverrunStreamingJsonParser extends StreamingJsonParser {
   }
 
   private static void checkIfLengthExceededForObjectRead(Object json) {
-    OverrunStreamingJsonParser enforcer = TL.get();
-    if (enforcer.maxObjectLen > -1) {
-      if (enforcer.getJsonParser().getCurrentLocation().getCharOffset() > enforcer.limitOffset) {
-        ExceptionUtils.throwUndeclared(new ObjectLengthException(Utils.format(
-            "JSON Object at offset '{}' exceeds max length '{}'", enforcer.startOffset, enforcer.maxObjectLen),
-                                                                 enforcer.startOffset));
-      }
+    try {
+      TL.get().checkObjectLength();
+    } catch (ObjectLengthException ex) {
+      ExceptionUtils.throwUndeclared(ex);
+    }
+  }
+
+  /**
+   * Throws an ObjectLengthException if the object being read exceeds the max object length. Subclasses reading
+   * values token by token must call it as the value is being read.
+   */
+  protected void checkObjectLength() throws ObjectLengthException {
+    if (maxObjectLen > -1 && getJsonParser().getCurrentLocation().getCharOffset() > limitOffset) {
+      throw new ObjectLengthException(Utils.format("JSON Object at offset '{}' exceeds max length '{}'", startOffset,
+          maxObjectLen), startOffset);
     }
   }
 
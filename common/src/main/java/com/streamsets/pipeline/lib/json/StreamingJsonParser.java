@@ -130,7 +130,7 @@ public class StreamingJsonParser {
     JsonToken token = jsonParser.nextToken();
     if (token != null) {
       if (token != JsonToken.END_ARRAY) {
-        value = jsonParser.readValueAs(Object.class);
+        value = readValue();
       }
     }
     return value;
@@ -142,6 +142,17 @@ public class StreamingJsonParser {
     return Object.class;
   }
 
+  /**
+   * Reads the value starting at the current token, leaving the parser at the last token of the value.
+   * <p/>
+   * By default the value is bound to the expected class, subclasses may override it to build their own
+   * representation straight from the JSON tokens.
+   */
+  @SuppressWarnings("unchecked")
+  protected Object readValue() throws IOException {
+    return jsonParser.readValueAs(getExpectedClass());
+  }
+
   @SuppressWarnings("unchecked")
   protected Object readObjectFromStream() throws IOException {
     Object value = null;
@@ -150,7 +161,7 @@ public class StreamingJsonParser {
       nextToken = jsonParser.nextToken();
     }
     if (nextToken != null) {
-      value = jsonParser.readValueAs(getExpectedClass());
+      value = readValue();
       nextToken = jsonParser.nextToken();
       if (nextToken == null) {
         // if we reached the EOF Jackson JSON parser keeps the as getTokenLocation() the location of the last token,
@@ -0,0 +1,243 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import com.google.common.base.Strings;
+import com.streamsets.pipeline.lib.io.CountingReader;
+import com.streamsets.pipeline.lib.io.ObjectLengthException;
+import com.streamsets.pipeline.lib.io.OverrunException;
+import com.streamsets.pipeline.lib.io.OverrunReader;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+
+public class TestCsvScanner {
+
+  private OverrunReader getReader(String name) throws Exception {
+    InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(name);
+    return (is != null) ? new OverrunReader(new InputStreamReader(is), 0, false, false) : null;
+  }
+
+  private CsvScanner createScanner(String csv, CSVFormat format) throws IOException {
+    return new CsvScanner(new CountingReader(new StringReader(csv)), format, -1, 0, 0);
+  }
+
+  private void assertSameAsParser(String csv, CSVFormat format) throws Exception {
+    CsvParser parser = new CsvParser(new StringReader(csv), format, -1);
+    CsvScanner scanner = createScanner(csv, format);
+    try {
+      String[] record = parser.read();
+      while (record != null) {
+        Assert.assertTrue(scanner.next());
+        Assert.assertArrayEquals(record, scanner.getCells());
+        Assert.assertEquals(parser.getReaderPosition(), scanner.getReaderPosition());
+        record = parser.read();
+      }
+      Assert.assertFalse(scanner.next());
+    } finally {
+      parser.close();
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testScannerHeaders() throws Exception {
+    CsvScanner scanner = new CsvScanner(getReader("TestCsvParser-default.csv"),
+                                        CSVFormat.DEFAULT.withHeader((String[])null).withSkipHeaderRecord(true),
+                                        -1, 0, 0);
+    try {
+      Assert.assertArrayEquals(new String[]{"h1", "h2", "h3", "h4"}, scanner.getHeaders());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testScannerRecords() throws Exception {
+    CsvScanner scanner = new CsvScanner(getReader("TestCsvParser-default.csv"),
+                                        CSVFormat.DEFAULT.withHeader((String[])null).withSkipHeaderRecord(true),
+                                        -1, 0, 0);
+    try {
+      Assert.assertEquals(12, scanner.getReaderPosition());
+
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(20, scanner.getReaderPosition());
+      Assert.assertArrayEquals(new String[]{"a", "b", "c", "d"}, scanner.getCells());
+
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(33, scanner.getReaderPosition());
+      Assert.assertEquals(5, scanner.getCellCount());
+      Assert.assertEquals("extra", scanner.getCell(4));
+      Assert.assertEquals("x", scanner.getCell(1));
+
+      Assert.assertFalse(scanner.next());
+      Assert.assertEquals(33, scanner.getReaderPosition());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testScannerRecordsFromOffset() throws Exception {
+    CsvScanner scanner = new CsvScanner(getReader("TestCsvParser-default.csv"),
+                                        CSVFormat.DEFAULT.withHeader((String[])null).withSkipHeaderRecord(true),
+                                        -1, 20, 0);
+    try {
+      Assert.assertEquals(20, scanner.getReaderPosition());
+      Assert.assertArrayEquals(new String[]{"h1", "h2", "h3", "h4"}, scanner.getHeaders());
+
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(33, scanner.getReaderPosition());
+      Assert.assertArrayEquals(new String[]{"w", "x", "y", "z", "extra"}, scanner.getCells());
+
+      Assert.assertFalse(scanner.next());
+    } finally {
+      scanner.close();
+    }
+
+    scanner = new CsvScanner(new CountingReader(new StringReader("a,b\nc,d\n")), CSVFormat.DEFAULT, -1, 4, 0);
+    try {
+      Assert.assertNull(scanner.getHeaders());
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(8, scanner.getReaderPosition());
+      Assert.assertArrayEquals(new String[]{"c", "d"}, scanner.getCells());
+      Assert.assertFalse(scanner.next());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testSameAsParser() throws Exception {
+    assertSameAsParser("a,b,c\r\naa,,cc\nx,y,\n", CSVFormat.DEFAULT);
+    assertSameAsParser("\"a,1\",\"b\"\"2\",\"c\n3\"\n\"\",x\n", CSVFormat.DEFAULT);
+    assertSameAsParser("a,b\n\n\nc,d\n", CSVFormat.RFC4180);
+    assertSameAsParser("a,b\n\n\nc,d\n", CSVFormat.DEFAULT);
+    assertSameAsParser("a,b", CSVFormat.DEFAULT);
+    assertSameAsParser("a\tb\\tc\t\\N\nd\\\ne\tf\n", CSVFormat.MYSQL);
+    assertSameAsParser("  a  \t \"b\" \t c\n", CSVFormat.TDF);
+    assertSameAsParser("a|\\|b|'c''d'|'e\\'f'|\\x\n",
+                       CSVFormat.DEFAULT.withDelimiter('|').withEscape('\\').withQuote('\''));
+  }
+
+  @Test
+  public void testLargeRecords() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb.append(Strings.repeat("a", 10000)).append(",\"").append(Strings.repeat("b", 20000)).append("\"\n");
+    }
+    assertSameAsParser(sb.toString(), CSVFormat.DEFAULT);
+  }
+
+  @Test
+  public void testMaxObjectLen() throws Exception {
+    CsvScanner scanner = new CsvScanner(new CountingReader(new StringReader("a,b,c\naa,bb,cc\ne,f,g\n")),
+                                        CSVFormat.DEFAULT, 6, 0, 0);
+    try {
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(6, scanner.getReaderPosition());
+      try {
+        scanner.next();
+        Assert.fail();
+      } catch (ObjectLengthException ex) {
+      }
+      Assert.assertEquals(15, scanner.getReaderPosition());
+      Assert.assertTrue(scanner.next());
+      Assert.assertArrayEquals(new String[]{"e", "f", "g"}, scanner.getCells());
+      Assert.assertFalse(scanner.next());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testSkipLines() throws Exception {
+    CsvScanner scanner = new CsvScanner(
+        new CountingReader(new StringReader("foo\nbar\r\na,b,c\naa,bb,cc\ne,f,g\n")),
+        CSVFormat.DEFAULT,
+        -1,
+        0,
+        2
+    );
+    try {
+      Assert.assertEquals(9, scanner.getReaderPosition());
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(15, scanner.getReaderPosition());
+      Assert.assertArrayEquals(new String[]{"a", "b", "c"}, scanner.getCells());
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(24, scanner.getReaderPosition());
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals(30, scanner.getReaderPosition());
+      Assert.assertFalse(scanner.next());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnterminatedQuote() throws Exception {
+    CsvScanner scanner = createScanner("a,\"b\n", CSVFormat.DEFAULT);
+    try {
+      scanner.next();
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidCharAfterQuote() throws Exception {
+    CsvScanner scanner = createScanner("a,\"b\"c\n", CSVFormat.DEFAULT);
+    try {
+      scanner.next();
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testOverrun() throws Exception {
+    String csv = "a," + Strings.repeat("b", 8000) + ",c\nd," + Strings.repeat("e", 70000) + ",f\n";
+    OverrunCsvScanner scanner = new OverrunCsvScanner(
+        new OverrunReader(new StringReader(csv), 65536, false, false), CSVFormat.DEFAULT, 0, 0, -1);
+    try {
+      Assert.assertTrue(scanner.next());
+      Assert.assertEquals("c", scanner.getCell(2));
+      try {
+        scanner.next();
+        Assert.fail();
+      } catch (OverrunException ex) {
+      }
+      try {
+        scanner.next();
+        Assert.fail();
+      } catch (IOException ex) {
+        Assert.assertFalse(ex instanceof OverrunException);
+      }
+    } finally {
+      scanner.close();
+    }
+  }
+
+}
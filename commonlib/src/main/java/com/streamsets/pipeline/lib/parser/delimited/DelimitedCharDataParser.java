@@ -28,6 +28,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvRecordType;
 import com.streamsets.pipeline.lib.csv.OverrunCsvParser;
+import com.streamsets.pipeline.lib.csv.OverrunCsvScanner;
 import com.streamsets.pipeline.lib.io.OverrunReader;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
@@ -36,16 +37,23 @@ import org.apache.commons.csv.CSVFormat;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 public class DelimitedCharDataParser extends AbstractDataParser {
   private final Stage.Context context;
   private final String readerId;
   private final OverrunCsvParser parser;
+  private final OverrunCsvScanner scanner;
   private List<Field> headers;
+  // positions of the columns to read, in column order, NULL to read all the columns
+  private int[] positions;
   private boolean eof;
   private CsvRecordType recordType;
   private final String nullConstant;
@@ -62,7 +70,31 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       CsvRecordType recordType,
       boolean parseNull,
       String nullConstant)
-    throws IOException {
+    throws IOException, DataParserException {
+    this(context, readerId, reader, readerOffset, skipStartLines, format, header, maxObjectLen, recordType, parseNull,
+        nullConstant, false, null);
+  }
+
+  /**
+   * With <code>highThroughput</code> the data is read with an {@link OverrunCsvScanner}, which only creates the values
+   * of the cells that end up in the record. If <code>columns</code> is not empty (header names or column positions
+   * starting at zero) only those columns are read into the records, in the order they appear in the data.
+   */
+  public DelimitedCharDataParser(
+      Stage.Context context,
+      String readerId,
+      OverrunReader reader,
+      long readerOffset,
+      int skipStartLines,
+      CSVFormat format,
+      CsvHeader header,
+      int maxObjectLen,
+      CsvRecordType recordType,
+      boolean parseNull,
+      String nullConstant,
+      boolean highThroughput,
+      List<String> columns)
+    throws IOException, DataParserException {
     this.context = context;
     this.readerId = readerId;
     this.recordType = recordType;
@@ -80,26 +112,94 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       default:
         throw new RuntimeException(Utils.format("Unknown header error: {}", header));
     }
-    parser = new OverrunCsvParser(reader, format, readerOffset, skipStartLines, maxObjectLen);
-    String[] hs = parser.getHeaders();
+    String[] hs;
+    if (highThroughput) {
+      parser = null;
+      scanner = new OverrunCsvScanner(reader, format, readerOffset, skipStartLines, maxObjectLen);
+      hs = scanner.getHeaders();
+    } else {
+      parser = new OverrunCsvParser(reader, format, readerOffset, skipStartLines, maxObjectLen);
+      scanner = null;
+      hs = parser.getHeaders();
+    }
     if (header != CsvHeader.IGNORE_HEADER && hs != null) {
       headers = new ArrayList<>();
       for (String h : hs) {
         headers.add(Field.create(h));
       }
     }
+    if (highThroughput && columns != null && !columns.isEmpty()) {
+      positions = getPositions(columns, hs);
+    }
+  }
+
+  private int[] getPositions(List<String> columns, String[] hs) throws DataParserException {
+    List<String> headerNames = (hs != null) ? Arrays.asList(hs) : Collections.<String>emptyList();
+    SortedSet<Integer> sorted = new TreeSet<>();
+    for (String column : columns) {
+      int position = headerNames.indexOf(column);
+      if (position < 0) {
+        try {
+          position = Integer.parseInt(column.trim());
+        } catch (NumberFormatException ex) {
+          position = -1;
+        }
+      }
+      if (position < 0) {
+        close();
+        throw new DataParserException(Errors.DELIMITED_PARSER_02, column);
+      }
+      sorted.add(position);
+    }
+    int[] array = new int[sorted.size()];
+    int i = 0;
+    for (int position : sorted) {
+      array[i++] = position;
+    }
+    return array;
+  }
+
+  private long getReaderPosition() {
+    return (scanner != null) ? scanner.getReaderPosition() : parser.getReaderPosition();
   }
 
   @Override
   public Record parse() throws IOException, DataParserException {
     Record record = null;
-    long offset = parser.getReaderPosition();
-    String[] columns = parser.read();
-    if (columns != null) {
-      record = createRecord(offset, columns);
+    long offset = getReaderPosition();
+    if (scanner != null) {
+      if (scanner.next()) {
+        record = createScannedRecord(offset);
+      } else {
+        eof = true;
+      }
     } else {
-      eof = true;
+      String[] columns = parser.read();
+      if (columns != null) {
+        record = createRecord(offset, columns);
+      } else {
+        eof = true;
+      }
+    }
+    return record;
+  }
+
+  private Record createScannedRecord(long offset) throws DataParserException {
+    int count = scanner.getCellCount();
+    if (positions == null || (headers != null && count > headers.size())) {
+      return createRecord(offset, scanner.getCells());
     }
+    // only the selected columns present in the row are read, positions are sorted
+    int selected = 0;
+    while (selected < positions.length && positions[selected] < count) {
+      selected++;
+    }
+    String[] values = new String[selected];
+    for (int i = 0; i < selected; i++) {
+      values[i] = scanner.getCell(positions[i]);
+    }
+    Record record = context.createRecord(readerId + "::" + offset);
+    setRecordValue(record, values, positions);
     return record;
   }
 
@@ -118,35 +218,44 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       throw new RecoverableDataParserException(record, Errors.DELIMITED_PARSER_01, offset, columns.length, headers.size());
     }
 
+    setRecordValue(record, columns, null);
+    return record;
+  }
+
+  // values[i] is the value of the column at positions[i], or at position i if there are no positions
+  private void setRecordValue(Record record, String[] values, int[] positions) {
     if(recordType == CsvRecordType.LIST) {
       List<Field> row = new ArrayList<>();
-      for (int i = 0; i < columns.length; i++) {
+      for (int i = 0; i < values.length; i++) {
         Map<String, Field> cell = new HashMap<>();
-        Field header = (headers != null) ? headers.get(i) : null;
+        Field header = getHeader((positions != null) ? positions[i] : i);
         if (header != null) {
           cell.put("header", header);
         }
-        Field value = getField(columns[i]);
+        Field value = getField(values[i]);
         cell.put("value", value);
         row.add(Field.create(cell));
       }
       record.set(Field.create(row));
     } else {
       LinkedHashMap<String, Field> listMap = new LinkedHashMap<>();
-      for (int i = 0; i < columns.length; i++) {
+      for (int i = 0; i < values.length; i++) {
         String key;
-        Field header = (headers != null) ? headers.get(i) : null;
+        int position = (positions != null) ? positions[i] : i;
+        Field header = getHeader(position);
         if(header != null) {
           key = header.getValueAsString();
         } else {
-          key = i + "";
+          key = position + "";
         }
-        listMap.put(key, getField(columns[i]));
+        listMap.put(key, getField(values[i]));
       }
       record.set(Field.createListMap(listMap));
     }
+  }
 
-    return record;
+  private Field getHeader(int position) {
+    return (headers != null && position < headers.size()) ? headers.get(position) : null;
   }
 
   private Field getListField(String ...values) {
@@ -169,12 +278,16 @@ public class DelimitedCharDataParser extends AbstractDataParser {
 
   @Override
   public String getOffset() {
-    return (eof) ? String.valueOf(-1) : String.valueOf(parser.getReaderPosition());
+    return (eof) ? String.valueOf(-1) : String.valueOf(getReaderPosition());
   }
 
   @Override
   public void close() throws IOException {
-    parser.close();
+    if (scanner != null) {
+      scanner.close();
+    } else {
+      parser.close();
+    }
   }
 
 }
@@ -35,6 +35,8 @@ import org.apache.commons.csv.CSVFormat;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -47,6 +49,8 @@ public class DelimitedDataParserFactory extends DataParserFactory {
     put(DelimitedDataConstants.SKIP_START_LINES, 0);
     put(DelimitedDataConstants.PARSE_NULL, false);
     put(DelimitedDataConstants.NULL_CONSTANT, "\\\\N");
+    put(DelimitedDataConstants.HIGH_THROUGHPUT, false);
+    put(DelimitedDataConstants.COLUMNS, new ArrayList<String>());
   }};
 
   public static final Set<Class<? extends Enum>> MODES =
@@ -66,6 +70,7 @@ public class DelimitedDataParserFactory extends DataParserFactory {
     return createParser(id, createReader(reader), offset);
   }
 
+  @SuppressWarnings("unchecked")
   private DataParser createParser(String id, OverrunReader reader, long offset) throws DataParserException {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
                                                          reader.getPos()));
@@ -87,7 +92,9 @@ public class DelimitedDataParserFactory extends DataParserFactory {
         getSettings().getMaxRecordLen(),
         getSettings().getMode(CsvRecordType.class),
         (Boolean) getSettings().getConfig(DelimitedDataConstants.PARSE_NULL),
-        (String) getSettings().getConfig(DelimitedDataConstants.NULL_CONSTANT)
+        (String) getSettings().getConfig(DelimitedDataConstants.NULL_CONSTANT),
+        (Boolean) getSettings().getConfig(DelimitedDataConstants.HIGH_THROUGHPUT),
+        (List<String>) getSettings().getConfig(DelimitedDataConstants.COLUMNS)
       );
     } catch (IOException ex) {
       throw new DataParserException(Errors.DELIMITED_PARSER_00, id, offset, ex.toString(), ex);
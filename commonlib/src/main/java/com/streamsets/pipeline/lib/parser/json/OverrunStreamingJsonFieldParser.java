@@ -0,0 +1,144 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.io.OverrunReader;
+import com.streamsets.pipeline.lib.json.OverrunStreamingJsonParser;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON parser that reads the JSON values as <code>Field</code> trees.
+ * <p/>
+ * The fields are created straight from the Jackson tokens, without binding the values to Java maps and lists first.
+ * Field names are not copied, Jackson canonicalizes them so repeated names in a stream share the same String. The
+ * max object length is checked as each value is read.
+ * <p/>
+ * Values with an unsupported type (integers not fitting in a long) are still fully read, so the parser stays
+ * positioned at the next value, {@link #getUnsupportedType()} reports them.
+ */
+public class OverrunStreamingJsonFieldParser extends OverrunStreamingJsonParser {
+  private String unsupportedType;
+
+  public OverrunStreamingJsonFieldParser(OverrunReader reader, long initialPosition, Mode mode, int maxObjectLen)
+      throws IOException {
+    super(reader, initialPosition, mode, maxObjectLen);
+  }
+
+  /**
+   * Returns the unsupported type found in the last value read, NULL if all its types were supported.
+   */
+  public String getUnsupportedType() {
+    return unsupportedType;
+  }
+
+  @Override
+  protected Object readValue() throws IOException {
+    unsupportedType = null;
+    JsonParser parser = getJsonParser();
+    // as with Jackson databinding, a root null value is returned as NULL
+    return (parser.getCurrentToken() == JsonToken.VALUE_NULL) ? null : readField(parser);
+  }
+
+  private Field readField(JsonParser parser) throws IOException {
+    Field field;
+    switch (parser.getCurrentToken()) {
+      case START_OBJECT:
+        field = Field.create(readMap(parser));
+        break;
+      case START_ARRAY:
+        field = Field.create(readList(parser));
+        break;
+      case VALUE_STRING:
+        field = Field.create(parser.getText());
+        break;
+      case VALUE_NUMBER_INT:
+        field = readInteger(parser);
+        break;
+      case VALUE_NUMBER_FLOAT:
+        field = Field.create(Double.valueOf(parser.getDoubleValue()));
+        break;
+      case VALUE_TRUE:
+        field = Field.create(Boolean.TRUE);
+        break;
+      case VALUE_FALSE:
+        field = Field.create(Boolean.FALSE);
+        break;
+      case VALUE_NULL:
+        field = Field.create(Field.Type.STRING, null);
+        break;
+      default:
+        Object value = parser.getEmbeddedObject();
+        field = unsupported((value == null) ? parser.getCurrentToken().name() : value.getClass().getSimpleName());
+    }
+    return field;
+  }
+
+  private Field readInteger(JsonParser parser) throws IOException {
+    Field field;
+    switch (parser.getNumberType()) {
+      case INT:
+        field = Field.create(Integer.valueOf(parser.getIntValue()));
+        break;
+      case LONG:
+        field = Field.create(Long.valueOf(parser.getLongValue()));
+        break;
+      default:
+        field = unsupported(BigInteger.class.getSimpleName());
+    }
+    return field;
+  }
+
+  private Map<String, Field> readMap(JsonParser parser) throws IOException {
+    Map<String, Field> map = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      map.put(name, readField(parser));
+      checkObjectLength();
+    }
+    return map;
+  }
+
+  private List<Field> readList(JsonParser parser) throws IOException {
+    List<Field> list = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      list.add(readField(parser));
+      checkObjectLength();
+    }
+    return list;
+  }
+
+  private Field unsupported(String type) {
+    if (unsupportedType == null) {
+      unsupportedType = type;
+    }
+    return Field.create(Field.Type.STRING, null);
+  }
+
+}
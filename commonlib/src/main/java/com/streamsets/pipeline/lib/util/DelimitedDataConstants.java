@@ -27,6 +27,8 @@ public class DelimitedDataConstants {
   public static final String SKIP_START_LINES = "skipStartLines";
   public static final String PARSE_NULL = "parseNull";
   public static final String NULL_CONSTANT = "nullConstant";
+  public static final String HIGH_THROUGHPUT = "highThroughput";
+  public static final String COLUMNS = "columns";
 
   private DelimitedDataConstants() {}
 }
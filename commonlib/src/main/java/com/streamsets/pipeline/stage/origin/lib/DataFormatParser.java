@@ -286,7 +286,13 @@ public class DataFormatParser {
           .setConfig(DelimitedDataConstants.ESCAPE_CONFIG, dataFormatConfig.csvCustomEscape)
           .setConfig(DelimitedDataConstants.QUOTE_CONFIG, dataFormatConfig.csvCustomQuote)
           .setConfig(DelimitedDataConstants.PARSE_NULL, dataFormatConfig.parseNull)
-          .setConfig(DelimitedDataConstants.NULL_CONSTANT, dataFormatConfig.nullConstant);
+          .setConfig(DelimitedDataConstants.NULL_CONSTANT, dataFormatConfig.nullConstant)
+          .setConfig(DelimitedDataConstants.HIGH_THROUGHPUT, dataFormatConfig.csvHighThroughput)
+          .setConfig(
+              DelimitedDataConstants.COLUMNS,
+              (dataFormatConfig.csvColumns != null)
+                  ? new ArrayList<>(dataFormatConfig.csvColumns) : new ArrayList<String>()
+          );
         break;
       case XML:
         builder.setMaxDataLen(dataFormatConfig.xmlMaxObjectLen);
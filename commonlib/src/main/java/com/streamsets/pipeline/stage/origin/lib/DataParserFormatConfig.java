@@ -377,6 +377,34 @@ public class DataParserFormatConfig implements DataFormatConfig {
   )
   public String nullConstant;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "High Throughput Parser",
+      description = "Scans the data into a reused buffer and only creates values for the columns read. " +
+          "Comment markers are not supported.",
+      displayPosition = 438,
+      group = "DATA_FORMAT",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "DELIMITED"
+  )
+  public boolean csvHighThroughput;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.LIST,
+      defaultValue = "[]",
+      label = "Columns to Read",
+      description = "Header names or column positions (starting at 0) of the columns to read. " +
+          "Leave empty to read all the columns.",
+      displayPosition = 439,
+      group = "DATA_FORMAT",
+      dependsOn = "csvHighThroughput",
+      triggeredByValue = "true"
+  )
+  public List<String> csvColumns = new ArrayList<>();
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
@@ -1246,7 +1274,12 @@ public class DataParserFormatConfig implements DataFormatConfig {
         .setConfig(DelimitedDataConstants.ESCAPE_CONFIG, csvCustomEscape)
         .setConfig(DelimitedDataConstants.QUOTE_CONFIG, csvCustomQuote)
         .setConfig(DelimitedDataConstants.PARSE_NULL, parseNull)
-        .setConfig(DelimitedDataConstants.NULL_CONSTANT, nullConstant);
+        .setConfig(DelimitedDataConstants.NULL_CONSTANT, nullConstant)
+        .setConfig(DelimitedDataConstants.HIGH_THROUGHPUT, csvHighThroughput)
+        .setConfig(
+            DelimitedDataConstants.COLUMNS,
+            (csvColumns != null) ? new ArrayList<>(csvColumns) : new ArrayList<String>()
+        );
   }
 
   private void buildProtobufParser(DataParserFactoryBuilder builder) {
@@ -27,6 +27,7 @@ import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvRecordType;
 import com.streamsets.pipeline.lib.io.OverrunReader;
 import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.apache.commons.csv.CSVFormat;
@@ -35,6 +36,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -312,4 +314,88 @@ public class TestDelimitedCharDataParser {
     }
   }
 
+  @Test
+  public void testHighThroughputWithHeader() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("A,B,C\na,\"b,1\",c\nx,y"), 1000, true, false);
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, 0, CSVFormat.DEFAULT,
+      CsvHeader.WITH_HEADER, -1, CsvRecordType.LIST_MAP, false, null, true, Collections.<String>emptyList());
+    Assert.assertEquals("6", parser.getOffset());
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::6", record.getHeader().getSourceId());
+    Assert.assertEquals("a", record.get("/A").getValueAsString());
+    Assert.assertEquals("b,1", record.get("/B").getValueAsString());
+    Assert.assertEquals("c", record.get("/C").getValueAsString());
+    Assert.assertEquals("16", parser.getOffset());
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("x", record.get("/A").getValueAsString());
+    Assert.assertEquals("y", record.get("/B").getValueAsString());
+    Assert.assertFalse(record.has("/C"));
+    Assert.assertEquals("19", parser.getOffset());
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals("-1", parser.getOffset());
+    parser.close();
+  }
+
+  @Test
+  public void testHighThroughputColumns() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("A,B,C\na,b,c\nx"), 1000, true, false);
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, 0, CSVFormat.DEFAULT,
+      CsvHeader.WITH_HEADER, -1, CsvRecordType.LIST, false, null, true, Arrays.asList("C", "0"));
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    List<Field> row = record.get().getValueAsList();
+    Assert.assertEquals(2, row.size());
+    Assert.assertEquals("A", row.get(0).getValueAsMap().get("header").getValueAsString());
+    Assert.assertEquals("a", row.get(0).getValueAsMap().get("value").getValueAsString());
+    Assert.assertEquals("C", row.get(1).getValueAsMap().get("header").getValueAsString());
+    Assert.assertEquals("c", row.get(1).getValueAsMap().get("value").getValueAsString());
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    row = record.get().getValueAsList();
+    Assert.assertEquals(1, row.size());
+    Assert.assertEquals("x", row.get(0).getValueAsMap().get("value").getValueAsString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test
+  public void testHighThroughputColumnsNoHeader() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("a,null,c\n"), 1000, true, false);
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, 0, CSVFormat.DEFAULT,
+      CsvHeader.NO_HEADER, -1, CsvRecordType.LIST_MAP, true, "null", true, Arrays.asList("1", "2"));
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertFalse(record.has("/0"));
+    Assert.assertTrue(record.has("/1"));
+    Assert.assertNull(record.get("/1").getValueAsString());
+    Assert.assertEquals("c", record.get("/2").getValueAsString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test(expected = DataParserException.class)
+  public void testHighThroughputInvalidColumn() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("A,B\na,b"), 1000, true, false);
+    new DelimitedCharDataParser(getContext(), "id", reader, 0, 0, CSVFormat.DEFAULT,
+      CsvHeader.WITH_HEADER, -1, CsvRecordType.LIST_MAP, false, null, true, Arrays.asList("D"));
+  }
+
+  @Test
+  public void testHighThroughputMoreColumnsThenInHeader() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("A,B\na,b,c"), 1000, true, false);
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, 0, CSVFormat.DEFAULT,
+      CsvHeader.WITH_HEADER, -1, CsvRecordType.LIST, false, null, true, Arrays.asList("B"));
+    try {
+      parser.parse();
+      Assert.fail("Expected exception while parsing!");
+    } catch(RecoverableDataParserException ex) {
+      List<Field> columns = ex.getUnparsedRecord().get("/columns").getValueAsList();
+      Assert.assertEquals(3, columns.size());
+      Assert.assertEquals("c", columns.get(2).getValueAsString());
+    }
+    parser.close();
+  }
+
 }
@@ -19,12 +19,14 @@
  */
 package com.streamsets.pipeline.lib.parser.json;
 
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.lib.io.OverrunReader;
 import com.streamsets.pipeline.lib.json.OverrunStreamingJsonParser;
 import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.junit.Assert;
 import org.junit.Test;
@@ -32,6 +34,8 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class TestJsonCharDataParser {
 
@@ -195,4 +199,69 @@ public class TestJsonCharDataParser {
     parser.close();
   }
 
+  @Test
+  public void testParseFieldTypes() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader(
+        "{\"s\":\"x\",\"i\":1,\"l\":3000000000,\"d\":1.5,\"t\":true,\"f\":false,\"n\":null," +
+        "\"a\":[1,[2],{\"b\":\"c\"}],\"m\":{\"e\":{}}}"), 1000, true, false);
+    DataParser parser = new JsonCharDataParser(getContext(), "id", reader, 0,
+                                               OverrunStreamingJsonParser.Mode.MULTIPLE_OBJECTS, 1000);
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Map<String, Field> map = record.get().getValueAsMap();
+    Assert.assertEquals(Field.create("x"), map.get("s"));
+    Assert.assertEquals(Field.create(1), map.get("i"));
+    Assert.assertEquals(Field.create(3000000000L), map.get("l"));
+    Assert.assertEquals(Field.create(1.5d), map.get("d"));
+    Assert.assertEquals(Field.create(true), map.get("t"));
+    Assert.assertEquals(Field.create(false), map.get("f"));
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), map.get("n"));
+    List<Field> list = map.get("a").getValueAsList();
+    Assert.assertEquals(Field.create(1), list.get(0));
+    Assert.assertEquals(Field.create(2), list.get(1).getValueAsList().get(0));
+    Assert.assertEquals("c", list.get(2).getValueAsMap().get("b").getValueAsString());
+    Assert.assertTrue(map.get("m").getValueAsMap().get("e").getValueAsMap().isEmpty());
+    Assert.assertEquals("[s, i, l, d, t, f, n, a, m]", map.keySet().toString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test
+  public void testParseObjectExceedingMaxLength() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader(
+        "{\"a\":[\"0123456789\",\"0123456789\",\"0123456789\"]}\n{\"b\":1}"), 1000, true, false);
+    DataParser parser = new JsonCharDataParser(getContext(), "id", reader, 0,
+                                               OverrunStreamingJsonParser.Mode.MULTIPLE_OBJECTS, 20);
+    try {
+      parser.parse();
+      Assert.fail();
+    } catch (DataParserException ex) {
+      Assert.assertEquals(Errors.JSON_PARSER_02, ex.getErrorCode());
+    }
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(1, record.get("/b").getValueAsInteger());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test
+  public void testParseUnsupportedType() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader(
+        "{\"a\":[123456789012345678901234567890, 1]}\n{\"b\":1}"), 1000, true, false);
+    DataParser parser = new JsonCharDataParser(getContext(), "id", reader, 0,
+                                               OverrunStreamingJsonParser.Mode.MULTIPLE_OBJECTS, 1000);
+    try {
+      parser.parse();
+      Assert.fail();
+    } catch (DataParserException ex) {
+      Assert.assertEquals(Errors.JSON_PARSER_01, ex.getErrorCode());
+    }
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(1, record.get("/b").getValueAsInteger());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
 }
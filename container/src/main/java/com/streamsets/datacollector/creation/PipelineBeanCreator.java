@@ -160,7 +160,7 @@ public abstract class PipelineBeanCreator {
     return value;
   }
 
-  StageBean createStageBean(boolean forExecution, StageLibraryTask library, StageConfiguration stageConf,
+  public StageBean createStageBean(boolean forExecution, StageLibraryTask library, StageConfiguration stageConf,
       boolean errorStage, Map<String, Object> constants, List<Issue> errors) {
     IssueCreator issueCreator = IssueCreator.getStage(stageConf.getInstanceName());
     StageBean bean = null;
@@ -254,6 +254,34 @@ public class PipelineConfigBean implements Stage {
   )
   public long rateLimit;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Runner Threads",
+      description = "Number of threads processing batches produced by the origin concurrently. Each thread uses its " +
+          "own instances of the pipeline processors and destinations, so the in memory state of a stage, such as " +
+          "aggregations, caches or records seen by the Record Deduplicator, is kept per thread. Applies to " +
+          "standalone execution mode only.",
+      displayPosition = 190,
+      min = 1,
+      max = 256
+  )
+  public int runnerThreads;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Read-Ahead Batches",
+      description = "Number of batches the origin can read ahead while previous batches are still being processed. " +
+          "Use 0 to read a batch only when there is a runner available to process it.",
+      displayPosition = 200,
+      min = 0,
+      max = 100
+  )
+  public int readAheadBatches;
+
   @Override
   public List<ConfigIssue> init(Info info, Context context) {
     return Collections.emptyList();
@@ -45,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -84,8 +85,8 @@ public abstract class ELDefinitionExtractor {
   }
 
   private AtomicInteger indexCounter;
-  private final Map<Method, ElFunctionDefinition> elFunctions;
-  private final Map<Field, ElConstantDefinition> elConstants;
+  private final ConcurrentMap<Method, ElFunctionDefinition> elFunctions;
+  private final ConcurrentMap<Field, ElConstantDefinition> elConstants;
   private final Map<String, ElFunctionDefinition> elFunctionsIdx;
   private final Map<String, ElConstantDefinition> elConstantsIdx;
 
@@ -180,8 +181,13 @@ public abstract class ELDefinitionExtractor {
               fDef = new ElFunctionDefinition(Integer.toString(indexCounter.incrementAndGet()), fAnnotation.prefix(),
                                               fName, fAnnotation.description(), fArgDefs,
                                               method.getReturnType().getSimpleName(), method);
-              elFunctionsIdx.put(fDef.getIndex(), fDef);
-              elFunctions.put(method, fDef);
+              ElFunctionDefinition existing = elFunctions.putIfAbsent(method, fDef);
+              if (existing == null) {
+                elFunctionsIdx.put(fDef.getIndex(), fDef);
+              } else {
+                // extracted at the same time for another stage library, all of them must share the same definition
+                fDef = existing;
+              }
             }
           }
           if (fDef != null) {
@@ -248,8 +254,13 @@ public abstract class ELDefinitionExtractor {
               }
               cDef = new ElConstantDefinition(Integer.toString(indexCounter.incrementAndGet()), cName,
                                               cAnnotation.description(), field.getType().getSimpleName(), value);
-              elConstantsIdx.put(cDef.getIndex(), cDef);
-              elConstants.put(field, cDef);
+              ElConstantDefinition existing = elConstants.putIfAbsent(field, cDef);
+              if (existing == null) {
+                elConstantsIdx.put(cDef.getIndex(), cDef);
+              } else {
+                // extracted at the same time for another stage library, all of them must share the same definition
+                cDef = existing;
+              }
             }
           }
           if (cDef != null) {
@@ -19,12 +19,15 @@
  */
 package com.streamsets.datacollector.el;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.streamsets.datacollector.definition.ELDefinitionExtractor;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.util.CommonError;
+import org.apache.commons.el.ExpressionCompiler;
 import org.apache.commons.el.LruExpressionEvaluatorImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,10 +49,15 @@ public class ELEvaluator extends ELEval {
   private final FunctionMapperImpl functionMapper;
   private final List<ElFunctionDefinition> elFunctionDefinitions;
   private final List<ElConstantDefinition> elConstantDefinitions;
+  private final ExpressionCompiler compiler;
+  // expressions compiled by this evaluator, evaluators are created per stage configuration
+  private final Cache<String, Object> compiledExpressions;
 
   // ExpressionEvaluatorImpl can be used as a singleton
   private static final LruExpressionEvaluatorImpl EVALUATOR = new LruExpressionEvaluatorImpl();
 
+  private static final int MAX_COMPILED_EXPRESSIONS = 1000;
+
   public ELEvaluator(String configName, Map<String, Object> constants, List<Class> elFuncConstDefClasses) {
     this(configName, constants, elFuncConstDefClasses.toArray(new Class[elFuncConstDefClasses.size()]));
   }
@@ -62,6 +70,8 @@ public class ELEvaluator extends ELEval {
     elConstantDefinitions = new ArrayList<>();
     populateConstantsAndFunctions(elFuncConstDefClasses);
     this.functionMapper = new FunctionMapperImpl();
+    this.compiler = new ExpressionCompiler(functionMapper);
+    this.compiledExpressions = CacheBuilder.newBuilder().maximumSize(MAX_COMPILED_EXPRESSIONS).build();
   }
 
   public ELEvaluator(String configName, Class<?>... elFuncConstDefClasses) {
@@ -140,7 +150,7 @@ public class ELEvaluator extends ELEval {
       }
     };
     try {
-      return (T) EVALUATOR.evaluate(expression, returnType, variableResolver, functionMapper);
+      return (T) ExpressionCompiler.evaluate(compile(expression), returnType, variableResolver, functionMapper);
     } catch (ELException e) {
       // Apache evaluator is not using the getCause exception chaining that is available in Java but rather a custom
       // chaining mechanism. This doesn't work well for us as we're effectively swallowing the cause that is not
@@ -157,6 +167,18 @@ public class ELEvaluator extends ELEval {
     }
   }
 
+  private Object compile(String expression) throws ELException {
+    if (expression == null) {
+      throw new ELException("Expression cannot be null");
+    }
+    Object compiled = compiledExpressions.getIfPresent(expression);
+    if (compiled == null) {
+      compiled = compiler.compile(expression);
+      compiledExpressions.put(expression, compiled);
+    }
+    return compiled;
+  }
+
   private class FunctionMapperImpl implements FunctionMapper {
 
     @Override
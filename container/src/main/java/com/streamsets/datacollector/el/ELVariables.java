@@ -70,27 +70,41 @@ public class ELVariables implements ELVars {
     contextVariables.put(name, value);
   }
 
+  // the lookups run for every evaluation, names are validated only when not found as only valid names are added
+
   @Override
   public Object getVariable(String name) {
-    checkVariableName(name);
-    return variables.get(name);
+    Object value = variables.get(name);
+    if (value == null) {
+      checkVariableName(name);
+    }
+    return value;
   }
 
   @Override
   public boolean hasVariable(String name) {
+    if (variables.containsKey(name)) {
+      return true;
+    }
     checkVariableName(name);
-    return variables.containsKey(name);
+    return false;
   }
 
   @Override
   public boolean hasContextVariable(String name) {
+    if (contextVariables.containsKey(name)) {
+      return true;
+    }
     checkVariableName(name);
-    return contextVariables.containsKey(name);
+    return false;
   }
 
   @Override
   public Object getContextVariable(String name) {
-    checkVariableName(name);
-    return contextVariables.get(name);
+    Object value = contextVariables.get(name);
+    if (value == null) {
+      checkVariableName(name);
+    }
+    return value;
   }
 }
@@ -20,6 +20,7 @@
 package com.streamsets.datacollector.execution;
 
 import com.streamsets.datacollector.execution.manager.PipelineManagerException;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.task.Task;
 
@@ -56,4 +57,7 @@ public interface Manager extends Task {
   public boolean isRemotePipeline(String name, String rev) throws PipelineStoreException;
 
   void addStateEventListener(StateEventListener listener);
+
+  // returns the progress of the recovery of the pipelines that were active when the Data Collector stopped
+  PipelineRecoveryStatus getRecoveryStatus();
 }
@@ -33,7 +33,11 @@ public interface SnapshotStore {
   // creates a snapshot info, in progress
   public SnapshotInfo create(String user, String name, String rev, String id, String label) throws PipelineException;;
 
-  // saves the data of the snapshot and updates the corresponding snapshot info.
+  // appends a captured batch to the data of the snapshot, the snapshot remains in progress.
+  public SnapshotInfo appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+    throws PipelineException;
+
+  // saves the data of the snapshot, after any batches already appended, and marks the snapshot info as completed.
   public SnapshotInfo save(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineException;
 
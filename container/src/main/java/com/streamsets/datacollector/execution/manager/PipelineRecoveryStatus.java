@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.manager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress of the recovery of the pipelines that were active when the Data Collector stopped.
+ */
+public class PipelineRecoveryStatus {
+  private int total;
+  private int recovered;
+  private int failed;
+  private long startTime;
+  private long endTime;
+  private boolean finished;
+  private final Map<String, String> errors = new LinkedHashMap<>();
+
+  public synchronized void start(int total) {
+    this.total = total;
+    startTime = System.currentTimeMillis();
+  }
+
+  public synchronized void recovered() {
+    recovered++;
+  }
+
+  public synchronized void failed(String pipeline, String message) {
+    failed++;
+    errors.put(pipeline, message);
+  }
+
+  public synchronized void finish() {
+    endTime = System.currentTimeMillis();
+    finished = true;
+  }
+
+  /**
+   * Returns the number of pipelines to recover.
+   */
+  public synchronized int getTotal() {
+    return total;
+  }
+
+  public synchronized int getRecovered() {
+    return recovered;
+  }
+
+  public synchronized int getFailed() {
+    return failed;
+  }
+
+  public synchronized int getPending() {
+    return total - recovered - failed;
+  }
+
+  public synchronized long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Returns the time the recovery finished, zero while the recovery is in progress.
+   */
+  public synchronized long getEndTime() {
+    return endTime;
+  }
+
+  public synchronized boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Returns the error message of each pipeline that could not be recovered.
+   */
+  public synchronized Map<String, String> getErrors() {
+    return new LinkedHashMap<>(errors);
+  }
+
+}
@@ -28,6 +28,7 @@ import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.Previewer;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.StateEventListener;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.execution.manager.RunnerProvider;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.SlaveRuntimeInfo;
@@ -140,4 +141,13 @@ public class SlavePipelineManager extends AbstractTask implements Manager {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public PipelineRecoveryStatus getRecoveryStatus() {
+    // slave pipelines are started by the cluster master, there is nothing to recover
+    PipelineRecoveryStatus recoveryStatus = new PipelineRecoveryStatus();
+    recoveryStatus.start(0);
+    recoveryStatus.finish();
+    return recoveryStatus;
+  }
+
 }
@@ -24,6 +24,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.execution.EventListenerManager;
 import com.streamsets.datacollector.execution.Manager;
@@ -36,6 +37,7 @@ import com.streamsets.datacollector.execution.PreviewerListener;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.execution.manager.PipelineManagerException;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.execution.manager.PreviewerProvider;
 import com.streamsets.datacollector.execution.manager.RunnerProvider;
 import com.streamsets.datacollector.main.RuntimeInfo;
@@ -65,6 +67,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -93,6 +97,10 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
   static final long DEFAULT_RUNNER_EXPIRY_INTERVAL = 60*60*1000;
   static final String RUNNER_EXPIRY_INTERVAL = "runner.expiry.interval";
   private final long runnerExpiryInterval;
+  static final int DEFAULT_RECOVERY_THREADS = 8;
+  static final String RECOVERY_THREADS = "pipeline.recovery.threads";
+  private final int recoveryThreads;
+  private final PipelineRecoveryStatus recoveryStatus = new PipelineRecoveryStatus();
   private ScheduledFuture<?> runnerExpiryFuture;
   private static final String NAME_AND_REV_SEPARATOR = "::";
 
@@ -101,6 +109,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     this.objectGraph = objectGraph;
     this.objectGraph.inject(this);
     runnerExpiryInterval = this.configuration.get(RUNNER_EXPIRY_INTERVAL, DEFAULT_RUNNER_EXPIRY_INTERVAL);
+    recoveryThreads = this.configuration.get(RECOVERY_THREADS, DEFAULT_RECOVERY_THREADS);
     eventListenerManager.addStateEventListener(resourceManager);
     MetricsConfigurator.registerJmxMetrics(runtimeInfo.getMetrics());
   }
@@ -224,29 +233,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     } catch (PipelineStoreException ex) {
       throw new RuntimeException("Cannot load the list of pipelines from StateStore", ex);
     }
-    for (PipelineInfo pipelineInfo : pipelineInfoList) {
-      String name = pipelineInfo.getName();
-      String rev = pipelineInfo.getLastRev();
-      try {
-        if (isRemotePipeline(name, rev) && !runtimeInfo.isDPMEnabled()) {
-          LOG.info(Utils.format("Not activating remote pipeline'{}:{}' as DPM is disabled ", name, rev));
-          continue;
-        }
-        PipelineState pipelineState = pipelineStateStore.getState(name, rev);
-        // Create runner if active
-        if (pipelineState.getStatus().isActive()) {
-          ExecutionMode executionMode = pipelineState.getExecutionMode();
-          Runner runner = getRunner(pipelineState.getUser(), name, rev, executionMode);
-          runner.prepareForDataCollectorStart();
-          if (runner.getState().getStatus() == PipelineStatus.DISCONNECTED) {
-            runnerCache.put(getNameAndRevString(name, rev), new RunnerInfo(runner, executionMode));
-            runner.onDataCollectorStart();
-          }
-        }
-      } catch (Exception ex) {
-        LOG.error(Utils.format("Error while processing pipeline '{}::{}'", name, rev), ex);
-      }
-    }
+    recoverPipelines(pipelineInfoList);
 
     runnerExpiryFuture = managerExecutor.scheduleAtFixedRate(new Runnable() {
       @Override
@@ -266,6 +253,81 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     }, 0, runnerExpiryInterval, TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Creates the runners of the pipelines that were active when the Data Collector stopped, using a bounded thread
+   * pool. A failure recovering a pipeline is logged and reported in the recovery status, it does not affect the
+   * recovery of the other pipelines.
+   */
+  private void recoverPipelines(List<PipelineInfo> pipelineInfoList) {
+    List<Callable<Void>> recoveries = new ArrayList<>();
+    for (PipelineInfo pipelineInfo : pipelineInfoList) {
+      String name = pipelineInfo.getName();
+      String rev = pipelineInfo.getLastRev();
+      try {
+        if (isRemotePipeline(name, rev) && !runtimeInfo.isDPMEnabled()) {
+          LOG.info(Utils.format("Not activating remote pipeline'{}:{}' as DPM is disabled ", name, rev));
+          continue;
+        }
+        final PipelineState pipelineState = pipelineStateStore.getState(name, rev);
+        // Create runner if active
+        if (pipelineState.getStatus().isActive()) {
+          recoveries.add(new Callable<Void>() {
+            @Override
+            public Void call() {
+              recoverPipeline(pipelineState);
+              return null;
+            }
+          });
+        }
+      } catch (Exception ex) {
+        LOG.error(Utils.format("Error while processing pipeline '{}::{}'", name, rev), ex);
+      }
+    }
+
+    recoveryStatus.start(recoveries.size());
+    if (!recoveries.isEmpty()) {
+      int threads = Math.max(1, Math.min(recoveryThreads, recoveries.size()));
+      LOG.info("Recovering '{}' active pipelines using '{}' threads", recoveries.size(), threads);
+      ExecutorService recoveryExecutor = Executors.newFixedThreadPool(
+          threads,
+          new ThreadFactoryBuilder().setNameFormat("PipelineRecovery-%d").setDaemon(true).build()
+      );
+      try {
+        recoveryExecutor.invokeAll(recoveries);
+      } catch (InterruptedException ex) {
+        LOG.warn("Interrupted while recovering pipelines, '{}' pipelines not recovered", recoveryStatus.getPending());
+        Thread.currentThread().interrupt();
+      } finally {
+        recoveryExecutor.shutdownNow();
+      }
+    }
+    recoveryStatus.finish();
+    LOG.info("Recovered '{}' pipelines, '{}' failed", recoveryStatus.getRecovered(), recoveryStatus.getFailed());
+  }
+
+  private void recoverPipeline(PipelineState pipelineState) {
+    String name = pipelineState.getName();
+    String rev = pipelineState.getRev();
+    try {
+      ExecutionMode executionMode = pipelineState.getExecutionMode();
+      Runner runner = getRunner(pipelineState.getUser(), name, rev, executionMode);
+      runner.prepareForDataCollectorStart();
+      if (runner.getState().getStatus() == PipelineStatus.DISCONNECTED) {
+        runnerCache.put(getNameAndRevString(name, rev), new RunnerInfo(runner, executionMode));
+        runner.onDataCollectorStart();
+      }
+      recoveryStatus.recovered();
+    } catch (Exception ex) {
+      LOG.error(Utils.format("Error while processing pipeline '{}::{}'", name, rev), ex);
+      recoveryStatus.failed(getNameAndRevString(name, rev), ex.toString());
+    }
+  }
+
+  @Override
+  public PipelineRecoveryStatus getRecoveryStatus() {
+    return recoveryStatus;
+  }
+
   @VisibleForTesting
   boolean isRunnerPresent(String name, String rev) {
      return runnerCache.getIfPresent(getNameAndRevString(name, rev)) != null;
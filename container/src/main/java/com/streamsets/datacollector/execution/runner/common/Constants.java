@@ -52,6 +52,18 @@ public class Constants {
   public static final int STATS_AGGREGATOR_QUEUE_SIZE_DEFAULT = 1000;
   public static final String MAX_STATS_REQUEST_OFFER_WAIT_TIME_MS_KEY = "stats.queue.offer.max.wait.time.ms";
   public static final int MAX_STATS_REQUEST_OFFER_WAIT_TIME_MS_DEFAULT = 0;
+  public static final String OFFSET_JOURNAL_ENABLED_KEY = "production.offset.journal.enabled";
+  public static final boolean OFFSET_JOURNAL_ENABLED_DEFAULT = true;
+  public static final String OFFSET_JOURNAL_SYNC_KEY = "production.offset.journal.sync";
+  public static final String OFFSET_JOURNAL_SYNC_DEFAULT = "INTERVAL";
+  public static final String OFFSET_JOURNAL_SYNC_INTERVAL_MS_KEY = "production.offset.journal.sync.interval.ms";
+  public static final long OFFSET_JOURNAL_SYNC_INTERVAL_MS_DEFAULT = 1000;
+  public static final String OFFSET_JOURNAL_COMPACTION_ENTRIES_KEY = "production.offset.journal.compaction.entries";
+  public static final int OFFSET_JOURNAL_COMPACTION_ENTRIES_DEFAULT = 10000;
+  public static final String STATE_HISTORY_SEGMENT_SIZE_KEY = "production.state.history.segment.size";
+  public static final long STATE_HISTORY_SEGMENT_SIZE_DEFAULT = 1024 * 1024;
+  public static final String STATE_HISTORY_SEGMENTS_KEY = "production.state.history.segments";
+  public static final int STATE_HISTORY_SEGMENTS_DEFAULT = 10;
 
   public static final String STOP_PIPELINE_MESSAGE = "Requested via REST API";
 
@@ -90,7 +90,7 @@ public class ProductionObserver implements Observer {
   }
 
   @Override
-  public void reconfigure() {
+  public synchronized void reconfigure() {
     if(currentConfig != newConfig){
       this.currentConfig = this.newConfig;
       boolean offered = false;
@@ -156,8 +156,9 @@ public class ProductionObserver implements Observer {
     this.newConfig = rulesConfigurationChangeRequest;
   }
 
+  // synchronized as the lane sampling state is shared by all the runners of a multithreaded pipeline
   @VisibleForTesting
-  Map<String, List<Record>> getSampleRecords(List<DataRuleDefinition> dataRuleDefinitions,
+  synchronized Map<String, List<Record>> getSampleRecords(List<DataRuleDefinition> dataRuleDefinitions,
                                                      List<Record> allRecords, String lane) {
 
     // Tucu's Algorithm for sampling
@@ -21,6 +21,7 @@ package com.streamsets.datacollector.execution.runner.common;
 
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.StateListener;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
@@ -141,6 +142,9 @@ public class ProductionPipeline {
           LOG.warn("Error while calling destroy: " + e, e);
           throw e;
         } finally {
+          // compacts the offset journal so the offset file has the last committed offset, before the state change
+          // can start the pipeline again with a new offset tracker using the same journal
+          closeOffsetTracker();
           // if the destroy throws an Exception but pipeline.run() finishes well,
           // me move to finished state
           if (finishing) {
@@ -165,6 +169,16 @@ public class ProductionPipeline {
     }
   }
 
+  private void closeOffsetTracker() {
+    if (pipelineRunner.getOffSetTracker() instanceof ProductionSourceOffsetTracker) {
+      try {
+        ((ProductionSourceOffsetTracker) pipelineRunner.getOffSetTracker()).close();
+      } catch (RuntimeException e) {
+        LOG.error("Error while closing the offset tracker: {}", e.toString(), e);
+      }
+    }
+  }
+
   /**
    * Does it make sense to re-run the pipeline (if allowed) after
    * given Throwable was thrown while running the pipeline.
@@ -198,6 +212,11 @@ public class ProductionPipeline {
     return pipelineRunner.getCommittedOffset();
   }
 
+  public SnapshotInfo createSnapshot(String user, String snapshotName, String snapshotLabel)
+      throws PipelineException {
+    return pipelineRunner.createSnapshot(user, snapshotName, snapshotLabel);
+  }
+
   public void captureSnapshot(String snapshotName, int batchSize, int batches) {
     pipelineRunner.capture(snapshotName, batchSize, batches);
   }
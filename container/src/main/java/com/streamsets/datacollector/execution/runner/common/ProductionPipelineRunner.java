@@ -29,10 +29,12 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.config.DeliveryGuarantee;
 import com.streamsets.datacollector.config.MemoryLimitConfiguration;
 import com.streamsets.datacollector.config.MemoryLimitExceeded;
 import com.streamsets.datacollector.config.StageType;
+import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
@@ -44,18 +46,22 @@ import com.streamsets.datacollector.restapi.bean.MeterJson;
 import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
 import com.streamsets.datacollector.runner.BatchListener;
 import com.streamsets.datacollector.runner.ErrorSink;
+import com.streamsets.datacollector.runner.EventSink;
 import com.streamsets.datacollector.runner.FullPipeBatch;
 import com.streamsets.datacollector.runner.Observer;
 import com.streamsets.datacollector.runner.Pipe;
 import com.streamsets.datacollector.runner.PipeBatch;
 import com.streamsets.datacollector.runner.PipeContext;
+import com.streamsets.datacollector.runner.Pipeline;
 import com.streamsets.datacollector.runner.PipelineRunner;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.RuntimeStats;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
 import com.streamsets.datacollector.runner.StageContext;
 import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.runner.StagePipe;
 import com.streamsets.datacollector.runner.production.BadRecordsHandler;
+import com.streamsets.datacollector.runner.production.OrderedBatchOffsetTracker;
 import com.streamsets.datacollector.runner.production.PipelineErrorNotificationRequest;
 import com.streamsets.datacollector.runner.production.StatsAggregationHandler;
 import com.streamsets.datacollector.util.AggregatorUtil;
@@ -70,6 +76,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
 import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,22 +88,31 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class ProductionPipelineRunner implements PipelineRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionPipelineRunner.class);
+  // captured batches waiting to be written, the pipeline thread waits for the writer once they are this many
+  private static final int SNAPSHOT_WRITER_QUEUE_SIZE = 2;
 
   private final RuntimeInfo runtimeInfo;
   private final com.streamsets.datacollector.util.Configuration configuration;
   private final MetricRegistry metrics;
   private SourceOffsetTracker offsetTracker;
   private final SnapshotStore snapshotStore;
-  private String sourceOffset;
-  private String newSourceOffset;
+  private volatile String sourceOffset;
+  private volatile String newSourceOffset;
   private DeliveryGuarantee deliveryGuarantee;
   private final String pipelineName;
   private final String revision;
@@ -144,8 +160,20 @@ public class ProductionPipelineRunner implements PipelineRunner {
   private MemoryLimitConfiguration memoryLimitConfiguration;
   private long lastMemoryLimitNotification;
   private ThreadHealthReporter threadHealthReporter;
-  private final List<List<StageOutput>> capturedBatches = new ArrayList<>();
+  private int capturedBatches;
+  // writes the captured batches to the snapshot store off the pipeline thread, a single thread keeps them in order
+  private final ThreadPoolExecutor snapshotWriter;
+  // the snapshot writes are done holding this lock, so the data of a snapshot is not replaced in the middle of a write
+  private final Object snapshotWriteLock = new Object();
+  // changes when a snapshot is created or cancelled, writes of batches captured before that are discarded
+  private volatile int snapshotGeneration;
   private PipeContext pipeContext = null;
+  private List<Pipe[]> runnerPipes = Collections.emptyList();
+  private int readAheadBatches;
+  // reused from batch to batch when running with a single runner, see runBatch()
+  private FullPipeBatch reusablePipeBatch;
+  private final Map<String, Long> reusableMemoryConsumedByStage = new HashMap<>();
+  private final Map<String, Object> reusableStageBatchMetrics = new HashMap<>();
 
   @Inject
   public ProductionPipelineRunner(@Named("name") String pipelineName, @Named("rev") String revision,
@@ -163,6 +191,27 @@ public class ProductionPipelineRunner implements PipelineRunner {
     stageToErrorMessagesMap = new HashMap<>();
     errorRecordsMutex = new Object();
     this.errorListeners = new ArrayList<>();
+    snapshotWriter = new ThreadPoolExecutor(
+        1,
+        1,
+        60,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(SNAPSHOT_WRITER_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("ProductionPipelineRunner-snapshot-%d").setDaemon(true).build(),
+        new RejectedExecutionHandler() {
+          @Override
+          public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            // waiting for room keeps the writes in order, running them in the pipeline thread would not
+            try {
+              executor.getQueue().put(r);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new RejectedExecutionException(e);
+            }
+          }
+        }
+    );
+    snapshotWriter.allowCoreThreadTimeOut(true);
 
     MetricsConfigurator.registerPipeline(pipelineName, revision);
     batchProcessingTimer = MetricsConfigurator.createTimer(metrics, "pipeline.batchProcessing", pipelineName, revision);
@@ -248,6 +297,14 @@ public class ProductionPipelineRunner implements PipelineRunner {
     this.memoryLimitConfiguration = memoryLimitConfiguration;
   }
 
+  /**
+   * Number of batches the origin can read ahead of the runners, a value greater than zero enables pipelined
+   * execution where the origin reads the next batch while the previous ones are processed.
+   */
+  public void setReadAheadBatches(int readAheadBatches) {
+    this.readAheadBatches = Math.max(0, readAheadBatches);
+  }
+
   public void setRateLimit(Long rateLimit) {
     this.rateLimit = rateLimit;
     rateLimiter = RateLimiter.create(rateLimit.doubleValue());
@@ -255,6 +312,7 @@ public class ProductionPipelineRunner implements PipelineRunner {
 
   public void setOffsetTracker(SourceOffsetTracker offsetTracker) {
     this.offsetTracker = offsetTracker;
+    this.reusablePipeBatch = null;
   }
 
   public void setThreadHealthReporter(ThreadHealthReporter threadHealthReporter) {
@@ -287,6 +345,10 @@ public class ProductionPipelineRunner implements PipelineRunner {
       BadRecordsHandler badRecordsHandler,
       StatsAggregationHandler statsAggregationHandler
   ) throws StageException, PipelineRuntimeException {
+    if (!runnerPipes.isEmpty() || readAheadBatches > 0) {
+      runMultithreaded(pipes, badRecordsHandler, statsAggregationHandler);
+      return;
+    }
 
     OffsetCommitTrigger offsetCommitTrigger = getOffsetCommitTrigger(pipes);
 
@@ -312,6 +374,167 @@ public class ProductionPipelineRunner implements PipelineRunner {
     }
   }
 
+  /**
+   * Runs the pipeline with several runners and/or reading batches ahead. The origin produces batches on the calling
+   * thread and each batch is handed to an idle runner, which processes it through its own instances of the processors
+   * and destinations on a thread of the runners pool. The origin waits once there are as many batches in flight as
+   * runners plus read-ahead batches, ready batches wait in the runners pool queue and are processed in read order.
+   * Once the pipeline stops the batches still waiting are not processed and their offsets are not committed.
+   */
+  private void runMultithreaded(
+      Pipe[] pipes,
+      final BadRecordsHandler badRecordsHandler,
+      final StatsAggregationHandler statsAggregationHandler
+  ) throws StageException, PipelineRuntimeException {
+    List<Pipe> sourcePipes = new ArrayList<>();
+    List<Pipe> mainRunnerPipes = new ArrayList<>();
+    for (Pipe pipe : pipes) {
+      if (Pipeline.isSourcePipe(pipe)) {
+        sourcePipes.add(pipe);
+      } else {
+        mainRunnerPipes.add(pipe);
+      }
+    }
+    Pipe[] originPipes = sourcePipes.toArray(new Pipe[sourcePipes.size()]);
+    final BlockingQueue<Pipe[]> idleRunners = new ArrayBlockingQueue<>(runnerPipes.size() + 1);
+    idleRunners.add(mainRunnerPipes.toArray(new Pipe[mainRunnerPipes.size()]));
+    for (Pipe[] runner : runnerPipes) {
+      List<Pipe> runnerOnlyPipes = new ArrayList<>();
+      for (Pipe pipe : runner) {
+        if (!Pipeline.isSourcePipe(pipe)) {
+          runnerOnlyPipes.add(pipe);
+        }
+      }
+      idleRunners.add(runnerOnlyPipes.toArray(new Pipe[runnerOnlyPipes.size()]));
+    }
+    LOG.info("Running pipeline '{}' with '{}' runners and '{}' read-ahead batches", pipelineName,
+        idleRunners.size(), readAheadBatches);
+    final Semaphore batchPermits = new Semaphore(idleRunners.size() + readAheadBatches);
+
+    final OrderedBatchOffsetTracker batchOffsetTracker = new OrderedBatchOffsetTracker(offsetTracker);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    ExecutorService runnersExecutor = new SafeScheduledExecutorService(
+        idleRunners.size(),
+        "ProductionPipelineRunner-" + pipelineName
+    );
+    try {
+      while (!batchOffsetTracker.isFinished() && !stop) {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+        batchPermits.acquire();
+        batchOffsetTracker.commitCompleted();
+        if (failure.get() != null || stop || batchOffsetTracker.isFinished()) {
+          batchPermits.release();
+          break;
+        }
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.preBatch();
+        }
+        //pick up any recent changes done to the rule definitions
+        if(observer != null) {
+          observer.reconfigure();
+        }
+        final boolean batchCaptured = batchesToCapture > 0;
+        final int captureGeneration = snapshotGeneration;
+        final SourceOffsetTracker batchTracker = batchOffsetTracker.startBatch();
+        final FullPipeBatch pipeBatch = createPipeBatch(batchTracker, batchCaptured);
+        final long start = System.currentTimeMillis();
+        sourceOffset = pipeBatch.getPreviousOffset();
+        final Map<String, Long> memoryConsumedByStage = new HashMap<>();
+        final Map<String, Object> stageBatchMetrics = new HashMap<>();
+        try {
+          processPipes(originPipes, pipeBatch, batchTracker, false, memoryConsumedByStage, stageBatchMetrics);
+          if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE) {
+            // batches are read in order, committing right after the origin keeps the committed offsets in order
+            batchTracker.commitOffset();
+            batchOffsetTracker.commitCompleted();
+          }
+        } catch (Throwable throwable) {
+          batchOffsetTracker.release(batchTracker);
+          batchPermits.release();
+          throw throwable;
+        }
+        runnersExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            // there are as many threads as runners, a runner is always available
+            Pipe[] runner = idleRunners.poll();
+            try {
+              if (stop || failure.get() != null) {
+                // a batch read ahead is not processed once the pipeline is stopping or has failed
+                batchOffsetTracker.discard(batchTracker);
+                return;
+              }
+              processPipes(
+                  runner,
+                  pipeBatch,
+                  batchTracker,
+                  deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE,
+                  memoryConsumedByStage,
+                  stageBatchMetrics
+              );
+              completeBatch(
+                  pipeBatch,
+                  batchTracker,
+                  badRecordsHandler,
+                  statsAggregationHandler,
+                  getOffsetCommitTrigger(runner),
+                  batchCaptured,
+                  captureGeneration,
+                  start,
+                  memoryConsumedByStage,
+                  stageBatchMetrics
+              );
+              for (BatchListener batchListener : batchListenerList) {
+                batchListener.postBatch();
+              }
+            } catch (Throwable throwable) {
+              // no batch read after the failed one can be committed
+              batchOffsetTracker.abort();
+              failure.compareAndSet(null, throwable);
+            } finally {
+              batchOffsetTracker.release(batchTracker);
+              idleRunners.add(runner);
+              batchPermits.release();
+            }
+          }
+        });
+      }
+    } catch (Throwable throwable) {
+      batchOffsetTracker.abort();
+      failure.compareAndSet(null, throwable);
+    } finally {
+      runnersExecutor.shutdown();
+      awaitRunners(runnersExecutor);
+    }
+    batchOffsetTracker.commitCompleted();
+
+    Throwable throwable = failure.get();
+    if (throwable != null) {
+      sendPipelineErrorNotificationRequest(throwable);
+      errorNotification(pipes, throwable);
+      Throwables.propagateIfInstanceOf(throwable, StageException.class);
+      Throwables.propagateIfInstanceOf(throwable, PipelineRuntimeException.class);
+      Throwables.propagate(throwable);
+    }
+  }
+
+  private void awaitRunners(ExecutorService runnersExecutor) {
+    boolean interrupted = false;
+    // stages must not be destroyed while a runner is still processing a batch
+    while (!runnersExecutor.isTerminated()) {
+      try {
+        runnersExecutor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Override
   public void errorNotification(Pipe[] pipes, Throwable throwable) {
     Set<ErrorListener> listeners = Sets.newIdentityHashSet();
@@ -319,10 +542,15 @@ public class ProductionPipelineRunner implements PipelineRunner {
       batchListener.postBatch();
     }
     listeners.addAll(new ArrayList<>(errorListeners));
-    for (Pipe pipe : pipes) {
-      Stage stage = pipe.getStage().getStage();
-      if (stage instanceof ErrorListener) {
-        listeners.add((ErrorListener) stage);
+    List<Pipe[]> allPipes = new ArrayList<>(runnerPipes.size() + 1);
+    allPipes.add(pipes);
+    allPipes.addAll(runnerPipes);
+    for (Pipe[] runner : allPipes) {
+      for (Pipe pipe : runner) {
+        Stage stage = pipe.getStage().getStage();
+        if (stage instanceof ErrorListener) {
+          listeners.add((ErrorListener) stage);
+        }
       }
     }
     for (ErrorListener listener : listeners) {
@@ -353,6 +581,18 @@ public class ProductionPipelineRunner implements PipelineRunner {
    */
   @Override
   public void destroy(Pipe[] pipes, BadRecordsHandler badRecordsHandler, StatsAggregationHandler statsAggregationHandler) throws StageException, PipelineRuntimeException {
+    destroyPipes(pipes, badRecordsHandler, true);
+    // the origin is shared by all runners and it has been destroyed already with the main runner pipes
+    for (Pipe[] runner : runnerPipes) {
+      destroyPipes(runner, badRecordsHandler, false);
+    }
+  }
+
+  private void destroyPipes(
+      Pipe[] pipes,
+      BadRecordsHandler badRecordsHandler,
+      boolean destroySource
+  ) throws StageException, PipelineRuntimeException {
     FullPipeBatch pipeBatch = new FullPipeBatch(
       offsetTracker,
       configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT),
@@ -366,7 +606,12 @@ public class ProductionPipelineRunner implements PipelineRunner {
       ((StageContext)pipe.getStage().getContext()).setLastBatchTime(lastBatchTime);
       String instanceName = pipe.getStage().getConfiguration().getInstanceName();
 
-      if(pipe instanceof StagePipe) {
+      boolean sharedSourcePipe = !destroySource && Pipeline.isSourcePipe(pipe);
+      if(sharedSourcePipe && pipe instanceof StagePipe) {
+        LOG.trace("Source pipe {} is shared with the main runner, skipping it's processing.", instanceName);
+        pipeBatch.skipStage(pipe);
+        pipeBatch.completeStage((StagePipe) pipe, new EventSink());
+      } else if(pipe instanceof StagePipe) {
         // Stage pipes are processed only if they are in event path
         if(pipe.getStage().getConfiguration().isInEventPath()) {
           LOG.trace("Stage pipe {} is in event path, running last process", instanceName);
@@ -381,6 +626,10 @@ public class ProductionPipelineRunner implements PipelineRunner {
         pipe.process(pipeBatch);
       }
 
+      if (sharedSourcePipe) {
+        continue;
+      }
+
       // And finally destroy the pipe
       try {
         LOG.trace("Running destroy for {}", instanceName);
@@ -426,6 +675,23 @@ public class ProductionPipelineRunner implements PipelineRunner {
     return stop;
   }
 
+  /**
+   * Creates the snapshot to capture next. Capturing again an existing snapshot replaces its data, the batches of
+   * earlier captures still waiting to be written are discarded so they do not end up in the new data.
+   */
+  public SnapshotInfo createSnapshot(String user, String snapshotName, String snapshotLabel)
+      throws PipelineException {
+    synchronized (this) {
+      this.snapshotBatchSize = 0;
+      this.batchesToCapture = 0;
+      capturedBatches = 0;
+    }
+    synchronized (snapshotWriteLock) {
+      snapshotGeneration++;
+      return snapshotStore.create(user, pipelineName, revision, snapshotName, snapshotLabel);
+    }
+  }
+
   public void capture(String snapshotName, int batchSize, int batches) {
     Preconditions.checkArgument(batchSize > 0);
     this.snapshotName = snapshotName;
@@ -438,7 +704,10 @@ public class ProductionPipelineRunner implements PipelineRunner {
     synchronized (this) {
       this.snapshotBatchSize = 0;
       this.batchesToCapture = 0;
-      capturedBatches.clear();
+      capturedBatches = 0;
+    }
+    synchronized (snapshotWriteLock) {
+      snapshotGeneration++;
     }
   }
 
@@ -448,29 +717,72 @@ public class ProductionPipelineRunner implements PipelineRunner {
       StatsAggregationHandler statsAggregationHandler,
       OffsetCommitTrigger offsetCommitTrigger
   ) throws PipelineException, StageException {
-    boolean committed = false;
-    /*value true indicates that this batch is captured */
-    boolean batchCaptured = false;
-    PipeBatch pipeBatch;
     //pick up any recent changes done to the rule definitions
     if(observer != null) {
       observer.reconfigure();
     }
 
-    if(batchesToCapture > 0) {
-      batchCaptured = true;
-      pipeBatch = new FullPipeBatch(offsetTracker, snapshotBatchSize, true /*snapshot stage output*/);
+    /*value true indicates that this batch is captured */
+    boolean batchCaptured = batchesToCapture > 0;
+    int captureGeneration = snapshotGeneration;
+    FullPipeBatch pipeBatch;
+    if (batchCaptured) {
+      // the captured stages output references the batch, it cannot be reused
+      pipeBatch = createPipeBatch(offsetTracker, true);
     } else {
-      pipeBatch = new FullPipeBatch(offsetTracker,
-        configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT),
-        false /*snapshot stage output*/);
+      pipeBatch = getReusablePipeBatch();
     }
-    ((FullPipeBatch) pipeBatch).setRateLimiter(rateLimiter);
     long start = System.currentTimeMillis();
     sourceOffset = pipeBatch.getPreviousOffset();
-    long lastBatchTime = offsetTracker.getLastBatchTime();
-    Map<String, Long> memoryConsumedByStage = new HashMap<>();
-    Map<String, Object> stageBatchMetrics = new HashMap<>();
+    reusableMemoryConsumedByStage.clear();
+    reusableStageBatchMetrics.clear();
+    processPipes(pipes, pipeBatch, offsetTracker, false, reusableMemoryConsumedByStage, reusableStageBatchMetrics);
+    completeBatch(
+        pipeBatch,
+        offsetTracker,
+        badRecordsHandler,
+        statsAggregationHandler,
+        offsetCommitTrigger,
+        batchCaptured,
+        captureGeneration,
+        start,
+        reusableMemoryConsumedByStage,
+        reusableStageBatchMetrics
+    );
+  }
+
+  private FullPipeBatch getReusablePipeBatch() {
+    if (reusablePipeBatch == null) {
+      reusablePipeBatch = createPipeBatch(offsetTracker, false);
+    } else {
+      reusablePipeBatch.reset();
+      reusablePipeBatch.setRateLimiter(rateLimiter);
+    }
+    return reusablePipeBatch;
+  }
+
+  private FullPipeBatch createPipeBatch(SourceOffsetTracker batchOffsetTracker, boolean batchCaptured) {
+    FullPipeBatch pipeBatch;
+    if(batchCaptured) {
+      pipeBatch = new FullPipeBatch(batchOffsetTracker, snapshotBatchSize, true /*snapshot stage output*/);
+    } else {
+      pipeBatch = new FullPipeBatch(batchOffsetTracker,
+        configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT),
+        false /*snapshot stage output*/);
+    }
+    pipeBatch.setRateLimiter(rateLimiter);
+    return pipeBatch;
+  }
+
+  private void processPipes(
+      Pipe[] pipes,
+      PipeBatch pipeBatch,
+      SourceOffsetTracker batchOffsetTracker,
+      boolean committed,
+      Map<String, Long> memoryConsumedByStage,
+      Map<String, Object> stageBatchMetrics
+  ) throws PipelineRuntimeException, StageException {
+    long lastBatchTime = batchOffsetTracker.getLastBatchTime();
     for (Pipe pipe : pipes) {
       //set the last batch time in the stage context of each pipe
       ((StageContext)pipe.getStage().getContext()).setLastBatchTime(lastBatchTime);
@@ -478,7 +790,7 @@ public class ProductionPipelineRunner implements PipelineRunner {
       if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE
           && pipe.getStage().getDefinition().getType() == StageType.TARGET && !committed) {
         // target cannot control offset commit in AT_MOST_ONCE mode
-        offsetTracker.commitOffset();
+        batchOffsetTracker.commitOffset();
         committed = true;
       }
       pipe.process(pipeBatch);
@@ -489,14 +801,31 @@ public class ProductionPipelineRunner implements PipelineRunner {
         }
       }
     }
+  }
+
+  private void completeBatch(
+      PipeBatch pipeBatch,
+      SourceOffsetTracker batchOffsetTracker,
+      BadRecordsHandler badRecordsHandler,
+      StatsAggregationHandler statsAggregationHandler,
+      OffsetCommitTrigger offsetCommitTrigger,
+      boolean batchCaptured,
+      int captureGeneration,
+      long start,
+      Map<String, Long> memoryConsumedByStage,
+      Map<String, Object> stageBatchMetrics
+  ) throws PipelineException, StageException {
     enforceMemoryLimit(memoryConsumedByStage);
-    badRecordsHandler.handle(newSourceOffset, getBadRecords(pipeBatch.getErrorSink()));
+    List<Record> badRecords = getBadRecords(pipeBatch.getErrorSink());
+    synchronized (badRecordsHandler) {
+      badRecordsHandler.handle(newSourceOffset, badRecords);
+    }
     if (deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE) {
       // When AT_LEAST_ONCE commit only if
       // 1. There is no offset commit trigger for this pipeline or
       // 2. there is a commit trigger and it is on
       if (offsetCommitTrigger == null || offsetCommitTrigger.commit()) {
-        offsetTracker.commitOffset();
+        batchOffsetTracker.commitOffset();
       }
     }
 
@@ -518,10 +847,14 @@ public class ProductionPipelineRunner implements PipelineRunner {
     batchErrorMessagesCounter.inc(pipeBatch.getErrorMessages());
 
     if (pipeContext != null) {
-      pipeContext.getRuntimeStats().setLastBatchInputRecordsCount(pipeBatch.getInputRecords());
-      pipeContext.getRuntimeStats().setLastBatchOutputRecordsCount((pipeBatch.getOutputRecords()));
-      pipeContext.getRuntimeStats().setLastBatchErrorRecordsCount(pipeBatch.getErrorRecords());
-      pipeContext.getRuntimeStats().setLastBatchErrorMessagesCount(pipeBatch.getErrorMessages());
+      RuntimeStats runtimeStats = pipeContext.getRuntimeStats();
+      // the counts of the last batch are updated together, the runners complete batches concurrently
+      synchronized (runtimeStats) {
+        runtimeStats.setLastBatchInputRecordsCount(pipeBatch.getInputRecords());
+        runtimeStats.setLastBatchOutputRecordsCount((pipeBatch.getOutputRecords()));
+        runtimeStats.setLastBatchErrorRecordsCount(pipeBatch.getErrorRecords());
+        runtimeStats.setLastBatchErrorMessagesCount(pipeBatch.getErrorMessages());
+      }
     }
 
     if (isStatsAggregationEnabled()) {
@@ -541,13 +874,15 @@ public class ProductionPipelineRunner implements PipelineRunner {
       );
     }
 
-    newSourceOffset = offsetTracker.getOffset();
+    newSourceOffset = batchOffsetTracker.getOffset();
 
     synchronized (this) {
-      if(batchCaptured && batchesToCapture > 0) {
+      // a batch captured for a snapshot created or cancelled since then does not count for the current capture
+      if(batchCaptured && batchesToCapture > 0 && captureGeneration == snapshotGeneration) {
         List<StageOutput> snapshot = pipeBatch.getSnapshotsOfAllStagesOutput();
         if (!snapshot.isEmpty()) {
-          capturedBatches.add(snapshot);
+          capturedBatches++;
+          writeSnapshotBatch(captureGeneration, snapshotName, snapshot);
         }
         /*
          * Reset the capture snapshot variable only after capturing the snapshot
@@ -557,9 +892,9 @@ public class ProductionPipelineRunner implements PipelineRunner {
         if (batchesToCapture == 0) {
           snapshotBatchSize = 0;
           batchesToCapture = 0;
-          if (!capturedBatches.isEmpty()) {
-            snapshotStore.save(pipelineName, revision, snapshotName, capturedBatches);
-            capturedBatches.clear();
+          if (capturedBatches > 0) {
+            completeSnapshot(captureGeneration, snapshotName);
+            capturedBatches = 0;
           }
         }
       }
@@ -572,9 +907,60 @@ public class ProductionPipelineRunner implements PipelineRunner {
 
     // Write Pipeline data rule and drift rule results to aggregator target
     if (isStatsAggregationEnabled()) {
-      List<Record> stats = new ArrayList<>();
-      statsAggregatorRequests.drainTo(stats);
-      statsAggregationHandler.handle(sourceOffset, stats);
+      synchronized (statsAggregationHandler) {
+        List<Record> stats = new ArrayList<>();
+        statsAggregatorRequests.drainTo(stats);
+        statsAggregationHandler.handle(sourceOffset, stats);
+      }
+    }
+  }
+
+  private void writeSnapshotBatch(
+      final int captureGeneration,
+      final String snapshotName,
+      final List<StageOutput> snapshotBatch
+  ) {
+    writeSnapshot(captureGeneration, snapshotName, new SnapshotWrite() {
+      @Override
+      public void write() throws PipelineException {
+        snapshotStore.appendBatch(pipelineName, revision, snapshotName, snapshotBatch);
+      }
+    });
+  }
+
+  private void completeSnapshot(int captureGeneration, final String snapshotName) {
+    writeSnapshot(captureGeneration, snapshotName, new SnapshotWrite() {
+      @Override
+      public void write() throws PipelineException {
+        snapshotStore.save(pipelineName, revision, snapshotName, Collections.<List<StageOutput>>emptyList());
+      }
+    });
+  }
+
+  private interface SnapshotWrite {
+    void write() throws PipelineException;
+  }
+
+  private void writeSnapshot(final int captureGeneration, final String snapshotName, final SnapshotWrite write) {
+    try {
+      snapshotWriter.execute(new Runnable() {
+        @Override
+        public void run() {
+          synchronized (snapshotWriteLock) {
+            if (captureGeneration != snapshotGeneration) {
+              LOG.debug("Discarding write of snapshot '{}' captured before it was created again", snapshotName);
+              return;
+            }
+            try {
+              write.write();
+            } catch (Exception ex) {
+              LOG.warn("Could not write snapshot '{}': {}", snapshotName, ex.toString(), ex);
+            }
+          }
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      LOG.warn("Could not write snapshot '{}': {}", snapshotName, ex.toString(), ex);
     }
   }
 
@@ -588,7 +974,8 @@ public class ProductionPipelineRunner implements PipelineRunner {
     header.setErrorContext(runtimeInfo.getId(), pipelineName);
   }
 
-  private void enforceMemoryLimit(Map<String, Long> memoryConsumedByStage) throws PipelineRuntimeException {
+  private synchronized void enforceMemoryLimit(Map<String, Long> memoryConsumedByStage)
+      throws PipelineRuntimeException {
     long totalMemoryConsumed = 0;
     for(Map.Entry<String, Long> entry : memoryConsumedByStage.entrySet()) {
       totalMemoryConsumed += entry.getValue();
@@ -734,4 +1121,9 @@ public class ProductionPipelineRunner implements PipelineRunner {
     this.pipeContext = pipeContext;
   }
 
+  @Override
+  public void setRunnerPipes(List<Pipe[]> runnerPipes) {
+    this.runnerPipes = runnerPipes;
+  }
+
 }
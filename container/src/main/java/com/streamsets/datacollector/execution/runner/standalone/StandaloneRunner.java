@@ -391,7 +391,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
     if(batchSize <= 0) {
       throw new PipelineRunnerException(ContainerError.CONTAINER_0107, batchSize);
     }
-    SnapshotInfo snapshotInfo = snapshotStore.create(user, name, rev, snapshotName, snapshotLabel);
+    SnapshotInfo snapshotInfo = prodPipeline.createSnapshot(user, snapshotName, snapshotLabel);
     prodPipeline.captureSnapshot(snapshotName, batchSize, batches);
     return snapshotInfo.getId();
   }
@@ -705,6 +705,7 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
         runner.setStatsAggregatorRequests(statsQueue);
         runner.setDeliveryGuarantee(pipelineConfigBean.deliveryGuarantee);
         runner.setMemoryLimitConfiguration(memoryLimitConfiguration);
+        runner.setReadAheadBatches(pipelineConfigBean.readAheadBatches);
 
         PipelineEL.setConstantsInContext(pipelineConfiguration);
         prodPipeline = builder.build(pipelineConfiguration);
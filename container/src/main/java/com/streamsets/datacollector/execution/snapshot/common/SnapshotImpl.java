@@ -50,7 +50,7 @@ public class SnapshotImpl implements Snapshot, Closeable {
   public InputStream getOutput() throws PipelineRuntimeException {
     if(snapshotFile != null) {
       try {
-        output = new FileInputStream(snapshotFile);
+        output = openOutput(snapshotFile);
         return output;
       } catch (Exception ex) {
         throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
@@ -60,6 +60,10 @@ public class SnapshotImpl implements Snapshot, Closeable {
     return null;
   }
 
+  protected InputStream openOutput(File snapshotFile) throws IOException {
+    return new FileInputStream(snapshotFile);
+  }
+
   @Override
   public void close() throws IOException {
     snapshotInfo = null;
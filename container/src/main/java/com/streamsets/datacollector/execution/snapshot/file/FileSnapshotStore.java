@@ -23,13 +23,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
-import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotImpl;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -52,7 +50,9 @@ import java.util.Collections;
 import java.util.List;
 
 public class FileSnapshotStore implements SnapshotStore {
+  // snapshots taken before the binary format was introduced
   private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
+  private static final String SNAPSHOT_DATA_FILE_NAME = "snapshot.bin";
   private static final String INFO_FILE_NAME = "info.json";
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
@@ -69,12 +69,27 @@ public class FileSnapshotStore implements SnapshotStore {
   public SnapshotInfo create(String user, String name, String rev, String id, String label) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       PipelineDirectoryUtil.createPipelineSnapshotDir(runtimeInfo, name, rev, id);
+      // capturing again an existing snapshot replaces its data
+      deleteSnapshotData(name, rev, id);
       SnapshotInfo snapshotInfo = new SnapshotInfoImpl(user, id, label, name, rev, System.currentTimeMillis(), true);
       persistSnapshotInfo(snapshotInfo);
       return snapshotInfo;
     }
   }
 
+  @Override
+  public SnapshotInfo appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+    throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      SnapshotInfo existingInfo = getInfo(name, rev, id);
+      if (existingInfo == null) {
+        throw new PipelineException(ContainerError.CONTAINER_0605);
+      }
+      persistSnapshot(name, rev, id, Collections.singletonList(snapshotBatch));
+      return existingInfo;
+    }
+  }
+
   @Override
   public SnapshotInfo save(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineException {
@@ -83,6 +98,10 @@ public class FileSnapshotStore implements SnapshotStore {
       if (existingInfo == null) {
         throw new PipelineException(ContainerError.CONTAINER_0605);
       }
+      if (!existingInfo.isInProgress()) {
+        // saving a completed snapshot replaces its data
+        deleteSnapshotData(name, rev, id);
+      }
       persistSnapshot(name, rev, id, snapshotBatches);
       SnapshotInfo updatedSnapshotInfo =
         new SnapshotInfoImpl(existingInfo.getUser(), id, existingInfo.getLabel(), name, rev, System.currentTimeMillis(),
@@ -117,6 +136,19 @@ public class FileSnapshotStore implements SnapshotStore {
   public Snapshot get(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       SnapshotInfo info = getInfo(name, rev, id);
+      if (info != null && info.isInProgress()) {
+        // the data of a snapshot is available once all its batches have been captured
+        return new SnapshotImpl(info, null);
+      }
+      File binaryData = getPipelineSnapshotDataFile(name, rev, id);
+      if (binaryData.exists()) {
+        return new SnapshotImpl(info, binaryData) {
+          @Override
+          protected InputStream openOutput(File snapshotFile) throws IOException {
+            return new SnapshotJsonInputStream(snapshotFile);
+          }
+        };
+      }
       File data = getData(name, rev, id);
       return new SnapshotImpl(info, data);
     }
@@ -193,6 +225,11 @@ public class FileSnapshotStore implements SnapshotStore {
       SNAPSHOT_FILE_NAME);
   }
 
+  private File getPipelineSnapshotDataFile(String pipelineName, String rev, String snapshotName) {
+    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
+      SNAPSHOT_DATA_FILE_NAME);
+  }
+
   private File getPipelineSnapshotInfoFile(String name, String rev, String id) {
     return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id),
       INFO_FILE_NAME);
@@ -214,14 +251,23 @@ public class FileSnapshotStore implements SnapshotStore {
 
   private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineRuntimeException {
-    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
-    try (OutputStream out = dataStore.getOutputStream()) {
-      json.writeValue(out, new SnapshotDataJson(new SnapshotData(snapshotBatches)));
-      dataStore.commit(out);
-    } catch (IOException e) {
+    if (snapshotBatches.isEmpty()) {
+      return;
+    }
+    try (SnapshotDataWriter writer = new SnapshotDataWriter(getPipelineSnapshotDataFile(name, rev, id))) {
+      for (List<StageOutput> snapshotBatch : snapshotBatches) {
+        writer.write(snapshotBatch);
+      }
+    } catch (IOException | RuntimeException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
-    } finally {
-      dataStore.release();
+    }
+  }
+
+  private void deleteSnapshotData(String name, String rev, String id) throws PipelineRuntimeException {
+    for (File file : new File[] {getPipelineSnapshotDataFile(name, rev, id), getPipelineSnapshotFile(name, rev, id)}) {
+      if (file.exists() && !file.delete()) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0601, id, name, rev);
+      }
     }
   }
 
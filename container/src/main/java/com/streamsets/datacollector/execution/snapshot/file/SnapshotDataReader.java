@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.record.io.KryoRecordSerializer;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads, one batch at a time, the batches of a binary snapshot data file written by {@link SnapshotDataWriter}.
+ */
+class SnapshotDataReader implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotDataReader.class);
+
+  private final File file;
+  private final Kryo kryo;
+  private final KryoRecordSerializer serializer;
+  private final Input input;
+
+  public SnapshotDataReader(File file) throws IOException {
+    this.file = file;
+    kryo = new Kryo();
+    serializer = new KryoRecordSerializer();
+    kryo.setReferences(false);
+    kryo.register(RecordImpl.class, serializer);
+    input = new Input(new FileInputStream(file));
+    try {
+      int magicNumber = input.readInt();
+      int version = input.readInt();
+      if (magicNumber != SnapshotDataWriter.MAGIC_NUMBER || version != SnapshotDataWriter.VERSION) {
+        throw new IOException(Utils.format("Invalid snapshot data file '{}', magic number '{}' version '{}'", file,
+            magicNumber, version));
+      }
+    } catch (KryoException ex) {
+      input.close();
+      throw new IOException(Utils.format("Invalid snapshot data file '{}': {}", file, ex.toString()), ex);
+    } catch (IOException ex) {
+      input.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the next batch, NULL once all the batches have been read. A batch cut short, i.e. because the Data
+   * Collector died while writing it, is ignored.
+   */
+  public List<StageOutput> read() {
+    if (input.eof()) {
+      return null;
+    }
+    try {
+      int stages = input.readInt();
+      List<StageOutput> batch = new ArrayList<>(stages);
+      for (int i = 0; i < stages; i++) {
+        String instanceName = input.readString();
+        int lanes = input.readInt();
+        Map<String, List<Record>> output = new LinkedHashMap<>();
+        for (int j = 0; j < lanes; j++) {
+          String lane = input.readString();
+          output.put(lane, readRecords());
+        }
+        List<Record> errorRecords = readRecords();
+        List<ErrorMessage> stageErrors = readErrors();
+        List<Record> eventRecords = readRecords();
+        batch.add(new StageOutput(instanceName, output, errorRecords, stageErrors, eventRecords));
+      }
+      return batch;
+    } catch (KryoException ex) {
+      LOG.warn("Ignoring incomplete batch in snapshot data file '{}': {}", file, ex.toString());
+      return null;
+    }
+  }
+
+  private List<Record> readRecords() {
+    int size = input.readInt();
+    List<Record> records = null;
+    if (size >= 0) {
+      records = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        records.add(kryo.readObject(input, RecordImpl.class, serializer));
+      }
+    }
+    return records;
+  }
+
+  private List<ErrorMessage> readErrors() {
+    int size = input.readInt();
+    List<ErrorMessage> errors = null;
+    if (size >= 0) {
+      errors = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        errors.add(new ErrorMessage(input.readString(), input.readString(), input.readLong()));
+      }
+    }
+    return errors;
+  }
+
+  @Override
+  public void close() {
+    input.close();
+  }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.record.io.KryoRecordSerializer;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends captured batches to a binary snapshot data file.
+ * <p/>
+ * The file starts with a magic number and a format version followed by the batches, one after the other. Each batch
+ * is written as its list of stage outputs; records are written with the <code>KRYO2</code> record serializer and
+ * stage errors as their error code, non localized message and timestamp. Lists are prefixed by their size,
+ * <code>-1</code> denotes a NULL list.
+ * <p/>
+ * Every batch is flushed to the file as soon as it is written, the writer never holds more than one batch.
+ */
+class SnapshotDataWriter implements Closeable {
+  static final int MAGIC_NUMBER = 0x53444353; // SDCS
+  static final int VERSION = 1;
+
+  private final Kryo kryo;
+  private final KryoRecordSerializer serializer;
+  private final Output output;
+
+  public SnapshotDataWriter(File file) throws IOException {
+    boolean newFile = !file.exists() || file.length() == 0;
+    kryo = new Kryo();
+    serializer = new KryoRecordSerializer();
+    kryo.setReferences(false);
+    kryo.register(RecordImpl.class, serializer);
+    output = new Output(new FileOutputStream(file, true));
+    if (newFile) {
+      output.writeInt(MAGIC_NUMBER);
+      output.writeInt(VERSION);
+    }
+  }
+
+  public void write(List<StageOutput> batch) {
+    output.writeInt(batch.size());
+    for (StageOutput stageOutput : batch) {
+      output.writeString(stageOutput.getInstanceName());
+      Map<String, List<Record>> lanes = stageOutput.getOutput();
+      output.writeInt(lanes.size());
+      for (Map.Entry<String, List<Record>> entry : lanes.entrySet()) {
+        output.writeString(entry.getKey());
+        writeRecords(entry.getValue());
+      }
+      writeRecords(stageOutput.getErrorRecords());
+      writeErrors(stageOutput.getStageErrors());
+      writeRecords(stageOutput.getEventRecords());
+    }
+    output.flush();
+  }
+
+  private void writeRecords(List<Record> records) {
+    if (records == null) {
+      output.writeInt(-1);
+    } else {
+      output.writeInt(records.size());
+      for (Record record : records) {
+        // using the serializer explicitly as records may be RecordImpl subclasses, i.e. event records
+        kryo.writeObject(output, record, serializer);
+      }
+    }
+  }
+
+  private void writeErrors(List<ErrorMessage> errors) {
+    if (errors == null) {
+      output.writeInt(-1);
+    } else {
+      output.writeInt(errors.size());
+      for (ErrorMessage error : errors) {
+        output.writeString(error.getErrorCode());
+        output.writeString(error.getNonLocalized());
+        output.writeLong(error.getTimestamp());
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    output.close();
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.runner.StageOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Renders a binary snapshot data file as the JSON of a <code>SnapshotDataJson</code>, converting one batch at a time
+ * as the stream is consumed so a large snapshot is never fully loaded in memory.
+ */
+class SnapshotJsonInputStream extends InputStream {
+  private static final byte[] START = "{\"snapshotBatches\":[".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] END = "]}".getBytes(StandardCharsets.UTF_8);
+
+  private final SnapshotDataReader reader;
+  private final ObjectMapper json;
+  private byte[] buffer;
+  private int position;
+  private int batches;
+  private boolean finished;
+
+  public SnapshotJsonInputStream(File file) throws IOException {
+    reader = new SnapshotDataReader(file);
+    json = ObjectMapperFactory.getOneLine();
+    buffer = START;
+  }
+
+  // returns false once the whole JSON has been consumed
+  private boolean fill() throws IOException {
+    while (position == buffer.length) {
+      if (finished) {
+        return false;
+      }
+      List<StageOutput> batch = reader.read();
+      if (batch == null) {
+        buffer = END;
+        finished = true;
+      } else {
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        if (batches++ > 0) {
+          page.write(',');
+        }
+        json.writeValue(page, BeanHelper.wrapStageOutput(batch));
+        buffer = page.toByteArray();
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return (fill()) ? buffer[position++] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int read = Math.min(len, buffer.length - position);
+    System.arraycopy(buffer, position, b, off, read);
+    position += read;
+    return read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+}
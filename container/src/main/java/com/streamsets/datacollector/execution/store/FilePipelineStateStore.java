@@ -19,15 +19,14 @@
  */
 package com.streamsets.datacollector.execution.store;
 
-import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStateStore;
 import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.manager.PipelineStateImpl;
+import com.streamsets.datacollector.execution.runner.common.Constants;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
@@ -36,7 +35,6 @@ import com.streamsets.datacollector.restapi.bean.PipelineStateJson;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
-import com.streamsets.datacollector.util.LogUtil;
 import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.pipeline.api.ExecutionMode;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -47,16 +45,16 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class FilePipelineStateStore implements PipelineStateStore {
   private final RuntimeInfo runtimeInfo;
@@ -65,6 +63,9 @@ public class FilePipelineStateStore implements PipelineStateStore {
   public static final String STATE_FILE_HISTORY = "pipelineStateHistory.json";
   public static final String STATE = "state";
   private static final Logger LOG = LoggerFactory.getLogger(FilePipelineStateStore.class);
+  // number of states returned when not reading the history from the beginning
+  private static final int HISTORY_SIZE = 100;
+  private final ConcurrentMap<String, PipelineStateHistory> histories = new ConcurrentHashMap<>();
 
   @Inject
   public FilePipelineStateStore(RuntimeInfo runtimeInfo, Configuration conf) {
@@ -125,7 +126,7 @@ public class FilePipelineStateStore implements PipelineStateStore {
     Map<String, Object> attributes, ExecutionMode executionMode, String metrics, int retryAttempt, long nextRetryTimeStamp
    )
     throws PipelineStoreException {
-    register(name, rev);
+    createPipelineDir(name, rev);
     LOG.debug("Changing state of pipeline '{}','{}','{}' to '{}' in execution mode: '{}';" + "status msg is '{}'",
       name, rev, user, status, executionMode, message);
     if (attributes == null && getPipelineStateFile(name, rev).exists()) {
@@ -172,22 +173,25 @@ public class FilePipelineStateStore implements PipelineStateStore {
 
   @Override
   public List<PipelineState> getHistory(String pipelineName, String rev, boolean fromBeginning) throws PipelineStoreException {
-    if (!pipelineDirExists(pipelineName, rev) || !pipelineStateHistoryFileExists(pipelineName, rev)) {
+    return getHistory(pipelineName, rev, Long.MAX_VALUE, (fromBeginning) ? Integer.MAX_VALUE : HISTORY_SIZE);
+  }
+
+  /**
+   * Returns, newest first, up to <code>limit</code> states of the pipeline saved before the given timestamp, to page
+   * through the history.
+   */
+  public List<PipelineState> getHistory(String pipelineName, String rev, long beforeTimestamp, int limit)
+      throws PipelineStoreException {
+    if (!pipelineDirExists(pipelineName, rev)) {
       return Collections.emptyList();
     }
-    try (Reader reader = new FileReader(getPipelineStateHistoryFile(pipelineName, rev))){
+    try {
       ObjectMapper objectMapper = ObjectMapperFactory.get();
-      JsonParser jsonParser = objectMapper.getFactory().createParser(reader);
-      MappingIterator<PipelineStateJson> pipelineStateMappingIterator =
-        objectMapper.readValues(jsonParser, PipelineStateJson.class);
-      List<PipelineStateJson> pipelineStateJsons = pipelineStateMappingIterator.readAll();
-      Collections.reverse(pipelineStateJsons);
-      if (fromBeginning) {
-        return BeanHelper.unwrapPipelineStatesNewAPI(pipelineStateJsons);
-      } else {
-        int toIndex = pipelineStateJsons.size() > 100 ? 100 : pipelineStateJsons.size();
-        return BeanHelper.unwrapPipelineStatesNewAPI(pipelineStateJsons.subList(0, toIndex));
+      List<PipelineStateJson> pipelineStateJsons = new ArrayList<>();
+      for (String state : getStateHistory(pipelineName, rev).read(beforeTimestamp, limit)) {
+        pipelineStateJsons.add(objectMapper.readValue(state, PipelineStateJson.class));
       }
+      return BeanHelper.unwrapPipelineStatesNewAPI(pipelineStateJsons);
     } catch (IOException e) {
       throw new PipelineStoreException(ContainerError.CONTAINER_0115, pipelineName, rev, e.toString(), e);
     }
@@ -195,17 +199,33 @@ public class FilePipelineStateStore implements PipelineStateStore {
 
   @Override
   public void deleteHistory(String pipelineName, String rev) {
-    for (File f : getHistoryStateFiles(pipelineName, rev)) {
-      if (!f.delete()) {
-        LOG.warn("Failed to delete history file " + f);
+    getStateHistory(pipelineName, rev).delete();
+  }
+
+  private PipelineStateHistory getStateHistory(String pipelineName, String rev) {
+    String key = getNameAndRevString(pipelineName, rev);
+    PipelineStateHistory history = histories.get(key);
+    if (history == null) {
+      history = new PipelineStateHistory(
+          PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev),
+          STATE_FILE_HISTORY,
+          configuration.get(Constants.STATE_HISTORY_SEGMENT_SIZE_KEY, Constants.STATE_HISTORY_SEGMENT_SIZE_DEFAULT),
+          configuration.get(Constants.STATE_HISTORY_SEGMENTS_KEY, Constants.STATE_HISTORY_SEGMENTS_DEFAULT)
+      );
+      PipelineStateHistory existing = histories.putIfAbsent(key, history);
+      if (existing != null) {
+        history = existing;
       }
     }
-    LogUtil.resetRollingFileAppender(pipelineName, rev, STATE);
+    return history;
   }
 
-  private void register(String pipelineName, String rev) {
-    LogUtil.registerLogger(pipelineName, rev, STATE, getPipelineStateHistoryFile(pipelineName, rev).getAbsolutePath(),
-      configuration);
+  private void createPipelineDir(String pipelineName, String rev) throws PipelineStoreException {
+    File pipelineDir = PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev);
+    if (!pipelineDir.exists() && !pipelineDir.mkdirs()) {
+      throw new PipelineStoreException(ContainerError.CONTAINER_0100,
+          Utils.format("Could not create directory '{}'", pipelineDir));
+    }
   }
 
   private void persistPipelineState(PipelineState pipelineState) throws PipelineStoreException {
@@ -226,42 +246,21 @@ public class FilePipelineStateStore implements PipelineStateStore {
     } finally {
       dataStore.release();
     }
-    // In addition, append the state of the pipeline to the pipelineState.json present in the directory of that
-    // pipeline
-    LogUtil.log(pipelineState.getName(), pipelineState.getRev(), STATE, pipelineString);
-  }
-
-  private File[] getHistoryStateFiles(String pipelineName, String rev) {
-    // RollingFileAppender creates backup files when the error files reach the size limit.
-    // The backup files are of the form errors.json.1, errors.json.2 etc
-    // Need to delete all the backup files
-    File pipelineDir = PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev);
-    File[] errorFiles = pipelineDir.listFiles(new FilenameFilter() {
-      @Override
-      public boolean accept(File dir, String name) {
-        if (name.contains(STATE_FILE_HISTORY)) {
-          return true;
-        }
-        return false;
-      }
-    });
-    return errorFiles;
+    // In addition, append the state of the pipeline to the state history present in the directory of that pipeline
+    try {
+      getStateHistory(pipelineState.getName(), pipelineState.getRev())
+          .append(pipelineState.getTimeStamp(), pipelineString);
+    } catch (IOException e) {
+      throw new PipelineStoreException(ContainerError.CONTAINER_0100, e.toString(), e);
+    }
   }
 
   private File getPipelineStateFile(String name, String rev) {
     return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, name, rev), STATE_FILE);
   }
 
-  private File getPipelineStateHistoryFile(String name, String rev) {
-    return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, name, rev), STATE_FILE_HISTORY);
-  }
-
   private boolean pipelineDirExists(String pipelineName, String rev) {
     return PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev).exists();
   }
 
-  private boolean pipelineStateHistoryFileExists(String pipelineName, String rev) {
-    return getPipelineStateHistoryFile(pipelineName, rev).exists();
-  }
-
 }
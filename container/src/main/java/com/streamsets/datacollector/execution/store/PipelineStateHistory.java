@@ -0,0 +1,433 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History of the states of a pipeline.
+ * <p/>
+ * States are appended, one JSON document per line, to the active segment file. Once the active segment reaches the
+ * maximum segment size it is rolled to <code>&lt;segment&gt;.N</code>, N increasing with every roll, and only the
+ * newest segments are kept.
+ * <p/>
+ * The <code>&lt;segment&gt;.idx</code> index file has a fixed size entry per state with its timestamp, segment and
+ * position, so the newest states, or the states before a given time, are read without parsing the whole history.
+ * The index is rebuilt from the segments if it is missing or out of sync with the active segment, i.e. for histories
+ * written before the index existed or after a crash in the middle of an append.
+ */
+public class PipelineStateHistory {
+  private static final Logger LOG = LoggerFactory.getLogger(PipelineStateHistory.class);
+
+  static final String INDEX_SUFFIX = ".idx";
+  // timestamp, segment, offset, length
+  static final int ENTRY_SIZE = 8 + 4 + 8 + 4;
+
+  private final File dir;
+  private final String segmentName;
+  private final long maxSegmentSize;
+  private final int maxSegments;
+  private final ObjectMapper json;
+
+  public PipelineStateHistory(File dir, String segmentName, long maxSegmentSize, int maxSegments) {
+    Utils.checkArgument(maxSegments > 0, "maxSegments must be greater than zero");
+    this.dir = dir;
+    this.segmentName = segmentName;
+    this.maxSegmentSize = maxSegmentSize;
+    this.maxSegments = maxSegments;
+    json = ObjectMapperFactory.get();
+  }
+
+  private static class Entry {
+    private final long timestamp;
+    private final int segment;
+    private final long offset;
+    private final int length;
+
+    private Entry(long timestamp, int segment, long offset, int length) {
+      this.timestamp = timestamp;
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeLong(timestamp);
+      out.writeInt(segment);
+      out.writeLong(offset);
+      out.writeInt(length);
+    }
+
+    private static Entry read(DataInputStream in) throws IOException {
+      return new Entry(in.readLong(), in.readInt(), in.readLong(), in.readInt());
+    }
+
+    private static Entry read(RandomAccessFile in) throws IOException {
+      return new Entry(in.readLong(), in.readInt(), in.readLong(), in.readInt());
+    }
+  }
+
+  File getActiveSegment() {
+    return new File(dir, segmentName);
+  }
+
+  File getIndex() {
+    return new File(dir, segmentName + INDEX_SUFFIX);
+  }
+
+  private File getSegment(int segment, int activeSegment) {
+    return (segment == activeSegment) ? getActiveSegment() : new File(dir, segmentName + "." + segment);
+  }
+
+  // rolled segments, oldest first
+  private List<Integer> getRolledSegments() {
+    List<Integer> segments = new ArrayList<>();
+    String[] names = dir.list();
+    if (names != null) {
+      String prefix = segmentName + ".";
+      for (String name : names) {
+        if (name.startsWith(prefix)) {
+          try {
+            segments.add(Integer.parseInt(name.substring(prefix.length())));
+          } catch (NumberFormatException ex) {
+            // not a segment, i.e. the index
+          }
+        }
+      }
+    }
+    Collections.sort(segments);
+    return segments;
+  }
+
+  /**
+   * Appends a state, in its JSON form, to the history.
+   */
+  public synchronized void append(long timestamp, String state) throws IOException {
+    if (!dir.exists() && !dir.mkdirs()) {
+      throw new IOException(Utils.format("Could not create directory '{}'", dir));
+    }
+    int activeSegment = syncIndex();
+    File active = getActiveSegment();
+    if (active.length() >= maxSegmentSize) {
+      roll(activeSegment);
+      activeSegment++;
+    }
+    byte[] line = (state + "\n").getBytes(StandardCharsets.UTF_8);
+    long offset;
+    try (FileOutputStream os = new FileOutputStream(active, true)) {
+      offset = os.getChannel().size();
+      os.write(line);
+    }
+    try (DataOutputStream index = new DataOutputStream(new FileOutputStream(getIndex(), true))) {
+      new Entry(timestamp, activeSegment, offset, line.length).write(index);
+    }
+  }
+
+  /**
+   * Returns, newest first, up to <code>limit</code> states with a timestamp before the given one.
+   */
+  public synchronized List<String> read(long beforeTimestamp, int limit) throws IOException {
+    syncIndex();
+    List<Entry> entries = new ArrayList<>();
+    File indexFile = getIndex();
+    if (indexFile.exists()) {
+      try (RandomAccessFile index = new RandomAccessFile(indexFile, "r")) {
+        long count = index.length() / ENTRY_SIZE;
+        // the index is in append order, the timestamps of the states are non decreasing
+        long low = 0;
+        long high = count;
+        while (low < high) {
+          long middle = (low + high) >>> 1;
+          index.seek(middle * ENTRY_SIZE);
+          if (index.readLong() < beforeTimestamp) {
+            low = middle + 1;
+          } else {
+            high = middle;
+          }
+        }
+        long start = Math.max(0, low - limit);
+        index.seek(start * ENTRY_SIZE);
+        for (long i = start; i < low; i++) {
+          entries.add(Entry.read(index));
+        }
+      }
+    }
+    Collections.reverse(entries);
+
+    List<String> states = new ArrayList<>(entries.size());
+    int activeSegment = (entries.isEmpty()) ? -1 : getActiveSegmentId();
+    Map<Integer, RandomAccessFile> segments = new HashMap<>();
+    try {
+      for (Entry entry : entries) {
+        RandomAccessFile segment = segments.get(entry.segment);
+        if (segment == null) {
+          File file = getSegment(entry.segment, activeSegment);
+          if (!file.exists()) {
+            // deleted by the retention while reading the index
+            continue;
+          }
+          segment = new RandomAccessFile(file, "r");
+          segments.put(entry.segment, segment);
+        }
+        byte[] line = new byte[entry.length];
+        segment.seek(entry.offset);
+        segment.readFully(line);
+        states.add(new String(line, StandardCharsets.UTF_8).trim());
+      }
+    } finally {
+      for (RandomAccessFile segment : segments.values()) {
+        segment.close();
+      }
+    }
+    return states;
+  }
+
+  /**
+   * Deletes all the segments and the index.
+   */
+  public synchronized void delete() {
+    File[] files = dir.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith(segmentName);
+      }
+    });
+    if (files != null) {
+      for (File file : files) {
+        if (!file.delete()) {
+          LOG.warn("Failed to delete history file '{}'", file);
+        }
+      }
+    }
+  }
+
+  private int getActiveSegmentId() throws IOException {
+    Entry last = readLastEntry();
+    List<Integer> rolled = getRolledSegments();
+    if (last == null) {
+      return (rolled.isEmpty()) ? 1 : rolled.get(rolled.size() - 1) + 1;
+    }
+    return (rolled.contains(last.segment)) ? last.segment + 1 : last.segment;
+  }
+
+  private Entry readLastEntry() throws IOException {
+    File indexFile = getIndex();
+    if (!indexFile.exists() || indexFile.length() < ENTRY_SIZE) {
+      return null;
+    }
+    try (RandomAccessFile index = new RandomAccessFile(indexFile, "r")) {
+      index.seek((index.length() / ENTRY_SIZE - 1) * ENTRY_SIZE);
+      return Entry.read(index);
+    }
+  }
+
+  // returns the id of the active segment, rebuilding the index if it does not match the segments
+  private int syncIndex() throws IOException {
+    File indexFile = getIndex();
+    File active = getActiveSegment();
+    long activeLength = active.length();
+    boolean inSync;
+    int activeSegment = getActiveSegmentId();
+    if (indexFile.exists() && indexFile.length() % ENTRY_SIZE != 0) {
+      inSync = false;
+    } else {
+      Entry last = readLastEntry();
+      if (last == null) {
+        inSync = activeLength == 0 && getRolledSegments().isEmpty();
+      } else if (last.segment != activeSegment) {
+        // the last state is in a rolled segment, nothing has been written to the active segment yet
+        inSync = activeLength == 0;
+      } else {
+        inSync = activeLength == last.offset + last.length;
+      }
+    }
+    if (!inSync) {
+      activeSegment = rebuildIndex();
+    }
+    return activeSegment;
+  }
+
+  private int rebuildIndex() throws IOException {
+    LOG.info("Rebuilding index of state history '{}'", getActiveSegment());
+    List<Integer> rolled = orderRolledSegments();
+    int activeSegment = (rolled.isEmpty()) ? 1 : rolled.get(rolled.size() - 1) + 1;
+    File tmp = new File(dir, segmentName + INDEX_SUFFIX + ".tmp");
+    try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      for (int segment : rolled) {
+        scanSegment(getSegment(segment, activeSegment), segment, index, false);
+      }
+      scanSegment(getActiveSegment(), activeSegment, index, true);
+    }
+    Files.move(tmp.toPath(), getIndex().toPath(), StandardCopyOption.REPLACE_EXISTING);
+    return activeSegment;
+  }
+
+  // histories written by a log4j rolling appender have the newest rolled segment as '.1', renumbers the rolled
+  // segments so the numbers increase with the timestamp of their first state
+  private List<Integer> orderRolledSegments() throws IOException {
+    List<Integer> rolled = getRolledSegments();
+    final Map<Integer, Long> firstTimestamps = new HashMap<>();
+    for (int segment : rolled) {
+      firstTimestamps.put(segment, getFirstTimestamp(getSegment(segment, -1)));
+    }
+    List<Integer> ordered = new ArrayList<>(rolled);
+    Collections.sort(ordered, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer s1, Integer s2) {
+        int compare = Long.compare(firstTimestamps.get(s1), firstTimestamps.get(s2));
+        return (compare != 0) ? compare : Integer.compare(s1, s2);
+      }
+    });
+    if (!ordered.equals(rolled)) {
+      LOG.info("Renumbering the rolled segments of state history '{}'", getActiveSegment());
+      for (int i = 0; i < ordered.size(); i++) {
+        Files.move(getSegment(ordered.get(i), -1).toPath(), new File(dir, segmentName + ".roll" + i).toPath());
+      }
+      for (int i = 0; i < ordered.size(); i++) {
+        Files.move(new File(dir, segmentName + ".roll" + i).toPath(), getSegment(i + 1, -1).toPath());
+      }
+      rolled = getRolledSegments();
+    }
+    return rolled;
+  }
+
+  private long getFirstTimestamp(File file) throws IOException {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        Long timestamp = getTimestamp(line.getBytes(StandardCharsets.UTF_8));
+        if (timestamp != null) {
+          return timestamp;
+        }
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private void scanSegment(File file, int segment, DataOutputStream index, boolean truncateIncomplete)
+      throws IOException {
+    if (!file.exists()) {
+      return;
+    }
+    long offset = 0;
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+      int b;
+      while ((b = is.read()) != -1) {
+        line.write(b);
+        if (b == '\n') {
+          int length = line.size();
+          Long timestamp = getTimestamp(line.toByteArray());
+          if (timestamp != null) {
+            new Entry(timestamp, segment, offset, length).write(index);
+          }
+          offset += length;
+          line.reset();
+        }
+      }
+    }
+    if (line.size() > 0 && truncateIncomplete) {
+      LOG.warn("Discarding incomplete state at the end of '{}'", file);
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(offset);
+      }
+    }
+  }
+
+  private Long getTimestamp(byte[] line) {
+    try {
+      JsonNode timestamp = json.readTree(line).get("timeStamp");
+      return (timestamp == null) ? null : timestamp.asLong();
+    } catch (IOException ex) {
+      LOG.warn("Skipping invalid state in history '{}': {}", getActiveSegment(), ex.toString());
+      return null;
+    }
+  }
+
+  private void roll(int activeSegment) throws IOException {
+    File rolledSegment = getSegment(activeSegment, -1);
+    Files.move(getActiveSegment().toPath(), rolledSegment.toPath());
+    List<Integer> rolled = getRolledSegments();
+    if (rolled.size() > maxSegments) {
+      List<Integer> expired = rolled.subList(0, rolled.size() - maxSegments);
+      for (int segment : expired) {
+        File file = getSegment(segment, -1);
+        if (!file.delete()) {
+          LOG.warn("Failed to delete history file '{}'", file);
+        }
+      }
+      compactIndex(expired.get(expired.size() - 1));
+    }
+  }
+
+  // drops the entries of the segments up to the given one
+  private void compactIndex(int lastExpiredSegment) throws IOException {
+    File tmp = new File(dir, segmentName + INDEX_SUFFIX + ".tmp");
+    try (
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(getIndex())));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))
+    ) {
+      while (true) {
+        Entry entry;
+        try {
+          entry = Entry.read(in);
+        } catch (EOFException ex) {
+          break;
+        }
+        if (entry.segment > lastExpiredSegment) {
+          entry.write(out);
+        }
+      }
+    }
+    Files.move(tmp.toPath(), getIndex().toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+}
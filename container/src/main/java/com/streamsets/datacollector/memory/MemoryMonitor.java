@@ -30,6 +30,8 @@ public class MemoryMonitor implements Runnable {
 
   private final Counter memoryConsumed;
   private final Supplier<MemoryUsageCollector> memoryUsageCollector;
+  // the counter is shared by the copies of a stage in all the pipeline runners, each monitor adds its own share
+  private long lastMemoryConsumed;
 
   public MemoryMonitor(Counter memoryConsumed, Supplier<MemoryUsageCollector> memoryUsageCollector) {
     this.memoryConsumed = memoryConsumed;
@@ -43,7 +45,8 @@ public class MemoryMonitor implements Runnable {
     LOG.debug(Utils.format("Stage {} consumed {} ({}ms), ClassLoader loaded {} classes",
       name, Utils.humanReadableInt(snapshot.getMemoryConsumed()), snapshot.getElapsedTime(),
       snapshot.getNumClassesLoaded()));
-    long currentValue = memoryConsumed.getCount();
-    memoryConsumed.inc((snapshot.getMemoryConsumed() / 1000000) - currentValue);
+    long currentValue = snapshot.getMemoryConsumed() / 1000000;
+    memoryConsumed.inc(currentValue - lastMemoryConsumed);
+    lastMemoryConsumed = currentValue;
   }
 }
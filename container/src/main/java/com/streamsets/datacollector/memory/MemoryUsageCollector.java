@@ -43,10 +43,16 @@ import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Collects memory on a given object and classloader. For example in the context of StreamSets
  * we'd like to ensure a given stage and classloader do not exceed a given amount of memory.
+ * <p/>
+ * The object graph walk can be incremental: with a collection budget each {@link #collect()} call walks the graph
+ * for at most the budget time and continues where it left in the next call, returning the snapshot of the last
+ * complete walk meanwhile. Large object arrays can be sampled, only some of their elements are walked and their
+ * memory is extrapolated to the whole array. Both make the reported memory an approximation.
  */
 public class MemoryUsageCollector {
   private static final Logger LOG = LoggerFactory.getLogger(MemoryUsageCollector.class);
@@ -54,17 +60,55 @@ public class MemoryUsageCollector {
   private static final Field[] EMPTY_FIELD_ARRAY = new Field[0];
   private static final Field CLASSLOADER_CLASSES_FIELD;
   private static final Field SUBJECT_DOMAIN_COMBINER_INTERNAL_LOCK;
+  // how many objects are walked between checks of the collection budget
+  private static final int BUDGET_CHECK_INTERVAL = 1024;
   private static Instrumentation sharedInstrumentation;
-  private static final ConcurrentMap<Class, Field[]> classToFieldCache = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Class, ClassLayout> classToLayoutCache = new ConcurrentHashMap<>();
   private final Instrumentation instrumentation;
   private final Object targetObject;
   private final ClassLoader targetClassloader;
   private final Deque<Object> stack;
   private final IntHashSet countedObjectSet;
   private final boolean traverseClassLoaderClasses;
-  private final MemoryUsageSnapshot memoryUsageSnapshot;
+  private final long collectionBudgetNanos;
+  private final int maxArraySamples;
   private Collection<Class<?>> classes;
 
+  // state of the current walk, kept between collect() calls when the walk exceeds the collection budget
+  private Phase phase;
+  private long weight;
+  private long walkedMemory;
+  private MemoryUsageSnapshot currentSnapshot;
+  private MemoryUsageSnapshot lastSnapshot;
+
+  private enum Phase { START, INSTANCES, CLASSES }
+
+  /**
+   * Reference fields of a class and its superclasses, computed once per class.
+   */
+  private static class ClassLayout {
+    private final Field[] instanceFields;
+    private final Field[] staticFields;
+    // Instrumentation.getObjectSize() is the same for all the instances of a class, except for arrays
+    private volatile long instanceSize = -1;
+
+    ClassLayout(Field[] instanceFields, Field[] staticFields) {
+      this.instanceFields = instanceFields;
+      this.staticFields = staticFields;
+    }
+  }
+
+  /**
+   * Marks in the stack the end of the objects reached from sampled array elements, restores the previous weight.
+   */
+  private static class WeightMarker {
+    private final long weight;
+
+    WeightMarker(long weight) {
+      this.weight = weight;
+    }
+  }
+
   static {
     // initialize CLASSLOADER_CLASSES_FIELD
     Field classLoaderClasses = null;
@@ -102,12 +146,29 @@ public class MemoryUsageCollector {
   public static class Builder {
     private StageRuntime stageRuntime;
     private boolean traverseClassLoaderClasses = true;
+    private long collectionBudgetMillis;
+    private int maxArraySamples;
     private MemoryUsageCollectorResourceBundle memoryUsageCollectorResourceBundle;
 
     public Builder setTraverseClassLoaderClasses(boolean traverseClassLoaderClasses) {
       this.traverseClassLoaderClasses = traverseClassLoaderClasses;
       return this;
     }
+    /**
+     * Maximum time a collect() call walks the object graph, zero means no limit. With a limit the collector keeps
+     * its walk state between calls, so it must not share its resource bundle with other collectors.
+     */
+    public Builder setCollectionBudgetMillis(long collectionBudgetMillis) {
+      this.collectionBudgetMillis = collectionBudgetMillis;
+      return this;
+    }
+    /**
+     * Maximum number of elements walked for an object array, zero means all the elements are walked.
+     */
+    public Builder setMaxArraySamples(int maxArraySamples) {
+      this.maxArraySamples = maxArraySamples;
+      return this;
+    }
     public Builder setStageRuntime(StageRuntime stageRuntime) {
       this.stageRuntime = stageRuntime;
       return this;
@@ -126,7 +187,8 @@ public class MemoryUsageCollector {
       }
       MemoryUsageCollector result = new MemoryUsageCollector(sharedInstrumentation, stageRuntime.getStage(),
         stageRuntime.getDefinition().getStageClassLoader(), memoryUsageCollectorResourceBundle.getStack(),
-        memoryUsageCollectorResourceBundle.getObjectSet(), traverseClassLoaderClasses);
+        memoryUsageCollectorResourceBundle.getObjectSet(), traverseClassLoaderClasses, collectionBudgetMillis,
+        maxArraySamples);
       result.initialize();
       return result;
     }
@@ -135,14 +197,16 @@ public class MemoryUsageCollector {
   @SuppressWarnings("unchecked")
   private MemoryUsageCollector(Instrumentation instrumentation, Object targetObject, ClassLoader targetClassloader,
                                Deque stack, IntHashSet countedObjectSet,
-                               boolean traverseClassLoaderClasses) {
+                               boolean traverseClassLoaderClasses, long collectionBudgetMillis, int maxArraySamples) {
     this.instrumentation = instrumentation;
     this.targetObject = targetObject;
     this.targetClassloader = targetClassloader;
     this.traverseClassLoaderClasses = traverseClassLoaderClasses;
     this.stack = stack;
     this.countedObjectSet = countedObjectSet;
-    this.memoryUsageSnapshot = new MemoryUsageSnapshot(targetObject, targetClassloader);
+    this.collectionBudgetNanos = TimeUnit.MILLISECONDS.toNanos(collectionBudgetMillis);
+    this.maxArraySamples = maxArraySamples;
+    this.phase = Phase.START;
   }
 
   @SuppressWarnings("unchecked")
@@ -161,7 +225,6 @@ public class MemoryUsageCollector {
           // which holds the lock on the classloader and is waiting for a lock on this vector
           // in any case we should not need a lock since we are doing read-only traversal of the
           // the members of the vector
-          memoryUsageSnapshot.setNumClassesLoaded(classes.size());
           this.classes = classes;
         }
       }
@@ -171,26 +234,66 @@ public class MemoryUsageCollector {
     }
   }
 
+  /**
+   * Walks the object graph, within the collection budget if there is one, and returns the snapshot of the last
+   * complete walk. Until the first walk completes it returns the memory found so far.
+   */
   public MemoryUsageSnapshot collect() {
+    long deadline = (collectionBudgetNanos > 0) ? System.nanoTime() + collectionBudgetNanos : Long.MAX_VALUE;
+    if (phase == Phase.START) {
+      startWalk();
+    }
+    if (phase == Phase.INSTANCES) {
+      long start = System.currentTimeMillis();
+      boolean completed = walk(deadline);
+      currentSnapshot.addMemoryConsumedByInstances(takeWalkedMemory());
+      currentSnapshot.addElapsedTimeByInstances(System.currentTimeMillis() - start);
+      if (completed) {
+        phase = Phase.CLASSES;
+        if (traverseClassLoaderClasses && classes != null) {
+          stack.push(classes);
+        }
+      }
+    }
+    if (phase == Phase.CLASSES) {
+      long start = System.currentTimeMillis();
+      boolean completed = walk(deadline);
+      if (traverseClassLoaderClasses) {
+        currentSnapshot.addMemoryConsumedByClasses(takeWalkedMemory());
+        currentSnapshot.addElapsedTimeByClasses(System.currentTimeMillis() - start);
+      }
+      if (completed) {
+        lastSnapshot = currentSnapshot;
+        phase = Phase.START;
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("MemoryUsageSnapshot = " + lastSnapshot);
+        }
+      }
+    }
+    return (lastSnapshot != null) ? lastSnapshot : currentSnapshot;
+  }
+
+  private void startWalk() {
     stack.clear();
     countedObjectSet.release();
-    long startInstances = System.currentTimeMillis();
-    long memoryConsumedByInstances = getMemoryUsageIterative(targetObject, targetClassloader);
-    memoryUsageSnapshot.addMemoryConsumedByInstances(memoryConsumedByInstances);
-    memoryUsageSnapshot.addElapsedTimeByInstances(System.currentTimeMillis() - startInstances);
-    if (traverseClassLoaderClasses) {
-      long startClasses = System.currentTimeMillis();
-      if (classes != null) {
-        long memoryConsumedByClasses = getMemoryUsageIterative(classes, targetClassloader);
-        memoryUsageSnapshot.addMemoryConsumedByClasses(memoryConsumedByClasses);
-      }
-      memoryUsageSnapshot.addElapsedTimeByClasses(System.currentTimeMillis() - startClasses);
+    weight = 1;
+    walkedMemory = 0;
+    currentSnapshot = new MemoryUsageSnapshot(targetObject, targetClassloader);
+    if (classes != null) {
+      currentSnapshot.setNumClassesLoaded(classes.size());
     }
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("MemoryUsageSnapshot = " + memoryUsageSnapshot);
+    if (targetObject != null) {
+      stack.push(targetObject);
     }
-    return memoryUsageSnapshot;
+    phase = Phase.INSTANCES;
+  }
+
+  private long takeWalkedMemory() {
+    long memory = walkedMemory;
+    walkedMemory = 0;
+    return memory;
   }
+
   /**
    * Visible for tests only
    */
@@ -203,12 +306,19 @@ public class MemoryUsageCollector {
    */
   public static long getMemoryUsageOfForTests(Object obj, ClassLoader classLoader, boolean traverseClassLoaderClasses)
   throws Exception {
+    return getMemoryUsageOfForTests(obj, classLoader, traverseClassLoaderClasses, 0);
+  }
+  /**
+   * Visible for tests only
+   */
+  static long getMemoryUsageOfForTests(Object obj, ClassLoader classLoader, boolean traverseClassLoaderClasses,
+                                       int maxArraySamples) throws Exception {
     if (sharedInstrumentation == null) {
       throw new IllegalStateException("MemoryUtility has not been initialized");
     }
     MemoryUsageCollectorResourceBundle bundle = new MemoryUsageCollectorResourceBundle();
     MemoryUsageCollector collector = new MemoryUsageCollector(sharedInstrumentation, obj, classLoader,
-      bundle.getStack(), bundle.getObjectSet(), traverseClassLoaderClasses);
+      bundle.getStack(), bundle.getObjectSet(), traverseClassLoaderClasses, 0, maxArraySamples);
     collector.initialize();
     MemoryUsageSnapshot snapshot = collector.collect();
     LOG.info("MemoryUsageSnapshot = " + snapshot);
@@ -219,15 +329,21 @@ public class MemoryUsageCollector {
    *
    * Note for debugging, if you need to call obj.toString() you need to wrap that in try-catch
    * as some objects we will find will throw a NPE when toString() is called.
+   *
+   * Returns false if the deadline was reached before walking all the objects in the stack.
    */
-
-  private long getMemoryUsageIterative(Object obj, ClassLoader classLoader) {
-    long total = 0L;
-    if (obj != null) {
-      stack.push(obj);
-    }
+  private boolean walk(long deadline) {
+    ClassLoader classLoader = targetClassloader;
+    int walked = 0;
     while (!stack.isEmpty()) {
-      obj = stack.pop();
+      if (++walked % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+        return false;
+      }
+      Object obj = stack.pop();
+      if (obj instanceof WeightMarker) {
+        weight = ((WeightMarker) obj).weight;
+        continue;
+      }
       if (obj == null || obj instanceof PhantomReference || obj instanceof WeakReference
         || obj instanceof SoftReference) {
         continue;
@@ -244,75 +360,119 @@ public class MemoryUsageCollector {
       boolean isClassOwnedByClassLoader = clz.getClassLoader() == classLoader;
       int objectId = System.identityHashCode(obj);
       if (countedObjectSet.add(objectId)) {
-        long objSizeInBytes = instrumentation.getObjectSize(obj);
-        total += objSizeInBytes;
         Class componentType = clz.getComponentType();
         // this means the object is an array
         if (componentType != null && !isObjectClass) {
+          walkedMemory += instrumentation.getObjectSize(obj) * weight;
           if (!componentType.isPrimitive()) {
-            for (Object item : (Object[]) obj) {
-              if (item != null) {
-                stack.push(item);
-              }
-            }
+            pushArrayElements((Object[]) obj);
           }
         } else {
+          ClassLayout layout = getLayout(clz);
+          if (isObjectClass) {
+            walkedMemory += instrumentation.getObjectSize(obj) * weight;
+          } else {
+            walkedMemory += getObjectSize(obj, layout) * weight;
+          }
           // Instrumentation.getObjectSize is shallow and as such we must traverse all fields
-          for (; clz != null; clz = clz.getSuperclass()) {
-            for (Field field : getFields(clz)) {
-              Object childObject = null;
-              // synthetic fields can result in references outside the original object we want
-              // to traverse and thus lead to traversing the entire JVM. For example if we remove
-              // this check when traversing a stage we will at some point find a synthetic field
-              // which results in traversing all stages. TestMemoryIsolation was written to detect
-              // this case.
-              // primitives fields will be included in the above Instrumentation.getObjectSize
-              if (field.isSynthetic() || field.getType().isPrimitive()) {
-                continue;
-              } else if (Modifier.isStatic(field.getModifiers())) {
-                // only inspect static fields if the class is owned by the given classloader
-                if (!isClassOwnedByClassLoader) {
-                  continue;
-                }
-                try {
-                  childObject = field.get(null);
-                } catch (Throwable ignored) {
-                  // this can throw all kinds of strange errors
-                  // thus we don't have a better way to handle this
-                  if (ignored instanceof OutOfMemoryError) {
-                    throw (OutOfMemoryError) ignored;
-                  }
-                }
-              } else if (!isObjectClass) {
-                // if the object is a class, we want to traverse the static fields
-                // otherwise we'll get a bunch of errors thrown in the Field.get()
-                // call below.
-                try {
-                  childObject = field.get(obj);
-                } catch (Throwable ignored) {
-                  // this can throw all kinds of strange errors
-                  // thus we don't have a better way to handle this
-                  if (ignored instanceof OutOfMemoryError) {
-                    throw (OutOfMemoryError) ignored;
-                  }
-                }
-              }
-              if (childObject != null) {
-                stack.push(childObject);
-              }
+          // only inspect static fields if the class is owned by the given classloader
+          if (isClassOwnedByClassLoader) {
+            for (Field field : layout.staticFields) {
+              pushFieldValue(field, null);
+            }
+          }
+          // if the object is a class, we want to traverse the static fields only
+          // otherwise we'll get a bunch of errors thrown in the Field.get() call
+          if (!isObjectClass) {
+            for (Field field : layout.instanceFields) {
+              pushFieldValue(field, obj);
             }
           }
         }
       }
     }
-    return total;
+    return true;
   }
 
-  private Field[] getFields(final Class clz) {
-    Field[] result = classToFieldCache.get(clz);
-    if (result != null) {
-      return result;
+  private void pushArrayElements(Object[] array) {
+    if (maxArraySamples > 0 && array.length > maxArraySamples) {
+      // walk evenly spaced elements only, each of them stands for 'stride' elements
+      int stride = (array.length + maxArraySamples - 1) / maxArraySamples;
+      stack.push(new WeightMarker(weight));
+      weight *= stride;
+      for (int i = 0; i < array.length; i += stride) {
+        if (array[i] != null) {
+          stack.push(array[i]);
+        }
+      }
+    } else {
+      for (Object item : array) {
+        if (item != null) {
+          stack.push(item);
+        }
+      }
     }
+  }
+
+  private void pushFieldValue(Field field, Object obj) {
+    Object childObject = null;
+    try {
+      childObject = field.get(obj);
+    } catch (Throwable ignored) {
+      // this can throw all kinds of strange errors
+      // thus we don't have a better way to handle this
+      if (ignored instanceof OutOfMemoryError) {
+        throw (OutOfMemoryError) ignored;
+      }
+    }
+    if (childObject != null) {
+      stack.push(childObject);
+    }
+  }
+
+  private long getObjectSize(Object obj, ClassLayout layout) {
+    long size = layout.instanceSize;
+    if (size < 0) {
+      size = instrumentation.getObjectSize(obj);
+      layout.instanceSize = size;
+    }
+    return size;
+  }
+
+  private ClassLayout getLayout(Class clz) {
+    ClassLayout layout = classToLayoutCache.get(clz);
+    if (layout == null) {
+      List<Field> instanceFields = new ArrayList<>();
+      List<Field> staticFields = new ArrayList<>();
+      for (Class c = clz; c != null; c = c.getSuperclass()) {
+        for (Field field : getFields(c)) {
+          // synthetic fields can result in references outside the original object we want
+          // to traverse and thus lead to traversing the entire JVM. For example if we remove
+          // this check when traversing a stage we will at some point find a synthetic field
+          // which results in traversing all stages. TestMemoryIsolation was written to detect
+          // this case.
+          // primitives fields will be included in the Instrumentation.getObjectSize
+          if (field.isSynthetic() || field.getType().isPrimitive()) {
+            continue;
+          }
+          if (Modifier.isStatic(field.getModifiers())) {
+            staticFields.add(field);
+          } else {
+            instanceFields.add(field);
+          }
+        }
+      }
+      layout = new ClassLayout(instanceFields.toArray(EMPTY_FIELD_ARRAY), staticFields.toArray(EMPTY_FIELD_ARRAY));
+      ClassLayout existing = classToLayoutCache.putIfAbsent(clz, layout);
+      if (existing != null) {
+        layout = existing;
+      }
+    }
+    return layout;
+  }
+
+  private Field[] getFields(final Class clz) {
+    Field[] result = null;
     try {
       if (MultipleMonitorLocker.isEnabled()) {
         // Per SDC-1395 this code is to work around a deadlock
@@ -340,7 +500,6 @@ public class MemoryUsageCollector {
                   field.setAccessible(true);
                 }
               }
-              classToFieldCache.putIfAbsent(clz, result);
               return result;
             }
           });
@@ -54,6 +54,8 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
   //Note: additional fields should also define in ScriptRecord
 
   private Map<String, Object> map;
+  // true while the map is shared with a header created by cloneShared(), the map is copied before changing it
+  private transient boolean sharedMap;
 
   public HeaderImpl() {
     map = new HashMap<>();
@@ -65,6 +67,20 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
     this.map = new HashMap<>(header.map);
   }
 
+  // for cloneShared() purposes
+  private HeaderImpl(Map<String, Object> map) {
+    this.map = map;
+    this.sharedMap = true;
+  }
+
+  private Map<String, Object> writableMap() {
+    if (sharedMap) {
+      map = new HashMap<>(map);
+      sharedMap = false;
+    }
+    return map;
+  }
+
   // Predicate interface
 
   @Override
@@ -169,14 +185,14 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
     Preconditions.checkNotNull(name, "name cannot be null");
     Preconditions.checkArgument(!name.startsWith(RESERVED_PREFIX), RESERVED_PREFIX_EXCEPTION_MSG);
     Preconditions.checkNotNull(value, "value cannot be null");
-    map.put(name, value);
+    writableMap().put(name, value);
   }
 
   @Override
   public void deleteAttribute(String name) {
     Preconditions.checkNotNull(name, "name cannot be null");
     Preconditions.checkArgument(!name.startsWith(RESERVED_PREFIX), RESERVED_PREFIX_EXCEPTION_MSG);
-    map.remove(name);
+    writableMap().remove(name);
   }
 
   // For Json serialization
@@ -219,37 +235,37 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
 
   public void setStageCreator(String stateCreator) {
     Preconditions.checkNotNull(stateCreator, "stateCreator cannot be null");
-    map.put(STAGE_CREATOR_INSTANCE_ATTR, stateCreator);
+    writableMap().put(STAGE_CREATOR_INSTANCE_ATTR, stateCreator);
   }
 
   public void setSourceId(String sourceId) {
     Preconditions.checkNotNull(sourceId, "sourceId cannot be null");
-    map.put(RECORD_SOURCE_ID_ATTR, sourceId);
+    writableMap().put(RECORD_SOURCE_ID_ATTR, sourceId);
   }
 
   public void setStagesPath(String stagePath) {
     Preconditions.checkNotNull(stagePath, "stagePath cannot be null");
-    map.put(STAGES_PATH_ATTR, stagePath);
+    writableMap().put(STAGES_PATH_ATTR, stagePath);
   }
 
   public void setTrackingId(String trackingId) {
     Preconditions.checkNotNull(trackingId, "trackingId cannot be null");
-    map.put(TRACKING_ID_ATTR, trackingId);
+    writableMap().put(TRACKING_ID_ATTR, trackingId);
   }
 
   public void setPreviousTrackingId(String previousTrackingId) {
     Preconditions.checkNotNull(previousTrackingId, "previousTrackingId cannot be null");
-    map.put(PREVIOUS_TRACKING_ID_ATTR, previousTrackingId);
+    writableMap().put(PREVIOUS_TRACKING_ID_ATTR, previousTrackingId);
   }
 
   public void setRaw(byte[] raw) {
     Preconditions.checkNotNull(raw, "raw cannot be null");
-    map.put(RAW_DATA_ATTR, raw.clone());
+    writableMap().put(RAW_DATA_ATTR, raw.clone());
   }
 
   public void setRawMimeType(String rawMime) {
     Preconditions.checkNotNull(rawMime, "rawMime cannot be null");
-    map.put(RAW_MIME_TYPE_ATTR, rawMime);
+    writableMap().put(RAW_MIME_TYPE_ATTR, rawMime);
   }
 
   public void setError(String errorStage, ErrorMessage errorMessage) {
@@ -263,20 +279,20 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
   }
 
   public void setErrorContext(String datacollector, String pipelineName) {
-    map.put(ERROR_DATACOLLECTOR_ID_ATTR, datacollector);
-    map.put(ERROR_PIPELINE_NAME_ATTR, pipelineName);
+    writableMap().put(ERROR_DATACOLLECTOR_ID_ATTR, datacollector);
+    writableMap().put(ERROR_PIPELINE_NAME_ATTR, pipelineName);
 
   }
   private void setError(String errorStage, String errorCode, String errorMessage, long errorTimestamp, String errorStackTrace) {
-    map.put(ERROR_STAGE_ATTR, errorStage);
-    map.put(ERROR_CODE_ATTR, errorCode);
-    map.put(ERROR_MESSAGE_ATTR, errorMessage);
-    map.put(ERROR_TIMESTAMP_ATTR, errorTimestamp);
-    map.put(ERROR_STACKTRACE, errorStackTrace);
+    writableMap().put(ERROR_STAGE_ATTR, errorStage);
+    writableMap().put(ERROR_CODE_ATTR, errorCode);
+    writableMap().put(ERROR_MESSAGE_ATTR, errorMessage);
+    writableMap().put(ERROR_TIMESTAMP_ATTR, errorTimestamp);
+    writableMap().put(ERROR_STACKTRACE, errorStackTrace);
   }
 
   public void setSourceRecord(Record record) {
-    map.put(SOURCE_RECORD_ATTR, record);
+    writableMap().put(SOURCE_RECORD_ATTR, record);
   }
 
   public Record getSourceRecord() {
@@ -333,6 +349,15 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
     return new HeaderImpl(this);
   }
 
+  /**
+   * Returns a copy of the header sharing the attributes map with this header, the first of the two headers
+   * modifying an attribute copies the map.
+   */
+  public HeaderImpl cloneShared() {
+    sharedMap = true;
+    return new HeaderImpl(map);
+  }
+
   @Override
   public String toString() {
     return Utils.format("HeaderImpl[{}]", getSourceId());
@@ -347,6 +372,7 @@ public class HeaderImpl implements Record.Header, Predicate<String>, Cloneable {
     // ImmutableMap can't have null values and our map could have, so use unmodifiable map
     Map<String, Object> old = Collections.unmodifiableMap(map);
     map = new HashMap<>(newAttrs);
+    sharedMap = false;
     return old;
   }
 }
@@ -20,6 +20,12 @@
 package com.streamsets.datacollector.record;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.streamsets.datacollector.util.EscapeUtil;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -33,8 +39,25 @@ import java.util.Map;
 import java.util.Set;
 
 public class RecordImpl implements Record, Cloneable {
+  // stages access the same few field paths for every record, parsing them once saves a parse per access
+  private static final int PARSED_PATHS_CACHE_SIZE = 10000;
+
+  private static final LoadingCache<String, List<PathElement>> PARSED_PATHS = CacheBuilder.newBuilder()
+      .maximumSize(PARSED_PATHS_CACHE_SIZE)
+      .build(new CacheLoader<String, List<PathElement>>() {
+        @Override
+        public List<PathElement> load(String fieldPath) {
+          return ImmutableList.copyOf(PathElement.parse(fieldPath, false));
+        }
+      });
+
+  // marks a field path that does not resolve to a field, a resolved field can be NULL (a NULL element in a list)
+  private static final Field NOT_FOUND = Field.create(Field.Type.STRING, null);
+
   private final HeaderImpl header;
   private Field value;
+  // non NULL while the value is shared with records created by cloneShared(), see ownValue()
+  private transient SharedValue sharedValue;
   //Default true: so as to denote the record is just created
   //and initialized in a stage and did not pass through any other stage.
   private boolean isInitialRecord = true;
@@ -80,6 +103,74 @@ public class RecordImpl implements Record, Cloneable {
     isInitialRecord = record.isInitialRecord();
   }
 
+  // for cloneShared() purposes
+  private RecordImpl(HeaderImpl header, Field value, SharedValue sharedValue, boolean isInitialRecord) {
+    this.header = header;
+    this.value = value;
+    this.sharedValue = sharedValue;
+    this.isInitialRecord = isInitialRecord;
+  }
+
+  /**
+   * Keeps track of the records sharing the same value, the last record taking ownership of the value does not need
+   * to copy it.
+   */
+  private static class SharedValue {
+    private int owners;
+
+    SharedValue(int owners) {
+      this.owners = owners;
+    }
+
+    synchronized void join() {
+      owners++;
+    }
+
+    // returns true if the caller was the last record sharing the value
+    synchronized boolean leave() {
+      return --owners == 0;
+    }
+  }
+
+  /**
+   * Makes sure this record owns its value before modifying it or handing out a field that could be modified. If the
+   * value is still shared with other records it is copied, unless all the other records took ownership already.
+   */
+  private void ownValue() {
+    if (sharedValue != null) {
+      boolean last = sharedValue.leave();
+      sharedValue = null;
+      if (!last && value != null) {
+        value = value.clone();
+      }
+    }
+  }
+
+  /**
+   * Returns true if the field can be handed out while sharing the value: its value cannot be changed in place.
+   * Maps, lists, byte arrays and dates are mutable, a caller could modify them on behalf of all the sharing records.
+   */
+  private static boolean isImmutable(Field field) {
+    if (field == null) {
+      return true;
+    }
+    switch (field.getType()) {
+      case BOOLEAN:
+      case CHAR:
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case DECIMAL:
+      case STRING:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   public void addStageToStagePath(String stage) {
     Preconditions.checkNotNull(stage, "stage cannot be null");
     String currentPath = (header.getStagesPath() == null) ? "" : header.getStagesPath() + ":";
@@ -110,12 +201,23 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field get() {
+    if (!isImmutable(value)) {
+      ownValue();
+    }
     return value;
   }
 
   @Override
   public Field set(Field field) {
     Field oldData = value;
+    if (sharedValue != null) {
+      // the old value is returned to the caller, it must be a copy if other records still share it
+      boolean last = sharedValue.leave();
+      sharedValue = null;
+      if (!last && !isImmutable(oldData)) {
+        oldData = oldData.clone();
+      }
+    }
     value = field;
     return oldData;
   }
@@ -221,11 +323,63 @@ public class RecordImpl implements Record, Cloneable {
   }
 
   public FieldWithPath getValue() {
-    return createFieldWithPath("", "", get());
+    // read only view for serialization, it does not need to take ownership of a shared value
+    return createFieldWithPath("", "", value);
   }
 
   List<PathElement> parse(String fieldPath) {
-    return PathElement.parse(fieldPath, false);
+    Preconditions.checkNotNull(fieldPath, "fieldPath cannot be null");
+    try {
+      return PARSED_PATHS.getUnchecked(fieldPath);
+    } catch (UncheckedExecutionException ex) {
+      // invalid field paths are not cached, PathElement.parse() throws an IllegalArgumentException for them
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  /**
+   * Walks the record following the given path elements without collecting the intermediate fields.
+   * Returns NOT_FOUND if the path cannot be resolved.
+   */
+  private Field find(List<PathElement> elements) {
+    Field current = value;
+    if (current == null) {
+      return NOT_FOUND;
+    }
+    for (int i = 0; i < elements.size(); i++) {
+      if (current == null) {
+        return NOT_FOUND;
+      }
+      PathElement element = elements.get(i);
+      switch (element.getType()) {
+        case ROOT:
+          break;
+        case MAP:
+          if (!current.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP)) {
+            return NOT_FOUND;
+          }
+          Map<String, Field> map = current.getValueAsMap();
+          Field field = (map != null) ? map.get(element.getName()) : null;
+          if (field == null) {
+            return NOT_FOUND;
+          }
+          current = field;
+          break;
+        case LIST:
+          if (!current.getType().isOneOf(Field.Type.LIST, Field.Type.LIST_MAP)) {
+            return NOT_FOUND;
+          }
+          List<Field> list = current.getValueAsList();
+          if (list == null || list.size() <= element.getIndex()) {
+            return NOT_FOUND;
+          }
+          current = list.get(element.getIndex());
+          break;
+        default:
+          return NOT_FOUND;
+      }
+    }
+    return current;
   }
 
   private List<Field> get(List<PathElement> elements) {
@@ -278,13 +432,19 @@ public class RecordImpl implements Record, Cloneable {
   @Override
   public Field get(String fieldPath) {
     List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size()) ? fields.get(fields.size() - 1) : null;
+    Field field = find(elements);
+    if (sharedValue != null && field != NOT_FOUND && !isImmutable(field)) {
+      // the field could be modified through the returned reference, it must belong to this record only
+      ownValue();
+      field = find(elements);
+    }
+    return (field != NOT_FOUND) ? field : null;
   }
 
 
   @Override
   public Field delete(String fieldPath) {
+    ownValue();
     List<PathElement> elements = parse(fieldPath);
     List<Field> fields = get(elements);
     Field deleted = null;
@@ -316,9 +476,7 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public boolean has(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size());
+    return find(parse(fieldPath)) != NOT_FOUND;
   }
 
   @Override
@@ -465,8 +623,26 @@ public class RecordImpl implements Record, Cloneable {
     return new RecordImpl(this);
   }
 
+  /**
+   * Returns a copy of the record sharing the header attributes and the field tree with this record.
+   * <p/>
+   * Nothing is copied until one of the records modifies its fields (set/delete) or hands out a field that can be
+   * modified in place (a map, list, byte array or date returned by get), at that point that record copies the field
+   * tree. Getting immutable fields, has() or getEscapedFieldPaths() work on the shared field tree. Used when the same
+   * records go to several streams.
+   */
+  public RecordImpl cloneShared() {
+    if (sharedValue == null) {
+      sharedValue = new SharedValue(2);
+    } else {
+      sharedValue.join();
+    }
+    return new RecordImpl(header.cloneShared(), value, sharedValue, isInitialRecord);
+  }
+
   @Override
   public Field set(String fieldPath, Field newField) {
+    ownValue();
     //get all the elements present in the fieldPath, including the newest element
     //For example, if the existing record has /a/b/c and the argument fieldPath is /a/b/d the parser returns three
     // elements - a, b and d
@@ -0,0 +1,363 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record.io;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kryo serializer for the <code>KRYO2</code> record encoding.
+ * <p/>
+ * Instead of reflecting over the record classes and writing class names, header attributes and fields are written
+ * with a type tag followed by their value in binary form. Map keys and header attribute names are written once per
+ * record and referenced by index afterwards, records with lists of maps repeat the same names over and over.
+ * <p/>
+ * The names dictionary is per record so a stream can still be read starting from the position of any record.
+ * <p/>
+ * Instances are not thread safe, each writer and reader has its own. Besides the record writers and readers it is
+ * used by the binary snapshot store.
+ */
+public class KryoRecordSerializer extends Serializer<RecordImpl> {
+
+  // the position of the type in the array is its tag in the encoding, new types must be added at the end
+  private static final Field.Type[] TYPES = {
+      Field.Type.BOOLEAN,
+      Field.Type.CHAR,
+      Field.Type.BYTE,
+      Field.Type.SHORT,
+      Field.Type.INTEGER,
+      Field.Type.LONG,
+      Field.Type.FLOAT,
+      Field.Type.DOUBLE,
+      Field.Type.DATE,
+      Field.Type.DATETIME,
+      Field.Type.TIME,
+      Field.Type.DECIMAL,
+      Field.Type.STRING,
+      Field.Type.FILE_REF,
+      Field.Type.BYTE_ARRAY,
+      Field.Type.MAP,
+      Field.Type.LIST,
+      Field.Type.LIST_MAP
+  };
+
+  private static final Map<Field.Type, Integer> TYPE_TAGS = new EnumMap<>(Field.Type.class);
+
+  static {
+    for (int i = 0; i < TYPES.length; i++) {
+      TYPE_TAGS.put(TYPES[i], i);
+    }
+  }
+
+  // header attribute value tags
+  private static final byte ATTR_NULL = 0;
+  private static final byte ATTR_STRING = 1;
+  private static final byte ATTR_LONG = 2;
+  private static final byte ATTR_BYTES = 3;
+  private static final byte ATTR_OBJECT = 4;
+
+  private final Map<String, Integer> writeNames = new HashMap<>();
+  private final List<String> readNames = new ArrayList<>();
+
+  @Override
+  public void write(Kryo kryo, Output output, RecordImpl record) {
+    writeNames.clear();
+    output.writeBoolean(record.isInitialRecord());
+    writeHeader(kryo, output, record.getHeader());
+    writeField(kryo, output, record.get());
+  }
+
+  @Override
+  public RecordImpl read(Kryo kryo, Input input, Class<RecordImpl> type) {
+    readNames.clear();
+    boolean initialRecord = input.readBoolean();
+    HeaderImpl header = readHeader(kryo, input);
+    RecordImpl record = new RecordImpl(header, readField(kryo, input));
+    record.setInitialRecord(initialRecord);
+    return record;
+  }
+
+  private void writeName(Output output, String name) {
+    Integer index = writeNames.get(name);
+    if (index == null) {
+      writeNames.put(name, writeNames.size());
+      output.writeVarInt(0, true);
+      output.writeString(name);
+    } else {
+      output.writeVarInt(index + 1, true);
+    }
+  }
+
+  private String readName(Input input) {
+    int index = input.readVarInt(true);
+    String name;
+    if (index == 0) {
+      name = input.readString();
+      readNames.add(name);
+    } else {
+      name = readNames.get(index - 1);
+    }
+    return name;
+  }
+
+  private void writeHeader(Kryo kryo, Output output, HeaderImpl header) {
+    Map<String, Object> attributes = header.getAllAttributes();
+    output.writeVarInt(attributes.size(), true);
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      writeName(output, entry.getKey());
+      Object value = entry.getValue();
+      if (value == null || value instanceof Record) {
+        // the source record is runtime only information, as with the JSON encoding it is not written
+        output.writeByte(ATTR_NULL);
+      } else if (value instanceof String) {
+        output.writeByte(ATTR_STRING);
+        output.writeString((String) value);
+      } else if (value instanceof Long) {
+        output.writeByte(ATTR_LONG);
+        output.writeVarLong((Long) value, false);
+      } else if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
+        output.writeByte(ATTR_BYTES);
+        output.writeVarInt(bytes.length, true);
+        output.writeBytes(bytes);
+      } else {
+        output.writeByte(ATTR_OBJECT);
+        kryo.writeClassAndObject(output, value);
+      }
+    }
+  }
+
+  private HeaderImpl readHeader(Kryo kryo, Input input) {
+    int size = input.readVarInt(true);
+    Map<String, Object> attributes = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      String name = readName(input);
+      Object value;
+      byte tag = input.readByte();
+      switch (tag) {
+        case ATTR_NULL:
+          value = null;
+          break;
+        case ATTR_STRING:
+          value = input.readString();
+          break;
+        case ATTR_LONG:
+          value = input.readVarLong(false);
+          break;
+        case ATTR_BYTES:
+          value = input.readBytes(input.readVarInt(true));
+          break;
+        case ATTR_OBJECT:
+          value = kryo.readClassAndObject(input);
+          break;
+        default:
+          throw new KryoException(Utils.format("Invalid header attribute tag '{}'", tag));
+      }
+      attributes.put(name, value);
+    }
+    HeaderImpl header = new HeaderImpl();
+    header.setAllAttributes(attributes);
+    return header;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void writeField(Kryo kryo, Output output, Field field) {
+    if (field == null) {
+      output.writeVarInt(0, true);
+      return;
+    }
+    Integer tag = TYPE_TAGS.get(field.getType());
+    if (tag == null) {
+      throw new KryoException(Utils.format("Unsupported field type '{}'", field.getType()));
+    }
+    Object value = field.getValue();
+    // 0 is a NULL field, the lowest bit tells if the value is NULL
+    output.writeVarInt(((tag + 1) << 1) | ((value == null) ? 1 : 0), true);
+    if (value == null) {
+      return;
+    }
+    switch (field.getType()) {
+      case BOOLEAN:
+        output.writeBoolean((Boolean) value);
+        break;
+      case CHAR:
+        output.writeChar((Character) value);
+        break;
+      case BYTE:
+        output.writeByte((Byte) value);
+        break;
+      case SHORT:
+        output.writeShort((Short) value);
+        break;
+      case INTEGER:
+        output.writeVarInt((Integer) value, false);
+        break;
+      case LONG:
+        output.writeVarLong((Long) value, false);
+        break;
+      case FLOAT:
+        output.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        output.writeDouble((Double) value);
+        break;
+      case DATE:
+      case DATETIME:
+      case TIME:
+        output.writeVarLong(((Date) value).getTime(), false);
+        break;
+      case DECIMAL:
+        BigDecimal decimal = (BigDecimal) value;
+        byte[] unscaled = decimal.unscaledValue().toByteArray();
+        output.writeVarInt(decimal.scale(), false);
+        output.writeVarInt(unscaled.length, true);
+        output.writeBytes(unscaled);
+        break;
+      case STRING:
+        output.writeString((String) value);
+        break;
+      case BYTE_ARRAY:
+        byte[] bytes = (byte[]) value;
+        output.writeVarInt(bytes.length, true);
+        output.writeBytes(bytes);
+        break;
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = (Map<String, Field>) value;
+        output.writeVarInt(map.size(), true);
+        for (Map.Entry<String, Field> entry : map.entrySet()) {
+          writeName(output, entry.getKey());
+          writeField(kryo, output, entry.getValue());
+        }
+        break;
+      case LIST:
+        List<Field> list = (List<Field>) value;
+        output.writeVarInt(list.size(), true);
+        for (Field element : list) {
+          writeField(kryo, output, element);
+        }
+        break;
+      default:
+        // file references are rare and implementation specific, let Kryo handle them
+        kryo.writeClassAndObject(output, value);
+        break;
+    }
+  }
+
+  private Field readField(Kryo kryo, Input input) {
+    int code = input.readVarInt(true);
+    if (code == 0) {
+      return null;
+    }
+    int tag = (code >>> 1) - 1;
+    if (tag >= TYPES.length) {
+      throw new KryoException(Utils.format("Invalid field type tag '{}'", tag));
+    }
+    Field.Type type = TYPES[tag];
+    if ((code & 1) == 1) {
+      return Field.create(type, null);
+    }
+    Object value;
+    switch (type) {
+      case BOOLEAN:
+        value = input.readBoolean();
+        break;
+      case CHAR:
+        value = input.readChar();
+        break;
+      case BYTE:
+        value = input.readByte();
+        break;
+      case SHORT:
+        value = input.readShort();
+        break;
+      case INTEGER:
+        value = input.readVarInt(false);
+        break;
+      case LONG:
+        value = input.readVarLong(false);
+        break;
+      case FLOAT:
+        value = input.readFloat();
+        break;
+      case DOUBLE:
+        value = input.readDouble();
+        break;
+      case DATE:
+      case DATETIME:
+      case TIME:
+        value = new Date(input.readVarLong(false));
+        break;
+      case DECIMAL:
+        int scale = input.readVarInt(false);
+        byte[] unscaled = input.readBytes(input.readVarInt(true));
+        value = new BigDecimal(new BigInteger(unscaled), scale);
+        break;
+      case STRING:
+        value = input.readString();
+        break;
+      case BYTE_ARRAY:
+        value = input.readBytes(input.readVarInt(true));
+        break;
+      case MAP:
+      case LIST_MAP:
+        int mapSize = input.readVarInt(true);
+        // LIST_MAP must keep the written order, MAP keeps it as well
+        Map<String, Field> map = new LinkedHashMap<>();
+        for (int i = 0; i < mapSize; i++) {
+          String name = readName(input);
+          map.put(name, readField(kryo, input));
+        }
+        value = map;
+        break;
+      case LIST:
+        int listSize = input.readVarInt(true);
+        List<Field> list = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+          list.add(readField(kryo, input));
+        }
+        value = list;
+        break;
+      default:
+        value = kryo.readClassAndObject(input);
+        break;
+    }
+    return Field.create(type, value);
+  }
+
+}
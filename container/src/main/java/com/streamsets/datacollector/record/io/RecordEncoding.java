@@ -29,6 +29,8 @@ class RecordEncodingConstants {
   static final byte BASE_MAGIC_NUMBER = (byte) 0xa0;
   //10100002
   static final byte KRYO1_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x02;
+  //10100003
+  static final byte KRYO2_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x03;
   //10100001
   static final byte JSON1_MAGIC_NUMBER = BASE_MAGIC_NUMBER | (byte) 0x01;
 
@@ -38,6 +40,7 @@ class RecordEncodingConstants {
 public enum RecordEncoding {
   JSON1(RecordEncodingConstants.JSON1_MAGIC_NUMBER),
   KRYO1(RecordEncodingConstants.KRYO1_MAGIC_NUMBER),
+  KRYO2(RecordEncodingConstants.KRYO2_MAGIC_NUMBER),
 
   ;
 
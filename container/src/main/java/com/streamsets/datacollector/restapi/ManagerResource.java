@@ -32,6 +32,7 @@ import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.datacollector.restapi.bean.ErrorMessageJson;
 import com.streamsets.datacollector.restapi.bean.MetricRegistryJson;
 import com.streamsets.datacollector.restapi.bean.MultiStatusResponseJson;
+import com.streamsets.datacollector.restapi.bean.PipelineRecoveryStatusJson;
 import com.streamsets.datacollector.restapi.bean.PipelineStateJson;
 import com.streamsets.datacollector.restapi.bean.RecordJson;
 import com.streamsets.datacollector.restapi.bean.SampledRecordJson;
@@ -108,6 +109,18 @@ public class ManagerResource {
     return Response.ok().type(MediaType.APPLICATION_JSON).entity(pipelineStateMap).build();
   }
 
+  @Path("/pipelines/recovery")
+  @GET
+  @ApiOperation(value = "Returns the progress of the recovery of the pipelines that were active on shutdown",
+    response = PipelineRecoveryStatusJson.class, authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @PermitAll
+  public Response getPipelineRecoveryStatus() {
+    return Response.ok()
+        .type(MediaType.APPLICATION_JSON)
+        .entity(BeanHelper.wrapPipelineRecoveryStatus(manager.getRecoveryStatus())).build();
+  }
+
   @Path("/pipeline/{pipelineName}/status")
   @GET
   @ApiOperation(value = "Returns Pipeline Status for the given pipeline", response = PipelineStateJson.class,
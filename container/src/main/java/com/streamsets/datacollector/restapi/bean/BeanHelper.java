@@ -44,6 +44,7 @@ import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.PreviewOutput;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.execution.runner.common.SampledRecord;
 import com.streamsets.datacollector.record.HeaderImpl;
 import com.streamsets.datacollector.record.RecordImpl;
@@ -615,6 +616,13 @@ public class BeanHelper {
     return sourceOffsetJson.getSourceOffset();
   }
 
+  public static PipelineRecoveryStatusJson wrapPipelineRecoveryStatus(PipelineRecoveryStatus recoveryStatus) {
+    if(recoveryStatus == null) {
+      return null;
+    }
+    return new PipelineRecoveryStatusJson(recoveryStatus);
+  }
+
   public static SourceOffsetJson wrapSourceOffset(SourceOffset sourceOffset) {
     if(sourceOffset == null) {
       return null;
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.restapi.bean;
+
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
+
+import java.util.Map;
+
+public class PipelineRecoveryStatusJson {
+
+  private final PipelineRecoveryStatus recoveryStatus;
+
+  public PipelineRecoveryStatusJson(PipelineRecoveryStatus recoveryStatus) {
+    this.recoveryStatus = recoveryStatus;
+  }
+
+  public int getTotal() {
+    return recoveryStatus.getTotal();
+  }
+
+  public int getRecovered() {
+    return recoveryStatus.getRecovered();
+  }
+
+  public int getFailed() {
+    return recoveryStatus.getFailed();
+  }
+
+  public int getPending() {
+    return recoveryStatus.getPending();
+  }
+
+  public long getStartTime() {
+    return recoveryStatus.getStartTime();
+  }
+
+  public long getEndTime() {
+    return recoveryStatus.getEndTime();
+  }
+
+  public boolean isFinished() {
+    return recoveryStatus.isFinished();
+  }
+
+  public Map<String, String> getErrors() {
+    return recoveryStatus.getErrors();
+  }
+}
@@ -53,6 +53,15 @@ public class ErrorSink {
     errorRecords.clear();
   }
 
+  // for reusing the sink across batches
+  void reset() {
+    stageErrors.clear();
+    errorRecords.clear();
+    size = 0;
+    totalErrorMessages = 0;
+    totalErrorRecords = 0;
+  }
+
   public void addError(String stage, ErrorMessage errorMessage) {
     addError(stageErrors, stage, errorMessage);
     totalErrorMessages++;
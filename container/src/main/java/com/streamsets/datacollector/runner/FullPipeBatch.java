@@ -63,6 +63,21 @@ public class FullPipeBatch implements PipeBatch {
     errorSink = new ErrorSink();
   }
 
+  /**
+   * Clears the batch so the runner can use it for its next batch, the payload, processed stages and error sink keep
+   * the capacity they had for the previous batch. Batches capturing the stages output cannot be reset as the captured
+   * output references their error sink.
+   */
+  public void reset() {
+    Preconditions.checkState(stageOutputSnapshot == null, "A batch capturing the stages output cannot be reset");
+    fullPayload.clear();
+    processedStages.clear();
+    errorSink.reset();
+    newOffset = null;
+    inputRecords = 0;
+    outputRecords = 0;
+  }
+
   @VisibleForTesting
   Map<String, List<Record>> getFullPayload() {
     return fullPayload;
@@ -91,10 +106,16 @@ public class FullPipeBatch implements PipeBatch {
   @Override
   @SuppressWarnings("unchecked")
   public BatchImpl getBatch(final Pipe pipe) {
-    List<Record> records = new ArrayList<>();
+    List<Record> records;
     List<String> inputLanes = pipe.getInputLanes();
-    for (String inputLane : inputLanes) {
-      records.addAll(fullPayload.remove(inputLane));
+    if (inputLanes.size() == 1) {
+      // the lane is removed from the payload, the batch can use its records list as is
+      records = fullPayload.remove(inputLanes.get(0));
+    } else {
+      records = new ArrayList<>(getSize(inputLanes));
+      for (String inputLane : inputLanes) {
+        records.addAll(fullPayload.remove(inputLane));
+      }
     }
     if (pipe.getStage().getDefinition().getType().isOneOf(StageType.TARGET, StageType.EXECUTOR)) {
       outputRecords += records.size();
@@ -176,11 +197,7 @@ public class FullPipeBatch implements PipeBatch {
 
   //TODO rename method
   private List<Record> createSnapshot(List<Record> records) {
-    List<Record> list = new ArrayList<>(records.size());
-    for (Record record : records) {
-      list.add(((RecordImpl) record).clone());
-    }
-    return list;
+    return createCopy(records);
   }
 
   private Map<String, List<Record>> createSnapshot(Map<String, List<Record>> output) {
@@ -232,16 +249,21 @@ public class FullPipeBatch implements PipeBatch {
   public void moveLaneCopying(String inputLane, List<String> outputLanes) {
     List<Record> records = Preconditions.checkNotNull(fullPayload.remove(inputLane), Utils.formatL(
         "Stream '{}' does not exist", inputLane));
-    for (String lane : outputLanes) {
+    for (int i = 0; i < outputLanes.size(); i++) {
+      String lane = outputLanes.get(i);
       Preconditions.checkNotNull(fullPayload.containsKey(lane), Utils.formatL("Lane '{}' does not exist", lane));
-      fullPayload.put(lane, createCopy(records));
+      // the input lane is gone, the first output lane takes the records themselves and only the others get copies,
+      // so the last record modifying a shared field tree takes it over without copying it
+      fullPayload.put(lane, (i == 0) ? records : createCopy(records));
     }
   }
 
+  // the copies share the field trees with the original records until they are modified, by then the records are
+  // no longer in the hands of the stage that produced them
   private List<Record> createCopy(List<Record> records) {
     List<Record> list = new ArrayList<>(records.size());
     for (Record record : records) {
-      list.add(((RecordImpl) record).clone());
+      list.add(((RecordImpl) record).cloneShared());
     }
     return list;
   }
@@ -252,11 +274,22 @@ public class FullPipeBatch implements PipeBatch {
     return list;
   }
 
+  private int getSize(List<String> lanes) {
+    int size = 0;
+    for (String lane : lanes) {
+      List<Record> records = fullPayload.get(lane);
+      if (records != null) {
+        size += records.size();
+      }
+    }
+    return size;
+  }
+
   @Override
   public void combineLanes(List<String> lanes, String to) {
     List<String> undefLanes = remove(lanes, fullPayload.keySet());
     Preconditions.checkState(undefLanes.isEmpty(), Utils.formatL("Lanes '{}' does not exist", undefLanes));
-    fullPayload.put(to, new ArrayList<Record>());
+    fullPayload.put(to, new ArrayList<Record>(getSize(lanes)));
     for (String lane : lanes) {
       List<Record> records = Preconditions.checkNotNull(fullPayload.remove(lane), Utils.formatL(
           "Stream '{}' does not exist", lane));
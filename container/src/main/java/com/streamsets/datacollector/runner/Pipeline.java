@@ -22,9 +22,11 @@ package com.streamsets.datacollector.runner;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.config.StageType;
 import com.streamsets.datacollector.creation.PipelineBean;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
+import com.streamsets.datacollector.creation.StageBean;
 import com.streamsets.datacollector.email.EmailSender;
 import com.streamsets.datacollector.memory.MemoryUsageCollectorResourceBundle;
 import com.streamsets.datacollector.runner.production.BadRecordsHandler;
@@ -57,6 +59,7 @@ public class Pipeline {
   private final String rev;
   private final Configuration configuration;
   private final Pipe[] pipes;
+  private final List<Pipe[]> runnerPipes;
   private final PipelineRunner runner;
   private final Observer observer;
   private final BadRecordsHandler badRecordsHandler;
@@ -71,6 +74,7 @@ public class Pipeline {
       Configuration configuration,
       PipelineBean pipelineBean,
       Pipe[] pipes,
+      List<Pipe[]> runnerPipes,
       Observer observer,
       BadRecordsHandler badRecordsHandler,
       PipelineRunner runner,
@@ -82,6 +86,7 @@ public class Pipeline {
     this.rev = rev;
     this.configuration = configuration;
     this.pipes = pipes;
+    this.runnerPipes = runnerPipes;
     this.observer = observer;
     this.badRecordsHandler = badRecordsHandler;
     this.runner = runner;
@@ -105,6 +110,11 @@ public class Pipeline {
     return pipes;
   }
 
+  @VisibleForTesting
+  List<Pipe[]> getRunnerPipes() {
+    return runnerPipes;
+  }
+
   public boolean shouldStopOnStageError() {
     return shouldStopOnStageError;
   }
@@ -154,19 +164,37 @@ public class Pipeline {
       }
     }
     for (Pipe pipe : pipes) {
-      try {
-        issues.addAll(pipe.init(pipeContext));
-      } catch (Exception ex) {
-        String instanceName = pipe.getStage().getConfiguration().getInstanceName();
-        LOG.warn(ContainerError.CONTAINER_0701.getMessage(), instanceName, ex.toString(), ex);
-        issues.add(IssueCreator.getStage(instanceName).create(ContainerError.CONTAINER_0701, instanceName,
-          ex.toString()));
+      initPipe(pipe, pipeContext, issues);
+    }
+    // additional runners share the origin pipes with the main runner, those are initialized only once
+    for (Pipe[] runner : runnerPipes) {
+      for (Pipe pipe : runner) {
+        if (!isSourcePipe(pipe)) {
+          initPipe(pipe, pipeContext, issues);
+        }
       }
     }
     this.runner.setPipeContext(pipeContext);
+    this.runner.setRunnerPipes(runnerPipes);
     return issues;
   }
 
+  @SuppressWarnings("unchecked")
+  private void initPipe(Pipe pipe, PipeContext pipeContext, List<Issue> issues) {
+    try {
+      issues.addAll(pipe.init(pipeContext));
+    } catch (Exception ex) {
+      String instanceName = pipe.getStage().getConfiguration().getInstanceName();
+      LOG.warn(ContainerError.CONTAINER_0701.getMessage(), instanceName, ex.toString(), ex);
+      issues.add(IssueCreator.getStage(instanceName).create(ContainerError.CONTAINER_0701, instanceName,
+        ex.toString()));
+    }
+  }
+
+  public static boolean isSourcePipe(Pipe pipe) {
+    return pipe.getStage().getDefinition().getType() == StageType.SOURCE;
+  }
+
   public void errorNotification(Throwable throwable) {
     runner.errorNotification(pipes, throwable);
   }
@@ -225,6 +253,11 @@ public class Pipeline {
     for(Pipe p : pipes) {
       ((StageContext)p.getStage().getContext()).setStop(true);
     }
+    for (Pipe[] runner : runnerPipes) {
+      for (Pipe p : runner) {
+        ((StageContext)p.getStage().getContext()).setStop(true);
+      }
+    }
   }
 
   public static class Builder {
@@ -240,10 +273,8 @@ public class Pipeline {
     private Observer observer;
     private final ResourceControlledScheduledExecutor scheduledExecutor =
       new ResourceControlledScheduledExecutor(0.01f); // consume 1% of a cpu calculating stage memory consumption
-    private final MemoryUsageCollectorResourceBundle memoryUsageCollectorResourceBundle =
-      new MemoryUsageCollectorResourceBundle();
     private List<Issue> errors;
-
+    private List<Stage.Info> stageInfos;
 
     public Builder(StageLibraryTask stageLib, Configuration configuration, String name, String pipelineName, String rev,
                    PipelineConfiguration pipelineConf) {
@@ -281,6 +312,17 @@ public class Pipeline {
 
         setStagesContext(stages, errorStage, statsAggregator, runner);
         Pipe[] pipes = createPipes(stages, runner);
+        List<Pipe[]> runnerPipes = new ArrayList<>();
+        int runnerThreads = getRunnerThreads(pipelineBean, runner);
+        for (int i = 1; i < runnerThreads && errors.isEmpty(); i++) {
+          StageRuntime[] runnerStages = createRunnerStages(pipelineBean, stages, runner);
+          if (runnerStages != null) {
+            runnerPipes.add(createPipes(runnerStages, runner));
+          }
+        }
+        if (!errors.isEmpty()) {
+          throw new PipelineRuntimeException(ContainerError.CONTAINER_0158, errors.get(0).getMessage());
+        }
         BadRecordsHandler badRecordsHandler = new BadRecordsHandler(errorStage);
 
         try {
@@ -290,6 +332,7 @@ public class Pipeline {
               configuration,
               pipelineBean,
               pipes,
+              runnerPipes,
               observer,
               badRecordsHandler,
               runner,
@@ -319,57 +362,74 @@ public class Pipeline {
       ExecutionMode executionMode = getExecutionMode(pipelineConf);
       for (StageRuntime stage : stages) {
         infos.add(stage.getInfo());
-        stage.setContext(
-            new StageContext(
-                pipelineName,
-                rev,
-                infosUnmodifiable,
-                stage.getDefinition().getType(),
-                runner.isPreview(),
-                runner.getMetrics(),
-                stage,
-                pipelineConf.getMemoryLimitConfiguration().getMemoryLimit(),
-                executionMode,
-                runner.getRuntimeInfo().getResourcesDir(),
-                new EmailSender(configuration),
-                configuration
-            )
-        );
+        stage.setContext(createStageContext(stage, infosUnmodifiable, executionMode, runner));
       }
-      errorStage.setContext(
-          new StageContext(
-              pipelineName,
-              rev,
-              infosUnmodifiable,
-              errorStage.getDefinition().getType(),
-              runner.isPreview(),
-              runner.getMetrics(),
-              errorStage,
-              pipelineConf.getMemoryLimitConfiguration().getMemoryLimit(),
-              executionMode,
-              runner.getRuntimeInfo().getResourcesDir(),
-              new EmailSender(configuration),
-              configuration
-          )
-      );
+      errorStage.setContext(createStageContext(errorStage, infosUnmodifiable, executionMode, runner));
       if (statsAggregatorStage != null) {
         statsAggregatorStage.setContext(
-            new StageContext(
-                pipelineName,
-                rev,
-                infosUnmodifiable,
-                statsAggregatorStage.getDefinition().getType(),
-                runner.isPreview(),
-                runner.getMetrics(),
-                statsAggregatorStage,
-                pipelineConf.getMemoryLimitConfiguration().getMemoryLimit(),
-                executionMode,
-                runner.getRuntimeInfo().getResourcesDir(),
-                new EmailSender(configuration),
-                configuration
-            )
+            createStageContext(statsAggregatorStage, infosUnmodifiable, executionMode, runner)
         );
       }
+      stageInfos = infosUnmodifiable;
+    }
+
+    private StageContext createStageContext(
+        StageRuntime stage,
+        List<Stage.Info> infos,
+        ExecutionMode executionMode,
+        PipelineRunner runner
+    ) {
+      return new StageContext(
+          pipelineName,
+          rev,
+          infos,
+          stage.getDefinition().getType(),
+          runner.isPreview(),
+          runner.getMetrics(),
+          stage,
+          pipelineConf.getMemoryLimitConfiguration().getMemoryLimit(),
+          executionMode,
+          runner.getRuntimeInfo().getResourcesDir(),
+          new EmailSender(configuration),
+          configuration
+      );
+    }
+
+    private int getRunnerThreads(PipelineBean pipelineBean, PipelineRunner runner) {
+      // preview and cluster pipelines always run on a single thread
+      if (runner.isPreview() || getExecutionMode(pipelineConf) != ExecutionMode.STANDALONE) {
+        return 1;
+      }
+      return Math.max(1, pipelineBean.getConfig().runnerThreads);
+    }
+
+    /**
+     * Creates a new set of processor and destination stage instances for an additional runner, the origin stage
+     * instance is shared with the main runner as there is only one origin per pipeline.
+     */
+    private StageRuntime[] createRunnerStages(PipelineBean pipelineBean, StageRuntime[] stages, PipelineRunner runner) {
+      ExecutionMode executionMode = getExecutionMode(pipelineConf);
+      StageRuntime[] runnerStages = new StageRuntime[stages.length];
+      for (int i = 0; i < stages.length; i++) {
+        if (stages[i].getDefinition().getType() == StageType.SOURCE) {
+          runnerStages[i] = stages[i];
+        } else {
+          StageBean stageBean = PipelineBeanCreator.get().createStageBean(
+              true,
+              stageLib,
+              stages[i].getConfiguration(),
+              false,
+              pipelineBean.getConfig().constants,
+              errors
+          );
+          if (stageBean == null) {
+            return null;
+          }
+          runnerStages[i] = new StageRuntime(pipelineBean, stageBean);
+          runnerStages[i].setContext(createStageContext(runnerStages[i], stageInfos, executionMode, runner));
+        }
+      }
+      return runnerStages;
     }
 
     private ExecutionMode getExecutionMode(PipelineConfiguration pipelineConf) {
@@ -391,7 +451,7 @@ public class Pipeline {
         switch (stage.getDefinition().getType()) {
           case SOURCE:
             pipe = new StagePipe(pipelineName, rev, configuration, stage, laneResolver.getStageInputLanes(idx),
-              laneResolver.getStageOutputLanes(idx), laneResolver.getStageEventLanes(idx), scheduledExecutor, memoryUsageCollectorResourceBundle, runner.getMetricRegistryJson());
+              laneResolver.getStageOutputLanes(idx), laneResolver.getStageEventLanes(idx), scheduledExecutor, new MemoryUsageCollectorResourceBundle(), runner.getMetricRegistryJson());
             pipes.add(pipe);
             pipe = new ObserverPipe(stage, laneResolver.getObserverInputLanes(idx),
                                     laneResolver.getObserverOutputLanes(idx), observer);
@@ -406,7 +466,7 @@ public class Pipeline {
             pipes.add(pipe);
             pipe = new StagePipe(pipelineName, rev, configuration, stage, laneResolver.getStageInputLanes(idx),
                                  laneResolver.getStageOutputLanes(idx), laneResolver.getStageEventLanes(idx), scheduledExecutor,
-              memoryUsageCollectorResourceBundle, runner.getMetricRegistryJson());
+              new MemoryUsageCollectorResourceBundle(), runner.getMetricRegistryJson());
             pipes.add(pipe);
             pipe = new ObserverPipe(stage, laneResolver.getObserverInputLanes(idx),
                                     laneResolver.getObserverOutputLanes(idx), observer);
@@ -421,7 +481,7 @@ public class Pipeline {
                                     laneResolver.getCombinerOutputLanes(idx));
             pipes.add(pipe);
             pipe = new StagePipe(pipelineName, rev, configuration, stage, laneResolver.getStageInputLanes(idx),
-              laneResolver.getStageOutputLanes(idx), laneResolver.getStageEventLanes(idx), scheduledExecutor, memoryUsageCollectorResourceBundle, runner.getMetricRegistryJson());
+              laneResolver.getStageOutputLanes(idx), laneResolver.getStageEventLanes(idx), scheduledExecutor, new MemoryUsageCollectorResourceBundle(), runner.getMetricRegistryJson());
             pipes.add(pipe);
 
             // In case that this target is generating events, we need to add additional observer/multiplexer pipe
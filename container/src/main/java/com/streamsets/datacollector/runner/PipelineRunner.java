@@ -71,4 +71,10 @@ public interface PipelineRunner {
 
   public void setPipeContext(PipeContext pipeContext);
 
+  /**
+   * Pipes of the additional runners of a multithreaded pipeline. Each array is a complete copy of the pipeline pipes
+   * sharing the origin pipes with the main runner, the list is empty when the pipeline runs on a single thread.
+   */
+  public void setRunnerPipes(List<Pipe[]> runnerPipes);
+
 }
@@ -24,6 +24,10 @@ import com.streamsets.datacollector.http.GaugeValue;
 
 import java.io.IOException;
 
+/**
+ * Runtime statistics of a running pipeline. All the copies of a stage in the pipeline runners update the same
+ * instance concurrently, the accessors are synchronized and compound updates are done holding its lock.
+ */
 public class RuntimeStats implements GaugeValue {
 
   private long batchCount;
@@ -44,96 +48,96 @@ public class RuntimeStats implements GaugeValue {
     timeOfLastReceivedRecord = System.currentTimeMillis();
   }
 
-  public long getBatchCount() {
+  public synchronized long getBatchCount() {
     return batchCount;
   }
 
-  public void setBatchCount(long batchCount) {
+  public synchronized void setBatchCount(long batchCount) {
     this.batchCount = batchCount;
   }
 
-  public String getCurrentSourceOffset() {
+  public synchronized String getCurrentSourceOffset() {
     return currentSourceOffset;
   }
 
-  public void setCurrentSourceOffset(String currentSourceOffset) {
+  public synchronized void setCurrentSourceOffset(String currentSourceOffset) {
     this.currentSourceOffset = currentSourceOffset;
   }
 
-  public long getCurrentBatchAge() {
+  public synchronized long getCurrentBatchAge() {
     return currentBatchAge;
   }
 
-  public void setCurrentBatchAge(long currentBatchAge) {
+  public synchronized void setCurrentBatchAge(long currentBatchAge) {
     this.currentBatchAge = currentBatchAge;
   }
 
-  public String getCurrentStage() {
+  public synchronized String getCurrentStage() {
     return currentStage;
   }
 
-  public void setCurrentStage(String currentStage) {
+  public synchronized void setCurrentStage(String currentStage) {
     this.currentStage = currentStage;
   }
 
-  public long getTimeInCurrentStage() {
+  public synchronized long getTimeInCurrentStage() {
     return timeInCurrentStage;
   }
 
-  public void setTimeInCurrentStage(long timeInCurrentStage) {
+  public synchronized void setTimeInCurrentStage(long timeInCurrentStage) {
     this.timeInCurrentStage = timeInCurrentStage;
   }
 
-  public long getTimeOfLastReceivedRecord() {
+  public synchronized long getTimeOfLastReceivedRecord() {
     return timeOfLastReceivedRecord;
   }
 
-  public void setTimeOfLastReceivedRecord(long timeOfLastReceivedRecord) {
+  public synchronized void setTimeOfLastReceivedRecord(long timeOfLastReceivedRecord) {
     this.timeOfLastReceivedRecord = timeOfLastReceivedRecord;
   }
 
-  public long getBatchStartTime() {
+  public synchronized long getBatchStartTime() {
     return batchStartTime;
   }
 
-  public void setBatchStartTime(long batchStartTime) {
+  public synchronized void setBatchStartTime(long batchStartTime) {
     this.batchStartTime = batchStartTime;
   }
 
-  public long getLastBatchInputRecordsCount() {
+  public synchronized long getLastBatchInputRecordsCount() {
     return lastBatchInputRecordsCount;
   }
 
-  public void setLastBatchInputRecordsCount(long lastBatchInputRecordsCount) {
+  public synchronized void setLastBatchInputRecordsCount(long lastBatchInputRecordsCount) {
     this.lastBatchInputRecordsCount = lastBatchInputRecordsCount;
   }
 
-  public long getLastBatchErrorRecordsCount() {
+  public synchronized long getLastBatchErrorRecordsCount() {
     return lastBatchErrorRecordsCount;
   }
 
-  public void setLastBatchErrorRecordsCount(long lastBatchErrorRecordsCount) {
+  public synchronized void setLastBatchErrorRecordsCount(long lastBatchErrorRecordsCount) {
     this.lastBatchErrorRecordsCount = lastBatchErrorRecordsCount;
   }
 
-  public long getLastBatchOutputRecordsCount() {
+  public synchronized long getLastBatchOutputRecordsCount() {
     return lastBatchOutputRecordsCount;
   }
 
-  public void setLastBatchOutputRecordsCount(long lastBatchOutputRecordsCount) {
+  public synchronized void setLastBatchOutputRecordsCount(long lastBatchOutputRecordsCount) {
     this.lastBatchOutputRecordsCount = lastBatchOutputRecordsCount;
   }
 
-  public long getLastBatchErrorMessagesCount() {
+  public synchronized long getLastBatchErrorMessagesCount() {
     return lastBatchErrorMessagesCount;
   }
 
-  public void setLastBatchErrorMessagesCount(long lastBatchErrorMessagesCount) {
+  public synchronized void setLastBatchErrorMessagesCount(long lastBatchErrorMessagesCount) {
     this.lastBatchErrorMessagesCount = lastBatchErrorMessagesCount;
   }
 
   @Override
-  public void serialize(JsonGenerator jg) throws IOException {
+  public synchronized void serialize(JsonGenerator jg) throws IOException {
     jg.writeStartObject();
     jg.writeObjectField("batchCount", batchCount);
     jg.writeObjectField("currentSourceOffset", currentSourceOffset);
@@ -27,6 +27,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.streamsets.datacollector.config.StageType;
 import com.streamsets.datacollector.memory.MemoryMonitor;
 import com.streamsets.datacollector.memory.MemoryUsageCollector;
@@ -55,6 +56,10 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private static final Logger LOG = LoggerFactory.getLogger(StagePipe.class);
   //Runtime stat gauge name
   public static final String RUNTIME_STATS_GAUGE = "RuntimeStatsGauge";
+  public static final String MEMORY_COLLECTION_BUDGET_MS_KEY = "monitor.memory.collection.budget.ms";
+  public static final long MEMORY_COLLECTION_BUDGET_MS_DEFAULT = 200;
+  public static final String MEMORY_ARRAY_SAMPLES_KEY = "monitor.memory.array.samples";
+  public static final int MEMORY_ARRAY_SAMPLES_DEFAULT = 1000;
   private Timer processingTimer;
   private Counter memoryConsumedCounter;
   private Meter inputRecordsMeter;
@@ -105,6 +110,13 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     if(issues.isEmpty()) {
       MetricRegistry metrics = getStage().getContext().getMetrics();
       String metricsKey = "stage." + getStage().getConfiguration().getInstanceName();
+      if (MetricsConfigurator.getTimer(metrics, metricsKey + ".batchProcessing") != null) {
+        // the stage instance of another pipeline runner already registered the metrics, all runners share them
+        reuseMetrics(metrics, metricsKey);
+        this.context = pipeContext;
+        startMonitoring(metrics);
+        return issues;
+      }
       processingTimer = MetricsConfigurator.createTimer(metrics, metricsKey + ".batchProcessing", name, rev);
       memoryConsumedCounter = MetricsConfigurator.createCounter(metrics, metricsKey + ".memoryConsumed", name, rev);
       inputRecordsMeter = MetricsConfigurator.createMeter(metrics, metricsKey + ".inputRecords", name, rev);
@@ -189,24 +201,65 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         }
       }
       this.context = pipeContext;
-      if (configuration.get("monitor.memory", false)) {
-        LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
-        scheduledExecutorService.submit(
-          new MemoryMonitor(memoryConsumedCounter,
-            new Supplier<MemoryUsageCollector>() {
-              @Override
-              public MemoryUsageCollector get() {
-                return new MemoryUsageCollector.Builder()
-                  .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
-                  .setStageRuntime(getStage()).build();
-              }
-            }));
-      }
-      createRuntimeStatsGauge(metrics);
+      startMonitoring(metrics);
     }
     return issues;
   }
 
+  private void startMonitoring(MetricRegistry metrics) {
+    if (configuration.get("monitor.memory", false)) {
+      LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
+      final long collectionBudget = configuration.get(MEMORY_COLLECTION_BUDGET_MS_KEY,
+        MEMORY_COLLECTION_BUDGET_MS_DEFAULT);
+      final int arraySamples = configuration.get(MEMORY_ARRAY_SAMPLES_KEY, MEMORY_ARRAY_SAMPLES_DEFAULT);
+      // the collector keeps its walk state between runs when it exceeds its budget, it must be created only once
+      scheduledExecutorService.submit(
+        new MemoryMonitor(memoryConsumedCounter,
+          Suppliers.memoize(new Supplier<MemoryUsageCollector>() {
+            @Override
+            public MemoryUsageCollector get() {
+              return new MemoryUsageCollector.Builder()
+                .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
+                .setCollectionBudgetMillis(collectionBudget)
+                .setMaxArraySamples(arraySamples)
+                .setStageRuntime(getStage()).build();
+            }
+          })));
+    }
+    createRuntimeStatsGauge(metrics);
+  }
+
+  private void reuseMetrics(MetricRegistry metrics, String metricsKey) {
+    processingTimer = MetricsConfigurator.getTimer(metrics, metricsKey + ".batchProcessing");
+    memoryConsumedCounter = MetricsConfigurator.getCounter(metrics, metricsKey + ".memoryConsumed");
+    inputRecordsMeter = MetricsConfigurator.getMeter(metrics, metricsKey + ".inputRecords");
+    outputRecordsMeter = MetricsConfigurator.getMeter(metrics, metricsKey + ".outputRecords");
+    errorRecordsMeter = MetricsConfigurator.getMeter(metrics, metricsKey + ".errorRecords");
+    stageErrorMeter = MetricsConfigurator.getMeter(metrics, metricsKey + ".stageErrors");
+    inputRecordsCounter = MetricsConfigurator.getCounter(metrics, metricsKey + ".inputRecords");
+    outputRecordsCounter = MetricsConfigurator.getCounter(metrics, metricsKey + ".outputRecords");
+    errorRecordsCounter = MetricsConfigurator.getCounter(metrics, metricsKey + ".errorRecords");
+    stageErrorCounter = MetricsConfigurator.getCounter(metrics, metricsKey + ".stageErrors");
+    inputRecordsHistogram = MetricsConfigurator.getHistogram(metrics, metricsKey + ".inputRecords");
+    outputRecordsHistogram = MetricsConfigurator.getHistogram(metrics, metricsKey + ".outputRecords");
+    errorRecordsHistogram = MetricsConfigurator.getHistogram(metrics, metricsKey + ".errorRecords");
+    stageErrorsHistogram = MetricsConfigurator.getHistogram(metrics, metricsKey + ".stageErrors");
+    if (getStage().getConfiguration().getOutputAndEventLanes().size() > 0) {
+      outputRecordsPerLaneCounter = new HashMap<>();
+      outputRecordsPerLaneMeter = new HashMap<>();
+      for (String lane : getStage().getConfiguration().getOutputAndEventLanes()) {
+        outputRecordsPerLaneCounter.put(
+            lane,
+            MetricsConfigurator.getCounter(metrics, metricsKey + ":" + lane + ".outputRecords")
+        );
+        outputRecordsPerLaneMeter.put(
+            lane,
+            MetricsConfigurator.getMeter(metrics, metricsKey + ":" + lane + ".outputRecords")
+        );
+      }
+    }
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public void process(PipeBatch pipeBatch) throws StageException, PipelineRuntimeException {
@@ -349,14 +402,17 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     //1. set name of current stage
     //2. update current batch age, [if source then update the batch age]
     //3. update time in current stage [near zero]
-    context.getRuntimeStats().setCurrentStage(getStage().getInfo().getInstanceName());
-    //update batch ige if the stage is Source
-    if (isSource()) {
-      context.getRuntimeStats().setBatchStartTime(System.currentTimeMillis());
+    RuntimeStats runtimeStats = context.getRuntimeStats();
+    // the copies of the stage in the other pipeline runners update the same stats
+    synchronized (runtimeStats) {
+      runtimeStats.setCurrentStage(getStage().getInfo().getInstanceName());
+      //update batch ige if the stage is Source
+      if (isSource()) {
+        runtimeStats.setBatchStartTime(System.currentTimeMillis());
+      }
+      runtimeStats.setCurrentBatchAge(System.currentTimeMillis() - runtimeStats.getBatchStartTime());
+      runtimeStats.setTimeInCurrentStage(System.currentTimeMillis() - startTimeInStage);
     }
-    context.getRuntimeStats().setCurrentBatchAge(
-      System.currentTimeMillis() - context.getRuntimeStats().getBatchStartTime());
-    context.getRuntimeStats().setTimeInCurrentStage(System.currentTimeMillis() - startTimeInStage);
   }
 
   private void updateStatsAtEnd(long startTimeInStage, String offset, int outputRecordsCount) {
@@ -366,17 +422,18 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     //   update time of last record
     //2. update current batch age
     //3. update time in current stage
-    if (isSource()) {
-      context.getRuntimeStats().setBatchCount(context.getRuntimeStats().getBatchCount() + 1);
-        context.getRuntimeStats().setCurrentSourceOffset(offset);
-      if (outputRecordsCount > 0) {
-        context.getRuntimeStats().setTimeOfLastReceivedRecord(System.currentTimeMillis());
+    RuntimeStats runtimeStats = context.getRuntimeStats();
+    synchronized (runtimeStats) {
+      if (isSource()) {
+        runtimeStats.setBatchCount(runtimeStats.getBatchCount() + 1);
+        runtimeStats.setCurrentSourceOffset(offset);
+        if (outputRecordsCount > 0) {
+          runtimeStats.setTimeOfLastReceivedRecord(System.currentTimeMillis());
+        }
       }
+      runtimeStats.setCurrentBatchAge(System.currentTimeMillis() - runtimeStats.getBatchStartTime());
+      runtimeStats.setTimeInCurrentStage(System.currentTimeMillis() - startTimeInStage);
     }
-    context.getRuntimeStats().setCurrentBatchAge(
-      System.currentTimeMillis() - context.getRuntimeStats().getBatchStartTime());
-    context.getRuntimeStats().setTimeInCurrentStage(System.currentTimeMillis() - startTimeInStage);
-
   }
 
   private boolean isSource() {
@@ -21,6 +21,7 @@ package com.streamsets.datacollector.runner.preview;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
 import com.streamsets.datacollector.config.StageType;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
@@ -187,4 +188,9 @@ public class PreviewPipelineRunner implements PipelineRunner {
   public void setPipeContext(PipeContext pipeContext) {
 
   }
+
+  @Override
+  public void setRunnerPipes(List<Pipe[]> runnerPipes) {
+    Preconditions.checkArgument(runnerPipes.isEmpty(), "Preview always runs on a single thread");
+  }
 }
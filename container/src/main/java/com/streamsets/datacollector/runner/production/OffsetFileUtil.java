@@ -19,12 +19,14 @@
  */
 package com.streamsets.datacollector.runner.production;
 
+import com.google.common.base.Optional;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
 import com.streamsets.datacollector.util.PipelineDirectoryUtil;
+import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +39,7 @@ public class OffsetFileUtil {
   private static final Logger LOG = LoggerFactory.getLogger(ProductionSourceOffsetTracker.class);
 
   private static final String OFFSET_FILE = "offset.json";
+  private static final String OFFSET_JOURNAL_FILE = "offset.log";
   private static final String DEFAULT_OFFSET = null;
 
   private OffsetFileUtil() {}
@@ -45,11 +48,29 @@ public class OffsetFileUtil {
     return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_FILE);
   }
 
+  public static File getPipelineOffsetJournalFile(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_JOURNAL_FILE);
+  }
+
   public static String saveIfEmpty(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     File pipelineOffsetFile =  getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
     SourceOffset sourceOffset;
     DataStore ds = new DataStore(pipelineOffsetFile);
     try {
+      File journalFile = getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev);
+      Optional<SourceOffset> journalOffset = OffsetJournal.readLastOffset(journalFile);
+      if (journalOffset.isPresent()) {
+        // the pipeline stopped without compacting its offset journal, the journal has the last committed offset
+        LOG.info("Recovering offset for pipeline {} from the offset journal", pipelineName);
+        saveOffset(runtimeInfo, pipelineName, rev, journalOffset.get().getOffset());
+      } else if (journalFile.exists()) {
+        // empty or with a torn first entry, i.e. a crash right after a compaction, the offset file is up to date.
+        // The journal must go, offsets appended after an unreadable entry would never be read
+        LOG.warn("Discarding offset journal for pipeline {} without a valid entry", pipelineName);
+        if (!journalFile.delete()) {
+          throw new IOException(Utils.format("Could not delete offset journal '{}'", journalFile));
+        }
+      }
       if (ds.exists()) {
         // offset file exists, read from it
         try (InputStream is = ds.getInputStream()) {
@@ -72,6 +93,18 @@ public class OffsetFileUtil {
   }
 
   public static void saveOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev, String offset) {
+    writeOffsetFile(runtimeInfo, pipelineName, rev, offset);
+    // the offset file has the latest offset now, the journal would override it
+    File journalFile = getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev);
+    if (journalFile.exists() && !journalFile.delete()) {
+      throw new RuntimeException(Utils.format("Could not delete offset journal '{}'", journalFile));
+    }
+  }
+
+  /**
+   * Saves the offset in the offset file leaving the offset journal untouched, used when compacting the journal.
+   */
+  static void writeOffsetFile(RuntimeInfo runtimeInfo, String pipelineName, String rev, String offset) {
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
     SourceOffset sourceOffset = new SourceOffset(offset);
     DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
@@ -93,7 +126,15 @@ public class OffsetFileUtil {
   public static String getOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     File pipelineOffsetFile =  getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
     String offset = null;
-    if (pipelineOffsetFile.exists()) {
+    Optional<SourceOffset> journalOffset;
+    try {
+      journalOffset = OffsetJournal.readLastOffset(getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (journalOffset.isPresent()) {
+      offset = journalOffset.get().getOffset();
+    } else if (pipelineOffsetFile.exists()) {
       DataStore ds = new DataStore(pipelineOffsetFile);
       try {
         if (ds.exists()) {
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.google.common.base.Optional;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the offsets committed by a pipeline.
+ * <p/>
+ * Committing an offset appends an entry to the journal instead of rewriting the offset file, the offset file is only
+ * rewritten when the journal is compacted. An entry is the offset length (-1 for a NULL offset), the UTF-8 offset and
+ * a CRC32 of both. A partially written entry at the end of the journal, left by a crash, fails the checksum and is
+ * ignored on recovery, the recovered offset is the one of the last complete entry.
+ * <p/>
+ * Entries are handed to the OS on every append, the {@link SyncPolicy} defines how often they are forced to disk.
+ * With <code>INTERVAL</code> all the offsets appended within the interval share a single fsync, the owner of the journal
+ * calls {@link #syncPending()} once the interval expires so the last offset of an idle pipeline reaches the disk too.
+ */
+public class OffsetJournal implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffsetJournal.class);
+
+  private static final int NULL_OFFSET_LENGTH = -1;
+  private static final int ENTRY_OVERHEAD = 4 + 8;
+
+  public enum SyncPolicy { ALWAYS, INTERVAL, NEVER }
+
+  private final File file;
+  private final SyncPolicy syncPolicy;
+  private final long syncIntervalMillis;
+  private final CRC32 crc;
+  private FileChannel channel;
+  private ByteBuffer buffer;
+  private int entries;
+  private long lastSync;
+  private boolean pendingSync;
+
+  public OffsetJournal(File file, SyncPolicy syncPolicy, long syncIntervalMillis) {
+    this.file = Utils.checkNotNull(file, "file");
+    this.syncPolicy = Utils.checkNotNull(syncPolicy, "syncPolicy");
+    this.syncIntervalMillis = syncIntervalMillis;
+    crc = new CRC32();
+    buffer = ByteBuffer.allocate(1024);
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the number of entries appended since the journal was opened or last truncated.
+   */
+  public synchronized int getEntries() {
+    return entries;
+  }
+
+  public synchronized void open() throws IOException {
+    Utils.checkState(channel == null, "Journal already open");
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    lastSync = System.currentTimeMillis();
+    LOG.debug("Opened offset journal '{}', sync policy '{}'", file, syncPolicy);
+  }
+
+  public synchronized void append(String offset) throws IOException {
+    Utils.checkState(channel != null, "Journal not open");
+    byte[] bytes = (offset == null) ? null : offset.getBytes(StandardCharsets.UTF_8);
+    int length = (bytes == null) ? NULL_OFFSET_LENGTH : bytes.length;
+    int entrySize = ENTRY_OVERHEAD + Math.max(length, 0);
+    if (buffer.capacity() < entrySize) {
+      buffer = ByteBuffer.allocate(Math.max(entrySize, buffer.capacity() * 2));
+    }
+    buffer.clear();
+    buffer.putInt(length);
+    if (bytes != null) {
+      buffer.put(bytes);
+    }
+    crc.reset();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putLong(crc.getValue());
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    entries++;
+    pendingSync = true;
+    if (syncPolicy == SyncPolicy.ALWAYS ||
+        (syncPolicy == SyncPolicy.INTERVAL && System.currentTimeMillis() - lastSync >= syncIntervalMillis)) {
+      sync();
+    }
+  }
+
+  /**
+   * Drops all the entries, to be called once the last appended offset has been saved in the offset file.
+   */
+  public synchronized void truncate() throws IOException {
+    Utils.checkState(channel != null, "Journal not open");
+    channel.truncate(0);
+    entries = 0;
+    pendingSync = true;
+    if (syncPolicy != SyncPolicy.NEVER) {
+      sync();
+    }
+  }
+
+  /**
+   * Forces to disk the entries not synced yet, if any.
+   */
+  public synchronized void syncPending() throws IOException {
+    if (channel != null && pendingSync && syncPolicy != SyncPolicy.NEVER) {
+      sync();
+    }
+  }
+
+  /**
+   * Returns if there are entries or a truncation not forced to disk yet.
+   */
+  public synchronized boolean isSyncPending() {
+    return pendingSync;
+  }
+
+  private void sync() throws IOException {
+    channel.force(false);
+    lastSync = System.currentTimeMillis();
+    pendingSync = false;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null) {
+      try {
+        if (pendingSync && syncPolicy != SyncPolicy.NEVER) {
+          sync();
+        }
+      } finally {
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the offset of the last complete entry of the given journal file, absent if the journal does not exist or
+   * it has no complete entries.
+   */
+  public static Optional<SourceOffset> readLastOffset(File file) throws IOException {
+    Optional<SourceOffset> lastOffset = Optional.absent();
+    if (file.exists()) {
+      CRC32 crc = new CRC32();
+      long remaining = file.length();
+      try (InputStream is = new FileInputStream(file)) {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(is));
+        while (remaining >= ENTRY_OVERHEAD) {
+          int length = dis.readInt();
+          if (length < NULL_OFFSET_LENGTH || length > remaining - ENTRY_OVERHEAD) {
+            LOG.warn("Offset journal '{}' has an invalid entry length '{}', ignoring the rest", file, length);
+            break;
+          }
+          byte[] bytes = new byte[Math.max(length, 0)];
+          dis.readFully(bytes);
+          long checksum = dis.readLong();
+          crc.reset();
+          crc.update(ByteBuffer.allocate(4).putInt(length).array());
+          crc.update(bytes);
+          if (crc.getValue() != checksum) {
+            LOG.warn("Offset journal '{}' has a corrupted entry, ignoring the rest", file);
+            break;
+          }
+          String offset = (length == NULL_OFFSET_LENGTH) ? null : new String(bytes, StandardCharsets.UTF_8);
+          lastOffset = Optional.of(new SourceOffset(offset));
+          remaining -= ENTRY_OVERHEAD + bytes.length;
+        }
+      } catch (EOFException ex) {
+        // the journal was compacted while reading it, its last offset is already in the offset file
+        LOG.debug("Offset journal '{}' truncated while reading it", file);
+        lastOffset = Optional.absent();
+      }
+    }
+    return lastOffset;
+  }
+
+}
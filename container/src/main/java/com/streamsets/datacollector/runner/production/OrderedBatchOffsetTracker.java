@@ -0,0 +1,179 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Offset tracker for pipelines processing several batches concurrently.
+ * <p/>
+ * The origin reads batch after batch from the offset returned for the previous batch, while the batches themselves
+ * complete in any order. Each batch gets its own {@link SourceOffsetTracker} and the offsets are committed to the
+ * underlying tracker strictly in the order the batches were read, so the committed offset never moves past a batch
+ * that has not completed yet.
+ * <p/>
+ * Batches only mark their offsets as ready to commit, the commits themselves happen in {@link #commitCompleted()}
+ * which is called from the origin thread as origins implementing <code>OffsetCommitter</code> are not required to
+ * be thread safe.
+ */
+public class OrderedBatchOffsetTracker {
+  private static final Logger LOG = LoggerFactory.getLogger(OrderedBatchOffsetTracker.class);
+
+  private final SourceOffsetTracker offsetTracker;
+  private final Deque<BatchOffsetTracker> inFlight;
+  private String readOffset;
+  private boolean sourceFinished;
+  private boolean aborted;
+
+  public OrderedBatchOffsetTracker(SourceOffsetTracker offsetTracker) {
+    this.offsetTracker = offsetTracker;
+    this.inFlight = new ArrayDeque<>();
+    this.readOffset = offsetTracker.getOffset();
+  }
+
+  /**
+   * Returns true once the origin has returned a NULL offset, no more batches should be read.
+   */
+  public synchronized boolean isFinished() {
+    return sourceFinished || offsetTracker.isFinished();
+  }
+
+  /**
+   * Returns the number of batches read by the origin whose offset has not been committed or released yet.
+   */
+  public synchronized int getInFlight() {
+    return inFlight.size();
+  }
+
+  /**
+   * Starts a new batch, the batch previous offset is the offset returned by the origin for the last batch read.
+   */
+  public synchronized SourceOffsetTracker startBatch() {
+    Utils.checkState(!aborted, "Offset tracking has been aborted");
+    BatchOffsetTracker batch = new BatchOffsetTracker(readOffset);
+    inFlight.addLast(batch);
+    return batch;
+  }
+
+  /**
+   * Marks a batch as done without committing its offset, the offset is covered by the next committed batch.
+   * It is a no-op if the batch offset was already marked for commit.
+   */
+  public synchronized void release(SourceOffsetTracker batch) {
+    BatchOffsetTracker batchTracker = (BatchOffsetTracker) batch;
+    if (!batchTracker.done) {
+      batchTracker.done = true;
+      batchTracker.commit = false;
+    }
+  }
+
+  /**
+   * Marks a batch as not processed, used for the batches read ahead when the pipeline stops. Its offset and the
+   * offsets of all the batches read after it are not committed, the origin reads them again on restart.
+   */
+  public synchronized void discard(SourceOffsetTracker batch) {
+    BatchOffsetTracker batchTracker = (BatchOffsetTracker) batch;
+    batchTracker.done = true;
+    batchTracker.commit = false;
+    batchTracker.discarded = true;
+  }
+
+  /**
+   * Commits, in read order, the offsets of all the completed batches that are not preceded by an unfinished batch.
+   */
+  public synchronized void commitCompleted() {
+    while (!aborted && !inFlight.isEmpty() && inFlight.peekFirst().done) {
+      BatchOffsetTracker batch = inFlight.removeFirst();
+      if (batch.discarded) {
+        // the batches read after it must not be committed either
+        aborted = true;
+      } else if (batch.commit) {
+        offsetTracker.setOffset(batch.newOffset);
+        offsetTracker.commitOffset();
+      }
+    }
+  }
+
+  /**
+   * Stops committing offsets, used when a batch fails so none of the batches read after it gets committed.
+   */
+  public synchronized void abort() {
+    aborted = true;
+    LOG.debug("Aborting offset tracking with '{}' batches in flight", inFlight.size());
+  }
+
+  private synchronized void setOffset(BatchOffsetTracker batch, String offset) {
+    batch.newOffset = offset;
+    readOffset = offset;
+    sourceFinished = (offset == null);
+  }
+
+  private synchronized void commit(BatchOffsetTracker batch) {
+    batch.done = true;
+    batch.commit = true;
+  }
+
+  private class BatchOffsetTracker implements SourceOffsetTracker {
+    private final String previousOffset;
+    private String newOffset;
+    private boolean done;
+    private boolean commit;
+    private boolean discarded;
+
+    BatchOffsetTracker(String previousOffset) {
+      this.previousOffset = previousOffset;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return OrderedBatchOffsetTracker.this.isFinished();
+    }
+
+    @Override
+    public String getOffset() {
+      synchronized (OrderedBatchOffsetTracker.this) {
+        // once the batch has been marked for commit its new offset is the one to report, as in a single thread run
+        return (commit) ? newOffset : previousOffset;
+      }
+    }
+
+    @Override
+    public void setOffset(String offset) {
+      OrderedBatchOffsetTracker.this.setOffset(this, offset);
+    }
+
+    @Override
+    public void commitOffset() {
+      OrderedBatchOffsetTracker.this.commit(this);
+    }
+
+    @Override
+    public long getLastBatchTime() {
+      return offsetTracker.getLastBatchTime();
+    }
+  }
+
+}
@@ -19,16 +19,23 @@
  */
 package com.streamsets.datacollector.runner.production;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.execution.runner.common.Constants;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
-public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
+public class ProductionSourceOffsetTracker implements SourceOffsetTracker, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionSourceOffsetTracker.class);
   private String currentOffset;
@@ -37,13 +44,61 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   private final String pipelineName;
   private final String rev;
   private final RuntimeInfo runtimeInfo;
+  private final int journalCompactionEntries;
+  private OffsetJournal journal;
+  private SafeScheduledExecutorService journalSyncExecutor;
+
+  public ProductionSourceOffsetTracker(String pipelineName, String rev, RuntimeInfo runtimeInfo) {
+    this(pipelineName, rev, runtimeInfo, null);
+  }
 
   @Inject
-  public ProductionSourceOffsetTracker( @Named("name") String pipelineName,  @Named("rev") String rev, RuntimeInfo runtimeInfo) {
+  public ProductionSourceOffsetTracker(
+      @Named("name") String pipelineName,
+      @Named("rev") String rev,
+      RuntimeInfo runtimeInfo,
+      Configuration configuration
+  ) {
     this.pipelineName = pipelineName;
     this.rev = rev;
     this.runtimeInfo = runtimeInfo;
     this.currentOffset = getSourceOffset(pipelineName, rev);
+    if (configuration != null &&
+        configuration.get(Constants.OFFSET_JOURNAL_ENABLED_KEY, Constants.OFFSET_JOURNAL_ENABLED_DEFAULT)) {
+      journalCompactionEntries = configuration.get(
+          Constants.OFFSET_JOURNAL_COMPACTION_ENTRIES_KEY,
+          Constants.OFFSET_JOURNAL_COMPACTION_ENTRIES_DEFAULT
+      );
+      OffsetJournal.SyncPolicy syncPolicy = OffsetJournal.SyncPolicy.valueOf(
+          configuration.get(Constants.OFFSET_JOURNAL_SYNC_KEY, Constants.OFFSET_JOURNAL_SYNC_DEFAULT)
+      );
+      long syncIntervalMillis = configuration.get(
+          Constants.OFFSET_JOURNAL_SYNC_INTERVAL_MS_KEY,
+          Constants.OFFSET_JOURNAL_SYNC_INTERVAL_MS_DEFAULT
+      );
+      journal = new OffsetJournal(
+          OffsetFileUtil.getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev),
+          syncPolicy,
+          syncIntervalMillis
+      );
+      try {
+        journal.open();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      if (syncPolicy == OffsetJournal.SyncPolicy.INTERVAL) {
+        // an append only syncs the entries of the previous interval, the last ones are synced when the interval expires
+        journalSyncExecutor = new SafeScheduledExecutorService(1, "OffsetJournalSync");
+        journalSyncExecutor.scheduleWithFixedDelay(
+            new JournalSyncRunnable(journal),
+            syncIntervalMillis,
+            syncIntervalMillis,
+            TimeUnit.MILLISECONDS
+        );
+      }
+    } else {
+      journalCompactionEntries = 0;
+    }
   }
 
   @Override
@@ -70,7 +125,52 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
     currentOffset = newOffset;
     finished = (currentOffset == null);
     newOffset = null;
-    saveOffset(pipelineName, rev, currentOffset);
+    if (journal != null) {
+      appendOffset(currentOffset);
+    } else {
+      saveOffset(pipelineName, rev, currentOffset);
+    }
+  }
+
+  private void appendOffset(String offset) {
+    LOG.debug("Appending offset {} for pipeline {}", offset, pipelineName);
+    try {
+      journal.append(offset);
+      if (journal.getEntries() >= journalCompactionEntries) {
+        OffsetFileUtil.writeOffsetFile(runtimeInfo, pipelineName, rev, offset);
+        journal.truncate();
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to append offset value {}. Reason {}", offset, e.toString(), e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Compacts and closes the offset journal, if any. Offsets committed afterwards go straight to the offset file.
+   */
+  @Override
+  public void close() {
+    if (journalSyncExecutor != null) {
+      journalSyncExecutor.shutdown();
+      journalSyncExecutor = null;
+    }
+    if (journal != null) {
+      OffsetJournal closingJournal = journal;
+      journal = null;
+      try {
+        closingJournal.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close offset journal for pipeline {}. Reason {}", pipelineName, e.toString(), e);
+      }
+      // the offset file gets the last committed offset and the journal is removed
+      saveOffset(pipelineName, rev, currentOffset);
+    }
+  }
+
+  @VisibleForTesting
+  public OffsetJournal getJournal() {
+    return journal;
   }
 
   public String getSourceOffset(String pipelineName, String rev) {
@@ -88,6 +188,26 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
 
   @Override
   public long getLastBatchTime() {
+    if (journal != null) {
+      return journal.getFile().lastModified();
+    }
     return OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev).lastModified();
   }
-}
\ No newline at end of file
+
+  private class JournalSyncRunnable implements Runnable {
+    private final OffsetJournal journal;
+
+    JournalSyncRunnable(OffsetJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void run() {
+      try {
+        journal.syncPending();
+      } catch (IOException e) {
+        LOG.warn("Failed to sync offset journal for pipeline {}. Reason {}", pipelineName, e.toString(), e);
+      }
+    }
+  }
+}
@@ -22,11 +22,13 @@ package com.streamsets.datacollector.stagelibrary;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.config.ErrorHandlingChooserValues;
 import com.streamsets.datacollector.config.PipelineDefinition;
 import com.streamsets.datacollector.config.StageDefinition;
@@ -68,11 +70,17 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLibraryTask {
   public static final String MAX_PRIVATE_STAGE_CLASS_LOADERS_KEY = "max.stage.private.classloaders";
   public static final int MAX_PRIVATE_STAGE_CLASS_LOADERS_DEFAULT = 50;
+  public static final String STAGE_LIBRARY_SCAN_THREADS_KEY = "stage.library.scan.threads";
+  public static final int STAGE_LIBRARY_SCAN_THREADS_DEFAULT = 8;
 
   private static final String CONFIG_LIBRARY_ALIAS_PREFIX = "library.alias.";
   private static final String CONFIG_STAGE_ALIAS_PREFIX = "stage.alias.";
@@ -261,8 +269,14 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     return list;
   }
 
+  /**
+   * Extracts the stage definitions of all the stage libraries, the libraries are scanned in parallel using up to
+   * <code>stage.library.scan.threads</code> threads.
+   * <p/>
+   * The definitions are extracted on every start, they are not cached across restarts because they hold the stage
+   * classes, config fields, upgraders and EL methods resolved within each library classloader.
+   */
   @VisibleForTesting
-  @SuppressWarnings("unchecked")
   void loadStages() {
     if (LOG.isDebugEnabled()) {
       for (ClassLoader cl : stageClassLoaders) {
@@ -279,51 +293,89 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         Utils.format("Could not load runtime configuration, '{}'", e.toString()), e);
     }
 
+    int threads = Math.max(1, Math.min(stageClassLoaders.size(),
+        configuration.get(STAGE_LIBRARY_SCAN_THREADS_KEY, STAGE_LIBRARY_SCAN_THREADS_DEFAULT)));
+    long start = System.currentTimeMillis();
+    ExecutorService executor = Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat("StageLibraryScan-%d").setDaemon(true).build()
+    );
     try {
-      int libs = 0;
-      int stages = 0;
-      long start = System.currentTimeMillis();
-      LocaleInContext.set(Locale.getDefault());
-      for (ClassLoader cl : stageClassLoaders) {
-        libs++;
-        StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
-        LOG.debug("Loading stages from library '{}'", libDef.getName());
-        try {
-          Enumeration<URL> resources = cl.getResources(STAGES_DEFINITION_RESOURCE);
-          while (resources.hasMoreElements()) {
-            Map<String, String> stagesInLibrary = new HashMap<>();
-            URL url = resources.nextElement();
-            try (InputStream is = url.openStream()) {
-              List<String> stageList = json.readValue(is, List.class);
-              stageList = removeIgnoreStagesFromList(libDef, stageList);
-              for (String className : stageList) {
-                stages++;
-                Class<? extends Stage> klass = (Class<? extends Stage>) cl.loadClass(className);
-                StageDefinition stage = StageDefinitionExtractor.get().
-                    extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
-                String key = createKey(libDef.getName(), stage.getName());
-                LOG.debug("Loaded stage '{}'  version {} (library:name)", key, stage.getVersion());
-                if (stagesInLibrary.containsKey(key)) {
-                  throw new IllegalStateException(Utils.format(
-                      "Library '{}' contains more than one definition for stage '{}', class '{}' and class '{}'",
-                      libDef.getName(), key, stagesInLibrary.get(key), stage.getStageClass()));
-                }
-                stagesInLibrary.put(key, stage.getClassName());
-                this.stageList.add(stage);
-                stageMap.put(key, stage);
-              }
+      List<Future<List<StageDefinition>>> futures = new ArrayList<>();
+      for (final ClassLoader cl : stageClassLoaders) {
+        futures.add(executor.submit(new Callable<List<StageDefinition>>() {
+          @Override
+          public List<StageDefinition> call() {
+            LocaleInContext.set(Locale.getDefault());
+            try {
+              return loadStages(cl);
+            } finally {
+              LocaleInContext.set(null);
             }
           }
-        } catch (IOException | ClassNotFoundException ex) {
-          throw new RuntimeException(
-              Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+        }));
+      }
+      // collecting in classloader order so the stage list does not depend on which library finished first
+      int stages = 0;
+      for (Future<List<StageDefinition>> future : futures) {
+        for (StageDefinition stage : getLibraryStages(future)) {
+          stages++;
+          this.stageList.add(stage);
+          stageMap.put(createKey(stage.getLibrary(), stage.getName()), stage);
         }
       }
-      LOG.debug("Loaded '{}' libraries with a total of '{}' stages in '{}ms'", libs, stages,
-                System.currentTimeMillis() - start);
+      LOG.debug("Loaded '{}' libraries with a total of '{}' stages in '{}ms' using '{}' threads",
+                stageClassLoaders.size(), stages, System.currentTimeMillis() - start, threads);
     } finally {
-      LocaleInContext.set(null);
+      executor.shutdownNow();
+    }
+  }
+
+  private List<StageDefinition> getLibraryStages(Future<List<StageDefinition>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading stage libraries", ex);
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<StageDefinition> loadStages(ClassLoader cl) {
+    List<StageDefinition> stages = new ArrayList<>();
+    StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
+    LOG.debug("Loading stages from library '{}'", libDef.getName());
+    try {
+      Enumeration<URL> resources = cl.getResources(STAGES_DEFINITION_RESOURCE);
+      while (resources.hasMoreElements()) {
+        Map<String, String> stagesInLibrary = new HashMap<>();
+        URL url = resources.nextElement();
+        try (InputStream is = url.openStream()) {
+          List<String> stageList = json.readValue(is, List.class);
+          stageList = removeIgnoreStagesFromList(libDef, stageList);
+          for (String className : stageList) {
+            Class<? extends Stage> klass = (Class<? extends Stage>) cl.loadClass(className);
+            StageDefinition stage = StageDefinitionExtractor.get().
+                extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
+            String key = createKey(libDef.getName(), stage.getName());
+            LOG.debug("Loaded stage '{}'  version {} (library:name)", key, stage.getVersion());
+            if (stagesInLibrary.containsKey(key)) {
+              throw new IllegalStateException(Utils.format(
+                  "Library '{}' contains more than one definition for stage '{}', class '{}' and class '{}'",
+                  libDef.getName(), key, stagesInLibrary.get(key), stage.getStageClass()));
+            }
+            stagesInLibrary.put(key, stage.getClassName());
+            stages.add(stage);
+          }
+        }
+      }
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new RuntimeException(
+          Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
     }
+    return stages;
   }
 
   void validateStageVersions(List<StageDefinition> stageList) {
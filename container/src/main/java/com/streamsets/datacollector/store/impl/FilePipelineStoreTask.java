@@ -27,7 +27,6 @@ import com.streamsets.datacollector.config.StageConfiguration;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.execution.manager.PipelineStateImpl;
-import com.streamsets.datacollector.util.LogUtil;
 import com.streamsets.pipeline.api.ExecutionMode;
 import com.streamsets.pipeline.api.impl.PipelineUtils;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -208,9 +207,6 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private boolean cleanUp(String name) throws PipelineStoreException {
     boolean deleted = PipelineDirectoryUtil.deleteAll(getPipelineDir(name).toFile());
     deleted &= PipelineDirectoryUtil.deletePipelineDir(runtimeInfo, name);
-    if(deleted) {
-      LogUtil.resetRollingFileAppender(name, "0", STATE);
-    }
     return deleted;
   }
 
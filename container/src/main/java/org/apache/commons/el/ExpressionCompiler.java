@@ -0,0 +1,272 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.el;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.servlet.jsp.el.ELException;
+import javax.servlet.jsp.el.FunctionMapper;
+import javax.servlet.jsp.el.VariableResolver;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * StreamSets specific compiler that turns an expression string into an evaluation tree bound to the functions of a
+ * function mapper.
+ * <p/>
+ * The tree is the one built by the commons-el parser with the function invocations resolved to their methods once,
+ * instead of on every evaluation, and with the subexpressions that do not depend on variables or on functions with
+ * side effects evaluated at compile time. Trees are modified while compiling, so expressions are parsed bypassing
+ * the parser cache.
+ */
+public class ExpressionCompiler {
+  private static final Logger LOGGER = new Logger(System.out);
+
+  // functions without side effects nor dependencies on the evaluation context, invocations with constant
+  // arguments are evaluated at compile time
+  private static final Set<String> PURE_NAMESPACES = ImmutableSet.of("str", "math", "base64");
+
+  private static final VariableResolver NO_VARIABLES = new VariableResolver() {
+    @Override
+    public Object resolveVariable(String name) throws ELException {
+      throw new ELException("Variables cannot be resolved at compile time");
+    }
+  };
+
+  private final ExpressionEvaluatorImpl parser;
+  private final FunctionMapper functionMapper;
+
+  public ExpressionCompiler(FunctionMapper functionMapper) {
+    this.parser = new ExpressionEvaluatorImpl(true);
+    this.functionMapper = functionMapper;
+  }
+
+  /**
+   * Compiles an expression string, the returned object must be evaluated with
+   * {@link #evaluate(Object, Class, VariableResolver, FunctionMapper)}.
+   */
+  public Object compile(String expression) throws ELException {
+    Object parsed = parser.parseExpressionString(expression);
+    if (parsed instanceof Expression) {
+      return compile((Expression) parsed);
+    } else if (parsed instanceof ExpressionString) {
+      ExpressionString expressionString = (ExpressionString) parsed;
+      Object[] elements = expressionString.getElements();
+      boolean constant = true;
+      for (int i = 0; i < elements.length; i++) {
+        if (elements[i] instanceof Expression) {
+          elements[i] = compile((Expression) elements[i]);
+          constant &= isConstant((Expression) elements[i]);
+        }
+      }
+      if (constant) {
+        // a template with constants only is a plain string
+        try {
+          return expressionString.evaluate(NO_VARIABLES, functionMapper, LOGGER);
+        } catch (ELException | RuntimeException ex) {
+          return expressionString;
+        }
+      }
+      return expressionString;
+    }
+    // a string without expressions
+    return parsed;
+  }
+
+  /**
+   * Evaluates a compiled expression and converts the result to the expected type.
+   */
+  public static Object evaluate(Object compiled, Class<?> expectedType, VariableResolver resolver,
+      FunctionMapper functionMapper) throws ELException {
+    Object value;
+    if (compiled instanceof Expression) {
+      value = ((Expression) compiled).evaluate(resolver, functionMapper, LOGGER);
+    } else if (compiled instanceof ExpressionString) {
+      value = ((ExpressionString) compiled).evaluate(resolver, functionMapper, LOGGER);
+    } else {
+      value = compiled;
+    }
+    return Coercions.coerce(value, expectedType, LOGGER);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Expression compile(Expression expression) throws ELException {
+    if (expression instanceof FunctionInvocation) {
+      FunctionInvocation invocation = (FunctionInvocation) expression;
+      List arguments = invocation.getArgumentList();
+      Expression[] compiledArguments = new Expression[arguments.size()];
+      boolean constant = true;
+      for (int i = 0; i < compiledArguments.length; i++) {
+        compiledArguments[i] = compile((Expression) arguments.get(i));
+        constant &= isConstant(compiledArguments[i]);
+      }
+      ResolvedFunctionInvocation resolved = resolve(invocation.getFunctionName(), compiledArguments);
+      return (constant && resolved.isPure()) ? fold(resolved) : resolved;
+    } else if (expression instanceof BinaryOperatorExpression) {
+      BinaryOperatorExpression binary = (BinaryOperatorExpression) expression;
+      binary.setExpression(compile(binary.getExpression()));
+      boolean constant = isConstant(binary.getExpression());
+      List expressions = binary.getExpressions();
+      for (int i = 0; i < expressions.size(); i++) {
+        Expression operand = compile((Expression) expressions.get(i));
+        expressions.set(i, operand);
+        constant &= isConstant(operand);
+      }
+      return (constant) ? fold(binary) : binary;
+    } else if (expression instanceof UnaryOperatorExpression) {
+      UnaryOperatorExpression unary = (UnaryOperatorExpression) expression;
+      unary.setExpression(compile(unary.getExpression()));
+      return (isConstant(unary.getExpression())) ? fold(unary) : unary;
+    } else if (expression instanceof ConditionalExpression) {
+      ConditionalExpression conditional = (ConditionalExpression) expression;
+      conditional.setCondition(compile(conditional.getCondition()));
+      conditional.setTrueBranch(compile(conditional.getTrueBranch()));
+      conditional.setFalseBranch(compile(conditional.getFalseBranch()));
+      boolean constant = isConstant(conditional.getCondition()) && isConstant(conditional.getTrueBranch()) &&
+          isConstant(conditional.getFalseBranch());
+      return (constant) ? fold(conditional) : conditional;
+    } else if (expression instanceof ComplexValue) {
+      ComplexValue complex = (ComplexValue) expression;
+      complex.setPrefix(compile(complex.getPrefix()));
+      List suffixes = complex.getSuffixes();
+      if (suffixes != null) {
+        for (Object suffix : suffixes) {
+          if (suffix instanceof ArraySuffix && ((ArraySuffix) suffix).getIndex() != null) {
+            ((ArraySuffix) suffix).setIndex(compile(((ArraySuffix) suffix).getIndex()));
+          }
+        }
+      }
+      return complex;
+    }
+    // literals and variables
+    return expression;
+  }
+
+  private ResolvedFunctionInvocation resolve(String functionName, Expression[] arguments) throws ELException {
+    String namespace;
+    String localName;
+    int index = functionName.indexOf(':');
+    if (index == -1) {
+      namespace = "";
+      localName = functionName;
+    } else {
+      namespace = functionName.substring(0, index);
+      localName = functionName.substring(index + 1);
+    }
+    Method method = (functionMapper == null) ? null : functionMapper.resolveFunction(namespace, localName);
+    if (method == null) {
+      throw new ELException("No function is mapped to the name '" + functionName + "'");
+    }
+    if (method.getParameterTypes().length != arguments.length) {
+      throw new ELException("Function '" + functionName + "' specifies " + method.getParameterTypes().length +
+          " arguments, but " + arguments.length + " were supplied");
+    }
+    return new ResolvedFunctionInvocation(functionName, PURE_NAMESPACES.contains(namespace), method, arguments);
+  }
+
+  private static boolean isConstant(Expression expression) {
+    return expression instanceof Literal || expression instanceof ConstantExpression;
+  }
+
+  // evaluates the expression now, if it fails it is left for evaluation time to report the error as usual
+  private Expression fold(Expression expression) {
+    try {
+      Object value = expression.evaluate(NO_VARIABLES, functionMapper, LOGGER);
+      if (value != null && value.getClass().isArray()) {
+        // arrays are mutable, each evaluation must return its own
+        return expression;
+      }
+      return new ConstantExpression(value, expression.getExpressionString());
+    } catch (ELException | RuntimeException ex) {
+      return expression;
+    }
+  }
+
+  static class ConstantExpression extends Expression {
+    private final Object value;
+    private final String expressionString;
+
+    ConstantExpression(Object value, String expressionString) {
+      this.value = value;
+      this.expressionString = expressionString;
+    }
+
+    @Override
+    public String getExpressionString() {
+      return expressionString;
+    }
+
+    @Override
+    public Object evaluate(VariableResolver resolver, FunctionMapper functions, Logger logger) {
+      return value;
+    }
+  }
+
+  static class ResolvedFunctionInvocation extends Expression {
+    private final String functionName;
+    private final boolean pure;
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final Expression[] arguments;
+
+    ResolvedFunctionInvocation(String functionName, boolean pure, Method method, Expression[] arguments) {
+      this.functionName = functionName;
+      this.pure = pure;
+      this.method = method;
+      this.parameterTypes = method.getParameterTypes();
+      this.arguments = arguments;
+    }
+
+    boolean isPure() {
+      return pure;
+    }
+
+    @Override
+    public String getExpressionString() {
+      StringBuilder sb = new StringBuilder(functionName).append('(');
+      for (int i = 0; i < arguments.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(arguments[i].getExpressionString());
+      }
+      return sb.append(')').toString();
+    }
+
+    @Override
+    public Object evaluate(VariableResolver resolver, FunctionMapper functions, Logger logger) throws ELException {
+      Object[] values = new Object[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        values[i] = Coercions.coerce(arguments[i].evaluate(resolver, functions, logger), parameterTypes[i], logger);
+      }
+      try {
+        return method.invoke(null, values);
+      } catch (InvocationTargetException ex) {
+        throw new ELException("Error in function '" + functionName + "': " + ex.getTargetException(),
+            ex.getTargetException());
+      } catch (IllegalAccessException ex) {
+        throw new ELException("Error in function '" + functionName + "': " + ex, ex);
+      }
+    }
+  }
+
+}
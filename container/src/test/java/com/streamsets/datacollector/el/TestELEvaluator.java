@@ -132,6 +132,67 @@ public class TestELEvaluator {
     }
   }
 
+  @Test
+  public void testConstantFolding() throws ELEvalException {
+    ELEval elEval = new ELEvaluator("testConstantFolding", CountingEl.class);
+    ELVars variables = elEval.createVariables();
+    variables.addVariable("x", "b");
+    CountingEl.pureCalls = 0;
+    CountingEl.impureCalls = 0;
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals("A", elEval.eval(variables, "${str:upper('a')}", String.class));
+      Assert.assertEquals("B", elEval.eval(variables, "${str:upper(x)}", String.class));
+      Assert.assertEquals("a" + (i + 1), elEval.eval(variables, "${counter:next('a')}", String.class));
+      Assert.assertEquals(true, elEval.eval(variables, "${str:upper('a') == 'A' && 1 + 2 == 3}", Boolean.class));
+      Assert.assertEquals("A-B", elEval.eval(variables, "${str:upper('a')}-${str:upper(x)}", String.class));
+    }
+    // constant invocations are evaluated once when compiling, the others on every evaluation
+    Assert.assertEquals(1 + 3 + 1 + 1 + 3, CountingEl.pureCalls);
+    Assert.assertEquals(3, CountingEl.impureCalls);
+  }
+
+  @Test
+  public void testCompiledExpressionErrors() throws ELEvalException {
+    ELEval elEval = new ELEvaluator("testCompiledExpressionErrors", CountingEl.class);
+    ELVars variables = elEval.createVariables();
+    try {
+      elEval.eval(variables, "${str:unknown('a')}", String.class);
+      Assert.fail("ELEvalException expected as the function does not exist");
+    } catch (ELEvalException e) {
+    }
+    // folding a failing invocation is skipped, the error is reported when evaluating
+    for (int i = 0; i < 2; i++) {
+      try {
+        elEval.eval(variables, "${str:fail('a')}", String.class);
+        Assert.fail("ELEvalException expected as the function fails");
+      } catch (ELEvalException e) {
+        Assert.assertTrue(e.getMessage().contains("IllegalArgumentException"));
+      }
+    }
+  }
+
+  public static class CountingEl {
+    static int pureCalls;
+    static int impureCalls;
+
+    @ElFunction(prefix = "str", name = "upper", description = "Upper case")
+    public static String upper(String str) {
+      pureCalls++;
+      return str.toUpperCase();
+    }
+
+    @ElFunction(prefix = "str", name = "fail", description = "Fails")
+    public static String fail(String str) {
+      throw new IllegalArgumentException(str);
+    }
+
+    @ElFunction(prefix = "counter", name = "next", description = "Appends the number of calls")
+    public static String next(String str) {
+      impureCalls++;
+      return str + impureCalls;
+    }
+  }
+
   public static class ValidTestEl {
 
     @ElConstant(name = "CITY", description = "Declares the CITY constant to be 'San Francisco'")
@@ -38,6 +38,7 @@ import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.StateEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.execution.manager.PipelineManagerException;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.execution.manager.PipelineStateImpl;
 import com.streamsets.datacollector.execution.preview.common.PreviewOutputImpl;
 import com.streamsets.datacollector.execution.runner.common.PipelineRunnerException;
@@ -238,6 +239,11 @@ public class TestRemoteDataCollector {
     public void addStateEventListener(StateEventListener listener) {
       //
     }
+
+    @Override
+    public PipelineRecoveryStatus getRecoveryStatus() {
+      return new PipelineRecoveryStatus();
+    }
   }
 
   private static class MockRunner implements Runner {
@@ -30,6 +30,7 @@ import com.streamsets.datacollector.execution.PreviewerListener;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.SnapshotStore;
 import com.streamsets.datacollector.execution.manager.PipelineManagerException;
+import com.streamsets.datacollector.execution.manager.PipelineRecoveryStatus;
 import com.streamsets.datacollector.execution.manager.PreviewerProvider;
 import com.streamsets.datacollector.execution.manager.RunnerProvider;
 import com.streamsets.datacollector.execution.runner.provider.StandaloneAndClusterRunnerProviderImpl;
@@ -328,6 +329,30 @@ public class TestStandalonePipelineManager {
     assertFalse(((StandaloneAndClusterPipelineManager) pipelineManager).isRunnerPresent("aaaa", "0"));
   }
 
+  @Test
+  public void testRecoveryStatus() throws Exception {
+    pipelineStoreTask.create("user", "aaaa", "blah", false);
+    pipelineStateStore.saveState("user", "aaaa", "0", PipelineStatus.CONNECTING, "blah", null, ExecutionMode.STANDALONE, null, 0, 0);
+    pipelineStoreTask.create("user", "bbbb", "blah", false);
+    pipelineStateStore.saveState("user", "bbbb", "0", PipelineStatus.CONNECTING, "blah", null, ExecutionMode.STANDALONE, null, 0, 0);
+    pipelineStoreTask.create("user", "cccc", "blah", false);
+    pipelineManager.stop();
+    pipelineStoreTask.stop();
+
+    setUpManager(StandaloneAndClusterPipelineManager.DEFAULT_RUNNER_EXPIRY_INTERVAL, false);
+
+    // only the active pipelines are recovered, all of them before the manager finishes starting
+    PipelineRecoveryStatus recoveryStatus = pipelineManager.getRecoveryStatus();
+    assertTrue(recoveryStatus.isFinished());
+    assertEquals(2, recoveryStatus.getTotal());
+    assertEquals(2, recoveryStatus.getRecovered());
+    assertEquals(0, recoveryStatus.getFailed());
+    assertEquals(0, recoveryStatus.getPending());
+    assertTrue(recoveryStatus.getErrors().isEmpty());
+    assertTrue(((StandaloneAndClusterPipelineManager) pipelineManager).isRunnerPresent("aaaa", "0"));
+    assertTrue(((StandaloneAndClusterPipelineManager) pipelineManager).isRunnerPresent("bbbb", "0"));
+  }
+
   @Test
   public void testExpiry() throws Exception {
     pipelineStoreTask.create("user", "aaaa", "blah", false);
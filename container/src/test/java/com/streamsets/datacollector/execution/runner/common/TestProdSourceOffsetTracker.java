@@ -24,7 +24,9 @@ import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.main.StandaloneRuntimeInfo;
 import com.streamsets.datacollector.runner.production.OffsetFileUtil;
+import com.streamsets.datacollector.runner.production.OffsetJournal;
 import com.streamsets.datacollector.runner.production.ProductionSourceOffsetTracker;
+import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.api.impl.Utils;
 
 import org.apache.commons.io.FileUtils;
@@ -79,5 +81,29 @@ public class TestProdSourceOffsetTracker {
       offsetTracker.getLastBatchTime());
   }
 
+  @Test
+  public void testIdleJournalSyncedOnInterval() throws Exception {
+    RuntimeInfo info = new StandaloneRuntimeInfo(RuntimeModule.SDC_PROPERTY_PREFIX, new MetricRegistry(),
+      Arrays.asList(getClass().getClassLoader()));
+    Configuration conf = new Configuration();
+    conf.set(Constants.OFFSET_JOURNAL_ENABLED_KEY, true);
+    conf.set(Constants.OFFSET_JOURNAL_SYNC_KEY, OffsetJournal.SyncPolicy.INTERVAL.name());
+    conf.set(Constants.OFFSET_JOURNAL_SYNC_INTERVAL_MS_KEY, 200L);
+    ProductionSourceOffsetTracker offsetTracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME + "Journal", PIPELINE_REV, info, conf);
+    try {
+      // a single commit without any later commit or close
+      offsetTracker.setOffset("abc");
+      offsetTracker.commitOffset();
+      long deadline = System.currentTimeMillis() + 2000;
+      while (offsetTracker.getJournal().isSyncPending() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      Assert.assertFalse(offsetTracker.getJournal().isSyncPending());
+      Assert.assertEquals("abc", OffsetJournal.readLastOffset(offsetTracker.getJournal().getFile()).get().getOffset());
+    } finally {
+      offsetTracker.close();
+    }
+  }
 
 }
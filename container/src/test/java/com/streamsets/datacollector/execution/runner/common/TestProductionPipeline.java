@@ -25,10 +25,12 @@ import com.streamsets.datacollector.config.MemoryLimitConfiguration;
 import com.streamsets.datacollector.config.MemoryLimitExceeded;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotStore;
 import com.streamsets.datacollector.execution.StateListener;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.main.StandaloneRuntimeInfo;
@@ -40,14 +42,18 @@ import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.LockCache;
+import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.TestUtil;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.ErrorCode;
 import com.streamsets.pipeline.api.EventRecord;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OffsetCommitter;
+import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
@@ -57,6 +63,7 @@ import com.streamsets.pipeline.api.base.BaseProcessor;
 import com.streamsets.pipeline.api.base.BaseSource;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import org.apache.commons.io.FileUtils;
+import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
@@ -68,13 +75,18 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Exchanger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestProductionPipeline {
 
@@ -116,6 +128,11 @@ public class TestProductionPipeline {
     MetricsConfigurator.registerJmxMetrics(runtimeInfoMetrics);
   }
 
+  @After
+  public void tearDown() {
+    TestUtil.captureMockStages();
+  }
+
   @Test
   public void testStopPipeline() throws Exception {
 
@@ -432,6 +449,31 @@ public class TestProductionPipeline {
     return pipeline;
   }
 
+  private ProductionPipeline createProductionPipeline(
+      DeliveryGuarantee deliveryGuarantee,
+      SourceOffsetTracker tracker,
+      SnapshotStore snapshotStore,
+      int runnerThreads,
+      int readAheadBatches
+  ) throws Exception {
+    Configuration config = new Configuration();
+    config.set("monitor.memory", true);
+    ProductionPipelineRunner runner =
+        new ProductionPipelineRunner(PIPELINE_NAME, REVISION, config, runtimeInfo, new MetricRegistry(), snapshotStore,
+            null);
+    runner.setObserveRequests(new ArrayBlockingQueue<Object>(100, true /* FIFO */));
+    runner.setMemoryLimitConfiguration(memoryLimit);
+    runner.setDeliveryGuarantee(deliveryGuarantee);
+    runner.setReadAheadBatches(readAheadBatches);
+    PipelineConfiguration pConf = MockStages.createPipelineConfigurationSourceProcessorTarget();
+    pConf.addConfiguration(new Config("runnerThreads", runnerThreads));
+    ProductionPipeline pipeline =
+        new ProductionPipelineBuilder(PIPELINE_NAME, REVISION, config, runtimeInfo, MockStages.createStageLibrary(), runner, null)
+            .build(pConf);
+    runner.setOffsetTracker(tracker);
+    return pipeline;
+  }
+
   private static class SourceValidateConfigFailureCapture implements Source {
     public int count;
     public String offset;
@@ -686,4 +728,345 @@ public class TestProductionPipeline {
     Assert.assertEquals(1, errorStage.records.size());
   }
 
+  // produces a batch with a single record per call, the record of the n-th batch is 'e<n>' and its offset is 'n'
+  private static class BatchesSource extends BaseSource {
+    private final int batches;
+    private int count;
+
+    public BatchesSource(int batches) {
+      this.batches = batches;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      count++;
+      Record record = getContext().createRecord("e" + count);
+      record.set(Field.create(count));
+      batchMaker.addRecord(record);
+      return (count < batches) ? String.valueOf(count) : null;
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSnapshotCapturedAgainWhileRunning() throws Exception {
+    SnapshotStore snapshotStore = new FileSnapshotStore(runtimeInfo, new LockCache<String>());
+    final ProductionPipeline pipeline = createProductionPipeline(
+        DeliveryGuarantee.AT_LEAST_ONCE,
+        new TestUtil.SourceOffsetTrackerImpl("0"),
+        snapshotStore,
+        1,
+        0
+    );
+    pipeline.registerStatusListener(new MyStateListener());
+    MockStages.setSourceCapture(new BatchesSource(4));
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          Record record = it.next();
+          if ("e2".equals(record.getHeader().getSourceId())) {
+            // the snapshot is captured again while the second batch of the first capture is being processed
+            try {
+              pipeline.createSnapshot("user", SNAPSHOT_NAME, "label");
+            } catch (PipelineException ex) {
+              throw new RuntimeException(ex);
+            }
+            pipeline.captureSnapshot(SNAPSHOT_NAME, 10, 1);
+          }
+          batchMaker.addRecord(record);
+        }
+      }
+    });
+    pipeline.createSnapshot("user", SNAPSHOT_NAME, "label");
+    pipeline.captureSnapshot(SNAPSHOT_NAME, 10, 3);
+    pipeline.run();
+
+    // the captured batches are written to the snapshot store asynchronously
+    long timeout = System.currentTimeMillis() + 10000;
+    while (snapshotStore.getInfo(PIPELINE_NAME, REVISION, SNAPSHOT_NAME).isInProgress()) {
+      Assert.assertTrue("Snapshot not completed", System.currentTimeMillis() < timeout);
+      Thread.sleep(10);
+    }
+
+    // only the batch captured after the snapshot was created again is in the snapshot data
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, REVISION, SNAPSHOT_NAME)) {
+      Map<String, Object> data = ObjectMapperFactory.get().readValue(snapshot.getOutput(), Map.class);
+      List<List<Map<String, Object>>> batches = (List<List<Map<String, Object>>>) data.get("snapshotBatches");
+      Assert.assertEquals(1, batches.size());
+      List<String> sourceIds = new ArrayList<>();
+      for (Map<String, Object> stageOutput : batches.get(0)) {
+        if ("s".equals(stageOutput.get("instanceName"))) {
+          for (Object records : ((Map<String, Object>) stageOutput.get("output")).values()) {
+            for (Map<String, Object> record : (List<Map<String, Object>>) records) {
+              sourceIds.add((String) ((Map<String, Object>) record.get("header")).get("sourceId"));
+            }
+          }
+        }
+      }
+      Assert.assertEquals(Arrays.asList("e3"), sourceIds);
+    }
+  }
+
+  // records the offsets committed to the pipeline offset tracker
+  private static class CommittedOffsetsCapture extends TestUtil.SourceOffsetTrackerImpl {
+    public final List<String> committed = new CopyOnWriteArrayList<>();
+
+    public CommittedOffsetsCapture() {
+      super("0");
+    }
+
+    @Override
+    public void commitOffset() {
+      super.commitOffset();
+      committed.add(getOffset());
+    }
+  }
+
+  // records the source ids of the records written, from any runner
+  private static class WrittenRecordsTarget extends BaseTarget {
+    public final List<String> written = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void write(Batch batch) throws StageException {
+      Iterator<Record> it = batch.getRecords();
+      while (it.hasNext()) {
+        written.add(it.next().getHeader().getSourceId());
+      }
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      Assert.assertTrue("Timed out waiting for another batch", latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @Test
+  public void testRunnersCommitOffsetsInReadOrder() throws Exception {
+    final CommittedOffsetsCapture tracker = new CommittedOffsetsCapture();
+    ProductionPipeline pipeline =
+        createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, tracker, Mockito.mock(FileSnapshotStore.class), 2, 0);
+    pipeline.registerStatusListener(new MyStateListener());
+    final CountDownLatch secondBatchWritten = new CountDownLatch(1);
+    final List<String> committedWhenFirstBatchResumed = new CopyOnWriteArrayList<>();
+    MockStages.setSourceCapture(new BatchesSource(3));
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          Record record = it.next();
+          if ("e1".equals(record.getHeader().getSourceId())) {
+            // the first batch completes after the second one
+            await(secondBatchWritten);
+            committedWhenFirstBatchResumed.addAll(tracker.committed);
+          }
+          batchMaker.addRecord(record);
+        }
+      }
+    });
+    final WrittenRecordsTarget target = new WrittenRecordsTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        super.write(batch);
+        if (written.contains("e2")) {
+          secondBatchWritten.countDown();
+        }
+      }
+    };
+    MockStages.setTargetCapture(target);
+    pipeline.run();
+
+    Assert.assertTrue(target.written.indexOf("e2") < target.written.indexOf("e1"));
+    // the second batch completed first but its offset waited for the first batch
+    Assert.assertTrue(committedWhenFirstBatchResumed.isEmpty());
+    Assert.assertEquals(Arrays.asList("1", "2", null), tracker.committed);
+  }
+
+  @Test
+  public void testRunnerFailureStopsOffsetCommits() throws Exception {
+    CommittedOffsetsCapture tracker = new CommittedOffsetsCapture();
+    ProductionPipeline pipeline =
+        createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, tracker, Mockito.mock(FileSnapshotStore.class), 2, 0);
+    pipeline.registerStatusListener(new MyStateListener());
+    final CountDownLatch secondBatchWritten = new CountDownLatch(1);
+    MockStages.setSourceCapture(new BatchesSource(10));
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          Record record = it.next();
+          if ("e1".equals(record.getHeader().getSourceId())) {
+            // the first batch fails once the second one has been written
+            await(secondBatchWritten);
+            throw new StageException(TestErrors.ERROR_P);
+          }
+          batchMaker.addRecord(record);
+        }
+      }
+    });
+    final WrittenRecordsTarget target = new WrittenRecordsTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        super.write(batch);
+        if (written.contains("e2")) {
+          secondBatchWritten.countDown();
+        }
+      }
+    };
+    MockStages.setTargetCapture(target);
+    try {
+      pipeline.run();
+      Assert.fail("The pipeline should fail with the first batch");
+    } catch (StageException ex) {
+      Assert.assertEquals(TestErrors.ERROR_P, ex.getErrorCode());
+    }
+
+    Assert.assertTrue(target.written.contains("e2"));
+    // no offset read after the failed batch is committed, even for the batches that completed
+    Assert.assertTrue(tracker.committed.isEmpty());
+    Assert.assertEquals("0", pipeline.getCommittedOffset());
+  }
+
+  @Test
+  public void testRunnersUseOwnStageInstances() throws Exception {
+    ProductionPipeline pipeline = createProductionPipeline(
+        DeliveryGuarantee.AT_LEAST_ONCE,
+        new CommittedOffsetsCapture(),
+        Mockito.mock(FileSnapshotStore.class),
+        3,
+        0
+    );
+    pipeline.registerStatusListener(new MyStateListener());
+    final AtomicInteger sourceInits = new AtomicInteger();
+    MockStages.setSourceCapture(new BatchesSource(6) {
+      @Override
+      public List<ConfigIssue> init(Info info, Source.Context context) {
+        sourceInits.incrementAndGet();
+        return super.init(info, context);
+      }
+    });
+    final List<Processor.Context> processorContexts = new CopyOnWriteArrayList<>();
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public List<ConfigIssue> init(Info info, Processor.Context context) {
+        processorContexts.add(context);
+        return super.init(info, context);
+      }
+
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          batchMaker.addRecord(it.next());
+        }
+      }
+    });
+    WrittenRecordsTarget target = new WrittenRecordsTarget();
+    MockStages.setTargetCapture(target);
+    pipeline.run();
+
+    // the runners share the origin, each one has its own processor
+    Assert.assertEquals(1, sourceInits.get());
+    Assert.assertEquals(3, processorContexts.size());
+    Assert.assertEquals(3, new HashSet<>(processorContexts).size());
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("e1", "e2", "e3", "e4", "e5", "e6")),
+        new HashSet<>(target.written)
+    );
+  }
+
+  @Test
+  public void testReadAheadCommitsAfterEarlierBatches() throws Exception {
+    final CommittedOffsetsCapture tracker = new CommittedOffsetsCapture();
+    ProductionPipeline pipeline =
+        createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, tracker, Mockito.mock(FileSnapshotStore.class), 1, 2);
+    pipeline.registerStatusListener(new MyStateListener());
+    final CountDownLatch thirdBatchRead = new CountDownLatch(1);
+    MockStages.setSourceCapture(new BatchesSource(4) {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        String offset = super.produce(lastSourceOffset, maxBatchSize, batchMaker);
+        if ("3".equals(offset)) {
+          thirdBatchRead.countDown();
+        }
+        return offset;
+      }
+    });
+    final List<String> committedTooEarly = new CopyOnWriteArrayList<>();
+    WrittenRecordsTarget target = new WrittenRecordsTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          String sourceId = it.next().getHeader().getSourceId();
+          if ("e1".equals(sourceId)) {
+            // the next two batches are read while the first one is in the pipeline
+            await(thirdBatchRead);
+          }
+          // the offset of a batch, or of a batch read after it, is not committed before the batch is written
+          int batchNumber = Integer.parseInt(sourceId.substring(1));
+          for (String offset : tracker.committed) {
+            if (offset == null || Integer.parseInt(offset) >= batchNumber) {
+              committedTooEarly.add(offset);
+            }
+          }
+          written.add(sourceId);
+        }
+      }
+    };
+    MockStages.setTargetCapture(target);
+    pipeline.run();
+
+    Assert.assertEquals(Arrays.asList("e1", "e2", "e3", "e4"), target.written);
+    Assert.assertTrue(committedTooEarly.isEmpty());
+    Assert.assertEquals(Arrays.asList("1", "2", "3", null), tracker.committed);
+  }
+
+  @Test
+  public void testStopDoesNotCommitReadAheadBatches() throws Exception {
+    CommittedOffsetsCapture tracker = new CommittedOffsetsCapture();
+    final ProductionPipeline pipeline =
+        createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, tracker, Mockito.mock(FileSnapshotStore.class), 1, 2);
+    pipeline.registerStatusListener(new MyStateListener());
+    final CountDownLatch thirdBatchRead = new CountDownLatch(1);
+    MockStages.setSourceCapture(new BatchesSource(10) {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        String offset = super.produce(lastSourceOffset, maxBatchSize, batchMaker);
+        if ("3".equals(offset)) {
+          thirdBatchRead.countDown();
+        }
+        return offset;
+      }
+    });
+    WrittenRecordsTarget target = new WrittenRecordsTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        super.write(batch);
+        if (written.contains("e1")) {
+          // the pipeline stops while the next two batches are waiting for the runner
+          await(thirdBatchRead);
+          try {
+            pipeline.stop();
+          } catch (PipelineException ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+      }
+    };
+    MockStages.setTargetCapture(target);
+    pipeline.run();
+
+    Assert.assertTrue(pipeline.wasStopped());
+    Assert.assertEquals(Arrays.asList("e1"), target.written);
+    Assert.assertEquals(Arrays.asList("1"), tracker.committed);
+    Assert.assertEquals("1", pipeline.getCommittedOffset());
+  }
+
 }
@@ -19,10 +19,13 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
 import com.streamsets.datacollector.execution.snapshot.file.dagger.FileSnapshotStoreModule;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.runner.StageOutput;
 
 import org.junit.BeforeClass;
 
@@ -37,6 +40,11 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public class TestFileSnapshotStore extends TestSnapshotStore {
 
@@ -68,4 +76,26 @@ public class TestFileSnapshotStore extends TestSnapshotStore {
     Assert.assertTrue(snapshotStore instanceof FileSnapshotStore);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testIncompleteBatchIsIgnored() throws Exception {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+
+    //simulating the Data Collector dying while writing the second batch
+    File dataDir = new File(System.getProperty(RuntimeModule.SDC_PROPERTY_PREFIX + RuntimeInfo.DATA_DIR));
+    Collection<File> dataFiles = FileUtils.listFiles(dataDir, new String[]{"bin"}, true);
+    Assert.assertEquals(1, dataFiles.size());
+    try (RandomAccessFile dataFile = new RandomAccessFile(dataFiles.iterator().next(), "rw")) {
+      dataFile.setLength(dataFile.length() - 10);
+    }
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, new ArrayList<List<StageOutput>>());
+
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+      Map<String, Object> data = ObjectMapperFactory.get().readValue(snapshot.getOutput(), Map.class);
+      Assert.assertEquals(1, ((List) data.get("snapshotBatches")).size());
+    }
+  }
+
 }
@@ -22,6 +22,7 @@ package com.streamsets.datacollector.execution.snapshot;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.EventSink;
@@ -46,11 +47,11 @@ public abstract class TestSnapshotStore {
 
   private static final String TEST_STRING = "TestSnapshotStore";
   private static final String MIME = "application/octet-stream";
-  private static final String SNAPSHOT_ID = "mySnapshotId";
-  private static final String SNAPSHOT_LABEL = "mySnapshotLabel";
-  private static final String PIPELINE_NAME = "myPipeline";
-  private static final String PIPELINE_REV = "0";
-  private static final String USER = "user";
+  protected static final String SNAPSHOT_ID = "mySnapshotId";
+  protected static final String SNAPSHOT_LABEL = "mySnapshotLabel";
+  protected static final String PIPELINE_NAME = "myPipeline";
+  protected static final String PIPELINE_REV = "0";
+  protected static final String USER = "user";
 
   protected SnapshotStore snapshotStore = null;
 
@@ -220,14 +221,44 @@ public abstract class TestSnapshotStore {
 
   }
 
-  private List<List<StageOutput>> getSnapshotData() {
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testAppendBatchAndGet() throws Exception {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+
+    //the data is not available until the snapshot is completed
+    Assert.assertTrue(snapshotStore.getInfo(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).isInProgress());
+    Assert.assertNull(snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).getOutput());
+
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, getSnapshotData());
+    Assert.assertFalse(snapshotStore.getInfo(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).isInProgress());
+
+    try (Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID)) {
+      Map<String, Object> data = ObjectMapperFactory.get().readValue(snapshot.getOutput(), Map.class);
+      List<List<Map<String, Object>>> batches = (List<List<Map<String, Object>>>) data.get("snapshotBatches");
+      Assert.assertEquals(4, batches.size());
+      for (List<Map<String, Object>> batch : batches) {
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("source", batch.get(0).get("instanceName"));
+        List<Map<String, Object>> records = (List<Map<String, Object>>)
+            ((Map<String, Object>) batch.get(0).get("output")).get("lane");
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("s:1", ((Map<String, Object>) records.get(0).get("header")).get("sourceId"));
+        Assert.assertEquals("processor", batch.get(1).get("instanceName"));
+      }
+    }
+  }
+
+  protected List<List<StageOutput>> getSnapshotData() {
     List<List<StageOutput>> snapshotBatches = new ArrayList<>();
     snapshotBatches.add(createSnapshotData());
     snapshotBatches.add(createSnapshotData());
     return snapshotBatches;
   }
 
-  private List<StageOutput> createSnapshotData() {
+  protected List<StageOutput> createSnapshotData() {
 
     List<StageOutput> snapshot = new ArrayList<>(2);
 
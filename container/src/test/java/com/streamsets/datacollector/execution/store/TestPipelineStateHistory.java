@@ -0,0 +1,130 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.store;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class TestPipelineStateHistory {
+  private static final String HISTORY = "history.json";
+
+  private File dir;
+
+  @Before
+  public void setUp() {
+    dir = new File("target", UUID.randomUUID().toString());
+  }
+
+  private static String state(long timestamp) {
+    return "{\"status\":\"RUNNING\",\"timeStamp\":" + timestamp + "}";
+  }
+
+  private static List<String> states(long... timestamps) {
+    List<String> states = new ArrayList<>();
+    for (long timestamp : timestamps) {
+      states.add(state(timestamp));
+    }
+    return states;
+  }
+
+  private static void write(File file, String content) throws IOException {
+    try (OutputStream os = new FileOutputStream(file)) {
+      os.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testAppendAndRead() throws Exception {
+    PipelineStateHistory history = new PipelineStateHistory(dir, HISTORY, 1024 * 1024, 10);
+    Assert.assertTrue(history.read(Long.MAX_VALUE, 10).isEmpty());
+    for (int i = 1; i <= 5; i++) {
+      history.append(i, state(i));
+    }
+    Assert.assertTrue(history.getIndex().exists());
+    Assert.assertEquals(states(5, 4, 3, 2, 1), history.read(Long.MAX_VALUE, 10));
+    Assert.assertEquals(states(5, 4), history.read(Long.MAX_VALUE, 2));
+  }
+
+  @Test
+  public void testPagination() throws Exception {
+    PipelineStateHistory history = new PipelineStateHistory(dir, HISTORY, 1024 * 1024, 10);
+    for (int i = 1; i <= 10; i++) {
+      history.append(i * 10, state(i * 10));
+    }
+    Assert.assertEquals(states(40, 30, 20), history.read(50, 3));
+    Assert.assertEquals(states(40, 30, 20), history.read(41, 3));
+    Assert.assertEquals(states(10), history.read(20, 3));
+    Assert.assertTrue(history.read(10, 3).isEmpty());
+  }
+
+  @Test
+  public void testRollAndRetention() throws Exception {
+    // every state rolls the segment
+    PipelineStateHistory history = new PipelineStateHistory(dir, HISTORY, 1, 2);
+    for (int i = 1; i <= 5; i++) {
+      history.append(i, state(i));
+    }
+    // active segment plus the 2 newest rolled segments
+    Assert.assertFalse(new File(dir, HISTORY + ".1").exists());
+    Assert.assertFalse(new File(dir, HISTORY + ".2").exists());
+    Assert.assertTrue(new File(dir, HISTORY + ".3").exists());
+    Assert.assertTrue(new File(dir, HISTORY + ".4").exists());
+    Assert.assertEquals(states(5, 4, 3), history.read(Long.MAX_VALUE, 10));
+    Assert.assertEquals(states(4, 3), history.read(5, 10));
+
+    history.delete();
+    Assert.assertTrue(history.read(Long.MAX_VALUE, 10).isEmpty());
+    Assert.assertFalse(history.getActiveSegment().exists());
+    Assert.assertFalse(history.getIndex().exists());
+  }
+
+  @Test
+  public void testRebuildIndex() throws Exception {
+    Assert.assertTrue(dir.mkdirs());
+    // history written by the log4j rolling appender, '.1' is the newest rolled segment, with an incomplete last state
+    write(new File(dir, HISTORY + ".2"), state(1) + "\n" + state(2) + "\n");
+    write(new File(dir, HISTORY + ".1"), state(3) + "\n");
+    write(new File(dir, HISTORY), state(4) + "\n" + "{\"status\":\"RUN");
+
+    PipelineStateHistory history = new PipelineStateHistory(dir, HISTORY, 1024 * 1024, 10);
+    Assert.assertEquals(states(4, 3, 2, 1), history.read(Long.MAX_VALUE, 10));
+    Assert.assertEquals((state(4) + "\n").length(), history.getActiveSegment().length());
+
+    history.append(5, state(5));
+    Assert.assertEquals(states(5, 4), history.read(Long.MAX_VALUE, 2));
+
+    // index out of sync with the active segment
+    write(history.getIndex(), "");
+    Assert.assertEquals(states(5, 4, 3), history.read(Long.MAX_VALUE, 3));
+    Assert.assertEquals(ImmutableList.of(state(1)), history.read(2, 10));
+  }
+
+}
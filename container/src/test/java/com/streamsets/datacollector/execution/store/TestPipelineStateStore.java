@@ -227,10 +227,11 @@ public class TestPipelineStateStore {
     pipelineStateStore.saveState("user1", "aaa", "0", PipelineStatus.STOPPED, "Pipeline stopped", null, ExecutionMode.STANDALONE, null, 0, 0);
     pipelineStateStore.saveState("user1", "aaa", "0", PipelineStatus.RUNNING, "Pipeline stopped", null, ExecutionMode.STANDALONE, null, 0, 0);
     List<PipelineState> history = pipelineStateStore.getHistory("aaa", "0", true);
-    for (PipelineState pipelineState: history) {
-      assertEquals(PipelineStatus.RUNNING, pipelineState.getStatus());
-      assertEquals(PipelineStatus.STOPPED, pipelineState.getStatus());
-    }
+    // newest first
+    assertEquals(PipelineStatus.RUNNING, history.get(0).getStatus());
+    assertEquals(PipelineStatus.STOPPED, history.get(1).getStatus());
+    pipelineStateStore.deleteHistory("aaa", "0");
+    assertEquals(0, pipelineStateStore.getHistory("aaa", "0", true).size());
   }
 
   @Test
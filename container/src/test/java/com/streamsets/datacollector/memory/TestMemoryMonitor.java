@@ -0,0 +1,62 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Supplier;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+public class TestMemoryMonitor {
+
+  private static Supplier<MemoryUsageCollector> createCollector(long... memoryConsumed) {
+    MemoryUsageSnapshot[] snapshots = new MemoryUsageSnapshot[memoryConsumed.length];
+    for (int i = 0; i < memoryConsumed.length; i++) {
+      snapshots[i] = new MemoryUsageSnapshot("stage", null).addMemoryConsumedByInstances(memoryConsumed[i]);
+    }
+    final MemoryUsageCollector collector = Mockito.mock(MemoryUsageCollector.class);
+    Mockito.when(collector.collect()).thenReturn(snapshots[0], Arrays.copyOfRange(snapshots, 1, snapshots.length));
+    return new Supplier<MemoryUsageCollector>() {
+      @Override
+      public MemoryUsageCollector get() {
+        return collector;
+      }
+    };
+  }
+
+  @Test
+  public void testCopiesOfStageAddTheirMemory() throws Exception {
+    // the copies of a stage in two pipeline runners share the counter
+    Counter counter = new Counter();
+    MemoryMonitor first = new MemoryMonitor(counter, createCollector(3000000, 1000000));
+    MemoryMonitor second = new MemoryMonitor(counter, createCollector(5000000));
+
+    first.run();
+    second.run();
+    Assert.assertEquals(8, counter.getCount());
+
+    first.run();
+    Assert.assertEquals(6, counter.getCount());
+  }
+
+}
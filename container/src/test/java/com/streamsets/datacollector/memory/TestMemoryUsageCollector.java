@@ -70,6 +70,19 @@ public class TestMemoryUsageCollector {
     Assert.assertEquals(64, MemoryUsageCollector.getMemoryUsageOfForTests(new ClassWithOneStringField()));
     Assert.assertEquals(32, MemoryUsageCollector.getMemoryUsageOfForTests(new ClassWithOneComplexField()));
   }
+  @Test
+  public void testArraySampling() throws Exception {
+    Object[] array = new Object[10000];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = new Object();
+    }
+    long exact = MemoryUsageCollector.getMemoryUsageOfForTests(array, ClassLoader.getSystemClassLoader(), false, 0);
+    // all the elements have the same size, sampling 1 element out of 100 gives the exact usage
+    long sampled = MemoryUsageCollector.getMemoryUsageOfForTests(array, ClassLoader.getSystemClassLoader(), false,
+      100);
+    Assert.assertEquals(exact, sampled);
+  }
+
   @Test
   public void testClassWithStaticRefToObjectWithNonStaticRef() throws Exception {
     long value = MemoryUsageCollector.
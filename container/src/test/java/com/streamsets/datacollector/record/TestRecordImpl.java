@@ -570,4 +570,104 @@ public class TestRecordImpl {
     Assert.assertEquals("GAMMA", r.get("[2]").getValue());
   }
 
+  @Test
+  public void testParsedPathsAreCached() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    List<PathElement> elements = r.parse("/a/b[0]");
+    Assert.assertSame(elements, r.parse("/a/b[0]"));
+    Assert.assertSame(elements, new RecordImpl("stage", "source", null, null).parse("/a/b[0]"));
+    Assert.assertEquals(3, elements.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPathNotCached() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    try {
+      r.get("/a[x]");
+      Assert.fail();
+    } catch (IllegalArgumentException ex) {
+      // the second attempt must fail the same way
+    }
+    r.get("/a[x]");
+  }
+
+  @Test
+  public void testNullListElement() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    List<Field> list = new ArrayList<>();
+    list.add(null);
+    r.set(Field.create(list));
+
+    Assert.assertTrue(r.has("[0]"));
+    Assert.assertNull(r.get("[0]"));
+    Assert.assertFalse(r.has("[0]/a"));
+    Assert.assertNull(r.get("[0]/a"));
+    Assert.assertFalse(r.has("[1]"));
+  }
+
+  @Test
+  public void testCloneShared() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    r.getHeader().setAttribute("a", "A");
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    Field root = Field.create(map);
+    r.set(root);
+
+    RecordImpl c = r.cloneShared();
+    Assert.assertEquals(r, c);
+    Assert.assertTrue(c.has("/a"));
+
+    // modifying the copy does not change the original
+    c.set("/a", Field.create("B"));
+    c.getHeader().setAttribute("a", "B");
+    Assert.assertEquals("A", r.get("/a").getValueAsString());
+    Assert.assertEquals("A", r.getHeader().getAttribute("a"));
+    Assert.assertEquals("B", c.get("/a").getValueAsString());
+    Assert.assertEquals("B", c.getHeader().getAttribute("a"));
+
+    // the original was the last record sharing the field tree, it did not copy it
+    Assert.assertSame(root, r.get());
+    Assert.assertNotSame(root, c.get());
+  }
+
+  @Test
+  public void testCloneSharedOfSharedRecord() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    Field root = Field.create(new HashMap<String, Field>());
+    r.set(root);
+
+    RecordImpl c1 = r.cloneShared();
+    RecordImpl c2 = c1.cloneShared();
+    c2.set("/x", Field.create(1));
+    c1.delete("/x");
+    Assert.assertFalse(r.has("/x"));
+    Assert.assertFalse(c1.has("/x"));
+    Assert.assertTrue(c2.has("/x"));
+
+    Assert.assertSame(root, r.get());
+    Assert.assertNotSame(root, c1.get());
+    Assert.assertNotSame(root, c2.get());
+  }
+
+  @Test
+  public void testCloneSharedGetDoesNotCopyImmutableFields() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    map.put("m", Field.create(new HashMap<String, Field>()));
+    Field root = Field.create(map);
+    r.set(root);
+
+    RecordImpl c = r.cloneShared();
+    // getting a string field does not take ownership of the field tree
+    Assert.assertSame(root.getValueAsMap().get("a"), c.get("/a"));
+
+    // a map could be modified through the returned field, the copy takes its own field tree
+    c.get("/m").getValueAsMap().put("x", Field.create(1));
+    Assert.assertFalse(r.has("/m/x"));
+    Assert.assertTrue(c.has("/m/x"));
+    Assert.assertSame(root, r.get());
+  }
+
 }
@@ -29,6 +29,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.ext.RecordReader;
 import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -43,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public  class TestRecordWriterReaderFactory {
@@ -90,6 +92,7 @@ public  class TestRecordWriterReaderFactory {
     testEncodingSelection(null, RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.JSON1.name(), RecordEncodingConstants.JSON1_MAGIC_NUMBER);
     testEncodingSelection(RecordEncoding.KRYO1.name(), RecordEncodingConstants.KRYO1_MAGIC_NUMBER);
+    testEncodingSelection(RecordEncoding.KRYO2.name(), RecordEncodingConstants.KRYO2_MAGIC_NUMBER);
   }
 
   private void testRecordWriterReader(RecordEncoding encoding) throws IOException {
@@ -209,6 +212,95 @@ public  class TestRecordWriterReaderFactory {
     testRecordReaderWithOffset(RecordEncoding.KRYO1);
   }
 
+  @Test
+  public void testKryo2RecordWriter() throws IOException {
+    testRecordWriterReader(RecordEncoding.KRYO2);
+  }
+
+  @Test
+  public void testKryo2RecordWithOffset() throws IOException {
+    testRecordReaderWithOffset(RecordEncoding.KRYO2);
+  }
+
+  @Test
+  public void testKryo2AllTypes() throws IOException {
+    Date date = new Date();
+    RecordImpl record1 = new RecordImpl("stage", "source", new byte[] { 0, 1, 2}, "mode");
+    record1.getHeader().setAttribute("attr", "value");
+    record1.getHeader().setError("errorStage", new ErrorMessage("errorCode", "errorMessage", 1L));
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("boolean", Field.create(true));
+    map.put("char", Field.create('c'));
+    map.put("byte", Field.create((byte) 1));
+    map.put("short", Field.create((short) -2));
+    map.put("integer", Field.create(-3));
+    map.put("long", Field.create(Long.MAX_VALUE));
+    map.put("float", Field.create(4.5f));
+    map.put("double", Field.create(-6.7d));
+    map.put("date", Field.create(Field.Type.DATE, date));
+    map.put("datetime", Field.create(Field.Type.DATETIME, date));
+    map.put("time", Field.create(Field.Type.TIME, date));
+    map.put("decimal", Field.create(new BigDecimal("-36.7147")));
+    map.put("string", Field.create("Hello"));
+    map.put("null", Field.create(Field.Type.STRING, null));
+    List<Field> list = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      // repeated names are written once per record
+      Map<String, Field> element = new HashMap<>();
+      element.put("name", Field.create("name" + i));
+      element.put("value", Field.create(i));
+      list.add(Field.create(element));
+    }
+    map.put("list", Field.create(list));
+    record1.set(Field.createListMap((LinkedHashMap<String, Field>) map));
+    RecordImpl record2 = new RecordImpl("stage", "source", null, null);
+    record2.set(Field.create(new byte[] { 3, 4 }));
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.KRYO2, os);
+    writer.write(record1);
+    writer.write(record2);
+    writer.close();
+
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(os.toByteArray()), 0, 1000);
+    Record record = reader.readRecord();
+    Assert.assertEquals(record1, record);
+    Assert.assertArrayEquals(new byte[] { 0, 1, 2}, record.getHeader().getRaw());
+    Assert.assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(record.get().getValueAsListMap().keySet()));
+    Assert.assertEquals("errorCode", record.getHeader().getErrorCode());
+    Assert.assertEquals(record1.getHeader().getErrorTimestamp(), record.getHeader().getErrorTimestamp());
+    record = reader.readRecord();
+    Assert.assertEquals(Field.Type.BYTE_ARRAY, record.get().getType());
+    Assert.assertArrayEquals(new byte[] { 3, 4 }, record.get().getValueAsByteArray());
+    Assert.assertNull(reader.readRecord());
+    reader.close();
+  }
+
+  @Test
+  public void testKryo2IsSmallerThanKryo1() throws IOException {
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    List<Field> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Map<String, Field> element = new HashMap<>();
+      element.put("name", Field.create("name" + i));
+      element.put("value", Field.create(i));
+      list.add(Field.create(element));
+    }
+    record.set(Field.create(list));
+
+    ByteArrayOutputStream kryo1 = new ByteArrayOutputStream();
+    RecordWriter writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.KRYO1, kryo1);
+    writer.write(record);
+    writer.close();
+    ByteArrayOutputStream kryo2 = new ByteArrayOutputStream();
+    writer = RecordWriterReaderFactory.createRecordWriter(RecordEncoding.KRYO2, kryo2);
+    writer.write(record);
+    writer.close();
+
+    Assert.assertTrue(kryo2.size() < kryo1.size());
+  }
+
   @Test
   public void testDecimal() throws IOException {
     // We've picked this number because if it's casted to double, then it will lead to 36.7147000000000000483...
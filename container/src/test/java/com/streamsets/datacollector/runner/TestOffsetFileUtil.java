@@ -21,6 +21,7 @@ package com.streamsets.datacollector.runner;
 
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.production.OffsetFileUtil;
+import com.streamsets.datacollector.runner.production.OffsetJournal;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -28,6 +29,8 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 
 public class TestOffsetFileUtil {
 
@@ -54,4 +57,50 @@ public class TestOffsetFileUtil {
     OffsetFileUtil.resetOffset(runtimeInfo, "foo", "1");
     Assert.assertNull(OffsetFileUtil.getOffset(runtimeInfo, "foo", "1"));
   }
+
+  @Test
+  public void testOffsetJournal() throws Exception {
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    File offsetFolder = tempFolder.newFolder();
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn(offsetFolder.getPath());
+    OffsetFileUtil.saveOffset(runtimeInfo, "foo", "1", "offset:100");
+
+    File journalFile = OffsetFileUtil.getPipelineOffsetJournalFile(runtimeInfo, "foo", "1");
+    OffsetJournal journal = new OffsetJournal(journalFile, OffsetJournal.SyncPolicy.NEVER, 0);
+    journal.open();
+    journal.append("offset:200");
+    journal.close();
+
+    // the journal has the latest offset
+    Assert.assertEquals("offset:200", OffsetFileUtil.getOffset(runtimeInfo, "foo", "1"));
+
+    // recovering moves the journal offset to the offset file
+    Assert.assertEquals("offset:200", OffsetFileUtil.saveIfEmpty(runtimeInfo, "foo", "1"));
+    Assert.assertFalse(journalFile.exists());
+    Assert.assertEquals("offset:200", OffsetFileUtil.getOffset(runtimeInfo, "foo", "1"));
+  }
+
+  @Test
+  public void testTornOffsetJournal() throws Exception {
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    File offsetFolder = tempFolder.newFolder();
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn(offsetFolder.getPath());
+    OffsetFileUtil.saveOffset(runtimeInfo, "foo", "1", "offset:100");
+
+    // a crash right after a compaction left only a torn entry in the journal
+    File journalFile = OffsetFileUtil.getPipelineOffsetJournalFile(runtimeInfo, "foo", "1");
+    try (OutputStream os = new FileOutputStream(journalFile)) {
+      os.write(new byte[] {0, 0, 0, 10, 'o', 'f'});
+    }
+
+    Assert.assertEquals("offset:100", OffsetFileUtil.saveIfEmpty(runtimeInfo, "foo", "1"));
+    Assert.assertFalse(journalFile.exists());
+
+    // offsets appended to the new journal are visible
+    OffsetJournal journal = new OffsetJournal(journalFile, OffsetJournal.SyncPolicy.NEVER, 0);
+    journal.open();
+    journal.append("offset:200");
+    journal.close();
+    Assert.assertEquals("offset:200", OffsetFileUtil.getOffset(runtimeInfo, "foo", "1"));
+  }
 }
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.google.common.base.Optional;
+import com.streamsets.datacollector.runner.production.OffsetJournal;
+import com.streamsets.datacollector.runner.production.SourceOffset;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+public class TestOffsetJournal {
+
+  @Rule
+  public TemporaryFolder tempFolder= new TemporaryFolder();
+
+  @Test
+  public void testMissingJournal() throws Exception {
+    File file = new File(tempFolder.newFolder(), "offset.log");
+    Assert.assertFalse(OffsetJournal.readLastOffset(file).isPresent());
+  }
+
+  @Test
+  public void testAppendAndReadLastOffset() throws Exception {
+    File file = new File(tempFolder.newFolder(), "offset.log");
+    OffsetJournal journal = new OffsetJournal(file, OffsetJournal.SyncPolicy.ALWAYS, 0);
+    journal.open();
+    try {
+      Assert.assertFalse(OffsetJournal.readLastOffset(file).isPresent());
+      journal.append("offset:1");
+      journal.append("offset:\u00e9");
+      Assert.assertEquals(2, journal.getEntries());
+      Assert.assertEquals("offset:\u00e9", OffsetJournal.readLastOffset(file).get().getOffset());
+
+      journal.append(null);
+      Optional<SourceOffset> lastOffset = OffsetJournal.readLastOffset(file);
+      Assert.assertTrue(lastOffset.isPresent());
+      Assert.assertNull(lastOffset.get().getOffset());
+
+      journal.truncate();
+      Assert.assertEquals(0, journal.getEntries());
+      Assert.assertFalse(OffsetJournal.readLastOffset(file).isPresent());
+
+      journal.append("offset:2");
+      Assert.assertEquals("offset:2", OffsetJournal.readLastOffset(file).get().getOffset());
+    } finally {
+      journal.close();
+    }
+  }
+
+  @Test
+  public void testPartialEntryIgnored() throws Exception {
+    File file = new File(tempFolder.newFolder(), "offset.log");
+    OffsetJournal journal = new OffsetJournal(file, OffsetJournal.SyncPolicy.NEVER, 0);
+    journal.open();
+    journal.append("offset:1");
+    long validLength = file.length();
+    journal.append("offset:2");
+    journal.close();
+
+    // a crash while writing the last entry leaves it incomplete
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(file.length() - 3);
+    }
+    Assert.assertEquals("offset:1", OffsetJournal.readLastOffset(file).get().getOffset());
+
+    // a corrupted entry is ignored as well
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(validLength);
+      raf.seek(5);
+      raf.write('X');
+    }
+    Assert.assertFalse(OffsetJournal.readLastOffset(file).isPresent());
+  }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.runner.production.OrderedBatchOffsetTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestOrderedBatchOffsetTracker {
+
+  private static class RecordingOffsetTracker implements SourceOffsetTracker {
+    private final List<String> committed = new ArrayList<>();
+    private String offset;
+    private String newOffset;
+
+    @Override
+    public boolean isFinished() {
+      return false;
+    }
+
+    @Override
+    public String getOffset() {
+      return offset;
+    }
+
+    @Override
+    public void setOffset(String newOffset) {
+      this.newOffset = newOffset;
+    }
+
+    @Override
+    public void commitOffset() {
+      offset = newOffset;
+      committed.add(offset);
+    }
+
+    @Override
+    public long getLastBatchTime() {
+      return 0;
+    }
+  }
+
+  @Test
+  public void testBatchesReadFromPreviousBatchOffset() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    offsetTracker.offset = "0";
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    Assert.assertEquals("0", batch1.getOffset());
+    batch1.setOffset("1");
+
+    SourceOffsetTracker batch2 = tracker.startBatch();
+    Assert.assertEquals("1", batch2.getOffset());
+    batch2.setOffset("2");
+
+    Assert.assertEquals(2, tracker.getInFlight());
+    Assert.assertFalse(tracker.isFinished());
+    Assert.assertTrue(offsetTracker.committed.isEmpty());
+  }
+
+  @Test
+  public void testCommitsInReadOrder() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    batch1.setOffset("1");
+    SourceOffsetTracker batch2 = tracker.startBatch();
+    batch2.setOffset("2");
+    SourceOffsetTracker batch3 = tracker.startBatch();
+    batch3.setOffset("3");
+
+    // batch 2 and 3 complete before batch 1, nothing can be committed yet
+    batch3.commitOffset();
+    batch2.commitOffset();
+    tracker.commitCompleted();
+    Assert.assertTrue(offsetTracker.committed.isEmpty());
+
+    batch1.commitOffset();
+    tracker.commitCompleted();
+    Assert.assertEquals(ImmutableList.of("1", "2", "3"), offsetTracker.committed);
+    Assert.assertEquals(0, tracker.getInFlight());
+  }
+
+  @Test
+  public void testReleasedBatchIsNotCommitted() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    batch1.setOffset("1");
+    SourceOffsetTracker batch2 = tracker.startBatch();
+    batch2.setOffset("2");
+
+    tracker.release(batch1);
+    tracker.commitCompleted();
+    Assert.assertTrue(offsetTracker.committed.isEmpty());
+
+    batch2.commitOffset();
+    // releasing after the commit is a no-op
+    tracker.release(batch2);
+    tracker.commitCompleted();
+    Assert.assertEquals(ImmutableList.of("2"), offsetTracker.committed);
+  }
+
+  @Test
+  public void testAbortStopsCommits() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    batch1.setOffset("1");
+    SourceOffsetTracker batch2 = tracker.startBatch();
+    batch2.setOffset("2");
+
+    batch2.commitOffset();
+    tracker.abort();
+    tracker.release(batch1);
+    tracker.commitCompleted();
+    Assert.assertTrue(offsetTracker.committed.isEmpty());
+  }
+
+  @Test
+  public void testDiscardedBatchStopsLaterCommits() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    batch1.setOffset("1");
+    SourceOffsetTracker batch2 = tracker.startBatch();
+    batch2.setOffset("2");
+    SourceOffsetTracker batch3 = tracker.startBatch();
+    batch3.setOffset("3");
+
+    // batch 2 is not processed, batch 3 completes before batch 1
+    tracker.discard(batch2);
+    batch3.commitOffset();
+    tracker.commitCompleted();
+    Assert.assertTrue(offsetTracker.committed.isEmpty());
+
+    // the batches read before the discarded one are still committed
+    batch1.commitOffset();
+    tracker.commitCompleted();
+    Assert.assertEquals(ImmutableList.of("1"), offsetTracker.committed);
+  }
+
+  @Test
+  public void testFinishedWhenSourceReturnsNullOffset() {
+    RecordingOffsetTracker offsetTracker = new RecordingOffsetTracker();
+    OrderedBatchOffsetTracker tracker = new OrderedBatchOffsetTracker(offsetTracker);
+
+    SourceOffsetTracker batch1 = tracker.startBatch();
+    batch1.setOffset(null);
+    Assert.assertTrue(tracker.isFinished());
+    Assert.assertTrue(batch1.isFinished());
+  }
+
+}
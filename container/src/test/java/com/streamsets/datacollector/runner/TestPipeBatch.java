@@ -320,8 +320,8 @@ public class TestPipeBatch {
     Record copiedRecordX = pipeBatch.getFullPayload().get("x").get(0);
     Record copiedRecordY = pipeBatch.getFullPayload().get("y").get(0);
 
-    Assert.assertEquals(origRecord, copiedRecordX);
-    Assert.assertNotSame(origRecord, copiedRecordX);
+    // the first lane takes the original records, the other lanes get copies
+    Assert.assertSame(origRecord, copiedRecordX);
 
     Assert.assertEquals(origRecord, copiedRecordY);
     Assert.assertNotSame(origRecord, copiedRecordY);
@@ -454,4 +454,48 @@ public class TestPipeBatch {
     pipeBatch.completeStage(batchMaker, new EventSink());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReset() throws Exception {
+    SourceOffsetTracker tracker = Mockito.mock(SourceOffsetTracker.class);
+    FullPipeBatch pipeBatch = new FullPipeBatch(tracker, -1, false);
+
+    PipelineBean pipelineBean = getPipelineBean();
+    StageRuntime stage = new StageRuntime(pipelineBean, pipelineBean.getStages().get(0));
+    StageContext context = Mockito.mock(StageContext.class);
+    Mockito.when(context.isPreview()).thenReturn(false);
+    stage.setContext(context);
+
+    List<String> stageOutputLanes = stage.getConfiguration().getOutputLanes();
+    StagePipe pipe = new StagePipe(stage, Collections.EMPTY_LIST,
+      LaneResolver.getPostFixed(stageOutputLanes, LaneResolver.STAGE_OUT), Collections.EMPTY_LIST);
+
+    BatchMakerImpl batchMaker = pipeBatch.startStage(pipe);
+    batchMaker.addRecord(new RecordImpl("i", "source", null, null), stageOutputLanes.get(0));
+    pipeBatch.getErrorSink().addRecord("s", new RecordImpl("i", "source", null, null));
+    pipeBatch.completeStage(batchMaker, new EventSink());
+    Assert.assertEquals(1, pipeBatch.getInputRecords());
+    Assert.assertEquals(1, pipeBatch.getErrorRecords());
+    Assert.assertFalse(pipeBatch.getFullPayload().isEmpty());
+
+    pipeBatch.reset();
+    Assert.assertTrue(pipeBatch.getFullPayload().isEmpty());
+    Assert.assertEquals(0, pipeBatch.getInputRecords());
+    Assert.assertEquals(0, pipeBatch.getOutputRecords());
+    Assert.assertEquals(0, pipeBatch.getErrorRecords());
+    Assert.assertEquals(0, pipeBatch.getErrorSink().size());
+
+    // the stage can be processed again in the next batch
+    batchMaker = pipeBatch.startStage(pipe);
+    pipeBatch.completeStage(batchMaker, new EventSink());
+    Assert.assertEquals(0, pipeBatch.getInputRecords());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testResetWithSnapshot() throws Exception {
+    SourceOffsetTracker tracker = Mockito.mock(SourceOffsetTracker.class);
+    FullPipeBatch pipeBatch = new FullPipeBatch(tracker, -1, true);
+    pipeBatch.reset();
+  }
+
 }
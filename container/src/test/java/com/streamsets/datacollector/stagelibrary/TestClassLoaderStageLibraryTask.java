@@ -38,6 +38,7 @@ import org.mockito.Mockito;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -117,6 +118,34 @@ public class TestClassLoaderStageLibraryTask {
     Assert.assertTrue(foundAutoC);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testParallelLoadStages() {
+    File configDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    List<ClassLoader> classLoaders = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      classLoaders.add(new SDCClassLoader("library", "lib" + i, Collections.<URL>emptyList(),
+                                          getClass().getClassLoader(), new String[0], new SystemPackage(new String[0]),
+                                          new ApplicationPackage(new TreeSet<String>()), false, false, false));
+    }
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    Mockito.when(runtimeInfo.getConfigDir()).thenReturn(configDir.getAbsolutePath());
+    Mockito.when(runtimeInfo.getStageLibraryClassLoaders()).thenReturn((List) classLoaders);
+
+    Configuration configuration = new Configuration();
+    configuration.set(ClassLoaderStageLibraryTask.STAGE_LIBRARY_SCAN_THREADS_KEY, 3);
+    ClassLoaderStageLibraryTask library = new ClassLoaderStageLibraryTask(runtimeInfo, configuration);
+    library.initTask();
+
+    // stages are listed in library order regardless of the order the libraries were scanned
+    Assert.assertEquals(4, library.getStages().size());
+    for (int i = 0; i < 4; i++) {
+      StageDefinition sDef = library.getStages().get(i);
+      Assert.assertEquals("lib" + i, sDef.getLibrary());
+      Assert.assertEquals(sDef, library.getStage("lib" + i, sDef.getName(), false));
+    }
+  }
+
   @Test
   public void testIgnoreStages() throws Exception {
     ClassLoaderStageLibraryTask library = new ClassLoaderStageLibraryTask(null, new Configuration());
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.elasticsearch;
+
+import com.streamsets.pipeline.api.Record;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends the index and upsert requests of a batch as size bounded bulk requests, keeping up to a configured number
+ * of bulk requests in flight.
+ * <p/>
+ * The items of a bulk request rejected by a busy cluster (HTTP 429) are retried with exponential backoff, all the
+ * other item failures are reported with the record they originate from. A sender is used for a single batch.
+ * <p/>
+ * Operations on the same document are applied in the order they were added: a bulk request is not sent while an
+ * earlier bulk request with any of its documents, including its retries, is still in flight.
+ */
+class BulkRequestSender {
+  private static final Logger LOG = LoggerFactory.getLogger(BulkRequestSender.class);
+
+  private final Client client;
+  private final long maxRequestSize;
+  private final int maxInFlight;
+  private final int maxRetries;
+  private final long retryBackoffMillis;
+  private final Deque<InFlightRequest> inFlight;
+  private final List<Failure> failures;
+  private InFlightRequest current;
+
+  /**
+   * @param maxRequestSize estimated size in bytes after which a bulk request is sent, 0 for no limit.
+   */
+  BulkRequestSender(Client client, long maxRequestSize, int maxInFlight, int maxRetries, long retryBackoffMillis) {
+    this.client = client;
+    this.maxRequestSize = maxRequestSize;
+    this.maxInFlight = maxInFlight;
+    this.maxRetries = maxRetries;
+    this.retryBackoffMillis = retryBackoffMillis;
+    inFlight = new ArrayDeque<>();
+    failures = new ArrayList<>();
+  }
+
+  /**
+   * A record whose request failed.
+   */
+  static class Failure {
+    private final Record record;
+    private final String message;
+
+    Failure(Record record, String message) {
+      this.record = record;
+      this.message = message;
+    }
+
+    Record getRecord() {
+      return record;
+    }
+
+    String getMessage() {
+      return message;
+    }
+  }
+
+  private static class Item {
+    private final Record record;
+    private final IndexRequest indexRequest;
+    private final UpdateRequest updateRequest;
+
+    Item(Record record, IndexRequest indexRequest, UpdateRequest updateRequest) {
+      this.record = record;
+      this.indexRequest = indexRequest;
+      this.updateRequest = updateRequest;
+    }
+
+    // null for documents with an auto generated id, they cannot collide with any other operation
+    String getDocument() {
+      String id = (updateRequest != null) ? updateRequest.id() : indexRequest.id();
+      if (id == null) {
+        return null;
+      }
+      return (updateRequest != null)
+          ? updateRequest.index() + "/" + updateRequest.type() + "/" + id
+          : indexRequest.index() + "/" + indexRequest.type() + "/" + id;
+    }
+
+    void addTo(BulkRequest bulkRequest) {
+      if (updateRequest != null) {
+        bulkRequest.add(updateRequest);
+      } else {
+        bulkRequest.add(indexRequest);
+      }
+    }
+  }
+
+  private static class InFlightRequest {
+    // items in the order they were added to the bulk request, a bulk item id is its position in the list
+    private final List<Item> items = new ArrayList<>();
+    private final Set<String> documents = new HashSet<>();
+    private final BulkRequest bulkRequest = new BulkRequest();
+    private ActionFuture<BulkResponse> response;
+
+    void add(Item item) {
+      items.add(item);
+      String document = item.getDocument();
+      if (document != null) {
+        documents.add(document);
+      }
+      item.addTo(bulkRequest);
+    }
+  }
+
+  void add(Record record, IndexRequest indexRequest) throws InterruptedException {
+    add(new Item(record, indexRequest, null));
+  }
+
+  void add(Record record, UpdateRequest updateRequest) throws InterruptedException {
+    add(new Item(record, null, updateRequest));
+  }
+
+  private void add(Item item) throws InterruptedException {
+    if (current == null) {
+      current = new InFlightRequest();
+    }
+    current.add(item);
+    if (maxRequestSize > 0 && current.bulkRequest.estimatedSizeInBytes() >= maxRequestSize) {
+      send();
+    }
+  }
+
+  private void send() throws InterruptedException {
+    while (inFlight.size() >= maxInFlight || isAnyDocumentInFlight(current)) {
+      complete(inFlight.removeFirst());
+    }
+    current.response = client.bulk(current.bulkRequest);
+    inFlight.addLast(current);
+    current = null;
+  }
+
+  private boolean isAnyDocumentInFlight(InFlightRequest request) {
+    for (InFlightRequest sent : inFlight) {
+      if (!Collections.disjoint(sent.documents, request.documents)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sends the pending requests, waits for all the bulk requests in flight and returns the records that failed.
+   */
+  List<Failure> finish() throws InterruptedException {
+    if (current != null) {
+      send();
+    }
+    while (!inFlight.isEmpty()) {
+      complete(inFlight.removeFirst());
+    }
+    return failures;
+  }
+
+  /**
+   * Waits for the bulk requests in flight ignoring their outcome, used when the batch fails.
+   */
+  void abort() {
+    current = null;
+    while (!inFlight.isEmpty()) {
+      try {
+        inFlight.removeFirst().response.actionGet();
+      } catch (RuntimeException ex) {
+        LOG.debug("Ignoring bulk request error while aborting: {}", ex.toString(), ex);
+      }
+    }
+  }
+
+  private void complete(InFlightRequest request) throws InterruptedException {
+    BulkResponse response = request.response.actionGet();
+    int attempt = 0;
+    while (response.hasFailures()) {
+      InFlightRequest retry = new InFlightRequest();
+      for (BulkItemResponse item : response.getItems()) {
+        if (item.isFailed()) {
+          Item failed = request.items.get(item.getItemId());
+          if (attempt < maxRetries && item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+            retry.add(failed);
+          } else {
+            failures.add(new Failure(failed.record, item.getFailureMessage()));
+          }
+        }
+      }
+      if (retry.items.isEmpty()) {
+        break;
+      }
+      long backoff = retryBackoffMillis << attempt;
+      attempt++;
+      LOG.debug("Retrying '{}' rejected bulk items in '{}' ms, attempt '{}'", retry.items.size(), backoff, attempt);
+      Thread.sleep(backoff);
+      request = retry;
+      response = client.bulk(request.bulkRequest).actionGet();
+    }
+  }
+
+}
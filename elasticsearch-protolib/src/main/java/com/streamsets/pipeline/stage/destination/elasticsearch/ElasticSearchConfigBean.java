@@ -202,4 +202,54 @@ public class ElasticSearchConfigBean {
       group = "ELASTIC_SEARCH"
   )
   public boolean upsert;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Bulk Request Size (KB)",
+      description = "Estimated size after which the records of a batch are sent in a new bulk request. " +
+          "Use 0 to send each batch in a single bulk request.",
+      displayPosition = 90,
+      group = "ELASTIC_SEARCH",
+      min = 0
+  )
+  public int maxBulkRequestSizeKB;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Max Concurrent Bulk Requests",
+      description = "Maximum number of bulk requests of a batch sent to the cluster at the same time. Bulk requests " +
+          "with operations on the same document are still sent one after the other",
+      displayPosition = 100,
+      group = "ELASTIC_SEARCH",
+      min = 1
+  )
+  public int maxConcurrentBulkRequests = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Retries for Rejected Records",
+      description = "Number of times the records rejected because the cluster is busy are sent again",
+      displayPosition = 110,
+      group = "ELASTIC_SEARCH",
+      min = 0
+  )
+  public int maxBulkRetries;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "100",
+      label = "Retry Backoff (ms)",
+      description = "Wait before the first retry of rejected records, doubled for each subsequent retry",
+      displayPosition = 120,
+      group = "ELASTIC_SEARCH",
+      min = 0
+  )
+  public long bulkRetryBackoff = 100;
 }
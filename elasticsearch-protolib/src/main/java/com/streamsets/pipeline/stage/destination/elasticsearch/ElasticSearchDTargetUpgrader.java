@@ -51,6 +51,12 @@ public class ElasticSearchDTargetUpgrader implements StageUpgrader {
         // fall through
       case 4:
         upgradeV4ToV5(configs);
+        if (toVersion == 5) {
+          break;
+        }
+        // fall through
+      case 5:
+        upgradeV5ToV6(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -129,4 +135,11 @@ public class ElasticSearchDTargetUpgrader implements StageUpgrader {
     configs.removeAll(configsToRemove);
   }
 
+  private static void upgradeV5ToV6(List<Config> configs) {
+    configs.add(new Config(ElasticSearchConfigBean.CONF_PREFIX + "maxBulkRequestSizeKB", 0));
+    configs.add(new Config(ElasticSearchConfigBean.CONF_PREFIX + "maxConcurrentBulkRequests", 1));
+    configs.add(new Config(ElasticSearchConfigBean.CONF_PREFIX + "maxBulkRetries", 0));
+    configs.add(new Config(ElasticSearchConfigBean.CONF_PREFIX + "bulkRetryBackoff", 100));
+  }
+
 }
@@ -45,9 +45,6 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.http.client.fluent.Request;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
-import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Client;
@@ -59,7 +56,6 @@ import java.io.IOException;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Iterator;
@@ -352,86 +348,98 @@ public class ElasticSearchTarget extends BaseTarget {
     TimeNowEL.setTimeNowInContext(elVars, getBatchTime());
     Iterator<Record> it = batch.getRecords();
 
-    BulkRequestBuilder bulkRequest = elasticClient.prepareBulk();
-    boolean atLeastOne = false;
-
-    //we need to keep the records in order of appearance in case we have indexing errors
-    //and error handling is TO_ERROR
-    List<Record> records = new ArrayList<>();
-
-    while (it.hasNext()) {
-      atLeastOne = true;
-      Record record = it.next();
-
-      records.add(record);
-
-      try {
-        RecordEL.setRecordInContext(elVars, record);
-        String index = getRecordIndex(elVars, record);
-        String type = typeEval.eval(elVars, conf.typeTemplate, String.class);
-        String id = null;
-        if (conf.docIdTemplate != null && !conf.docIdTemplate.isEmpty()) {
-          id = docIdEval.eval(elVars, conf.docIdTemplate, String.class);
-        }
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        DataGenerator generator = generatorFactory.getGenerator(baos);
-        generator.write(record);
-        generator.close();
-        String json = new String(baos.toByteArray(), StandardCharsets.UTF_8);
-
-        IndexRequest insert = elasticClient.prepareIndex(index, type, id)
-            .setContentType(XContentType.JSON)
-            .setSource(json)
-            .request();
-        if (conf.upsert) {
-          // Upsert cannot be processed without the id. Bulk process does not read document content
-          // but only headers and then pass content to the right shard. To extract the right shard,
-          // Elasticsearch needs to know the id without parsing the body itself.
-          Utils.checkNotNull(id, "Document ID");
-          UpdateRequest upsert = elasticClient.prepareUpdate(index, type, id)
-              .setDoc(json)
-              .setUpsert(insert)
+    // the sender keeps the records with their requests in case we have indexing errors
+    // and error handling is TO_ERROR
+    BulkRequestSender sender = new BulkRequestSender(
+        elasticClient,
+        conf.maxBulkRequestSizeKB * 1024L,
+        conf.maxConcurrentBulkRequests,
+        conf.maxBulkRetries,
+        conf.bulkRetryBackoff
+    );
+    List<BulkRequestSender.Failure> failures;
+    boolean completed = false;
+    try {
+      while (it.hasNext()) {
+        Record record = it.next();
+        try {
+          RecordEL.setRecordInContext(elVars, record);
+          String index = getRecordIndex(elVars, record);
+          String type = typeEval.eval(elVars, conf.typeTemplate, String.class);
+          String id = null;
+          if (conf.docIdTemplate != null && !conf.docIdTemplate.isEmpty()) {
+            id = docIdEval.eval(elVars, conf.docIdTemplate, String.class);
+          }
+          ByteArrayOutputStream baos = new ByteArrayOutputStream();
+          DataGenerator generator = generatorFactory.getGenerator(baos);
+          generator.write(record);
+          generator.close();
+          String json = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+
+          IndexRequest insert = elasticClient.prepareIndex(index, type, id)
+              .setContentType(XContentType.JSON)
+              .setSource(json)
               .request();
-          bulkRequest.add(upsert);
-        } else {
-          bulkRequest.add(insert);
+          if (conf.upsert) {
+            // Upsert cannot be processed without the id. Bulk process does not read document content
+            // but only headers and then pass content to the right shard. To extract the right shard,
+            // Elasticsearch needs to know the id without parsing the body itself.
+            Utils.checkNotNull(id, "Document ID");
+            UpdateRequest upsert = elasticClient.prepareUpdate(index, type, id)
+                .setDoc(json)
+                .setUpsert(insert)
+                .request();
+            sender.add(record, upsert);
+          } else {
+            sender.add(record, insert);
+          }
+        } catch (IOException ex) {
+          errorRecordHandler.onError(
+              new OnRecordErrorException(
+                  record,
+                  Errors.ELASTICSEARCH_15,
+                  record.getHeader().getSourceId(),
+                  ex.toString(),
+                  ex
+              )
+          );
         }
-      } catch (IOException ex) {
-        errorRecordHandler.onError(
-            new OnRecordErrorException(
-                record,
-                Errors.ELASTICSEARCH_15,
-                record.getHeader().getSourceId(),
-                ex.toString(),
-                ex
-            )
-        );
+      }
+      failures = sender.finish();
+      completed = true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.ELASTICSEARCH_21, ex);
+    } finally {
+      if (!completed) {
+        sender.abort();
       }
     }
-    if (atLeastOne) {
-      BulkResponse bulkResponse = bulkRequest.execute().actionGet();
-      if (bulkResponse.hasFailures()) {
-        switch (getContext().getOnErrorRecord()) {
-          case DISCARD:
-            break;
-          case TO_ERROR:
-            for (BulkItemResponse item : bulkResponse.getItems()) {
-              if (item.isFailed()) {
-                Record record = records.get(item.getItemId());
-                getContext().toError(record, Errors.ELASTICSEARCH_16, item.getFailureMessage());
-              }
-            }
-            break;
-          case STOP_PIPELINE:
-            String msg = bulkResponse.buildFailureMessage();
-            if (msg != null && msg.length() > 100) {
-              msg = msg.substring(0, 100) + " ...";
-            }
-            throw new StageException(Errors.ELASTICSEARCH_17, msg);
-          default:
-            throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
-                                                         getContext().getOnErrorRecord()));
-        }
+
+    if (!failures.isEmpty()) {
+      switch (getContext().getOnErrorRecord()) {
+        case DISCARD:
+          break;
+        case TO_ERROR:
+          for (BulkRequestSender.Failure failure : failures) {
+            Record record = failure.getRecord();
+            getContext().toError(
+                record,
+                Errors.ELASTICSEARCH_16,
+                record.getHeader().getSourceId(),
+                failure.getMessage()
+            );
+          }
+          break;
+        case STOP_PIPELINE:
+          String msg = failures.get(0).getMessage();
+          if (msg != null && msg.length() > 100) {
+            msg = msg.substring(0, 100) + " ...";
+          }
+          throw new StageException(Errors.ELASTICSEARCH_17, failures.size(), msg);
+        default:
+          throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+                                                       getContext().getOnErrorRecord()));
       }
     }
   }
@@ -47,6 +47,8 @@ public enum Errors implements ErrorCode {
   ELASTICSEARCH_19("Document ID expression must be provided to use the upsert option"),
 
   ELASTICSEARCH_20("Invalid Shield user, it must be <USERNAME>:<PASSWORD>: '{}'"),
+
+  ELASTICSEARCH_21("Interrupted while waiting for bulk requests"),
   ;
   private final String msg;
 
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.elasticsearch;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TestBulkRequestSender {
+
+  private static IndexRequest createRequest(String id) {
+    return new IndexRequest("index", "type", id).source(Collections.singletonMap("id", id));
+  }
+
+  // a null status is a successful item
+  @SuppressWarnings("unchecked")
+  private static ActionFuture<BulkResponse> createResponse(RestStatus... statuses) {
+    BulkItemResponse[] items = new BulkItemResponse[statuses.length];
+    boolean hasFailures = false;
+    for (int i = 0; i < statuses.length; i++) {
+      items[i] = Mockito.mock(BulkItemResponse.class);
+      Mockito.when(items[i].getItemId()).thenReturn(i);
+      if (statuses[i] != null) {
+        hasFailures = true;
+        BulkItemResponse.Failure failure = Mockito.mock(BulkItemResponse.Failure.class);
+        Mockito.when(failure.getStatus()).thenReturn(statuses[i]);
+        Mockito.when(items[i].isFailed()).thenReturn(true);
+        Mockito.when(items[i].getFailure()).thenReturn(failure);
+        Mockito.when(items[i].getFailureMessage()).thenReturn(statuses[i].name());
+      }
+    }
+    BulkResponse response = Mockito.mock(BulkResponse.class);
+    Mockito.when(response.getItems()).thenReturn(items);
+    Mockito.when(response.hasFailures()).thenReturn(hasFailures);
+    ActionFuture<BulkResponse> future = Mockito.mock(ActionFuture.class);
+    Mockito.when(future.actionGet()).thenReturn(response);
+    return future;
+  }
+
+  @Test
+  public void testSingleBulkRequest() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenReturn(createResponse(null, null, null));
+
+    BulkRequestSender sender = new BulkRequestSender(client, 0, 1, 0, 0);
+    for (int i = 0; i < 3; i++) {
+      sender.add(RecordCreator.create(), createRequest(String.valueOf(i)));
+    }
+    Assert.assertTrue(sender.finish().isEmpty());
+
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    Mockito.verify(client, Mockito.times(1)).bulk(captor.capture());
+    Assert.assertEquals(3, captor.getValue().numberOfActions());
+  }
+
+  @Test
+  public void testSizeBoundedConcurrentRequests() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    ActionFuture<BulkResponse> first = createResponse((RestStatus) null);
+    ActionFuture<BulkResponse> second = createResponse((RestStatus) null);
+    ActionFuture<BulkResponse> third = createResponse((RestStatus) null);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenReturn(first, second, third);
+
+    // each request goes in its own bulk request, two of them in flight
+    BulkRequestSender sender = new BulkRequestSender(client, 1, 2, 0, 0);
+    sender.add(RecordCreator.create(), createRequest("1"));
+    sender.add(RecordCreator.create(), createRequest("2"));
+    Mockito.verify(first, Mockito.never()).actionGet();
+
+    sender.add(RecordCreator.create(), createRequest("3"));
+    Mockito.verify(first, Mockito.times(1)).actionGet();
+    Mockito.verify(second, Mockito.never()).actionGet();
+
+    Assert.assertTrue(sender.finish().isEmpty());
+    Mockito.verify(client, Mockito.times(3)).bulk(Mockito.any(BulkRequest.class));
+    Mockito.verify(second, Mockito.times(1)).actionGet();
+    Mockito.verify(third, Mockito.times(1)).actionGet();
+  }
+
+  @Test
+  public void testSameDocumentRequestsInOrder() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    ActionFuture<BulkResponse> first = createResponse((RestStatus) null);
+    ActionFuture<BulkResponse> second = createResponse((RestStatus) null);
+    ActionFuture<BulkResponse> third = createResponse((RestStatus) null);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenReturn(first, second, third);
+
+    // up to three requests in flight, but the second one updates the document of the first one
+    BulkRequestSender sender = new BulkRequestSender(client, 1, 3, 0, 0);
+    sender.add(RecordCreator.create(), createRequest("1"));
+    Mockito.verify(first, Mockito.never()).actionGet();
+    sender.add(RecordCreator.create(), createRequest("1"));
+    Mockito.verify(first, Mockito.times(1)).actionGet();
+    sender.add(RecordCreator.create(), createRequest("2"));
+    Mockito.verify(second, Mockito.never()).actionGet();
+
+    Assert.assertTrue(sender.finish().isEmpty());
+    Mockito.verify(client, Mockito.times(3)).bulk(Mockito.any(BulkRequest.class));
+  }
+
+  @Test
+  public void testFailuresMappedToRecords() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class)))
+        .thenReturn(createResponse(null, RestStatus.BAD_REQUEST, RestStatus.TOO_MANY_REQUESTS));
+
+    Record[] records = {RecordCreator.create(), RecordCreator.create(), RecordCreator.create()};
+    BulkRequestSender sender = new BulkRequestSender(client, 0, 1, 0, 0);
+    for (int i = 0; i < records.length; i++) {
+      sender.add(records[i], createRequest(String.valueOf(i)));
+    }
+    List<BulkRequestSender.Failure> failures = sender.finish();
+
+    // without retries rejected records fail too
+    Assert.assertEquals(2, failures.size());
+    Assert.assertSame(records[1], failures.get(0).getRecord());
+    Assert.assertEquals(RestStatus.BAD_REQUEST.name(), failures.get(0).getMessage());
+    Assert.assertSame(records[2], failures.get(1).getRecord());
+  }
+
+  @Test
+  public void testRejectedItemsRetried() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenReturn(
+        createResponse(RestStatus.TOO_MANY_REQUESTS, RestStatus.BAD_REQUEST, RestStatus.TOO_MANY_REQUESTS),
+        createResponse(null, RestStatus.TOO_MANY_REQUESTS),
+        createResponse((RestStatus) null)
+    );
+
+    Record[] records = {RecordCreator.create(), RecordCreator.create(), RecordCreator.create()};
+    BulkRequestSender sender = new BulkRequestSender(client, 0, 1, 2, 0);
+    for (int i = 0; i < records.length; i++) {
+      sender.add(records[i], createRequest(String.valueOf(i)));
+    }
+    List<BulkRequestSender.Failure> failures = sender.finish();
+
+    Assert.assertEquals(1, failures.size());
+    Assert.assertSame(records[1], failures.get(0).getRecord());
+
+    ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+    Mockito.verify(client, Mockito.times(3)).bulk(captor.capture());
+    Assert.assertEquals(3, captor.getAllValues().get(0).numberOfActions());
+    Assert.assertEquals(2, captor.getAllValues().get(1).numberOfActions());
+    Assert.assertEquals(1, captor.getAllValues().get(2).numberOfActions());
+  }
+
+  @Test
+  public void testRetriesExhausted() throws Exception {
+    Client client = Mockito.mock(Client.class);
+    Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenReturn(
+        createResponse(RestStatus.TOO_MANY_REQUESTS),
+        createResponse(RestStatus.TOO_MANY_REQUESTS)
+    );
+
+    Record record = RecordCreator.create();
+    BulkRequestSender sender = new BulkRequestSender(client, 0, 1, 1, 0);
+    sender.add(record, createRequest("1"));
+    List<BulkRequestSender.Failure> failures = sender.finish();
+
+    Assert.assertEquals(1, failures.size());
+    Assert.assertSame(record, failures.get(0).getRecord());
+    Mockito.verify(client, Mockito.times(2)).bulk(Mockito.any(BulkRequest.class));
+  }
+
+}
@@ -45,4 +45,20 @@ public class TestElasticSearchDTargetUpgrader {
     Assert.assertEquals("elasticSearchConfigBean.useElasticCloud", configs.get(3).getName());
   }
 
+  @Test
+  public void testUpgradeV5ToV6() throws Exception {
+    StageUpgrader upgrader = new ElasticSearchDTargetUpgrader();
+
+    List<Config> configs = new ArrayList<>();
+    upgrader.upgrade("l", "s", "i", 5, 6, configs);
+
+    Assert.assertEquals(4, configs.size());
+    Assert.assertEquals("elasticSearchConfigBean.maxBulkRequestSizeKB", configs.get(0).getName());
+    Assert.assertEquals(0, configs.get(0).getValue());
+    Assert.assertEquals("elasticSearchConfigBean.maxConcurrentBulkRequests", configs.get(1).getName());
+    Assert.assertEquals(1, configs.get(1).getValue());
+    Assert.assertEquals("elasticSearchConfigBean.maxBulkRetries", configs.get(2).getName());
+    Assert.assertEquals("elasticSearchConfigBean.bulkRetryBackoff", configs.get(3).getName());
+  }
+
 }
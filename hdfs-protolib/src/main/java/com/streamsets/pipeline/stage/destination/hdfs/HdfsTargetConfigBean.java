@@ -416,6 +416,19 @@ public class HdfsTargetConfigBean {
   )
   public boolean hdfsPermissionCheck;
 
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "1",
+    label = "File Operation Threads",
+    description = "Number of threads flushing, closing and renaming the output files in parallel. " +
+        "Use more than one thread when many files are open at the same time.",
+    displayPosition = 235,
+    group = "OUTPUT_FILES",
+    min = 1
+  )
+  public int fileOperationThreads = 1;
+
   //Optional if empty file is created with default umask.
   @ConfigDef(
       required = false,
@@ -587,7 +600,7 @@ public class HdfsTargetConfigBean {
 
         // We're skipping all hdfs-target-directory related validations if we're getting the configuration from header
         if(dirPathTemplateInHeader) {
-          currentWriters = new ActiveRecordWriters(mgr);
+          currentWriters = new ActiveRecordWriters(mgr, fileOperationThreads);
         } else {
           // validate if the dirPathTemplate can be resolved by Els constants
           if (mgr.validateDirTemplate(
@@ -603,7 +616,7 @@ public class HdfsTargetConfigBean {
               Groups.OUTPUT_FILES.name(),
               newDirPath, issues
             )) {
-              currentWriters = new ActiveRecordWriters(mgr);
+              currentWriters = new ActiveRecordWriters(mgr, fileOperationThreads);
             }
           }
         }
@@ -659,7 +672,7 @@ public class HdfsTargetConfigBean {
                     Groups.LATE_RECORDS.name(),
                     newLateRecordPath, issues
             )) {
-              lateWriters = new ActiveRecordWriters(mgr);
+              lateWriters = new ActiveRecordWriters(mgr, fileOperationThreads);
             }
           }
         } catch (Exception ex) {
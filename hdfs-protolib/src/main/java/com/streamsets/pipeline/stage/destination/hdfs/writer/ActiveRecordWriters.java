@@ -21,19 +21,31 @@ package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 public class ActiveRecordWriters {
@@ -73,14 +85,34 @@ public class ActiveRecordWriters {
     }
   }
 
+  // An operation run on several writers, possibly in parallel
+  private interface WriterOperation {
+    void run(RecordWriter writer) throws IOException, StageException;
+  }
+
   private final RecordWriterManager manager;
-  private Map<String, RecordWriter> writers;
+  private ConcurrentMap<String, RecordWriter> writers;
   private DelayQueue<DelayedRecordWriter> cutOffQueue;
+  private ExecutorService fileOperationsExecutor;
 
   public ActiveRecordWriters(RecordWriterManager manager) {
-    writers = new HashMap<>();
+    this(manager, 1);
+  }
+
+  /**
+   * @param fileOperationThreads number of threads flushing, closing and renaming files of different writers in
+   * parallel, with 1 these operations run in the calling thread.
+   */
+  public ActiveRecordWriters(RecordWriterManager manager, int fileOperationThreads) {
+    writers = new ConcurrentHashMap<>();
     cutOffQueue = new DelayQueue<>();
     this.manager = manager;
+    if (fileOperationThreads > 1) {
+      fileOperationsExecutor = Executors.newFixedThreadPool(
+          fileOperationThreads,
+          new ThreadFactoryBuilder().setNameFormat("File Operations Thread-%d").setDaemon(true).build()
+      );
+    }
   }
 
   public void commitOldFiles(FileSystem fs) throws IOException, StageException {
@@ -91,30 +123,30 @@ public class ActiveRecordWriters {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Purge");
     }
+    List<RecordWriter> expired = new ArrayList<>();
     DelayedRecordWriter delayedWriter = cutOffQueue.poll();
     while (delayedWriter != null) {
       if (!delayedWriter.getWriter().isClosed()) {
         if (IS_TRACE_ENABLED) {
           LOG.trace("Purging '{}'", delayedWriter.getWriter().getPath());
         }
-        //We are fine no lock on writer needed.
-        synchronized (this) {
-          writers.remove(delayedWriter.getWriter().getPath().toString());
-        }
-        manager.commitWriter(delayedWriter.getWriter());
+        writers.remove(delayedWriter.getWriter().getPath().toString(), delayedWriter.getWriter());
+        expired.add(delayedWriter.getWriter());
       }
       delayedWriter = cutOffQueue.poll();
     }
+    // at roll time all the files of the previous period expire together, commit them in parallel
+    runOnWriters(expired, new WriterOperation() {
+      @Override
+      public void run(RecordWriter writer) throws IOException, StageException {
+        manager.commitWriter(writer);
+      }
+    });
   }
 
   public RecordWriter get(Date now, Date recordDate, Record record) throws StageException, IOException {
     String path = manager.getPath(recordDate, record).toString();
-    RecordWriter writer = null;
-
-    //We are fine no lock on writer needed.
-    synchronized (this) {
-      writer = writers.get(path);
-    }
+    RecordWriter writer = writers.get(path);
 
     if(writer != null && manager.shouldRoll(writer, record)) {
       release(writer, true);
@@ -128,11 +160,7 @@ public class ActiveRecordWriters {
           LOG.trace("Got '{}'", writer.getPath());
         }
         writer.setActiveRecordWriters(this);
-
-        //We are fine no lock on writer needed.
-        synchronized(this) {
-          writers.put(path, writer);
-        }
+        writers.put(path, writer);
         cutOffQueue.add(new DelayedRecordWriter(writer));
       }
     }
@@ -161,7 +189,7 @@ public class ActiveRecordWriters {
         if (IS_TRACE_ENABLED) {
           LOG.trace("Release '{}'", writer.getPath());
         }
-        writers.remove(writer.getPath().toString());
+        writers.remove(writer.getPath().toString(), writer);
         manager.commitWriter(writer);
       }
     } finally {
@@ -174,15 +202,23 @@ public class ActiveRecordWriters {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Flush all '{}'", toString());
     }
-    for (RecordWriter writer : writers.values()) {
-      if (!writer.isClosed()) {
-        try {
-          writer.flush();
-        } catch (IOException ex) {
-          String msg = Utils.format("Error flushing writer {} : {}", writer, ex);
-          LOG.warn(msg, ex);
+    try {
+      runOnWriters(writers.values(), new WriterOperation() {
+        @Override
+        public void run(RecordWriter writer) {
+          if (!writer.isClosed()) {
+            try {
+              writer.flush();
+            } catch (IOException ex) {
+              String msg = Utils.format("Error flushing writer {} : {}", writer, ex);
+              LOG.warn(msg, ex);
+            }
+          }
         }
-      }
+      });
+    } catch (IOException | StageException ex) {
+      // flush errors of the writers are logged by the operation itself
+      LOG.warn("Error flushing writers: {}", ex.toString(), ex);
     }
   }
 
@@ -190,23 +226,92 @@ public class ActiveRecordWriters {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Close all '{}'", toString());
     }
-    if(writers != null) {
-      for (RecordWriter writer : writers.values()) {
-        writer.closeLock();
-        try {
-          if (!writer.isClosed()) {
-            manager.commitWriter(writer);
+    try {
+      if (writers != null) {
+        runOnWriters(writers.values(), new WriterOperation() {
+          @Override
+          public void run(RecordWriter writer) throws StageException {
+            writer.closeLock();
+            try {
+              if (!writer.isClosed()) {
+                manager.commitWriter(writer);
+              }
+            } catch (IOException ex) {
+              String msg = Utils.format("Error closing writer {} : {}", writer, ex);
+              LOG.warn(msg, ex);
+            } finally {
+              writer.closeUnlock();
+            }
           }
-        } catch (IOException ex) {
-          String msg = Utils.format("Error closing writer {} : {}", writer, ex);
-          LOG.warn(msg, ex);
-        } finally {
-          writer.closeUnlock();
+        });
+      }
+    } catch (IOException ex) {
+      // close errors of the writers are logged by the operation itself
+      LOG.warn("Error closing writers: {}", ex.toString(), ex);
+    } finally {
+      // all the operations have completed by now, nothing is interrupted
+      if (fileOperationsExecutor != null) {
+        fileOperationsExecutor.shutdown();
+      }
+      writers = null;
+      cutOffQueue = null;
+    }
+  }
+
+  /**
+   * Runs the operation on all the writers, in parallel if there are file operation threads, and returns once it
+   * completed for all of them. The first error is thrown after all the operations finished.
+   * <p/>
+   * The operations only take the writers locks, callers may hold the lock of this object.
+   * <p/>
+   * The wait is not interruptible: the pipeline thread is interrupted when the pipeline stops and the files must
+   * still be closed and renamed, as in {@link RecordWriterManager#commitWriter(RecordWriter)}. The interrupt flag is
+   * restored once all the operations completed.
+   */
+  private void runOnWriters(Collection<RecordWriter> writers, final WriterOperation operation)
+      throws IOException, StageException {
+    if (fileOperationsExecutor == null || writers.size() < 2) {
+      for (RecordWriter writer : writers) {
+        operation.run(writer);
+      }
+      return;
+    }
+    // file system calls have to be done as the user of the calling thread
+    final UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+    List<Future<Void>> futures = new ArrayList<>(writers.size());
+    for (final RecordWriter writer : writers) {
+      futures.add(fileOperationsExecutor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          return ugi.doAs(new PrivilegedExceptionAction<Void>() {
+            @Override
+            public Void run() throws Exception {
+              operation.run(writer);
+              return null;
+            }
+          });
+        }
+      }));
+    }
+    Throwable error = null;
+    for (Future<Void> future : futures) {
+      try {
+        Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException ex) {
+        if (error == null) {
+          error = ex.getCause();
         }
       }
     }
-    writers = null;
-    cutOffQueue = null;
+    if (error instanceof StageException) {
+      throw (StageException) error;
+    } else if (error instanceof IOException) {
+      throw (IOException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error != null) {
+      throw new IOException(Utils.format("File operation failed: {}", error), error);
+    }
   }
 
 }
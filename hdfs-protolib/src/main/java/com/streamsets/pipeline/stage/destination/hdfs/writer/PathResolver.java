@@ -33,11 +33,13 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.stage.destination.hdfs.Errors;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.regex.Pattern;
 
 public class PathResolver {
   private static final String VALIDATE_CONTEXT = "validateContext";
@@ -58,8 +60,19 @@ public class PathResolver {
       put("YYYY", Calendar.YEAR).put("MM", Calendar.MONTH).put("DD", Calendar.DAY_OF_MONTH).
       put("hh", Calendar.HOUR_OF_DAY).put("mm", Calendar.MINUTE).put("ss", Calendar.SECOND).build();
 
+  // template expressions whose value only depends on the time bucket
+  private static final Pattern TIME_ONLY_EL = Pattern.compile(
+      "\\$\\{\\s*((YYYY|YY|MM|DD|hh|mm|ss)\\s*\\(\\s*\\)" +
+          "|every\\s*\\(\\s*\\d+\\s*,\\s*(YYYY|YY|MM|DD|hh|mm|ss)\\s*\\(\\s*\\)\\s*\\))\\s*\\}"
+  );
+
   private final Stage.Context context;
   private final String pathTemplate;
+  // template split in literals and expressions, null if the template could not be split
+  private final List<String> segments;
+  private final boolean[] recordSegments;
+  private final boolean hasRecordSegments;
+  private volatile TimeBucket timeBucket;
   private int incrementUnit;
   private int incrementValue;
   private final TimeZone timeZone;
@@ -75,6 +88,78 @@ public class PathResolver {
     elVars = context.createELVars();
     freqEdgeElEval = context.createELEval(config, FrequencyEdgeEL.class);
     pathEval = context.createELEval(config);
+    segments = splitTemplate(pathTemplate);
+    boolean anyRecordSegment = false;
+    if (segments != null) {
+      recordSegments = new boolean[segments.size()];
+      for (int i = 0; i < segments.size(); i++) {
+        String segment = segments.get(i);
+        recordSegments[i] = segment.startsWith("${") && !TIME_ONLY_EL.matcher(segment).matches();
+        anyRecordSegment |= recordSegments[i];
+      }
+    } else {
+      recordSegments = null;
+    }
+    hasRecordSegments = anyRecordSegment;
+  }
+
+  /**
+   * Splits a template in literal text and <code>${...}</code> expressions, returns null if the expressions are
+   * not balanced.
+   */
+  static List<String> splitTemplate(String template) {
+    List<String> segments = new ArrayList<>();
+    int literalStart = 0;
+    int i = 0;
+    while (i < template.length()) {
+      if (template.startsWith("${", i)) {
+        int end = findExpressionEnd(template, i + 2);
+        if (end < 0) {
+          return null;
+        }
+        if (literalStart < i) {
+          segments.add(template.substring(literalStart, i));
+        }
+        segments.add(template.substring(i, end + 1));
+        i = end + 1;
+        literalStart = i;
+      } else if (template.charAt(i) == '\\') {
+        // escaped expressions are left to the EL evaluator
+        return null;
+      } else {
+        i++;
+      }
+    }
+    if (literalStart < template.length()) {
+      segments.add(template.substring(literalStart));
+    }
+    return segments;
+  }
+
+  // returns the index of the '}' closing the expression starting at the given index, -1 if there is none
+  private static int findExpressionEnd(String template, int start) {
+    char quote = 0;
+    int depth = 0;
+    for (int i = start; i < template.length(); i++) {
+      char c = template.charAt(i);
+      if (quote != 0) {
+        if (c == '\\') {
+          i++;
+        } else if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '{') {
+        depth++;
+      } else if (c == '}') {
+        if (depth == 0) {
+          return i;
+        }
+        depth--;
+      }
+    }
+    return -1;
   }
 
   public static class ValidateEL {
@@ -367,22 +452,101 @@ public class PathResolver {
     return date;
   }
 
+  /**
+   * Literals and time only expressions of the template resolved for all the dates in [floor, ceiling].
+   */
+  private static class TimeBucket {
+    private final Date floor;
+    private final Date ceiling;
+    private final Calendar calendar;
+    // resolved segments, null for the record dependent ones
+    private final String[] values;
+    // the resolved path if the template has no record dependent segment
+    private final String path;
+
+    TimeBucket(Date floor, Date ceiling, Calendar calendar, String[] values, String path) {
+      this.floor = floor;
+      this.ceiling = ceiling;
+      this.calendar = calendar;
+      this.values = values;
+      this.path = path;
+    }
+
+    boolean contains(Date date) {
+      // a template without time functions resolves to the same values for all dates
+      return floor == null || (!date.before(floor) && !date.after(ceiling));
+    }
+  }
+
+  private TimeBucket getTimeBucket(Date date) throws ELEvalException {
+    TimeBucket bucket = timeBucket;
+    if (bucket != null && bucket.contains(date)) {
+      return bucket;
+    }
+    Date floor = getFloorDate(date);
+    Date ceiling = null;
+    Calendar calendar = null;
+    ELVars vars = context.createELVars();
+    if (floor != null) {
+      ceiling = getCeilingDate(date);
+      calendar = Calendar.getInstance(timeZone);
+      calendar.setTime(floor);
+      TimeEL.setCalendarInContext(vars, calendar);
+    }
+    String[] values = new String[segments.size()];
+    StringBuilder path = new StringBuilder();
+    for (int i = 0; i < segments.size(); i++) {
+      if (!recordSegments[i]) {
+        String segment = segments.get(i);
+        values[i] = segment.startsWith("${") ? pathEval.eval(vars, segment, String.class) : segment;
+        path.append(values[i]);
+      }
+    }
+    bucket = new TimeBucket(floor, ceiling, calendar, values, hasRecordSegments ? null : path.toString());
+    timeBucket = bucket;
+    return bucket;
+  }
+
   String resolvePath(Date date, Record record) throws StageException {
     try {
+      if (segments == null) {
+        return evaluatePath(date, record);
+      }
+      TimeBucket bucket = getTimeBucket(date);
+      if (!hasRecordSegments) {
+        return bucket.path;
+      }
       ELVars vars = context.createELVars();
       RecordEL.setRecordInContext(vars, record);
-      date = getFloorDate(date);
-      if (date != null) {
-        Calendar calendar = Calendar.getInstance(timeZone);
-        calendar.setTime(date);
-        TimeEL.setCalendarInContext(vars, calendar);
+      if (bucket.calendar != null) {
+        TimeEL.setCalendarInContext(vars, bucket.calendar);
+      }
+      StringBuilder path = new StringBuilder();
+      for (int i = 0; i < segments.size(); i++) {
+        if (recordSegments[i]) {
+          path.append(pathEval.eval(vars, segments.get(i), String.class));
+        } else {
+          path.append(bucket.values[i]);
+        }
       }
-      return pathEval.eval(vars, pathTemplate, String.class);
+      return path.toString();
     } catch (ELEvalException ex) {
       throw new StageException(Errors.HADOOPFS_02, pathTemplate, ex.toString(), ex);
     }
   }
 
+  private String evaluatePath(Date date, Record record) throws ELEvalException {
+    ELVars vars = context.createELVars();
+    RecordEL.setRecordInContext(vars, record);
+    date = getFloorDate(date);
+    if (date != null) {
+      Calendar calendar = Calendar.getInstance(timeZone);
+      calendar.setTime(date);
+      TimeEL.setCalendarInContext(vars, calendar);
+    }
+    return pathEval.eval(vars, pathTemplate, String.class);
+  }
+
   public static class TimeIncrementUnitEL {
 
     private TimeIncrementUnitEL() {}
@@ -37,8 +37,10 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -213,4 +215,99 @@ public class TestActiveRecordWriters {
     Assert.assertEquals(0, files.length);
   }
 
+  @Test
+  public void testParallelFileOperations() throws Exception {
+    RecordWriterManager mgr = new RecordWriterManagerTestBuilder()
+      .context(ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testParallelFileOperations", false, OnRecordError.TO_ERROR, null))
+      .dirPathTemplate(getTestDir().toString() + "/${record:value('/')}")
+      .build();
+
+    ActiveRecordWriters writers = new ActiveRecordWriters(mgr, 3);
+
+    Date now = new Date();
+    List<RecordWriter> openWriters = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create("dir" + i));
+      RecordWriter writer = writers.get(now, now, record);
+      Assert.assertNotNull(writer);
+      writer.write(record);
+      writers.release(writer, false);
+      openWriters.add(writer);
+    }
+    writers.flushAll();
+    for (RecordWriter writer : openWriters) {
+      Assert.assertFalse(writer.isClosed());
+    }
+
+    Thread.sleep(3001);
+    writers.purge();
+    //purging should close and commit all the writers as the cutoff kicked in
+    for (RecordWriter writer : openWriters) {
+      Assert.assertTrue(writer.isClosed());
+    }
+    Assert.assertEquals(0, writers.getActiveWritersCount());
+    for (int i = 0; i < 5; i++) {
+      File[] files = new File(getTestDir().toString(), "dir" + i).listFiles(new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+          return name.startsWith("prefix");
+        }
+      });
+      Assert.assertEquals(1, files.length);
+    }
+
+    //verifying closeAll() closes writers
+    openWriters.clear();
+    for (int i = 0; i < 5; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create("dir" + i));
+      openWriters.add(writers.get(new Date(), new Date(), record));
+    }
+    writers.closeAll();
+    for (RecordWriter writer : openWriters) {
+      Assert.assertTrue(writer.isClosed());
+    }
+  }
+
+  @Test
+  public void testParallelCloseAllWhenInterrupted() throws Exception {
+    RecordWriterManager mgr = new RecordWriterManagerTestBuilder()
+      .context(ContextInfoCreator.createTargetContext(HdfsDTarget.class, "testParallelCloseAllWhenInterrupted", false, OnRecordError.TO_ERROR, null))
+      .dirPathTemplate(getTestDir().toString() + "/${record:value('/')}")
+      .build();
+
+    ActiveRecordWriters writers = new ActiveRecordWriters(mgr, 3);
+
+    List<RecordWriter> openWriters = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Record record = RecordCreator.create();
+      record.set(Field.create("dir" + i));
+      RecordWriter writer = writers.get(new Date(), new Date(), record);
+      writer.write(record);
+      openWriters.add(writer);
+    }
+
+    // the pipeline thread is interrupted when stopping the pipeline
+    Thread.currentThread().interrupt();
+    try {
+      writers.closeAll();
+    } finally {
+      // the interrupt flag is kept
+      Assert.assertTrue(Thread.interrupted());
+    }
+    for (RecordWriter writer : openWriters) {
+      Assert.assertTrue(writer.isClosed());
+    }
+    for (int i = 0; i < 5; i++) {
+      File[] files = new File(getTestDir().toString(), "dir" + i).listFiles(new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+          return name.startsWith("_tmp_");
+        }
+      });
+      Assert.assertEquals(0, files.length);
+    }
+  }
+
 }
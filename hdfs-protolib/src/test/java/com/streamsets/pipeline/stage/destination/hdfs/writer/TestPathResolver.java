@@ -19,7 +19,10 @@
  */
 package com.streamsets.pipeline.stage.destination.hdfs.writer;
 
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import com.streamsets.pipeline.sdk.RecordCreator;
@@ -30,6 +33,7 @@ import org.junit.Test;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
@@ -278,4 +282,41 @@ public class TestPathResolver {
     Assert.assertEquals(expected, got);
 
   }
+
+  @Test
+  public void testSplitTemplate() {
+    Assert.assertEquals(
+        Arrays.asList("/", "${YYYY()}", "/x-", "${record:value('/a}')}", "/", "${every(15, mm())}"),
+        PathResolver.splitTemplate("/${YYYY()}/x-${record:value('/a}')}/${every(15, mm())}")
+    );
+    Assert.assertEquals(Arrays.asList("/foo"), PathResolver.splitTemplate("/foo"));
+    Assert.assertNull(PathResolver.splitTemplate("/${YYYY()"));
+  }
+
+  @Test
+  public void testResolvePathWithRecordValues() throws Exception {
+    String template = "/${YYYY()}/${MM()}/${DD()}/${hh()}/${record:value('/a')}/${every(15, mm())}";
+    PathResolver resolver = getPathTemplateEL(template);
+
+    Record x = RecordCreator.create();
+    x.set(Field.create(ImmutableMap.of("a", Field.create("x"))));
+    Record y = RecordCreator.create();
+    y.set(Field.create(ImmutableMap.of("a", Field.create("y"))));
+
+    Assert.assertEquals("/2015/01/20/14/x/00", resolver.resolvePath(parseDate("2015-01-20T14:01:15Z"), x));
+    Assert.assertEquals("/2015/01/20/14/y/00", resolver.resolvePath(parseDate("2015-01-20T14:14:59Z"), y));
+    // next time bucket
+    Assert.assertEquals("/2015/01/20/14/x/15", resolver.resolvePath(parseDate("2015-01-20T14:15:00Z"), x));
+    // going back to a previous time bucket
+    Assert.assertEquals("/2015/01/20/13/y/45", resolver.resolvePath(parseDate("2015-01-20T13:59:59Z"), y));
+    Assert.assertEquals("/2015/01/21/00/y/00", resolver.resolvePath(parseDate("2015-01-21T00:00:00Z"), y));
+  }
+
+  @Test
+  public void testResolvePathTimeOnlyTemplate() throws Exception {
+    PathResolver resolver = getPathTemplateEL("/out/${YYYY()}-${MM()}-${DD()}-${hh()}");
+    Assert.assertEquals("/out/2015-01-20-14", resolver.resolvePath(parseDate("2015-01-20T14:00:00Z"), null));
+    Assert.assertEquals("/out/2015-01-20-14", resolver.resolvePath(parseDate("2015-01-20T14:59:59Z"), null));
+    Assert.assertEquals("/out/2015-01-20-15", resolver.resolvePath(parseDate("2015-01-20T15:00:00Z"), null));
+  }
 }
@@ -88,7 +88,13 @@ public enum JdbcErrors implements ErrorCode {
   JDBC_65("Invalid value {} for Fetch Size Configuration should not be more than maxBatchSize"),
   JDBC_66("No Tables matches the configuration in the origin."),
   JDBC_67("Internal Error : {}"),
-  JDBC_68("Tables Referring to each other in cyclic fashion.")
+  JDBC_68("Tables Referring to each other in cyclic fashion."),
+  JDBC_69("No results for key '{}' using query: '{}'"),
+  JDBC_70("Batch lookup query must contain a single '?' placeholder for the lookup keys: '{}'"),
+  JDBC_71("Number of threads '{}' should not be greater than the maximum pool size '{}'"),
+  JDBC_72("Table '{}' can only be split in range partitions with a single numeric, date or timestamp offset column"),
+  JDBC_73("Batch lookup query cannot contain expressions, the keys come from the Key Expression: '{}'"),
+  JDBC_74("Table pattern '{}' is split in '{}' range partitions, which needs more than one thread"),
   ;
 
   private final String msg;
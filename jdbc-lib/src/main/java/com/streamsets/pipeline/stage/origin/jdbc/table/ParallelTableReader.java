@@ -0,0 +1,278 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the tables with a number of threads, each thread with its own connection from the pool.
+ * <p/>
+ * The tables, or their range partitions, are handed out to the threads by a {@link TableReadScheduler}. The threads put the records, along with
+ * the table offsets after them, in a bounded queue which is drained by the pipeline thread in
+ * {@link #poll(int, long)}. Errors are queued as well so they are reported from the pipeline thread.
+ * <p/>
+ * The threads keep their own read offsets, the offsets in the source offset only move forward for the records
+ * given to the pipeline, so records still in the queue when the pipeline stops are read again on restart.
+ */
+final class ParallelTableReader {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelTableReader.class);
+  private static final long STOP_TIMEOUT_SECS = 10;
+
+  /**
+   * A record read from a table or an error to report.
+   */
+  static final class ReadResult {
+    private final Record record;
+    private final String offsetKey;
+    private final String offset;
+    private final ErrorCode errorCode;
+    private final Object[] params;
+
+    private ReadResult(Record record, String offsetKey, String offset, ErrorCode errorCode, Object[] params) {
+      this.record = record;
+      this.offsetKey = offsetKey;
+      this.offset = offset;
+      this.errorCode = errorCode;
+      this.params = params;
+    }
+
+    boolean isError() {
+      return errorCode != null;
+    }
+
+    Record getRecord() {
+      return record;
+    }
+
+    String getOffsetKey() {
+      return offsetKey;
+    }
+
+    String getOffset() {
+      return offset;
+    }
+
+    ErrorCode getErrorCode() {
+      return errorCode;
+    }
+
+    Object[] getParams() {
+      return params;
+    }
+  }
+
+  private final Source.Context context;
+  private final HikariDataSource hikariDataSource;
+  private final TableReadScheduler scheduler;
+  private final int numberOfThreads;
+  private final CommonSourceConfigBean commonSourceConfigBean;
+  private final TableJdbcConfigBean tableJdbcConfigBean;
+  private final Map<String, Object> gaugeMap;
+  private final BlockingQueue<ReadResult> results;
+  private final Map<String, String> readOffsets;
+  private ExecutorService executorService;
+
+  ParallelTableReader(
+      Source.Context context,
+      HikariDataSource hikariDataSource,
+      TableOrderProvider tableOrderProvider,
+      Map<String, List<TableContext>> tableRangePartitions,
+      int numberOfThreads,
+      CommonSourceConfigBean commonSourceConfigBean,
+      TableJdbcConfigBean tableJdbcConfigBean,
+      Map<String, Object> gaugeMap
+  ) {
+    this.context = context;
+    this.hikariDataSource = hikariDataSource;
+    this.scheduler = new TableReadScheduler(
+        tableOrderProvider,
+        tableRangePartitions,
+        commonSourceConfigBean.queryInterval * 1000
+    );
+    this.numberOfThreads = numberOfThreads;
+    this.commonSourceConfigBean = commonSourceConfigBean;
+    this.tableJdbcConfigBean = tableJdbcConfigBean;
+    this.gaugeMap = gaugeMap;
+    results = new ArrayBlockingQueue<>(commonSourceConfigBean.maxBatchSize);
+    readOffsets = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Starts the reader threads.
+   * @param offsets the table offsets to start reading from.
+   */
+  void start(Map<String, String> offsets) {
+    for (Map.Entry<String, String> offset : offsets.entrySet()) {
+      //Range partitions not read yet have no offset
+      if (offset.getValue() != null) {
+        readOffsets.put(offset.getKey(), offset.getValue());
+      }
+    }
+    executorService = Executors.newFixedThreadPool(
+        numberOfThreads,
+        new ThreadFactoryBuilder().setNameFormat("TableJdbcSource-reader-%d").setDaemon(true).build()
+    );
+    for (int i = 0; i < numberOfThreads; i++) {
+      executorService.submit(new ReaderRunnable());
+    }
+    LOG.info("Started '{}' table reader threads", numberOfThreads);
+  }
+
+  /**
+   * Returns up to the given number of results, waiting up to the given time for the first one.
+   */
+  List<ReadResult> poll(int maxResults, long timeoutMillis) throws InterruptedException {
+    List<ReadResult> batch = new ArrayList<>(maxResults);
+    ReadResult first = results.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    if (first != null) {
+      batch.add(first);
+      results.drainTo(batch, maxResults - 1);
+    }
+    return batch;
+  }
+
+  /**
+   * Stops the reader threads, the threads close their connections.
+   */
+  void stop() {
+    scheduler.stop();
+    if (executorService != null) {
+      executorService.shutdownNow();
+      try {
+        if (!executorService.awaitTermination(STOP_TIMEOUT_SECS, TimeUnit.SECONDS)) {
+          LOG.warn("Table reader threads did not stop in '{}' seconds", STOP_TIMEOUT_SECS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void putError(ErrorCode errorCode, Object... params) throws InterruptedException {
+    results.put(new ReadResult(null, null, null, errorCode, params));
+  }
+
+  private class ReaderRunnable implements Runnable, TableReader.RecordSink, ErrorRecordHandler {
+    private final TableReader tableReader;
+    private Connection connection;
+
+    ReaderRunnable() {
+      tableReader = new TableReader(context, commonSourceConfigBean, tableJdbcConfigBean, this, gaugeMap);
+    }
+
+    @Override
+    public boolean add(TableContext tableContext, Record record, String offset) throws InterruptedException {
+      results.put(new ReadResult(record, tableContext.getOffsetKey(), offset, null, null));
+      readOffsets.put(tableContext.getOffsetKey(), offset);
+      return true;
+    }
+
+    @Override
+    public void onError(ErrorCode errorCode, Object... params) throws StageException {
+      try {
+        putError(errorCode, params);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void onError(OnRecordErrorException error) throws StageException {
+      onError(error.getErrorCode(), error.getParams());
+    }
+
+    @Override
+    public void onError(List<Record> batch, StageException error) throws StageException {
+      onError(error.getErrorCode(), error.getParams());
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!Thread.currentThread().isInterrupted()) {
+          TableContext tableContext;
+          try {
+            tableContext = scheduler.next();
+          } catch (SQLException | ExecutionException | StageException e) {
+            LOG.debug("Failure happened when fetching nextTable", e);
+            putError(JdbcErrors.JDBC_67, e);
+            Thread.sleep(commonSourceConfigBean.queryInterval * 1000);
+            continue;
+          }
+          if (tableContext == null) {
+            break;
+          }
+          int recordCount = 0;
+          try {
+            connection = (connection == null) ? hikariDataSource.getConnection() : connection;
+            recordCount = tableReader.read(
+                connection,
+                tableContext,
+                readOffsets.get(tableContext.getOffsetKey()),
+                this
+            );
+          } catch (SQLException e) {
+            String formattedError = JdbcUtil.formatSqlException(e);
+            LOG.debug(formattedError, e);
+            JdbcUtil.closeQuietly(connection);
+            connection = null;
+            putError(JdbcErrors.JDBC_34, tableReader.getLastQuery(), formattedError);
+          } catch (StageException e) {
+            LOG.debug("Failure happened when reading table {}", tableContext.getOffsetKey(), e);
+            putError(e.getErrorCode(), e.getParams());
+          } finally {
+            scheduler.complete(tableContext, recordCount);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        if (connection != null) {
+          JdbcUtil.closeQuietly(connection);
+        }
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ import com.streamsets.pipeline.stage.origin.jdbc.table.util.TopologicalSorter;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -72,6 +73,12 @@ public final class ReferentialTblOrderProvider extends TableOrderProvider.BaseTa
     areAllEdgesConstructed = false;
   }
 
+  @Override
+  public Collection<String> getPrecedingTables(String qualifiedTableName) {
+    //Referred tables are the source of the edges to the table.
+    return directedGraph.getInwardEdgeVertices(qualifiedTableName);
+  }
+
   @Override
   public Queue<String> calculateOrGetOrder() throws SQLException, ExecutionException, StageException {
     if (!areAllEdgesConstructed) {
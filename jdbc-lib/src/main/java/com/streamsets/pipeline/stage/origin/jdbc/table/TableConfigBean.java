@@ -104,4 +104,19 @@ public final class TableConfigBean {
       evaluation = ConfigDef.Evaluation.EXPLICIT
   )
   public String extraOffsetColumnConditions;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Number of Range Partitions",
+      description = "Splits the table in ranges of the offset column read concurrently, each range tracking its own" +
+          " offset. Needs a single numeric, date or timestamp offset column and more than one thread.",
+      displayPosition = 90,
+      defaultValue = "1",
+      min = 1,
+      group = "JDBC"
+  )
+  public int numberOfRangePartitions = DEFAULT_NUMBER_OF_RANGE_PARTITIONS;
+
+  public static final int DEFAULT_NUMBER_OF_RANGE_PARTITIONS = 1;
 }
@@ -20,17 +20,23 @@
 package com.streamsets.pipeline.stage.origin.jdbc.table;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public final class TableContext {
+  private static final String PARTITION_KEY_SEPARATOR = "#";
+  private static final String PARTITION_RANGE_SEPARATOR = "..";
 
   private final String schema;
   private final String tableName;
   private final LinkedHashMap<String, Integer> partitionColumnToType;
   private final Map<String, String> partitionColumnToStartOffset;
   private final String extraOffsetColumnConditions;
+  private final int numberOfRangePartitions;
+  private final String rangeStart;
+  private final String rangeEnd;
 
   TableContext(
       String schema,
@@ -38,12 +44,87 @@ public final class TableContext {
       LinkedHashMap<String, Integer> partitionColumnToType,
       Map<String, String> partitionColumnToStartOffset,
       String extraOffsetColumnConditions
+  ) {
+    this(schema, tableName, partitionColumnToType, partitionColumnToStartOffset, extraOffsetColumnConditions, 1);
+  }
+
+  TableContext(
+      String schema,
+      String tableName,
+      LinkedHashMap<String, Integer> partitionColumnToType,
+      Map<String, String> partitionColumnToStartOffset,
+      String extraOffsetColumnConditions,
+      int numberOfRangePartitions
+  ) {
+    this(
+        schema,
+        tableName,
+        partitionColumnToType,
+        partitionColumnToStartOffset,
+        extraOffsetColumnConditions,
+        numberOfRangePartitions,
+        null,
+        null
+    );
+  }
+
+  private TableContext(
+      String schema,
+      String tableName,
+      LinkedHashMap<String, Integer> partitionColumnToType,
+      Map<String, String> partitionColumnToStartOffset,
+      String extraOffsetColumnConditions,
+      int numberOfRangePartitions,
+      String rangeStart,
+      String rangeEnd
   ) {
     this.schema = schema;
     this.tableName = tableName;
     this.partitionColumnToType = partitionColumnToType;
     this.partitionColumnToStartOffset = partitionColumnToStartOffset;
     this.extraOffsetColumnConditions = extraOffsetColumnConditions;
+    this.numberOfRangePartitions = numberOfRangePartitions;
+    this.rangeStart = rangeStart;
+    this.rangeEnd = rangeEnd;
+  }
+
+  /**
+   * Creates the context for a range of the table partition column, read and tracked on its own.
+   * @param rangeStart inclusive start of the range, null for no lower bound.
+   * @param rangeEnd exclusive end of the range, null for no upper bound.
+   * @return the context for the range.
+   */
+  TableContext createRangePartition(String rangeStart, String rangeEnd) {
+    return new TableContext(
+        schema,
+        tableName,
+        partitionColumnToType,
+        //Each range clears its own initial offset.
+        new HashMap<>(partitionColumnToStartOffset),
+        extraOffsetColumnConditions,
+        numberOfRangePartitions,
+        rangeStart,
+        rangeEnd
+    );
+  }
+
+  /**
+   * Returns the range partition for an offset key returned by {@link #getOffsetKey()} for a range of this table.
+   * @return the range partition or null if the key is not the key of a range of this table.
+   */
+  TableContext createRangePartitionForOffsetKey(String offsetKey) {
+    String prefix = tableName + PARTITION_KEY_SEPARATOR;
+    if (!offsetKey.startsWith(prefix)) {
+      return null;
+    }
+    String range = offsetKey.substring(prefix.length());
+    int separatorIdx = range.indexOf(PARTITION_RANGE_SEPARATOR);
+    if (separatorIdx < 0) {
+      return null;
+    }
+    String start = range.substring(0, separatorIdx);
+    String end = range.substring(separatorIdx + PARTITION_RANGE_SEPARATOR.length());
+    return createRangePartition(start.isEmpty() ? null : start, end.isEmpty() ? null : end);
   }
 
   public String getSchema() {
@@ -78,4 +159,32 @@ public final class TableContext {
   public String getExtraOffsetColumnConditions() {
     return extraOffsetColumnConditions;
   }
+
+  public int getNumberOfRangePartitions() {
+    return numberOfRangePartitions;
+  }
+
+  public boolean isRangePartition() {
+    return rangeStart != null || rangeEnd != null;
+  }
+
+  public String getRangeStart() {
+    return rangeStart;
+  }
+
+  public String getRangeEnd() {
+    return rangeEnd;
+  }
+
+  /**
+   * Returns the key of the table in the offset map, the table name or for a range partition the table name
+   * followed by the range.
+   */
+  public String getOffsetKey() {
+    if (!isRangePartition()) {
+      return tableName;
+    }
+    return tableName + PARTITION_KEY_SEPARATOR + (rangeStart == null ? "" : rangeStart)
+        + PARTITION_RANGE_SEPARATOR + (rangeEnd == null ? "" : rangeEnd);
+  }
 }
@@ -24,19 +24,35 @@ import com.google.common.collect.Sets;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.stage.origin.jdbc.table.util.OffsetQueryUtil;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 public final class TableContextUtil {
+  private static final Logger LOG = LoggerFactory.getLogger(TableContextUtil.class);
+
   //JDBC Result set constants
   private static final String TABLE_METADATA_TABLE_CATALOG_CONSTANT = "TABLE_CAT";
   private static final String TABLE_METADATA_TABLE_SCHEMA_CONSTANT = "TABLE_SCHEM";
@@ -46,6 +62,11 @@ public final class TableContextUtil {
 
   private static final Joiner COMMA_JOINER = Joiner.on(",");
 
+  private static final int[] RANGE_PARTITION_SQL_TYPES = {
+      Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.DECIMAL, Types.NUMERIC, Types.DATE, Types.TIMESTAMP
+  };
+  private static final String MIN_MAX_QUERY = "select min(%s), max(%s) from %s";
+
 
   private TableContextUtil() {}
 
@@ -112,12 +133,17 @@ public final class TableContextUtil {
         partitionColumnToStartOffset.put(partitionColumnInitialOffsetEntry.getKey(), partitionColumnInitialOffsetEntry.getValue());
       }
     }
+    if (tableConfigBean.numberOfRangePartitions > 1 && (partitionColumnToType.size() != 1
+        || !isSqlTypeOneOf(partitionColumnToType.values().iterator().next(), RANGE_PARTITION_SQL_TYPES))) {
+      throw new StageException(JdbcErrors.JDBC_72, tableName);
+    }
     return new TableContext(
         schemaName,
         tableName,
         partitionColumnToType,
         partitionColumnToStartOffset,
-        tableConfigBean.extraOffsetColumnConditions
+        tableConfigBean.extraOffsetColumnConditions,
+        tableConfigBean.numberOfRangePartitions
     );
   }
 
@@ -150,6 +176,174 @@ public final class TableContextUtil {
     return tableContextMap;
   }
 
+  /**
+   * Splits a table configured with more than one range partition in ranges of its partition column.
+   * <p/>
+   * The ranges are kept in the offsets, as the offset keys of the ranges, so a restart resumes the same ranges.
+   * When there are no ranges in the offsets yet, the minimum and maximum values of the partition column are
+   * queried and the values in between split in ranges of the same size, the first and last ranges are open ended.
+   * A table already read without ranges, or empty, is not split.
+   * @param connection JDBC connection
+   * @param tableContext the table
+   * @param offsets the offsets, the offset keys of new ranges are added to it.
+   * @return the contexts of the ranges, or the table context if the table is not split.
+   * @throws StageException If the minimum and maximum values query fails
+   */
+  public static List<TableContext> createRangePartitions(
+      Connection connection,
+      TableContext tableContext,
+      Map<String, String> offsets
+  ) throws StageException {
+    if (tableContext.getNumberOfRangePartitions() <= 1) {
+      mergeRangePartitionOffsets(tableContext, offsets);
+      return Collections.singletonList(tableContext);
+    }
+    if (offsets.containsKey(tableContext.getTableName())) {
+      return Collections.singletonList(tableContext);
+    }
+    List<TableContext> partitions = new ArrayList<>();
+    for (String offsetKey : offsets.keySet()) {
+      TableContext partition = tableContext.createRangePartitionForOffsetKey(offsetKey);
+      if (partition != null) {
+        partitions.add(partition);
+      }
+    }
+    if (partitions.isEmpty()) {
+      List<String> boundaries = getRangeBoundaries(connection, tableContext);
+      if (boundaries.isEmpty()) {
+        return Collections.singletonList(tableContext);
+      }
+      String rangeStart = null;
+      for (String boundary : boundaries) {
+        partitions.add(tableContext.createRangePartition(rangeStart, boundary));
+        rangeStart = boundary;
+      }
+      partitions.add(tableContext.createRangePartition(rangeStart, null));
+      for (TableContext partition : partitions) {
+        //No offset yet, the key keeps the range
+        offsets.put(partition.getOffsetKey(), null);
+      }
+    }
+    LOG.info("Reading table {} in {} ranges", tableContext.getTableName(), partitions.size());
+    return partitions;
+  }
+
+  /**
+   * Replaces the offsets of the range partitions of a table, left by an earlier run reading the table in ranges, with
+   * the offset of the whole table. The table is then read without ranges from the lowest range offset on, the rows
+   * of the other ranges already read after that offset are read again.
+   * @param tableContext the context of the table read without ranges.
+   * @param offsets the table offsets, updated in place.
+   */
+  public static void mergeRangePartitionOffsets(TableContext tableContext, Map<String, String> offsets) {
+    List<TableContext> partitions = new ArrayList<>();
+    for (String offsetKey : offsets.keySet()) {
+      TableContext partition = tableContext.createRangePartitionForOffsetKey(offsetKey);
+      if (partition != null) {
+        partitions.add(partition);
+      }
+    }
+    if (partitions.isEmpty()) {
+      return;
+    }
+    if (offsets.containsKey(tableContext.getOffsetKey())) {
+      //The table was read as a whole after the ranges, their offsets are stale
+      for (TableContext partition : partitions) {
+        offsets.remove(partition.getOffsetKey());
+      }
+      return;
+    }
+    String lowestOffset = null;
+    BigDecimal lowestNumber = null;
+    boolean firstRangeStarted = false;
+    Collection<String> partitionColumns = tableContext.getPartitionColumns();
+    if (partitionColumns.size() == 1) {
+      String partitionColumn = partitionColumns.iterator().next();
+      boolean isDate = isSqlTypeOneOf(tableContext.getPartitionType(partitionColumn), Types.DATE, Types.TIMESTAMP);
+      for (TableContext partition : partitions) {
+        String partitionOffset = offsets.get(partition.getOffsetKey());
+        if (partitionOffset == null) {
+          continue;
+        }
+        firstRangeStarted |= partition.getRangeStart() == null;
+        //Offsets are <column>=<value>, date offsets are formatted to sort as strings
+        String value = partitionOffset.substring(partitionOffset.indexOf('=') + 1);
+        if (isDate) {
+          if (lowestOffset == null || value.compareTo(lowestOffset.substring(lowestOffset.indexOf('=') + 1)) < 0) {
+            lowestOffset = partitionOffset;
+          }
+        } else {
+          BigDecimal number = new BigDecimal(value);
+          if (lowestNumber == null || number.compareTo(lowestNumber) < 0) {
+            lowestOffset = partitionOffset;
+            lowestNumber = number;
+          }
+        }
+      }
+    }
+    for (TableContext partition : partitions) {
+      offsets.remove(partition.getOffsetKey());
+    }
+    //Rows before the start of a range not read yet are below the lowest offset, unless no range was read from the
+    //start of the table
+    if (firstRangeStarted) {
+      offsets.put(tableContext.getOffsetKey(), lowestOffset);
+      LOG.info("Reading table {} without ranges from offset {}", tableContext.getTableName(), lowestOffset);
+    } else {
+      LOG.info("Reading table {} without ranges from the start", tableContext.getTableName());
+    }
+  }
+
+  private static List<String> getRangeBoundaries(Connection connection, TableContext tableContext) throws StageException {
+    String partitionColumn = tableContext.getPartitionColumns().iterator().next();
+    int partitionType = tableContext.getPartitionType(partitionColumn);
+    boolean isDate = isSqlTypeOneOf(partitionType, Types.DATE, Types.TIMESTAMP);
+    String query = String.format(
+        MIN_MAX_QUERY,
+        partitionColumn,
+        partitionColumn,
+        getQualifiedTableName(tableContext.getSchema(), tableContext.getTableName())
+    );
+    BigDecimal min = null, max = null;
+    try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(query)) {
+      if (rs.next()) {
+        if (isDate) {
+          Timestamp minTimestamp = rs.getTimestamp(1);
+          Timestamp maxTimestamp = rs.getTimestamp(2);
+          min = (minTimestamp == null) ? null : BigDecimal.valueOf(minTimestamp.getTime());
+          max = (maxTimestamp == null) ? null : BigDecimal.valueOf(maxTimestamp.getTime());
+        } else {
+          min = rs.getBigDecimal(1);
+          max = rs.getBigDecimal(2);
+        }
+      }
+    } catch (SQLException e) {
+      LOG.debug("Failed to query the range of table {}", tableContext.getTableName(), e);
+      throw new StageException(JdbcErrors.JDBC_34, query, JdbcUtil.formatSqlException(e));
+    }
+    //Keep the boundaries in order and drop the ones collapsing on the same value
+    Set<String> boundaries = new LinkedHashSet<>();
+    if (min != null && max != null) {
+      boolean isIntegral = isDate || !isSqlTypeOneOf(partitionType, Types.DECIMAL, Types.NUMERIC);
+      int numberOfRangePartitions = tableContext.getNumberOfRangePartitions();
+      BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(numberOfRangePartitions), MathContext.DECIMAL64);
+      for (int i = 1; i < numberOfRangePartitions; i++) {
+        BigDecimal boundary = min.add(step.multiply(BigDecimal.valueOf(i)));
+        if (isIntegral) {
+          boundary = boundary.setScale(0, RoundingMode.FLOOR);
+        }
+        if (boundary.compareTo(min) > 0) {
+          boundaries.add(
+              isDate ?
+                  OffsetQueryUtil.getOffsetValueForDate(partitionType, new Date(boundary.longValue())) :
+                  boundary.stripTrailingZeros().toPlainString()
+          );
+        }
+      }
+    }
+    return new ArrayList<>(boundaries);
+  }
+
   /**
    * Determines whether the actualSqlType is one of the sqlTypes list
    * @param actualSqlType the actual sql type
@@ -90,9 +90,24 @@ public class TableJdbcConfigBean {
   )
   public int fetchSize;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of threads reading the tables concurrently, each thread uses its own connection" +
+          " from the pool. Should be less than or equal to the maximum pool size.",
+      displayPosition = 210,
+      group = "ADVANCED",
+      min = 1
+  )
+  public int numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+
   private static final String TABLE_JDBC_CONFIG_BEAN_PREFIX = "tableJdbcConfigBean.";
   public static final String TABLE_CONFIG = TABLE_JDBC_CONFIG_BEAN_PREFIX + "tableConfigs";
   private static final String FETCH_SIZE = TABLE_JDBC_CONFIG_BEAN_PREFIX + "fetchSize";
+  public static final String NUMBER_OF_THREADS = TABLE_JDBC_CONFIG_BEAN_PREFIX + "numberOfThreads";
+  public static final int DEFAULT_NUMBER_OF_THREADS = 1;
 
   public List<Stage.ConfigIssue> validateConfigs(Source.Context context, List<Stage.ConfigIssue> issues, CommonSourceConfigBean commonSourceConfigBean) {
     if (configureFetchSize && fetchSize > commonSourceConfigBean.maxBatchSize) {
@@ -101,6 +116,22 @@ public class TableJdbcConfigBean {
     if (tableConfigs.isEmpty()) {
       issues.add(context.createConfigIssue(Groups.JDBC.name(), TABLE_CONFIG, JdbcErrors.JDBC_66));
     }
+    if (numberOfThreads <= 1) {
+      for (TableConfigBean tableConfig : tableConfigs) {
+        //The ranges of a table are only read with more than one thread
+        if (tableConfig.numberOfRangePartitions > 1) {
+          issues.add(
+              context.createConfigIssue(
+                  Groups.JDBC.name(),
+                  TABLE_CONFIG,
+                  JdbcErrors.JDBC_74,
+                  tableConfig.tablePattern,
+                  tableConfig.numberOfRangePartitions
+              )
+          );
+        }
+      }
+    }
     return issues;
   }
 }
@@ -31,13 +31,14 @@ import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
 import com.streamsets.pipeline.stage.origin.jdbc.Groups;
 
 @StageDef(
-    version = 1,
+    version = 3,
     label = "Multi table JDBC Consumer",
     description = "Reads data from a JDBC source using table names.",
     icon = "rdbms.png",
     execution = ExecutionMode.STANDALONE,
     recordsByRef = true,
     resetOffset = true,
+    upgrader = TableJdbcSourceUpgrader.class,
     //TODO
     onlineHelpRefUrl = "index.html#Origins"
 )
@@ -23,7 +23,6 @@ import com.codahale.metrics.Gauge;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
@@ -43,18 +42,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
@@ -65,8 +59,6 @@ public class TableJdbcSource extends BaseSource {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
 
-  private static final String JDBC_NAMESPACE_HEADER = "jdbc.";
-
   static final String CURRENT_TABLE = "Current Table";
   static final String TABLE_COUNT = "Table Count";
   static final String TABLE_METRICS = "Table Metrics";
@@ -78,12 +70,14 @@ public class TableJdbcSource extends BaseSource {
   private final ConcurrentHashMap<String, Object> gaugeMap;
 
   private TableOrderProvider tableOrderProvider;
+  private Map<String, TableContext> allTableContexts;
   private ErrorRecordHandler errorRecordHandler;
-  private TableJdbcELEvalContext tableJdbcELEvalContext;
-  private Calendar calendar;
+  private TableReader tableReader;
+  private ParallelTableReader parallelTableReader;
   private Connection connection = null;
   private HikariDataSource hikariDataSource;
   private long lastQueryIntervalTime;
+  private boolean rangeOffsetsMerged;
 
   public TableJdbcSource(
       HikariPoolConfigBean hikariConfigBean,
@@ -122,7 +116,7 @@ public class TableJdbcSource extends BaseSource {
 
         tableOrderProvider = new TableOrderProviderFactory(connection, tableJdbcConfigBean.tableOrderStrategy).create();
 
-        Map<String, TableContext> allTableContexts = new LinkedHashMap<>();
+        allTableContexts = new LinkedHashMap<>();
         for (TableConfigBean tableConfigBean : tableJdbcConfigBean.tableConfigs) {
           //No duplicates even though a table matches multiple configurations, we will add it only once.
           allTableContexts.putAll(TableContextUtil.listTablesForConfig(connection, tableConfigBean));
@@ -164,12 +158,6 @@ public class TableJdbcSource extends BaseSource {
     }
   }
 
-  private void initTableEvalContextForProduce(TableContext tableContext) {
-    tableJdbcELEvalContext.setCalendar(calendar);
-    tableJdbcELEvalContext.setTime(calendar.getTime());
-    tableJdbcELEvalContext.setTableContext(tableContext);
-  }
-
   @Override
   protected List<Stage.ConfigIssue> init() {
     List<Stage.ConfigIssue> issues = new ArrayList<>();
@@ -178,10 +166,20 @@ public class TableJdbcSource extends BaseSource {
     issues = hikariConfigBean.validateConfigs(context, issues);
     issues = commonSourceConfigBean.validateConfigs(context, issues);
     issues = tableJdbcConfigBean.validateConfigs(context, issues, commonSourceConfigBean);
+    if (tableJdbcConfigBean.numberOfThreads > hikariConfigBean.maximumPoolSize) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.ADVANCED.name(),
+              TableJdbcConfigBean.NUMBER_OF_THREADS,
+              JdbcErrors.JDBC_71,
+              tableJdbcConfigBean.numberOfThreads,
+              hikariConfigBean.maximumPoolSize
+          )
+      );
+    }
     if (issues.isEmpty()) {
       checkConnectionAndBootstrap(context, issues);
-      tableJdbcELEvalContext = new TableJdbcELEvalContext(getContext(), getContext().createELVars());
-      calendar = Calendar.getInstance(TimeZone.getTimeZone(tableJdbcConfigBean.timeZoneID));
+      tableReader = new TableReader(context, commonSourceConfigBean, tableJdbcConfigBean, errorRecordHandler, gaugeMap);
     }
     return issues;
   }
@@ -190,84 +188,139 @@ public class TableJdbcSource extends BaseSource {
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     int batchSize = Math.min(maxBatchSize, commonSourceConfigBean.maxBatchSize);
     Map<String, String> offsets = OffsetQueryUtil.deserializeOffsetMap(lastSourceOffset);
+    if (tableJdbcConfigBean.numberOfThreads > 1) {
+      produceFromReaderThreads(offsets, batchSize, batchMaker);
+    } else {
+      produceFromTables(offsets, batchSize, batchMaker);
+    }
+    return OffsetQueryUtil.serializeOffsetMap(offsets);
+  }
+
+  private void produceFromReaderThreads(Map<String, String> offsets, int batchSize, BatchMaker batchMaker)
+      throws StageException {
+    if (parallelTableReader == null) {
+      Map<String, List<TableContext>> tableRangePartitions = new HashMap<>();
+      try {
+        connection = (connection == null) ? hikariDataSource.getConnection() : this.connection;
+        for (Map.Entry<String, TableContext> tableContextEntry : allTableContexts.entrySet()) {
+          if (tableContextEntry.getValue().getNumberOfRangePartitions() > 1) {
+            tableRangePartitions.put(
+                tableContextEntry.getKey(),
+                TableContextUtil.createRangePartitions(connection, tableContextEntry.getValue(), offsets)
+            );
+          }
+        }
+      } catch (SQLException e) {
+        String formattedError = logErrorAndCloseConnection(connection, e);
+        connection = null;
+        throw new StageException(JdbcErrors.JDBC_00, formattedError);
+      } catch (StageException e) {
+        JdbcUtil.closeQuietly(connection);
+        connection = null;
+        throw e;
+      }
+      //The table order and the ranges are already computed, the readers use their own connections.
+      JdbcUtil.closeQuietly(connection);
+      connection = null;
+      parallelTableReader = new ParallelTableReader(
+          getContext(),
+          hikariDataSource,
+          tableOrderProvider,
+          tableRangePartitions,
+          tableJdbcConfigBean.numberOfThreads,
+          commonSourceConfigBean,
+          tableJdbcConfigBean,
+          gaugeMap
+      );
+      parallelTableReader.start(offsets);
+    }
+    try {
+      for (ParallelTableReader.ReadResult result :
+          parallelTableReader.poll(batchSize, commonSourceConfigBean.queryInterval * 1000)) {
+        if (result.isError()) {
+          errorRecordHandler.onError(result.getErrorCode(), result.getParams());
+        } else {
+          batchMaker.addRecord(result.getRecord());
+          offsets.put(result.getOffsetKey(), result.getOffset());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.debug("Interrupted while waiting for records", e);
+    }
+  }
 
+  private void produceFromTables(Map<String, String> offsets, int batchSize, BatchMaker batchMaker)
+      throws StageException {
+    if (!rangeOffsetsMerged) {
+      //The ranges of an earlier run with more threads are read as a whole by the single thread
+      for (TableContext tableContext : allTableContexts.values()) {
+        TableContextUtil.mergeRangePartitionOffsets(tableContext, offsets);
+      }
+      rangeOffsetsMerged = true;
+    }
     long delayBeforeQuery = (commonSourceConfigBean.queryInterval * 1000) - (System.currentTimeMillis() - lastQueryIntervalTime);
     ThreadUtil.sleep((lastQueryIntervalTime < 0 || delayBeforeQuery < 0) ? 0 : delayBeforeQuery);
 
     int recordCount = 0, noOfTablesVisited = 0;
     do {
-      String query = null;
       try {
         connection = (connection == null) ? hikariDataSource.getConnection() : this.connection;
         TableContext tableContext = tableOrderProvider.nextTable();
-
-        initTableEvalContextForProduce(tableContext);
-
-        query = OffsetQueryUtil.buildQuery(tableContext, offsets.get(tableContext.getTableName()), tableJdbcELEvalContext);
-
-        //Clear the initial offset after the  query is build so we will not use the initial offset from the next
-        //time the table is used.
-        tableContext.clearStartOffset();
-        ResultSet rs = null;
-        try (Statement statement = connection.createStatement()) {
-          if (tableJdbcConfigBean.configureFetchSize) {
-            statement.setFetchSize(tableJdbcConfigBean.fetchSize);
-          }
-          //Max rows is set to batch size.
-          statement.setMaxRows(commonSourceConfigBean.maxBatchSize);
-
-          LOG.info("Executing Query :{}", query);
-          rs = statement.executeQuery(query);
-          ResultSetMetaData md = rs.getMetaData();
-          while (rs.next() && recordCount < batchSize) {
-            LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
-                rs,
-                commonSourceConfigBean.maxClobSize,
-                commonSourceConfigBean.maxBlobSize,
-                errorRecordHandler
-            );
-
-            String offsetFormat = OffsetQueryUtil.getOffsetFormatForPartitionColumns(tableContext, fields);
-            Record record = getContext().createRecord(tableContext.getTableName() + ":" + offsetFormat);
-            record.set(Field.createListMap(fields));
-
-            //Set Column Headers
-            JdbcUtil.setColumnSpecificHeaders(record, md, JDBC_NAMESPACE_HEADER);
-
-            batchMaker.addRecord(record);
-            offsets.put(tableContext.getTableName(), offsetFormat);
-            if (recordCount == 0) {
-              String qualifiedTableName = TableContextUtil.getQualifiedTableName(tableContext.getSchema(), tableContext.getTableName());
-              gaugeMap.put(CURRENT_TABLE, qualifiedTableName);
-              LOG.info("Generating records from table : {}", qualifiedTableName);
-            }
-            recordCount++;
-          }
-        } finally {
-          if (rs != null) {
-            JdbcUtil.closeQuietly(rs);
-          }
-        }
+        recordCount += tableReader.read(
+            connection,
+            tableContext,
+            offsets.get(tableContext.getOffsetKey()),
+            new BatchRecordSink(batchMaker, offsets, batchSize - recordCount)
+        );
       } catch (SQLException e) {
         String formattedError = logErrorAndCloseConnection(connection, e);
         connection = null;
         LOG.debug("Query failed at: {}", lastQueryIntervalTime);
         //Throw Stage Errors
-        errorRecordHandler.onError(JdbcErrors.JDBC_34, query, formattedError);
+        errorRecordHandler.onError(JdbcErrors.JDBC_34, tableReader.getLastQuery(), formattedError);
       } catch (ExecutionException e) {
         LOG.debug("Failure happened when fetching nextTable", e);
         errorRecordHandler.onError(JdbcErrors.JDBC_67, e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOG.debug("Interrupted while reading table", e);
+        break;
       } finally {
         //Update lastQuery Time
         lastQueryIntervalTime = System.currentTimeMillis();
       }
       noOfTablesVisited++;
     } while(shouldMoveToNextTable(recordCount, noOfTablesVisited)); //If the current table has no records and if we haven't cycled through all tables.
-    return OffsetQueryUtil.serializeOffsetMap(offsets);
+  }
+
+  /**
+   * Adds the records read from a table to the batch, up to the given number of records.
+   */
+  private static class BatchRecordSink implements TableReader.RecordSink {
+    private final BatchMaker batchMaker;
+    private final Map<String, String> offsets;
+    private int remaining;
+
+    BatchRecordSink(BatchMaker batchMaker, Map<String, String> offsets, int remaining) {
+      this.batchMaker = batchMaker;
+      this.offsets = offsets;
+      this.remaining = remaining;
+    }
+
+    @Override
+    public boolean add(TableContext tableContext, Record record, String offset) {
+      batchMaker.addRecord(record);
+      offsets.put(tableContext.getOffsetKey(), offset);
+      return --remaining > 0;
+    }
   }
 
   @Override
   public void destroy() {
+    if (parallelTableReader != null) {
+      parallelTableReader.stop();
+    }
     if (connection != null) {
       JdbcUtil.closeQuietly(connection);
     }
@@ -25,6 +25,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ExecutionException;
@@ -49,6 +51,13 @@ public interface TableOrderProvider {
    */
   TableContext nextTable() throws SQLException, ExecutionException, StageException;
 
+  /**
+   * Returns the tables which have to be read before the given table when tables are read concurrently.
+   * @param qualifiedTableName qualified name of the table
+   * @return Qualified names of the tables preceding the table.
+   */
+  Collection<String> getPrecedingTables(String qualifiedTableName);
+
   abstract class BaseTableOrderProvider implements TableOrderProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(TableOrderProvider.class);
     private static final Joiner JOINER = Joiner.on("\n");
@@ -86,6 +95,12 @@ public interface TableOrderProvider {
       }
       return tableContextMap.get(tableQueue.poll());
     }
+
+    @Override
+    public Collection<String> getPrecedingTables(String qualifiedTableName) {
+      return Collections.emptySet();
+    }
+
     abstract Queue<String> calculateOrGetOrder() throws SQLException, ExecutionException, StageException;
 
     abstract void addTable(String qualifiedTableName);
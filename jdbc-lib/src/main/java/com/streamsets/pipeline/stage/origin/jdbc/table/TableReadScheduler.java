@@ -0,0 +1,164 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.streamsets.pipeline.api.StageException;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Hands out tables to the reader threads when tables are read concurrently.
+ * <p/>
+ * Tables are handed out in the order of the {@link TableOrderProvider}, one round after the other. A table is never
+ * read by two threads at the same time and a table is held back while any of its preceding tables
+ * (see {@link TableOrderProvider#getPrecedingTables(String)}) is still waiting or being read in the round, so the
+ * referential ordering is kept. A table whose last query returned no rows is not queried again before the query
+ * interval elapses.
+ * <p/>
+ * A table split in range partitions is handed out as its ranges, which are read concurrently.
+ */
+final class TableReadScheduler {
+  private final TableOrderProvider tableOrderProvider;
+  private final Map<String, List<TableContext>> tableRangePartitions;
+  private final long queryIntervalMillis;
+  private final LinkedList<TableContext> pendingTables;
+  //Read key to qualified table name of the tables being read
+  private final Map<String, String> tablesInRead;
+  private final Map<String, Long> nextQueryTimes;
+  private boolean stopped;
+
+  /**
+   * @param tableOrderProvider provider of the table order
+   * @param tableRangePartitions range partitions of the tables split in ranges by qualified table name.
+   * @param queryIntervalMillis minimum time between two queries on a table returning no rows.
+   */
+  TableReadScheduler(
+      TableOrderProvider tableOrderProvider,
+      Map<String, List<TableContext>> tableRangePartitions,
+      long queryIntervalMillis
+  ) {
+    this.tableOrderProvider = tableOrderProvider;
+    this.tableRangePartitions = tableRangePartitions;
+    this.queryIntervalMillis = queryIntervalMillis;
+    pendingTables = new LinkedList<>();
+    tablesInRead = new HashMap<>();
+    nextQueryTimes = new HashMap<>();
+  }
+
+  private static String getQualifiedTableName(TableContext tableContext) {
+    return TableContextUtil.getQualifiedTableName(tableContext.getSchema(), tableContext.getTableName());
+  }
+
+  private static String getReadKey(TableContext tableContext) {
+    return TableContextUtil.getQualifiedTableName(tableContext.getSchema(), tableContext.getOffsetKey());
+  }
+
+  private boolean isAnyTableBlocking(Set<String> blockingTables, String qualifiedTableName) {
+    for (String precedingTable : tableOrderProvider.getPrecedingTables(qualifiedTableName)) {
+      if (blockingTables.contains(precedingTable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the next table to read, waiting until a table can be read.
+   * The table has to be given back with {@link #complete(TableContext, int)} once it has been read.
+   * @return the table to read or null if the scheduler has been stopped.
+   */
+  synchronized TableContext next() throws SQLException, ExecutionException, StageException, InterruptedException {
+    while (!stopped) {
+      if (pendingTables.isEmpty()) {
+        //Start a new round
+        for (int i = 0; i < tableOrderProvider.getNumberOfTables(); i++) {
+          TableContext tableContext = tableOrderProvider.nextTable();
+          List<TableContext> rangePartitions = tableRangePartitions.get(getQualifiedTableName(tableContext));
+          if (rangePartitions != null) {
+            pendingTables.addAll(rangePartitions);
+          } else {
+            pendingTables.add(tableContext);
+          }
+        }
+      }
+      long now = System.currentTimeMillis();
+      long waitTime = Long.MAX_VALUE;
+      //Tables being read or waiting ahead of the current table in this round
+      Set<String> blockingTables = new HashSet<>(tablesInRead.values());
+      Iterator<TableContext> pendingTablesIterator = pendingTables.iterator();
+      while (pendingTablesIterator.hasNext()) {
+        TableContext tableContext = pendingTablesIterator.next();
+        String qualifiedTableName = getQualifiedTableName(tableContext);
+        String readKey = getReadKey(tableContext);
+        boolean canRead = !tablesInRead.containsKey(readKey)
+            && !isAnyTableBlocking(blockingTables, qualifiedTableName);
+        Long nextQueryTime = nextQueryTimes.get(readKey);
+        if (canRead && nextQueryTime != null && nextQueryTime > now) {
+          canRead = false;
+          waitTime = Math.min(waitTime, nextQueryTime - now);
+        }
+        if (canRead) {
+          pendingTablesIterator.remove();
+          tablesInRead.put(readKey, qualifiedTableName);
+          return tableContext;
+        }
+        blockingTables.add(qualifiedTableName);
+      }
+      if (waitTime == Long.MAX_VALUE) {
+        wait();
+      } else {
+        wait(waitTime);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gives back a table handed out by {@link #next()}.
+   * @param tableContext the table
+   * @param recordCount number of records read from the table.
+   */
+  synchronized void complete(TableContext tableContext, int recordCount) {
+    String readKey = getReadKey(tableContext);
+    tablesInRead.remove(readKey);
+    if (recordCount == 0) {
+      nextQueryTimes.put(readKey, System.currentTimeMillis() + queryIntervalMillis);
+    } else {
+      nextQueryTimes.remove(readKey);
+    }
+    notifyAll();
+  }
+
+  /**
+   * Stops handing out tables, threads waiting in {@link #next()} get null.
+   */
+  synchronized void stop() {
+    stopped = true;
+    notifyAll();
+  }
+}
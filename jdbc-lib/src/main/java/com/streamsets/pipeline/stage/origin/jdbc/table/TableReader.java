@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.origin.jdbc.CommonSourceConfigBean;
+import com.streamsets.pipeline.stage.origin.jdbc.table.util.OffsetQueryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Runs the offset query for a table and converts the rows to records.
+ * <p/>
+ * A reader keeps its own EL evaluation context and calendar, so it has to be used by a single thread at a time.
+ */
+final class TableReader {
+  private static final Logger LOG = LoggerFactory.getLogger(TableReader.class);
+  private static final String JDBC_NAMESPACE_HEADER = "jdbc.";
+
+  /**
+   * Receives the records read from a table.
+   */
+  interface RecordSink {
+    /**
+     * Adds a record along with the table offset after the record.
+     * @return true if more records from the table can be accepted, false to stop reading the table.
+     */
+    boolean add(TableContext tableContext, Record record, String offset) throws InterruptedException;
+  }
+
+  private final Source.Context context;
+  private final CommonSourceConfigBean commonSourceConfigBean;
+  private final TableJdbcConfigBean tableJdbcConfigBean;
+  private final ErrorRecordHandler errorRecordHandler;
+  private final Map<String, Object> gaugeMap;
+  private final TableJdbcELEvalContext tableJdbcELEvalContext;
+  private final Calendar calendar;
+  private String lastQuery;
+
+  TableReader(
+      Source.Context context,
+      CommonSourceConfigBean commonSourceConfigBean,
+      TableJdbcConfigBean tableJdbcConfigBean,
+      ErrorRecordHandler errorRecordHandler,
+      Map<String, Object> gaugeMap
+  ) {
+    this.context = context;
+    this.commonSourceConfigBean = commonSourceConfigBean;
+    this.tableJdbcConfigBean = tableJdbcConfigBean;
+    this.errorRecordHandler = errorRecordHandler;
+    this.gaugeMap = gaugeMap;
+    tableJdbcELEvalContext = new TableJdbcELEvalContext(context, context.createELVars());
+    calendar = Calendar.getInstance(TimeZone.getTimeZone(tableJdbcConfigBean.timeZoneID));
+  }
+
+  /**
+   * Returns the last query run by the reader, used to report query failures.
+   */
+  String getLastQuery() {
+    return lastQuery;
+  }
+
+  private void initTableEvalContextForProduce(TableContext tableContext) {
+    tableJdbcELEvalContext.setCalendar(calendar);
+    tableJdbcELEvalContext.setTime(calendar.getTime());
+    tableJdbcELEvalContext.setTableContext(tableContext);
+  }
+
+  /**
+   * Reads the table from the given offset, passing the records to the sink until the sink does not accept
+   * more records or the result set is exhausted.
+   * @return number of records read.
+   */
+  int read(Connection connection, TableContext tableContext, String offset, RecordSink sink)
+      throws SQLException, StageException, InterruptedException {
+    lastQuery = null;
+    initTableEvalContextForProduce(tableContext);
+
+    String query = OffsetQueryUtil.buildQuery(tableContext, offset, tableJdbcELEvalContext);
+    lastQuery = query;
+
+    //Clear the initial offset after the  query is build so we will not use the initial offset from the next
+    //time the table is used.
+    tableContext.clearStartOffset();
+
+    int recordCount = 0;
+    ResultSet rs = null;
+    try (Statement statement = connection.createStatement()) {
+      if (tableJdbcConfigBean.configureFetchSize) {
+        statement.setFetchSize(tableJdbcConfigBean.fetchSize);
+      }
+      //Max rows is set to batch size.
+      statement.setMaxRows(commonSourceConfigBean.maxBatchSize);
+
+      LOG.info("Executing Query :{}", query);
+      rs = statement.executeQuery(query);
+      ResultSetMetaData md = rs.getMetaData();
+      boolean moreRecords = true;
+      while (moreRecords && rs.next()) {
+        LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(
+            rs,
+            commonSourceConfigBean.maxClobSize,
+            commonSourceConfigBean.maxBlobSize,
+            errorRecordHandler
+        );
+
+        String offsetFormat = OffsetQueryUtil.getOffsetFormatForPartitionColumns(tableContext, fields);
+        Record record = context.createRecord(tableContext.getTableName() + ":" + offsetFormat);
+        record.set(Field.createListMap(fields));
+
+        //Set Column Headers
+        JdbcUtil.setColumnSpecificHeaders(record, md, JDBC_NAMESPACE_HEADER);
+
+        if (recordCount == 0) {
+          String qualifiedTableName = TableContextUtil.getQualifiedTableName(tableContext.getSchema(), tableContext.getTableName());
+          gaugeMap.put(TableJdbcSource.CURRENT_TABLE, qualifiedTableName);
+          LOG.info("Generating records from table : {}", qualifiedTableName);
+        }
+        recordCount++;
+        moreRecords = sink.add(tableContext, record, offsetFormat);
+      }
+    } finally {
+      if (rs != null) {
+        JdbcUtil.closeQuietly(rs);
+      }
+    }
+    return recordCount;
+  }
+}
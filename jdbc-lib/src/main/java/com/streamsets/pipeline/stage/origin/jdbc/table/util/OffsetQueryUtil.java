@@ -40,6 +40,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -63,6 +64,12 @@ public final class OffsetQueryUtil {
   private static final String COLUMN_EQUALS_VALUE_WITHOUT_QUOTES = "%s = %s";
   private static final String COLUMN_EQUALS_VALUE_WITH_QUOTES = "%s = '%s'";
 
+  private static final String COLUMN_GREATER_THAN_OR_EQUALS_WITHOUT_QUOTES = "%s >= %s";
+  private static final String COLUMN_GREATER_THAN_OR_EQUALS_WITH_QUOTES = "%s >= '%s'";
+
+  private static final String COLUMN_LESS_THAN_WITHOUT_QUOTES = "%s < %s";
+  private static final String COLUMN_LESS_THAN_WITH_QUOTES = "%s < '%s'";
+
   private static final String CONDITION_FORMAT = "( %s )";
 
   private static final String WHERE_CLAUSE = " WHERE %s ";
@@ -119,6 +126,20 @@ public final class OffsetQueryUtil {
       finalAndConditions.add(String.format(CONDITION_FORMAT, OR_JOINER.join(finalOrConditions)));
     }
 
+    if (tableContext.isRangePartition()) {
+      //Range partitions have a single partition column, restrict the query to the range.
+      String partitionColumn = tableContext.getPartitionColumns().iterator().next();
+      boolean quoted = isQuotedType(tableContext.getPartitionType(partitionColumn));
+      if (tableContext.getRangeStart() != null) {
+        String template = quoted ? COLUMN_GREATER_THAN_OR_EQUALS_WITH_QUOTES : COLUMN_GREATER_THAN_OR_EQUALS_WITHOUT_QUOTES;
+        finalAndConditions.add(String.format(CONDITION_FORMAT, String.format(template, partitionColumn, tableContext.getRangeStart())));
+      }
+      if (tableContext.getRangeEnd() != null) {
+        String template = quoted ? COLUMN_LESS_THAN_WITH_QUOTES : COLUMN_LESS_THAN_WITHOUT_QUOTES;
+        finalAndConditions.add(String.format(CONDITION_FORMAT, String.format(template, partitionColumn, tableContext.getRangeEnd())));
+      }
+    }
+
     if (!StringUtils.isEmpty(tableContext.getExtraOffsetColumnConditions())) {
       //Apply extra offset column conditions configured which will be appended as AND on the query
       String condition = tableJdbcELEvalContext.evaluateAsString("extraOffsetColumnConditions", tableContext.getExtraOffsetColumnConditions());
@@ -148,8 +169,7 @@ public final class OffsetQueryUtil {
    */
   private static String getConditionForPartitionColumn(String partitionColumn, String offset, int partitionType, boolean greaterThan, List<String> preconditions) {
     String conditionTemplate;
-    //For Char, Varchar, date, time and timestamp embed the value in a quote
-    if (TableContextUtil.isSqlTypeOneOf(partitionType, Types.CHAR, Types.VARCHAR, Types.DATE, Types.TIME, Types.TIMESTAMP)) {
+    if (isQuotedType(partitionType)) {
       conditionTemplate = greaterThan? COLUMN_GREATER_THAN_WITH_QUOTES : COLUMN_EQUALS_VALUE_WITH_QUOTES;
     }  else {
       conditionTemplate = greaterThan? COLUMN_GREATER_THAN_WITHOUT_QUOTES : COLUMN_EQUALS_VALUE_WITHOUT_QUOTES;
@@ -159,6 +179,11 @@ public final class OffsetQueryUtil {
     return AND_JOINER.join(finalConditions);
   }
 
+  //For Char, Varchar, date, time and timestamp embed the value in a quote
+  private static boolean isQuotedType(int sqlType) {
+    return TableContextUtil.isSqlTypeOneOf(sqlType, Types.CHAR, Types.VARCHAR, Types.DATE, Types.TIME, Types.TIMESTAMP);
+  }
+
   /**
    * Splits the offset in the form of (<column1>=<value1>::<column2>=<value2>::<column3>=<value3>) into a map of columns and values
    * @param lastOffset the last offset for the current table.
@@ -193,6 +218,23 @@ public final class OffsetQueryUtil {
     }
   }
 
+  /**
+   * Returns the offset representation of a date for a DATE or TIMESTAMP partition column.
+   * @param sqlType SQL Type of the partition column
+   * @param date the date
+   * @return the date in the format used in offsets.
+   */
+  public static String getOffsetValueForDate(int sqlType, Date date) {
+    switch (sqlType) {
+      case Types.DATE:
+        return new SimpleDateFormat(DATE_FORMAT_STRING).format(date);
+      case Types.TIMESTAMP:
+        return new SimpleDateFormat(DATE_TIME_FORMAT_STRING).format(date);
+      default:
+        throw new IllegalArgumentException(Utils.format("Illegal SQL Type :{} ", sqlType));
+    }
+  }
+
   /**
    * Joins the map of column to values to a string offset in the form of (<column1>=<value1>::<column2>=<value2>::<column3>=<value3>)
    * @param tableContext Context for the current table.
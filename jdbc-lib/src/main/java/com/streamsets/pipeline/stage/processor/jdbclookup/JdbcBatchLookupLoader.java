@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Iterables;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the lookup values of many keys with a few queries.
+ * <p/>
+ * The query has a single <code>?</code> placeholder, typically in a <code>WHERE key IN (?)</code> clause, which is
+ * expanded to one parameter per key for up to <code>maxKeysPerQuery</code> keys per query. The rows are matched back
+ * to the keys by the normalized value of the key column, keys without rows get an empty map.
+ */
+public class JdbcBatchLookupLoader extends CacheLoader<Object, Map<String, Field>> {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchLookupLoader.class);
+  private static final Joiner PARAMETER_JOINER = Joiner.on(", ");
+
+  private final DataSource dataSource;
+  private final String queryPrefix;
+  private final String querySuffix;
+  private final String keyColumn;
+  private final int maxKeysPerQuery;
+  private final Map<String, String> columnsToFields;
+  private final int maxClobSize;
+  private final int maxBlobSize;
+  private final ErrorRecordHandler errorRecordHandler;
+
+  public JdbcBatchLookupLoader(
+      DataSource dataSource,
+      String query,
+      String keyColumn,
+      int maxKeysPerQuery,
+      Map<String, String> columnsToFields,
+      int maxClobSize,
+      int maxBlobSize,
+      ErrorRecordHandler errorRecordHandler
+  ) {
+    int placeholder = query.indexOf('?');
+    this.dataSource = dataSource;
+    this.queryPrefix = query.substring(0, placeholder);
+    this.querySuffix = query.substring(placeholder + 1);
+    this.keyColumn = keyColumn;
+    this.maxKeysPerQuery = maxKeysPerQuery;
+    this.columnsToFields = columnsToFields;
+    this.maxClobSize = maxClobSize;
+    this.maxBlobSize = maxBlobSize;
+    this.errorRecordHandler = errorRecordHandler;
+  }
+
+  /**
+   * Returns true if the query has a single placeholder for the keys.
+   */
+  public static boolean isValidQuery(String query) {
+    int placeholder = query.indexOf('?');
+    return placeholder > -1 && placeholder == query.lastIndexOf('?');
+  }
+
+  /**
+   * Returns the value a key is matched with, the same for keys of different types with the same value, such as
+   * <code>1</code>, <code>1L</code> and <code>1.0</code>.
+   */
+  static String normalizeKey(Object key) {
+    if (key instanceof Number) {
+      BigDecimal decimal;
+      try {
+        decimal = (key instanceof BigDecimal) ? (BigDecimal) key : new BigDecimal(key.toString());
+      } catch (NumberFormatException ex) {
+        // NaN and infinite values
+        return key.toString();
+      }
+      // stripTrailingZeros() does not strip the zeros of a zero value
+      return (decimal.signum() == 0) ? "0" : decimal.stripTrailingZeros().toPlainString();
+    }
+    if (key instanceof Date) {
+      return String.valueOf(((Date) key).getTime());
+    }
+    return String.valueOf(key);
+  }
+
+  @Override
+  public Map<String, Field> load(Object key) throws Exception {
+    return loadAll(Collections.singleton(key)).get(key);
+  }
+
+  @Override
+  public Map<Object, Map<String, Field>> loadAll(Iterable<? extends Object> keys) throws Exception {
+    Map<Object, Map<String, Field>> values = new HashMap<>();
+    try (Connection connection = dataSource.getConnection()) {
+      for (List<?> chunk : Iterables.partition(keys, maxKeysPerQuery)) {
+        Map<String, Map<String, Field>> rows = lookupRows(connection, chunk);
+        for (Object key : chunk) {
+          Map<String, Field> row = rows.get(normalizeKey(key));
+          values.put(key, (row != null) ? row : new HashMap<String, Field>());
+        }
+      }
+    } catch (SQLException e) {
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), queryPrefix + "?" + querySuffix, e);
+      throw new OnRecordErrorException(JdbcErrors.JDBC_02, queryPrefix + "?" + querySuffix, e.getMessage());
+    }
+    return values;
+  }
+
+  private Map<String, Map<String, Field>> lookupRows(Connection connection, List<?> keys)
+      throws SQLException, StageException {
+    Map<String, Map<String, Field>> rows = new HashMap<>();
+    String query = queryPrefix + PARAMETER_JOINER.join(Collections.nCopies(keys.size(), "?")) + querySuffix;
+    try (PreparedStatement stmt = connection.prepareStatement(query)) {
+      for (int i = 0; i < keys.size(); i++) {
+        stmt.setObject(i + 1, keys.get(i));
+      }
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          String key = normalizeKey(resultSet.getObject(keyColumn));
+          // as with single key lookups only the first row of a key is used
+          if (!rows.containsKey(key)) {
+            rows.put(
+                key,
+                JdbcLookupLoader.getValues(
+                    resultSet,
+                    columnsToFields,
+                    keyColumn,
+                    maxClobSize,
+                    maxBlobSize,
+                    errorRecordHandler
+                )
+            );
+          }
+        }
+      }
+    }
+    return rows;
+  }
+}
@@ -26,6 +26,7 @@ import com.streamsets.pipeline.api.GenerateResourceBundle;
 import com.streamsets.pipeline.api.ListBeanModel;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.ValueChooserModel;
 import com.streamsets.pipeline.configurablestage.DProcessor;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.StringEL;
@@ -33,11 +34,13 @@ import com.streamsets.pipeline.lib.jdbc.HikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.JdbcFieldColumnMapping;
 import com.streamsets.pipeline.stage.destination.jdbc.Groups;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
+import com.streamsets.pipeline.stage.processor.kv.LookupModeChooserValues;
 
 import java.util.List;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "JDBC Lookup",
     description = "Lookup values via JDBC to enrich records.",
     icon = "rdbms.png",
@@ -53,7 +56,8 @@ public class JdbcLookupDProcessor extends DProcessor {
       type = ConfigDef.Type.TEXT,
       mode = ConfigDef.Mode.SQL,
       label = "SQL Query",
-      description = "SELECT <column>, ... FROM <table name> WHERE <column> <operator>  <expression>",
+      description = "SELECT <column>, ... FROM <table name> WHERE <column> <operator>  <expression>. " +
+          "Per batch lookups use a single '?' placeholder for the keys, WHERE <key column> IN (?), and no expressions",
       elDefs = {StringEL.class, RecordEL.class},
       evaluation = ConfigDef.Evaluation.EXPLICIT,
       displayPosition = 20,
@@ -61,6 +65,58 @@ public class JdbcLookupDProcessor extends DProcessor {
   )
   public String query;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Mode",
+      description = "Whether to perform a bulk lookup of all keys in the batch, or perform individual lookups per record.",
+      defaultValue = "RECORD",
+      displayPosition = 22,
+      group = "JDBC"
+  )
+  @ValueChooserModel(LookupModeChooserValues.class)
+  public LookupMode mode = LookupMode.RECORD;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Key Expression",
+      description = "An EL expression defining the key to lookup for each record",
+      elDefs = {StringEL.class, RecordEL.class},
+      evaluation = ConfigDef.Evaluation.EXPLICIT,
+      dependsOn = "mode",
+      triggeredByValue = "BATCH",
+      displayPosition = 24,
+      group = "JDBC"
+  )
+  public String keyExpr;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Key Column",
+      description = "Column holding the key of each row returned by the query, rows and keys are matched by value",
+      dependsOn = "mode",
+      triggeredByValue = "BATCH",
+      displayPosition = 26,
+      group = "JDBC"
+  )
+  public String keyColumn;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "100",
+      label = "Max Keys per Query",
+      description = "Maximum number of keys looked up with a single query",
+      min = 1,
+      dependsOn = "mode",
+      triggeredByValue = "BATCH",
+      displayPosition = 28,
+      group = "JDBC"
+  )
+  public int maxKeysPerQuery = 100;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -103,6 +159,10 @@ public class JdbcLookupDProcessor extends DProcessor {
   protected Processor createProcessor() {
     return new JdbcLookupProcessor(
         query,
+        mode,
+        keyExpr,
+        keyColumn,
+        maxKeysPerQuery,
         columnMappings,
         maxClobSize,
         maxBlobSize,
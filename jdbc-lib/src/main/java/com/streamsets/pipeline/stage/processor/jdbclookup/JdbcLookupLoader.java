@@ -74,28 +74,7 @@ public class JdbcLookupLoader extends CacheLoader<String, Map<String, Field>> {
       try (Statement stmt = connection.createStatement()) {
         try (ResultSet resultSet = stmt.executeQuery(preparedQuery)) {
           if (resultSet.next()) {
-            ResultSetMetaData md = resultSet.getMetaData();
-
-            LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(resultSet,
-                maxClobSize,
-                maxBlobSize,
-                errorRecordHandler
-            );
-
-            int numColumns = md.getColumnCount();
-            if (fields.size() != numColumns) {
-              throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
-            }
-
-            for (Map.Entry<String, Field> entry : fields.entrySet()) {
-              String columnName = entry.getKey();
-              String fieldPath = columnsToFields.get(columnName);
-              if (fieldPath == null) {
-                LOG.error(JdbcErrors.JDBC_25.getMessage(), columnName);
-                throw new OnRecordErrorException(JdbcErrors.JDBC_25, columnName);
-              }
-              values.put(fieldPath, entry.getValue());
-            }
+            values = getValues(resultSet, columnsToFields, null, maxClobSize, maxBlobSize, errorRecordHandler);
           }
         }
       } catch (SQLException e) {
@@ -110,4 +89,45 @@ public class JdbcLookupLoader extends CacheLoader<String, Map<String, Field>> {
     }
     return values;
   }
+
+  /**
+   * Converts the current row of the result set to the record values, keyed by the field paths of the column
+   * mappings. The <code>unmappedColumn</code> column, if any, is not required to have a mapping.
+   */
+  static Map<String, Field> getValues(
+      ResultSet resultSet,
+      Map<String, String> columnsToFields,
+      String unmappedColumn,
+      int maxClobSize,
+      int maxBlobSize,
+      ErrorRecordHandler errorRecordHandler
+  ) throws SQLException, StageException {
+    Map<String, Field> values = new HashMap<>();
+    ResultSetMetaData md = resultSet.getMetaData();
+
+    LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(resultSet,
+        maxClobSize,
+        maxBlobSize,
+        errorRecordHandler
+    );
+
+    int numColumns = md.getColumnCount();
+    if (fields.size() != numColumns) {
+      throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
+    }
+
+    for (Map.Entry<String, Field> entry : fields.entrySet()) {
+      String columnName = entry.getKey();
+      String fieldPath = columnsToFields.get(columnName);
+      if (fieldPath == null) {
+        if (columnName.equals(unmappedColumn)) {
+          continue;
+        }
+        LOG.error(JdbcErrors.JDBC_25.getMessage(), columnName);
+        throw new OnRecordErrorException(JdbcErrors.JDBC_25, columnName);
+      }
+      values.put(fieldPath, entry.getValue());
+    }
+    return values;
+  }
 }
@@ -21,7 +21,9 @@ package com.streamsets.pipeline.stage.processor.jdbclookup;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
@@ -42,14 +44,19 @@ import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.destination.jdbc.Groups;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
 import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import static com.streamsets.pipeline.lib.jdbc.JdbcUtil.closeQuietly;
@@ -62,8 +69,13 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private final CacheConfig cacheConfig;
 
   private ELEval queryEval;
+  private ELEval keyExprEval;
 
   private final String query;
+  private final LookupMode mode;
+  private final String keyExpr;
+  private final String keyColumn;
+  private final int maxKeysPerQuery;
   private final List<JdbcFieldColumnMapping> columnMappings;
   private final int maxClobSize;
   private final int maxBlobSize;
@@ -75,9 +87,14 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private final Properties driverProperties = new Properties();
 
   private LoadingCache<String, Map<String, Field>> cache;
+  private LoadingCache<Object, Map<String, Field>> keyCache;
 
   public JdbcLookupProcessor(
       String query,
+      LookupMode mode,
+      String keyExpr,
+      String keyColumn,
+      int maxKeysPerQuery,
       List<JdbcFieldColumnMapping> columnMappings,
       int maxClobSize,
       int maxBlobSize,
@@ -85,6 +102,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       CacheConfig cacheConfig
   ) {
     this.query = query;
+    this.mode = mode;
+    this.keyExpr = keyExpr;
+    this.keyColumn = keyColumn;
+    this.maxKeysPerQuery = maxKeysPerQuery;
     this.columnMappings = columnMappings;
     this.maxClobSize = maxClobSize;
     this.maxBlobSize = maxBlobSize;
@@ -103,6 +124,15 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     Processor.Context context = getContext();
 
     queryEval = getContext().createELEval("query");
+    if (mode == LookupMode.BATCH) {
+      keyExprEval = getContext().createELEval("keyExpr");
+      // a single query serves the records of many keys, it cannot depend on the record
+      if (query.contains("${")) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), "query", JdbcErrors.JDBC_73, query));
+      } else if (!JdbcBatchLookupLoader.isValidQuery(query)) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), "query", JdbcErrors.JDBC_70, query));
+      }
+    }
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
@@ -120,7 +150,24 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
 
     if (issues.isEmpty()) {
-      cache = buildCache();
+      if (mode == LookupMode.BATCH) {
+        keyCache = buildCache(new JdbcBatchLookupLoader(dataSource,
+            query,
+            keyColumn,
+            maxKeysPerQuery,
+            columnsToFields,
+            maxClobSize,
+            maxBlobSize,
+            errorRecordHandler
+        ));
+      } else {
+        cache = buildCache(new JdbcLookupLoader(dataSource,
+            columnsToFields,
+            maxClobSize,
+            maxBlobSize,
+            errorRecordHandler
+        ));
+      }
     }
     // If issues is not empty, the UI will inform the user of each configuration issue in the list.
     return issues;
@@ -133,6 +180,76 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     super.destroy();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
+    if (mode == LookupMode.BATCH) {
+      doBatchLookup(batch, batchMaker);
+    } else {
+      super.process(batch, batchMaker);
+    }
+  }
+
+  private void doBatchLookup(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
+    List<Record> records = new ArrayList<>();
+    List<Object> recordKeys = new ArrayList<>();
+    Set<Object> keys = new LinkedHashSet<>();
+    Iterator<Record> it = batch.getRecords();
+    while (it.hasNext()) {
+      Record record = it.next();
+      try {
+        ELVars elVars = getContext().createELVars();
+        RecordEL.setRecordInContext(elVars, record);
+        Object key = keyExprEval.eval(elVars, keyExpr, Object.class);
+        records.add(record);
+        recordKeys.add(key);
+        if (key != null) {
+          keys.add(key);
+        }
+      } catch (ELEvalException e) {
+        LOG.error(JdbcErrors.JDBC_01.getMessage(), keyExpr, e);
+        errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_01, keyExpr));
+      }
+    }
+    if (records.isEmpty()) {
+      return;
+    }
+
+    Map<Object, Map<String, Field>> values = new HashMap<>();
+    try {
+      // only the keys missing from the cache are loaded, with as few queries as possible
+      if (!keys.isEmpty()) {
+        values = keyCache.getAll(keys);
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof OnRecordErrorException) {
+        // the lookup failed for all the keys, send the whole batch to error
+        OnRecordErrorException error = (OnRecordErrorException) e.getCause();
+        for (Record record : records) {
+          errorRecordHandler.onError(new OnRecordErrorException(record, error.getErrorCode(), error.getParams()));
+        }
+        return;
+      }
+      Throwables.propagateIfPossible(e.getCause(), StageException.class);
+      throw new IllegalStateException(e); // The cache loader shouldn't throw anything that isn't a StageException.
+    }
+
+    for (int i = 0; i < records.size(); i++) {
+      Record record = records.get(i);
+      Map<String, Field> recordValues = values.get(recordKeys.get(i));
+      if (recordValues == null || recordValues.isEmpty()) {
+        // No results, as in per record mode the error is reported and the record still goes on
+        LOG.error(JdbcErrors.JDBC_69.getMessage(), recordKeys.get(i), query);
+        errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_69, recordKeys.get(i), query));
+      } else {
+        for (Map.Entry<String, Field> entry : recordValues.entrySet()) {
+          record.set(entry.getKey(), entry.getValue());
+        }
+      }
+      batchMaker.addRecord(record);
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
@@ -162,15 +279,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   }
 
   @SuppressWarnings("unchecked")
-  private LoadingCache<String, Map<String, Field>> buildCache() {
+  private <K> LoadingCache<K, Map<String, Field>> buildCache(CacheLoader<K, Map<String, Field>> loader) {
     CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
     if (!cacheConfig.enabled) {
-      return cacheBuilder.maximumSize(0).build(new JdbcLookupLoader(dataSource,
-          columnsToFields,
-          maxClobSize,
-          maxBlobSize,
-          errorRecordHandler
-      ));
+      return cacheBuilder.maximumSize(0).build(loader);
     }
 
     if (cacheConfig.maxSize == -1) {
@@ -188,11 +300,6 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
           cacheConfig.evictionPolicyType
       ));
     }
-    return cacheBuilder.build(new JdbcLookupLoader(dataSource,
-        columnsToFields,
-        maxClobSize,
-        maxBlobSize,
-        errorRecordHandler
-    ));
+    return cacheBuilder.build(loader);
   }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import com.streamsets.pipeline.api.Config;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +44,12 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
     switch (fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -58,4 +65,11 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
     configs.add(new Config(p.join(CACHE_CONFIG, "expirationTime"), 1));
     configs.add(new Config(p.join(CACHE_CONFIG, "timeUnit"), TimeUnit.SECONDS));
   }
+
+  private static void upgradeV2ToV3(List<Config> configs) {
+    configs.add(new Config("mode", LookupMode.RECORD));
+    configs.add(new Config("keyExpr", ""));
+    configs.add(new Config("keyColumn", ""));
+    configs.add(new Config("maxKeysPerQuery", 100));
+  }
 }
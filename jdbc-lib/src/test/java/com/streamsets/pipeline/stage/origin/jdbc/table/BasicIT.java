@@ -34,10 +34,12 @@ import org.junit.Test;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 public class BasicIT extends BaseTableJdbcSourceIT {
@@ -409,4 +411,107 @@ public class BasicIT extends BaseTableJdbcSourceIT {
       runner.runDestroy();
     }
   }
+
+  private static TableJdbcSource createMultithreadedStarsSource() {
+    TableConfigBean tableConfigBean = new TableConfigBean();
+    tableConfigBean.tablePattern = "%_STARS";
+    tableConfigBean.schema = database;
+
+    TableJdbcConfigBean tableJdbcConfigBean = TestTableJdbcSource.createTableJdbcConfigBean(
+        ImmutableList.of(tableConfigBean),
+        false,
+        -1,
+        TableOrderStrategy.NONE
+    );
+    tableJdbcConfigBean.numberOfThreads = 3;
+
+    return new TableJdbcSource(
+        TestTableJdbcSource.createHikariPoolConfigBean(JDBC_URL, USER_NAME, PASSWORD),
+        TestTableJdbcSource.createCommonSourceConfigBean(1, 1000, 1000, 1000),
+        tableJdbcConfigBean
+    );
+  }
+
+  // the reader threads interleave the tables, so records are identified by their names
+  private static String produceUntil(
+      SourceRunner runner,
+      String offset,
+      int maxBatchSize,
+      int expectedRecords,
+      List<String> readRecords
+  ) throws Exception {
+    int read = 0;
+    for (int i = 0; i < 20 && read < expectedRecords; i++) {
+      StageRunner.Output output = runner.runProduce(offset, Math.min(maxBatchSize, expectedRecords - read));
+      for (Record record : output.getRecords().get("a")) {
+        readRecords.add(
+            record.get("/first_name").getValueAsString() + " " + record.get("/last_name").getValueAsString()
+        );
+        read++;
+      }
+      offset = output.getNewOffset();
+    }
+    Assert.assertEquals(expectedRecords, read);
+    return offset;
+  }
+
+  private static Set<String> getExpectedStars() {
+    Set<String> expected = new HashSet<>();
+    for (Record record : EXPECTED_CRICKET_STARS_RECORDS) {
+      expected.add(record.get("/first_name").getValueAsString() + " " + record.get("/last_name").getValueAsString());
+    }
+    for (Record record : EXPECTED_TENNIS_STARS_RECORDS) {
+      expected.add(record.get("/first_name").getValueAsString() + " " + record.get("/last_name").getValueAsString());
+    }
+    return expected;
+  }
+
+  @Test
+  public void testMultipleTablesMultipleThreads() throws Exception {
+    SourceRunner runner = new SourceRunner.Builder(TableJdbcDSource.class, createMultithreadedStarsSource())
+        .addOutputLane("a").build();
+    runner.runInit();
+    try {
+      List<String> readRecords = new ArrayList<>();
+      String offset = produceUntil(runner, "", 5, 25, readRecords);
+
+      //every row is read exactly once
+      Assert.assertEquals(25, readRecords.size());
+      Assert.assertEquals(getExpectedStars(), new HashSet<>(readRecords));
+
+      Assert.assertEquals(0, runner.runProduce(offset, 1000).getRecords().get("a").size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testMultipleThreadsResumeFromOffset() throws Exception {
+    List<String> readRecords = new ArrayList<>();
+
+    SourceRunner runner = new SourceRunner.Builder(TableJdbcDSource.class, createMultithreadedStarsSource())
+        .addOutputLane("a").build();
+    runner.runInit();
+    String offset;
+    try {
+      offset = produceUntil(runner, "", 5, 10, readRecords);
+    } finally {
+      runner.runDestroy();
+    }
+
+    //the records read by the threads but not given to the pipeline are read again after the restart
+    runner = new SourceRunner.Builder(TableJdbcDSource.class, createMultithreadedStarsSource())
+        .addOutputLane("a").build();
+    runner.runInit();
+    try {
+      offset = produceUntil(runner, offset, 5, 15, readRecords);
+
+      Assert.assertEquals(25, readRecords.size());
+      Assert.assertEquals(getExpectedStars(), new HashSet<>(readRecords));
+
+      Assert.assertEquals(0, runner.runProduce(offset, 1000).getRecords().get("a").size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
 }
@@ -103,4 +103,35 @@ public class TestTableJdbcSource {
     );
     testWrongConfiguration(tableJdbcSource, false);
   }
+
+  @Test
+  public void testNumberOfThreadsGreaterThanPoolSize() throws Exception {
+    TableConfigBean tableConfigBean = new TableConfigBean();
+    tableConfigBean.tablePattern = "testTable";
+
+    TableJdbcConfigBean tableJdbcConfigBean =
+        createTableJdbcConfigBean(ImmutableList.of(tableConfigBean), false, -1, TableOrderStrategy.NONE);
+    tableJdbcConfigBean.numberOfThreads = 2;
+
+    TableJdbcSource tableJdbcSource = new TableJdbcSource(
+        createHikariPoolConfigBean("jdbc:h2:mem:database", "sa", "test"),
+        createCommonSourceConfigBean(1000, 1000, 1000, 1000),
+        tableJdbcConfigBean
+    );
+    testWrongConfiguration(tableJdbcSource, true);
+  }
+
+  @Test
+  public void testRangePartitionsWithSingleThread() throws Exception {
+    TableConfigBean tableConfigBean = new TableConfigBean();
+    tableConfigBean.tablePattern = "testTable";
+    tableConfigBean.numberOfRangePartitions = 4;
+
+    TableJdbcSource tableJdbcSource = new TableJdbcSource(
+        createHikariPoolConfigBean("jdbc:h2:mem:database", "sa", "test"),
+        createCommonSourceConfigBean(1000, 1000, 1000, 1000),
+        createTableJdbcConfigBean(ImmutableList.of(tableConfigBean), false, -1, TableOrderStrategy.NONE)
+    );
+    testWrongConfiguration(tableJdbcSource, true);
+  }
 }
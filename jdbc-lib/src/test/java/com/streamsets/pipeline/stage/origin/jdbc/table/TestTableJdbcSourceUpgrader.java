@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.StageException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestTableJdbcSourceUpgrader {
+
+  @Test
+  public void testUpgradeV1toV2() throws StageException {
+    List<Config> configs = generateV1Configs();
+
+    TableJdbcSourceUpgrader upgrader = new TableJdbcSourceUpgrader();
+    upgrader.upgrade("a", "b", "c", 1, 2, configs);
+
+    Map<String, Object> configValues = getConfigValues(configs);
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals(
+        TableJdbcConfigBean.DEFAULT_NUMBER_OF_THREADS,
+        configValues.get(TableJdbcConfigBean.NUMBER_OF_THREADS)
+    );
+    for (Map<String, Object> tableConfig : getTableConfigs(configValues)) {
+      Assert.assertFalse(tableConfig.containsKey("numberOfRangePartitions"));
+    }
+  }
+
+  @Test
+  public void testUpgradeV1toV3() throws StageException {
+    List<Config> configs = generateV1Configs();
+
+    TableJdbcSourceUpgrader upgrader = new TableJdbcSourceUpgrader();
+    upgrader.upgrade("a", "b", "c", 1, 3, configs);
+
+    Map<String, Object> configValues = getConfigValues(configs);
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals(
+        TableJdbcConfigBean.DEFAULT_NUMBER_OF_THREADS,
+        configValues.get(TableJdbcConfigBean.NUMBER_OF_THREADS)
+    );
+    List<Map<String, Object>> tableConfigs = getTableConfigs(configValues);
+    Assert.assertEquals(2, tableConfigs.size());
+    for (Map<String, Object> tableConfig : tableConfigs) {
+      Assert.assertEquals(TableConfigBean.DEFAULT_NUMBER_OF_RANGE_PARTITIONS, tableConfig.get("numberOfRangePartitions"));
+    }
+  }
+
+  @Test
+  public void testUpgradeV2toV3() throws StageException {
+    List<Config> configs = generateV1Configs();
+    configs.add(new Config(TableJdbcConfigBean.NUMBER_OF_THREADS, 4));
+
+    TableJdbcSourceUpgrader upgrader = new TableJdbcSourceUpgrader();
+    upgrader.upgrade("a", "b", "c", 2, 3, configs);
+
+    Map<String, Object> configValues = getConfigValues(configs);
+    Assert.assertEquals(3, configs.size());
+    Assert.assertEquals(4, configValues.get(TableJdbcConfigBean.NUMBER_OF_THREADS));
+    List<Map<String, Object>> tableConfigs = getTableConfigs(configValues);
+    Assert.assertEquals(2, tableConfigs.size());
+    for (Map<String, Object> tableConfig : tableConfigs) {
+      Assert.assertEquals(TableConfigBean.DEFAULT_NUMBER_OF_RANGE_PARTITIONS, tableConfig.get("numberOfRangePartitions"));
+    }
+  }
+
+  private List<Config> generateV1Configs() {
+    List<Config> configs = new ArrayList<>();
+    List<Map<String, Object>> tableConfigs = new ArrayList<>();
+    for (String tablePattern : new String[] {"TABLE1", "TABLE%"}) {
+      Map<String, Object> tableConfig = new HashMap<>();
+      tableConfig.put("schema", "TEST");
+      tableConfig.put("tablePattern", tablePattern);
+      tableConfigs.add(tableConfig);
+    }
+    configs.add(new Config(TableJdbcConfigBean.TABLE_CONFIG, tableConfigs));
+    configs.add(new Config("tableJdbcConfigBean.fetchSize", 1000));
+    return configs;
+  }
+
+  private Map<String, Object> getConfigValues(List<Config> configs) {
+    Map<String, Object> configValues = new HashMap<>();
+    for (Config config : configs) {
+      configValues.put(config.getName(), config.getValue());
+    }
+    return configValues;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> getTableConfigs(Map<String, Object> configValues) {
+    return (List<Map<String, Object>>) configValues.get(TableJdbcConfigBean.TABLE_CONFIG);
+  }
+}
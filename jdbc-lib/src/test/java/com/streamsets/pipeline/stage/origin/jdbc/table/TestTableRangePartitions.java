@@ -0,0 +1,184 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.stage.origin.jdbc.table.util.OffsetQueryUtil;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class TestTableRangePartitions {
+  private static final String USER_NAME = "sa";
+  private static final String PASSWORD = "sa";
+  private static final String database = "RANGES";
+  private static final String JDBC_URL = "jdbc:h2:mem:" + database;
+
+  private static Connection connection;
+
+  @BeforeClass
+  public static void setup() throws SQLException {
+    connection = DriverManager.getConnection(JDBC_URL, USER_NAME, PASSWORD);
+    try (Statement s = connection.createStatement()) {
+      s.addBatch("CREATE SCHEMA IF NOT EXISTS RANGES;");
+      s.addBatch("CREATE TABLE IF NOT EXISTS RANGES.NUMBERS (p_id INT NOT NULL PRIMARY KEY);");
+      s.addBatch("CREATE TABLE IF NOT EXISTS RANGES.EMPTY (p_id INT NOT NULL PRIMARY KEY);");
+      s.addBatch("CREATE TABLE IF NOT EXISTS RANGES.NAMES (name VARCHAR(20) NOT NULL PRIMARY KEY);");
+      for (int i = 1; i <= 100; i++) {
+        s.addBatch("INSERT INTO RANGES.NUMBERS VALUES (" + i + ");");
+      }
+      s.executeBatch();
+    }
+  }
+
+  @AfterClass
+  public static void tearDown() throws SQLException {
+    try (Statement s = connection.createStatement()) {
+      s.addBatch("DROP TABLE IF EXISTS RANGES.NUMBERS;");
+      s.addBatch("DROP TABLE IF EXISTS RANGES.EMPTY;");
+      s.addBatch("DROP TABLE IF EXISTS RANGES.NAMES;");
+      s.addBatch("DROP SCHEMA IF EXISTS RANGES;");
+      s.executeBatch();
+    }
+    connection.close();
+  }
+
+  private static TableContext getTableContext(String tablePattern, int numberOfRangePartitions) throws Exception {
+    TableConfigBean tableConfigBean = new TableConfigBean();
+    tableConfigBean.schema = database;
+    tableConfigBean.tablePattern = tablePattern;
+    tableConfigBean.numberOfRangePartitions = numberOfRangePartitions;
+    Map<String, TableContext> tableContexts = TableContextUtil.listTablesForConfig(connection, tableConfigBean);
+    Assert.assertEquals(1, tableContexts.size());
+    return tableContexts.values().iterator().next();
+  }
+
+  private static List<String> getOffsetKeys(List<TableContext> partitions) {
+    List<String> offsetKeys = new ArrayList<>();
+    for (TableContext partition : partitions) {
+      offsetKeys.add(partition.getOffsetKey());
+    }
+    return offsetKeys;
+  }
+
+  @Test
+  public void testSplitInRanges() throws Exception {
+    TableContext tableContext = getTableContext("NUMBERS", 4);
+    Map<String, String> offsets = new HashMap<>();
+    List<TableContext> partitions = TableContextUtil.createRangePartitions(connection, tableContext, offsets);
+
+    List<String> expectedKeys = ImmutableList.of("NUMBERS#..25", "NUMBERS#25..50", "NUMBERS#50..75", "NUMBERS#75..");
+    Assert.assertEquals(expectedKeys, getOffsetKeys(partitions));
+    //The ranges are kept in the offsets before any record is read
+    Assert.assertEquals(4, offsets.size());
+    Assert.assertTrue(offsets.keySet().containsAll(expectedKeys));
+
+    String query = OffsetQueryUtil.buildQuery(partitions.get(1), null, null);
+    Assert.assertTrue(query, query.contains("P_ID >= 25") && query.contains("P_ID < 50"));
+    query = OffsetQueryUtil.buildQuery(partitions.get(3), "P_ID=80", null);
+    Assert.assertTrue(query, query.contains("P_ID > 80") && query.contains("P_ID >= 75") && !query.contains("<"));
+  }
+
+  @Test
+  public void testRangesResumedFromOffsets() throws Exception {
+    TableContext tableContext = getTableContext("NUMBERS", 4);
+    Map<String, String> offsets = new HashMap<>();
+    offsets.put("NUMBERS#..30", "P_ID=10");
+    offsets.put("NUMBERS#30..", null);
+    List<TableContext> partitions = TableContextUtil.createRangePartitions(connection, tableContext, offsets);
+    //No new ranges
+    Assert.assertEquals(
+        ImmutableSet.of("NUMBERS#..30", "NUMBERS#30.."),
+        new HashSet<>(getOffsetKeys(partitions))
+    );
+    Assert.assertEquals(2, offsets.size());
+    Assert.assertEquals("P_ID=10", offsets.get("NUMBERS#..30"));
+  }
+
+  @Test
+  public void testTableNotSplit() throws Exception {
+    //Already read without ranges
+    TableContext tableContext = getTableContext("NUMBERS", 4);
+    Map<String, String> offsets = new HashMap<>();
+    offsets.put("NUMBERS", "P_ID=10");
+    Assert.assertEquals(
+        ImmutableList.of("NUMBERS"),
+        getOffsetKeys(TableContextUtil.createRangePartitions(connection, tableContext, offsets))
+    );
+
+    //Empty
+    tableContext = getTableContext("EMPTY", 4);
+    offsets = new HashMap<>();
+    Assert.assertEquals(
+        ImmutableList.of("EMPTY"),
+        getOffsetKeys(TableContextUtil.createRangePartitions(connection, tableContext, offsets))
+    );
+    Assert.assertTrue(offsets.isEmpty());
+  }
+
+  @Test
+  public void testRangeOffsetsMergedWithoutRanges() throws Exception {
+    //Read in ranges before, now read as a whole
+    TableContext tableContext = getTableContext("NUMBERS", 1);
+    Map<String, String> offsets = new HashMap<>();
+    offsets.put("NUMBERS#..25", "P_ID=20");
+    offsets.put("NUMBERS#25..50", "P_ID=30");
+    offsets.put("NUMBERS#50..75", null);
+    offsets.put("NUMBERS#75..", "P_ID=100");
+    Assert.assertEquals(
+        ImmutableList.of("NUMBERS"),
+        getOffsetKeys(TableContextUtil.createRangePartitions(connection, tableContext, offsets))
+    );
+    //The lowest range offset, compared as numbers
+    Assert.assertEquals(ImmutableMap.of("NUMBERS", "P_ID=20"), offsets);
+
+    //The first range was not read yet
+    offsets = new HashMap<>();
+    offsets.put("NUMBERS#..25", null);
+    offsets.put("NUMBERS#25..", "P_ID=30");
+    TableContextUtil.mergeRangePartitionOffsets(tableContext, offsets);
+    Assert.assertTrue(offsets.isEmpty());
+  }
+
+  @Test
+  public void testUnsupportedPartitionColumn() throws Exception {
+    try {
+      getTableContext("NAMES", 2);
+      Assert.fail("Range partitions should not be allowed for a VARCHAR offset column");
+    } catch (StageException e) {
+      Assert.assertEquals(JdbcErrors.JDBC_72, e.getErrorCode());
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.table;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+public class TestTableReadScheduler {
+
+  /**
+   * Provider returning the tables in listing order, with the given preceding tables.
+   */
+  private static class ListingOrderProvider extends TableOrderProvider.BaseTableOrderProvider {
+    private final List<String> tables = new ArrayList<>();
+    private final Multimap<String, String> precedingTables;
+
+    ListingOrderProvider(Multimap<String, String> precedingTables) {
+      this.precedingTables = precedingTables;
+    }
+
+    @Override
+    Queue<String> calculateOrGetOrder() {
+      return new LinkedList<>(tables);
+    }
+
+    @Override
+    void addTable(String qualifiedTableName) {
+      tables.add(qualifiedTableName);
+    }
+
+    @Override
+    public Collection<String> getPrecedingTables(String qualifiedTableName) {
+      return precedingTables.get(qualifiedTableName);
+    }
+  }
+
+  private static TableContext createTableContext(String table) {
+    return new TableContext(
+        null,
+        table,
+        new LinkedHashMap<>(ImmutableMap.of("prim_key", Types.INTEGER)),
+        Collections.<String, String>emptyMap(),
+        null
+    );
+  }
+
+  private static TableReadScheduler createScheduler(
+      Multimap<String, String> precedingTables,
+      long queryIntervalMillis,
+      String... tables
+  ) throws Exception {
+    Map<String, TableContext> tableContexts = new LinkedHashMap<>();
+    for (String table : tables) {
+      tableContexts.put(TableContextUtil.getQualifiedTableName(null, table), createTableContext(table));
+    }
+    TableOrderProvider tableOrderProvider = new ListingOrderProvider(precedingTables);
+    tableOrderProvider.initialize(tableContexts);
+    return new TableReadScheduler(
+        tableOrderProvider,
+        Collections.<String, List<TableContext>>emptyMap(),
+        queryIntervalMillis
+    );
+  }
+
+  @Test
+  public void testTableNotHandedOutTwice() throws Exception {
+    TableReadScheduler scheduler = createScheduler(ImmutableMultimap.<String, String>of(), 0, "a", "b");
+
+    TableContext a = scheduler.next();
+    TableContext b = scheduler.next();
+    Assert.assertEquals("a", a.getTableName());
+    Assert.assertEquals("b", b.getTableName());
+
+    //Next round, b is still being read
+    scheduler.complete(a, 1);
+    Assert.assertEquals("a", scheduler.next().getTableName());
+    scheduler.complete(b, 1);
+    Assert.assertEquals("b", scheduler.next().getTableName());
+  }
+
+  @Test
+  public void testPrecedingTablesReadFirst() throws Exception {
+    // b and c refer a
+    TableReadScheduler scheduler = createScheduler(
+        ImmutableMultimap.of(
+            TableContextUtil.getQualifiedTableName(null, "b"), TableContextUtil.getQualifiedTableName(null, "a"),
+            TableContextUtil.getQualifiedTableName(null, "c"), TableContextUtil.getQualifiedTableName(null, "a")
+        ),
+        0,
+        "a", "b", "c", "d"
+    );
+
+    TableContext a = scheduler.next();
+    Assert.assertEquals("a", a.getTableName());
+    //b and c have to wait for a
+    TableContext d = scheduler.next();
+    Assert.assertEquals("d", d.getTableName());
+
+    scheduler.complete(a, 1);
+    List<String> tables = new ArrayList<>();
+    tables.add(scheduler.next().getTableName());
+    tables.add(scheduler.next().getTableName());
+    Assert.assertEquals(ImmutableList.of("b", "c"), tables);
+  }
+
+  @Test
+  public void testRangePartitionsReadConcurrently() throws Exception {
+    Map<String, TableContext> tableContexts = new LinkedHashMap<>();
+    TableContext a = createTableContext("a");
+    TableContext b = createTableContext("b");
+    tableContexts.put("a", a);
+    tableContexts.put("b", b);
+    TableOrderProvider tableOrderProvider = new ListingOrderProvider(ImmutableMultimap.of("b", "a"));
+    tableOrderProvider.initialize(tableContexts);
+    TableReadScheduler scheduler = new TableReadScheduler(
+        tableOrderProvider,
+        ImmutableMap.<String, List<TableContext>>of(
+            "a",
+            ImmutableList.of(a.createRangePartition(null, "10"), a.createRangePartition("10", null))
+        ),
+        0
+    );
+
+    TableContext first = scheduler.next();
+    TableContext second = scheduler.next();
+    Assert.assertEquals("a#..10", first.getOffsetKey());
+    Assert.assertEquals("a#10..", second.getOffsetKey());
+
+    //b waits for all the ranges of a
+    scheduler.complete(first, 1);
+    scheduler.complete(second, 1);
+    Assert.assertEquals("b", scheduler.next().getOffsetKey());
+    Assert.assertEquals("a#..10", scheduler.next().getOffsetKey());
+  }
+
+  @Test(timeout = 10000)
+  public void testQueryIntervalForEmptyTable() throws Exception {
+    TableReadScheduler scheduler = createScheduler(ImmutableMultimap.<String, String>of(), 500, "a");
+
+    TableContext a = scheduler.next();
+    long completionTime = System.currentTimeMillis();
+    scheduler.complete(a, 0);
+    a = scheduler.next();
+    Assert.assertTrue(System.currentTimeMillis() - completionTime >= 500);
+
+    //A table with records is read again right away
+    scheduler.complete(a, 1);
+    Assert.assertEquals("a", scheduler.next().getTableName());
+  }
+
+  @Test(timeout = 10000)
+  public void testStop() throws Exception {
+    final TableReadScheduler scheduler = createScheduler(ImmutableMultimap.<String, String>of(), 0, "a");
+    scheduler.next();
+
+    final List<TableContext> result = new ArrayList<>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          result.add(scheduler.next());
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    thread.start();
+    scheduler.stop();
+    thread.join();
+    Assert.assertEquals(1, result.size());
+    Assert.assertNull(result.get(0));
+  }
+}
@@ -20,7 +20,9 @@
 package com.streamsets.pipeline.stage.processor.jdbclookup;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -30,6 +32,7 @@ import com.streamsets.pipeline.lib.jdbc.JdbcFieldColumnMapping;
 import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -46,6 +49,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("Duplicates")
 public class TestJdbcLookup {
@@ -369,4 +374,144 @@ public class TestJdbcLookup {
       throw t;
     }
   }
+
+  private Record createLastNameRecord(String lastName) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    fields.put("last_name", Field.create(lastName));
+    record.set(Field.createListMap(fields));
+    return record;
+  }
+
+  private ProcessorRunner createBatchLookupRunner(String query) {
+    return createBatchLookupRunner(
+        query,
+        "${record:value('/last_name')}",
+        "LAST_NAME",
+        ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"))
+    );
+  }
+
+  private ProcessorRunner createBatchLookupRunner(
+      String query,
+      String keyExpr,
+      String keyColumn,
+      List<JdbcFieldColumnMapping> columnMappings
+  ) {
+    JdbcLookupDProcessor processor = new JdbcLookupDProcessor();
+    processor.hikariConfigBean = createConfigBean(h2ConnectionString, username, password);
+
+    return new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", query)
+        .addConfiguration("mode", LookupMode.BATCH)
+        .addConfiguration("keyExpr", keyExpr)
+        .addConfiguration("keyColumn", keyColumn)
+        .addConfiguration("maxKeysPerQuery", 2)
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addOutputLane("lane")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+  }
+
+  @Test
+  public void testBatchLookup() throws Exception {
+    ProcessorRunner processorRunner = createBatchLookupRunner(
+        "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE WHERE LAST_NAME IN (?)"
+    );
+
+    List<Record> records = ImmutableList.of(
+        createLastNameRecord("Kunicki"),
+        createLastNameRecord("Natkins"),
+        createLastNameRecord("Kunicki"),
+        createLastNameRecord("Pancha"),
+        createLastNameRecord("Patterson")
+    );
+    processorRunner.runInit();
+    try {
+      List<Record> outputRecords = processorRunner.runProcess(records).getRecords().get("lane");
+
+      // as in per record mode the record without results goes on as well
+      assertEquals(5, outputRecords.size());
+      assertEquals(1, outputRecords.get(0).get("/p_id").getValueAsInteger());
+      assertEquals(2, outputRecords.get(1).get("/p_id").getValueAsInteger());
+      assertEquals(1, outputRecords.get(2).get("/p_id").getValueAsInteger());
+      assertEquals(4, outputRecords.get(3).get("/p_id").getValueAsInteger());
+      assertFalse(outputRecords.get(4).has("/p_id"));
+
+      List<Record> errorRecords = processorRunner.getErrorRecords();
+      assertEquals(1, errorRecords.size());
+      assertEquals("Patterson", errorRecords.get(0).get("/last_name").getValueAsString());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupInvalidQuery() throws Exception {
+    ProcessorRunner processorRunner = createBatchLookupRunner(
+        "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE WHERE LAST_NAME = '${record:value(\"/last_name\")}'"
+    );
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+  }
+
+  @Test
+  public void testBatchLookupQueryWithExpression() throws Exception {
+    ProcessorRunner processorRunner = createBatchLookupRunner(
+        "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE WHERE LAST_NAME IN (?) " +
+            "AND FIRST_NAME = '${record:value(\"/first_name\")}'"
+    );
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+  }
+
+  @Test
+  public void testBatchLookupNumericKeys() throws Exception {
+    ProcessorRunner processorRunner = createBatchLookupRunner(
+        "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE WHERE P_ID IN (?)",
+        "${record:value('/p_id')}",
+        "P_ID",
+        ImmutableList.of(new JdbcFieldColumnMapping("LAST_NAME", "/last_name"))
+    );
+
+    Record record1 = RecordCreator.create();
+    record1.set(Field.create(ImmutableMap.of("p_id", Field.create(1.0d))));
+    Record record2 = RecordCreator.create();
+    record2.set(Field.create(ImmutableMap.of("p_id", Field.create(2L))));
+
+    processorRunner.runInit();
+    try {
+      // the INT key column matches keys of other numeric types with the same value
+      List<Record> outputRecords = processorRunner.runProcess(ImmutableList.of(record1, record2))
+          .getRecords().get("lane");
+      assertEquals(2, outputRecords.size());
+      assertEquals("Kunicki", outputRecords.get(0).get("/last_name").getValueAsString());
+      assertEquals("Natkins", outputRecords.get(1).get("/last_name").getValueAsString());
+      assertTrue(processorRunner.getErrorRecords().isEmpty());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupQueryError() throws Exception {
+    ProcessorRunner processorRunner = createBatchLookupRunner(
+        "SELECT P_ID, LAST_NAME FROM TEST.NO_SUCH_TABLE WHERE LAST_NAME IN (?)"
+    );
+
+    List<Record> records = ImmutableList.of(createLastNameRecord("Kunicki"), createLastNameRecord("Natkins"));
+    processorRunner.runInit();
+    try {
+      List<Record> outputRecords = processorRunner.runProcess(records).getRecords().get("lane");
+      assertEquals(0, outputRecords.size());
+      assertEquals(2, processorRunner.getErrorRecords().size());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
 }
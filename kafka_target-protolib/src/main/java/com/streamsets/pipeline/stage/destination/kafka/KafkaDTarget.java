@@ -19,6 +19,7 @@
  */
 package com.streamsets.pipeline.stage.destination.kafka;
 
+import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
 import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.GenerateResourceBundle;
@@ -28,7 +29,7 @@ import com.streamsets.pipeline.configurablestage.DTarget;
 import com.streamsets.pipeline.kafka.api.KafkaDestinationGroups;
 
 @StageDef(
-  version = 3,
+  version = 4,
   label = "Kafka Producer",
   description = "Writes data to Kafka",
   icon = "kafka.png",
@@ -42,8 +43,21 @@ public class KafkaDTarget extends DTarget {
   @ConfigDefBean()
   public KafkaTargetConfig conf;
 
+  @ConfigDef(
+    required = true,
+    type = ConfigDef.Type.NUMBER,
+    defaultValue = "1",
+    label = "Serialization Threads",
+    description = "Number of threads serializing the records of a batch into messages when writing one message per " +
+        "record. Use more than one thread for large batches of costly data formats",
+    displayPosition = 55,
+    group = "KAFKA",
+    min = 1
+  )
+  public int serializationThreads = 1;
+
   @Override
   protected Target createTarget() {
-    return new KafkaTarget(conf);
+    return new KafkaTarget(conf, serializationThreads);
   }
 }
@@ -19,6 +19,7 @@
  */
 package com.streamsets.pipeline.stage.destination.kafka;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
@@ -26,6 +27,7 @@ import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -33,26 +35,43 @@ import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class KafkaTarget extends BaseTarget {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaTarget.class);
 
+  // smaller batches are serialized on the pipeline thread
+  private static final int MIN_RECORDS_PER_SERIALIZATION_TASK = 64;
+
   private final KafkaTargetConfig conf;
+  private final int serializationThreads;
+  private final List<RecordEncoder> workerEncoders;
 
   private long recordCounter = 0;
   private SdcKafkaProducer kafkaProducer;
   private ErrorRecordHandler errorRecordHandler;
+  private RecordEncoder recordEncoder;
+  private ExecutorService serializationExecutor;
 
   public KafkaTarget(KafkaTargetConfig conf) {
+    this(conf, 1);
+  }
+
+  public KafkaTarget(KafkaTargetConfig conf, int serializationThreads) {
     this.conf = conf;
+    this.serializationThreads = serializationThreads;
+    workerEncoders = new ArrayList<>();
   }
 
   @Override
@@ -61,6 +80,20 @@ public class KafkaTarget extends BaseTarget {
     conf.init(getContext(), issues);
     kafkaProducer = conf.getKafkaProducer();
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
+    if (issues.isEmpty()) {
+      DataGeneratorFactory generatorFactory = conf.dataGeneratorFormatConfig.getDataGeneratorFactory();
+      boolean reuseGenerator = RecordEncoder.canReuseGenerator(conf.dataFormat, conf.dataGeneratorFormatConfig);
+      recordEncoder = new RecordEncoder(generatorFactory, reuseGenerator);
+      if (serializationThreads > 1 && !conf.singleMessagePerBatch) {
+        for (int i = 0; i < serializationThreads; i++) {
+          workerEncoders.add(new RecordEncoder(generatorFactory, reuseGenerator));
+        }
+        serializationExecutor = Executors.newFixedThreadPool(
+            serializationThreads,
+            new ThreadFactoryBuilder().setNameFormat("KafkaTarget-serializer-%d").setDaemon(true).build()
+        );
+      }
+    }
     return issues;
   }
 
@@ -125,19 +158,16 @@ public class KafkaTarget extends BaseTarget {
           for (Map.Entry<Object, List<Record>> entry : perPartition.entrySet()) {
             Object partition = entry.getKey();
             List<Record> list = entry.getValue();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(1024 * list.size());
             Record currentRecord = null;
             try {
-              DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory()
-                .getGenerator(baos);
+              DataGenerator generator = recordEncoder.startMessage();
               for (Record record : list) {
                 currentRecord = record;
                 generator.write(record);
                 count++;
               }
               currentRecord = null;
-              generator.close();
-              byte[] bytes = baos.toByteArray();
+              byte[] bytes = recordEncoder.finishMessage(generator);
               kafkaProducer.enqueueMessage(entryTopic, bytes, partition);
             } catch (StageException ex) {
               errorRecordHandler.onError(
@@ -197,14 +227,16 @@ public class KafkaTarget extends BaseTarget {
     long count = 0;
     Iterator<Record> records = batch.getRecords();
     List<Record> recordList = new ArrayList<>();
+    List<String> topics = new ArrayList<>();
+    List<Object> partitionKeys = new ArrayList<>();
     while (records.hasNext()) {
       Record record = records.next();
-      recordList.add(record);
       try {
         String topic = conf.getTopic(record);
         Object partitionKey = conf.getPartitionKey(record, topic);
-        kafkaProducer.enqueueMessage(topic, serializeRecord(record), partitionKey);
-        count++;
+        recordList.add(record);
+        topics.add(topic);
+        partitionKeys.add(partitionKey);
       } catch (KafkaConnectionException ex) {
         // Kafka connection exception is thrown when the client cannot connect to the list of brokers
         // even after retrying with backoff as specified in the retry and backoff config options
@@ -218,7 +250,26 @@ public class KafkaTarget extends BaseTarget {
                 ex.getParams()
             )
         );
-      } catch (IOException ex) {
+      }
+    }
+
+    // messages are enqueued in record order, the producer reports failures by message index
+    List<Record> enqueuedRecords = new ArrayList<>(recordList.size());
+    Object[] messages = serializeRecords(recordList);
+    for (int i = 0; i < recordList.size(); i++) {
+      Record record = recordList.get(i);
+      Object message = messages[i];
+      if (message instanceof StageException) {
+        StageException ex = (StageException) message;
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                record,
+                ex.getErrorCode(),
+                ex.getParams()
+            )
+        );
+      } else if (message instanceof IOException) {
+        IOException ex = (IOException) message;
         errorRecordHandler.onError(
             new OnRecordErrorException(
                 record,
@@ -228,6 +279,10 @@ public class KafkaTarget extends BaseTarget {
                 ex
             )
         );
+      } else {
+        kafkaProducer.enqueueMessage(topics.get(i), message, partitionKeys.get(i));
+        enqueuedRecords.add(record);
+        count++;
       }
     }
     try {
@@ -237,7 +292,7 @@ public class KafkaTarget extends BaseTarget {
         List<Integer> failedRecordIndices = (List<Integer>) ex.getParams()[0];
         List<Exception> failedRecordExceptions = (List<Exception>) ex.getParams()[1];
         for (int i = 0; i < failedRecordIndices.size(); i++) {
-          Record record = recordList.get(failedRecordIndices.get(i));
+          Record record = enqueuedRecords.get(failedRecordIndices.get(i));
           Exception error = failedRecordExceptions.get(i);
           errorRecordHandler.onError(
               new OnRecordErrorException(
@@ -257,17 +312,93 @@ public class KafkaTarget extends BaseTarget {
     LOG.debug("Wrote {} records in this batch.", count);
   }
 
-  private Object serializeRecord(Record record) throws StageException, IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-    DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-    generator.write(record);
-    generator.close();
-    return baos.toByteArray();
+  /**
+   * Serializes the records, on the serialization threads if configured and the batch is large enough.
+   * @return for each record its message, or the StageException or IOException raised serializing it.
+   */
+  private Object[] serializeRecords(List<Record> recordList) throws StageException {
+    Object[] messages = new Object[recordList.size()];
+    if (serializationExecutor == null || recordList.size() < MIN_RECORDS_PER_SERIALIZATION_TASK * 2) {
+      serializeRecords(recordEncoder, recordList, messages, 0, recordList.size());
+    } else {
+      int tasks = Math.min(workerEncoders.size(), recordList.size() / MIN_RECORDS_PER_SERIALIZATION_TASK);
+      int chunkSize = (recordList.size() + tasks - 1) / tasks;
+      List<Callable<Void>> callables = new ArrayList<>(tasks);
+      for (int i = 0; i < tasks; i++) {
+        callables.add(
+            new SerializeTask(
+                workerEncoders.get(i),
+                recordList,
+                messages,
+                i * chunkSize,
+                Math.min(recordList.size(), (i + 1) * chunkSize)
+            )
+        );
+      }
+      try {
+        for (Future<Void> future : serializationExecutor.invokeAll(callables)) {
+          future.get();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new StageException(KafkaErrors.KAFKA_74, ex.toString(), ex);
+      } catch (ExecutionException ex) {
+        throw new StageException(KafkaErrors.KAFKA_74, ex.getCause().toString(), ex.getCause());
+      }
+    }
+    return messages;
+  }
+
+  private static void serializeRecords(
+      RecordEncoder encoder,
+      List<Record> recordList,
+      Object[] messages,
+      int from,
+      int to
+  ) {
+    for (int i = from; i < to; i++) {
+      try {
+        messages[i] = encoder.encode(recordList.get(i));
+      } catch (StageException | IOException ex) {
+        messages[i] = ex;
+      }
+    }
+  }
+
+  private static class SerializeTask implements Callable<Void> {
+    private final RecordEncoder encoder;
+    private final List<Record> recordList;
+    private final Object[] messages;
+    private final int from;
+    private final int to;
+
+    SerializeTask(RecordEncoder encoder, List<Record> recordList, Object[] messages, int from, int to) {
+      this.encoder = encoder;
+      this.recordList = recordList;
+      this.messages = messages;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Void call() {
+      serializeRecords(encoder, recordList, messages, from, to);
+      return null;
+    }
   }
 
   @Override
   public void destroy() {
     LOG.info("Wrote {} number of records to Kafka Broker", recordCounter);
+    if (serializationExecutor != null) {
+      serializationExecutor.shutdownNow();
+    }
+    if (recordEncoder != null) {
+      recordEncoder.close();
+    }
+    for (RecordEncoder workerEncoder : workerEncoders) {
+      workerEncoder.close();
+    }
     conf.destroy();
   }
 }
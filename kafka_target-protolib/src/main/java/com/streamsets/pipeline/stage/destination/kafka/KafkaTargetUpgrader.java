@@ -50,6 +50,12 @@ public class KafkaTargetUpgrader implements StageUpgrader {
         // fall-through to next version
       case 2:
         upgradeV2ToV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall-through to next version
+      case 3:
+        upgradeV3ToV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -132,4 +138,8 @@ public class KafkaTargetUpgrader implements StageUpgrader {
 
     DataFormatUpgradeHelper.upgradeAvroGeneratorWithSchemaRegistrySupport(configs);
   }
+
+  private static void upgradeV3ToV4(List<Config> configs) {
+    configs.add(new Config("serializationThreads", 1));
+  }
 }
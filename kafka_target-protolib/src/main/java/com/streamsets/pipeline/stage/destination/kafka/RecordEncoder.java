@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.stage.destination.lib.DataGeneratorFormatConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Encodes records into Kafka message payloads reusing the same output buffer for all the messages.
+ * <p/>
+ * For the data formats where the output of a record does not depend on the records written before it by the same
+ * generator (no header, separator, container or byte order mark), a single data generator is kept
+ * and flushed after each record, instead of creating and closing a generator per record.
+ * <p/>
+ * The producers keep the payloads until the batch is flushed, so each message still gets its own byte array, a
+ * single copy of exactly the message size. An encoder is not thread safe.
+ */
+final class RecordEncoder implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(RecordEncoder.class);
+
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  // buffers grown above this size by a large message are released after the message
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+  private final DataGeneratorFactory generatorFactory;
+  private final boolean reuseGenerator;
+  private final MessageBuffer buffer;
+  private DataGenerator generator;
+
+  RecordEncoder(DataGeneratorFactory generatorFactory, boolean reuseGenerator) {
+    this.generatorFactory = generatorFactory;
+    this.reuseGenerator = reuseGenerator;
+    buffer = new MessageBuffer();
+  }
+
+  /**
+   * Returns true if a generator for the data format can write several messages, one record per message.
+   */
+  static boolean canReuseGenerator(DataFormat dataFormat, DataGeneratorFormatConfig config) {
+    switch (dataFormat) {
+      case BINARY:
+      case PROTOBUF:
+        return true;
+      case TEXT:
+        return hasNoByteOrderMark(config.charset);
+      case DELIMITED:
+        return config.csvHeader != CsvHeader.WITH_HEADER && hasNoByteOrderMark(config.charset);
+      default:
+        // JSON included, Jackson writes a separator before every root value after the first one
+        return false;
+    }
+  }
+
+  // Charsets like UTF-16 start each stream with a byte order mark, the encoding is then not additive
+  private static boolean hasNoByteOrderMark(String charsetName) {
+    try {
+      Charset charset = Charset.forName(charsetName);
+      return "aa".getBytes(charset).length == 2 * "a".getBytes(charset).length;
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Encodes a record as a message.
+   */
+  byte[] encode(Record record) throws IOException, StageException {
+    buffer.reset();
+    if (reuseGenerator) {
+      if (generator == null) {
+        generator = generatorFactory.getGenerator(buffer);
+      }
+      boolean written = false;
+      try {
+        generator.write(record);
+        generator.flush();
+        written = true;
+      } finally {
+        if (!written) {
+          // the generator may hold a partially written record, start the next message with a new one
+          discardGenerator();
+        }
+      }
+    } else {
+      try (DataGenerator recordGenerator = generatorFactory.getGenerator(buffer)) {
+        recordGenerator.write(record);
+      }
+    }
+    return buffer.toMessage();
+  }
+
+  /**
+   * Returns a generator for a message with several records, the message is returned by
+   * {@link #finishMessage(DataGenerator)}.
+   */
+  DataGenerator startMessage() throws IOException {
+    discardGenerator();
+    buffer.reset();
+    return generatorFactory.getGenerator(buffer);
+  }
+
+  /**
+   * Closes the generator returned by {@link #startMessage()} and returns the message.
+   */
+  byte[] finishMessage(DataGenerator messageGenerator) throws IOException {
+    messageGenerator.close();
+    return buffer.toMessage();
+  }
+
+  private void discardGenerator() {
+    if (generator != null) {
+      try {
+        generator.close();
+      } catch (IOException ex) {
+        LOG.debug("Error closing data generator: {}", ex.toString(), ex);
+      }
+      generator = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    discardGenerator();
+  }
+
+  private static class MessageBuffer extends ByteArrayOutputStream {
+
+    MessageBuffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    byte[] toMessage() {
+      byte[] message = toByteArray();
+      if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+        buf = new byte[INITIAL_BUFFER_SIZE];
+        count = 0;
+      }
+      return message;
+    }
+  }
+}
@@ -29,7 +29,7 @@ import com.streamsets.pipeline.api.Target;
 import com.streamsets.pipeline.config.DataFormat;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "Write to Kafka",
     description = "Writes Pipeline Statistic records to Kafka",
     onlineHelpRefUrl = "",
@@ -38,7 +38,7 @@ import com.streamsets.pipeline.config.DataFormat;
 @HideConfigs(
     preconditions = true,
     onErrorRecord = true,
-    value = {"conf.dataFormat", "conf.singleMessagePerBatch"}
+    value = {"conf.dataFormat", "conf.singleMessagePerBatch", "serializationThreads"}
 )
 @GenerateResourceBundle
 public class StatsKafkaDTarget extends KafkaDTarget {
@@ -28,7 +28,7 @@ import com.streamsets.pipeline.api.Target;
 import com.streamsets.pipeline.config.DataFormat;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "Write to Kafka",
     description = "Writes records to Kafka as SDC Records",
     onlineHelpRefUrl = "index.html#Pipeline_Configuration/ErrorHandling.html#concept_kgc_l4y_5r",
@@ -37,7 +37,8 @@ import com.streamsets.pipeline.config.DataFormat;
 @HideConfigs(preconditions = true, onErrorRecord = true, value = {
     "conf.dataFormat",
     "conf.keySerializer",
-    "conf.valueSerializer"
+    "conf.valueSerializer",
+    "serializationThreads"
 })
 @GenerateResourceBundle
 public class ToErrorKafkaDTarget extends KafkaDTarget {
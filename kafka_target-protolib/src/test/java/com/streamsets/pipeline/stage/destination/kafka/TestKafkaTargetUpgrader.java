@@ -142,6 +142,18 @@ public class TestKafkaTargetUpgrader {
     }
   }
 
+  @Test
+  public void testUpgradeV3toV4() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    KafkaTargetUpgrader kafkaTargetUpgrader = new KafkaTargetUpgrader();
+    kafkaTargetUpgrader.upgrade("a", "b", "c", 3, 4, configs);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("serializationThreads", configs.get(0).getName());
+    Assert.assertEquals(1, configs.get(0).getValue());
+  }
+
   private Map<String, String> generateV1ProducerConfigs() {
     Map<String, String> kafkaProducerConfig = new HashMap<>();
     kafkaProducerConfig.put("request.required.acks", "2");
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 StreamSets Inc.
+ *
+ * Licensed under the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.text.TextDataGeneratorFactory;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.destination.lib.DataGeneratorFormatConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class TestRecordEncoder {
+
+  private static DataGeneratorFactory createTextFactory() {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    return new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.TEXT)
+        .setConfig(TextDataGeneratorFactory.FIELD_PATH_KEY, "")
+        .build();
+  }
+
+  private static Record createRecord(String value) {
+    Record record = RecordCreator.create();
+    record.set(Field.create(value));
+    return record;
+  }
+
+  @Test
+  public void testReusedGeneratorEncodesEachRecordAlone() throws Exception {
+    DataGeneratorFactory factory = createTextFactory();
+    try (
+        RecordEncoder reusing = new RecordEncoder(factory, true);
+        RecordEncoder notReusing = new RecordEncoder(factory, false)
+    ) {
+      for (String value : new String[] {"a", "bb", "", "ccc"}) {
+        Record record = createRecord(value);
+        byte[] message = reusing.encode(record);
+        Assert.assertArrayEquals(notReusing.encode(record), message);
+        Assert.assertEquals(value + "\n", new String(message, StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testMessagesDoNotShareBuffer() throws Exception {
+    try (RecordEncoder encoder = new RecordEncoder(createTextFactory(), true)) {
+      byte[] first = encoder.encode(createRecord("first"));
+      byte[] second = encoder.encode(createRecord("second"));
+      Assert.assertEquals("first\n", new String(first, StandardCharsets.UTF_8));
+      Assert.assertEquals("second\n", new String(second, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testMultipleRecordMessage() throws Exception {
+    try (RecordEncoder encoder = new RecordEncoder(createTextFactory(), true)) {
+      encoder.encode(createRecord("before"));
+      DataGenerator generator = encoder.startMessage();
+      generator.write(createRecord("a"));
+      generator.write(createRecord("b"));
+      Assert.assertEquals("a\nb\n", new String(encoder.finishMessage(generator), StandardCharsets.UTF_8));
+      Assert.assertEquals("after\n", new String(encoder.encode(createRecord("after")), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testCanReuseGenerator() {
+    DataGeneratorFormatConfig config = new DataGeneratorFormatConfig();
+    config.charset = "UTF-8";
+    config.jsonMode = JsonMode.MULTIPLE_OBJECTS;
+    config.csvHeader = CsvHeader.NO_HEADER;
+    Assert.assertTrue(RecordEncoder.canReuseGenerator(DataFormat.TEXT, config));
+    Assert.assertTrue(RecordEncoder.canReuseGenerator(DataFormat.DELIMITED, config));
+    Assert.assertTrue(RecordEncoder.canReuseGenerator(DataFormat.BINARY, config));
+    Assert.assertFalse(RecordEncoder.canReuseGenerator(DataFormat.JSON, config));
+    Assert.assertFalse(RecordEncoder.canReuseGenerator(DataFormat.AVRO, config));
+    Assert.assertFalse(RecordEncoder.canReuseGenerator(DataFormat.SDC_JSON, config));
+
+    config.csvHeader = CsvHeader.WITH_HEADER;
+    Assert.assertFalse(RecordEncoder.canReuseGenerator(DataFormat.DELIMITED, config));
+
+    config.charset = "UTF-16";
+    Assert.assertFalse(RecordEncoder.canReuseGenerator(DataFormat.TEXT, config));
+  }
+
+}